@@ -1,6 +1,7 @@
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.google.services)
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
@@ -15,6 +16,13 @@ android {
         versionName = "1.4"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Room exports each schema version here (reviewed with migrations)
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildFeatures {
@@ -23,7 +31,9 @@ android {
 
     buildTypes {
         release {
-            isMinifyEnabled = false
+            // R8: shrinks / optimizes; hot paths ship AOT-compiled via the Baseline Profile
+            isMinifyEnabled = true
+            isShrinkResources = true
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
@@ -38,6 +48,22 @@ android {
     androidResources {
         noCompress += "mp3"
     }
+
+    // MigrationTestHelper reads the exported schemas from the test APK
+    sourceSets {
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
+    }
+
+    // JVM unit tests: android.util.Log and friends become no-ops
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
+}
+
+// Generated by :benchmark (BaselineProfileGenerator) into src/release/generated/baselineProfiles,
+// merged with the hand-written src/main/baseline-prof.txt
+baselineProfile {
+    dexLayoutOptimization = true
 }
 
 dependencies {
@@ -76,7 +102,13 @@ dependencies {
     
     implementation("org.tensorflow:tensorflow-lite:2.16.1")
     implementation("org.tensorflow:tensorflow-lite-support:0.4.4")
+
+    // Installs the Baseline Profile on sideloaded / OTA APKs (no Play Store)
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":benchmark"))
+
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(libs.room.testing)
 }
\ No newline at end of file
@@ -14,8 +14,16 @@
 
 # Uncomment this to preserve the line number information for
 # debugging stack traces.
-#-keepattributes SourceFile,LineNumberTable
+-keepattributes SourceFile,LineNumberTable
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+-renamesourcefileattribute SourceFile
+
+# ---- Agrovision ----
+# Line numbers above stay on: kiosk crash logs (LogUtils / watchdog) are read in the field.
+
+# TensorFlow Lite: interpreter / delegates are reached from JNI
+-keep class org.tensorflow.lite.** { *; }
+# tensorflow-lite-support references the GPU delegate, which is not shipped
+-dontwarn org.tensorflow.lite.gpu.**
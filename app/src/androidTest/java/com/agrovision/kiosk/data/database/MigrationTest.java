@@ -0,0 +1,97 @@
+package com.agrovision.kiosk.data.database;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.agrovision.kiosk.data.database.entity.MedicineWithDetails;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Upgrades the first shipped schema (4) to the current one through
+ * Migrations.ALL, validates it against the exported schemas, then
+ * opens it with Room (validated against the compiled entities).
+ *
+ * The catalog cache and the unsent unknown_detections queue must
+ * survive every step.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test.db";
+
+    @Rule
+    public final MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(),
+            AppDatabase.class
+    );
+
+    @Test
+    public void migrate4To10_keepsCatalogAndUnknownQueue() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 4);
+        db.execSQL("INSERT INTO `medicines` (`id`, `name`, `company`, `searchKeywords`, "
+                + "`barcodePrefixes`, `imageUrls`, `updatedAt`, `isRemote`) "
+                + "VALUES ('m1', 'Coragen', 'FMC', 'coragen|chlorantraniliprole', "
+                + "'890123|890124', 'https://example.com/a.jpg', 1000, 1)");
+        db.execSQL("INSERT INTO `unknown_detections` (`rawOcrText`, `localImagePath`, `timestamp`, `isSynced`) "
+                + "VALUES ('KRISHI 250 ML', '/data/crop.jpg', 2000, 0)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, 10, true, Migrations.ALL);
+
+        try (Cursor c = db.query("SELECT `name`, `updatedAt` FROM `medicines` WHERE `id` = 'm1'")) {
+            assertTrue(c.moveToFirst());
+            assertEquals("Coragen", c.getString(0));
+            assertEquals(1000L, c.getLong(1));
+        }
+        try (Cursor c = db.query("SELECT `keyword` FROM `medicine_keywords` "
+                + "WHERE `medicineId` = 'm1' ORDER BY `position`")) {
+            assertEquals(2, c.getCount());
+            c.moveToFirst();
+            assertEquals("coragen", c.getString(0));
+        }
+        try (Cursor c = db.query("SELECT COUNT(*) FROM `medicine_barcode_prefixes` WHERE `medicineId` = 'm1'")) {
+            c.moveToFirst();
+            assertEquals(2, c.getInt(0));
+        }
+        try (Cursor c = db.query("SELECT `kind`, `rawOcrText`, `localImagePath`, `isSynced`, `attempts` "
+                + "FROM `unknown_detections`")) {
+            assertTrue(c.moveToFirst());
+            assertEquals("detection", c.getString(0));
+            assertEquals("KRISHI 250 ML", c.getString(1));
+            assertEquals("/data/crop.jpg", c.getString(2));
+            assertEquals(0, c.getInt(3));
+            assertEquals(0, c.getInt(4));
+        }
+        db.close();
+
+        // Room's own open: checks the migrated tables against the compiled entities
+        AppDatabase room = Room.databaseBuilder(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        AppDatabase.class,
+                        TEST_DB)
+                .addMigrations(Migrations.ALL)
+                .build();
+        try {
+            MedicineWithDetails m1 = room.medicineDao().getById("m1");
+            assertNotNull(m1);
+            assertEquals(2, m1.keywords.size());
+            assertEquals(2, m1.barcodePrefixes.size());
+        } finally {
+            room.close();
+        }
+    }
+}
@@ -1,42 +1,96 @@
 package com.agrovision.kiosk.analytics;
 
 import android.content.Context;
-import android.graphics.Color;
+import android.os.Build;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
 import android.view.Gravity;
 import android.view.View;
 import android.widget.FrameLayout;
-import android.widget.TextView;
 
+import com.agrovision.kiosk.analytics.events.MvpEvent;
+import com.agrovision.kiosk.camera.DegradationController;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
 import com.agrovision.kiosk.state.AppState;
 import com.agrovision.kiosk.state.StateMachine;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
+import com.agrovision.kiosk.vision.recognition.ScanCropCache;
 
 /**
  * DebugOverlay
  *
  * PURPOSE:
- * - On-screen, read-only diagnostics for field debugging
+ * - On-screen, read-only performance HUD for field debugging
+ *   (no adb needed on a slow kiosk)
+ *
+ * SHOWN:
+ * - State, last analytics event
+ * - fps, scans/min, dropped frames, lane queue depths
+ * - Java heap, native heap (bitmaps live there on API 26+), thermal status,
+ *   degradation level
+ * - Crop cache hit rate
+ * - Per-stage mean latency sparkline (last HISTORY ticks) + all-time p95
  *
  * DESIGN RULES:
  * - NO logic
  * - NO state changes
  * - NO analytics emission
  * - UI reflection ONLY
+ * - Refreshes every REFRESH_MS between start() / stop()
+ * - refresh() never allocates: fixed rings, one reused StringBuilder each
  *
  * This overlay may be removed entirely in production
  * without affecting system behavior.
  */
 public final class DebugOverlay {
 
+    private static final long REFRESH_MS = 500;
+    private static final int HISTORY = 60;              // 30 s of ticks
+    private static final long MB = 1024L * 1024L;
+
+    private static final PipelineStage[] STAGES = PipelineStage.values();
+    private static final Lane[] LANES = Lane.values();
+
+    // PowerManager.THERMAL_STATUS_* → label
+    private static final String[] THERMAL = {
+            "NONE", "LIGHT", "MODERATE", "SEVERE", "CRITICAL", "EMERGENCY", "SHUTDOWN"
+    };
+
     // Root view of the overlay
     private final View rootView;
 
-    // Text view showing debug info
-    private final TextView debugText;
+    // HUD renderer
+    private final HudView hud;
 
     // Data sources (read-only)
     private final StateMachine stateMachine;
     private final EventTracker eventTracker;
     private final PerformanceLogger performanceLogger;
+    private final PowerManager powerManager;
+    private final DegradationController degradation;
+
+    // Render buffers (bound to the HudView once, refilled in place)
+    private final StringBuilder header = new StringBuilder(512);
+    private final StringBuilder stageLabels = new StringBuilder(512);
+    private final float[][] history = new float[STAGES.length][HISTORY];
+    private final int[] visibleStages = new int[STAGES.length];
+    private final boolean[] alarmed = new boolean[STAGES.length];
+    private final long[] lastCount = new long[STAGES.length];
+    private final long[] lastSumMicros = new long[STAGES.length];
+    private int head;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            refresh();
+            handler.postDelayed(this, REFRESH_MS);
+        }
+    };
+    private boolean running;
 
     /**
      * Creates a DebugOverlay instance.
@@ -49,6 +103,8 @@ public final class DebugOverlay {
         this.stateMachine = StateMachine.getInstance(appContext);
         this.eventTracker = EventTracker.getInstance(appContext);
         this.performanceLogger = PerformanceLogger.getInstance();
+        this.powerManager = (PowerManager) appContext.getSystemService(Context.POWER_SERVICE);
+        this.degradation = DegradationController.getInstance(appContext);
 
         // Create root container
         FrameLayout container = new FrameLayout(appContext);
@@ -58,14 +114,11 @@ public final class DebugOverlay {
                 Gravity.TOP
         ));
 
-        // Create text view
-        debugText = new TextView(appContext);
-        debugText.setTextColor(Color.WHITE);
-        debugText.setBackgroundColor(0xAA000000); // semi-transparent black
-        debugText.setTextSize(12f);
-        debugText.setPadding(16, 16, 16, 16);
-
-        container.addView(debugText);
+        hud = new HudView(appContext);
+        hud.bind(header, stageLabels, history, visibleStages, alarmed);
+        container.addView(hud, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT,
+                FrameLayout.LayoutParams.WRAP_CONTENT));
 
         this.rootView = container;
     }
@@ -79,41 +132,126 @@ public final class DebugOverlay {
         return rootView;
     }
 
+    /**
+     * Starts periodic refresh (main thread). Idempotent.
+     */
+    public void start() {
+        if (running) return;
+        running = true;
+        handler.post(tick);
+    }
+
+    /**
+     * Stops periodic refresh. Idempotent.
+     */
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(tick);
+    }
+
     /**
      * Refreshes displayed debug information.
      *
      * SAFE:
      * - Read-only
-     * - Can be called frequently
+     * - Allocation-free
      * - No side effects
      */
     public void refresh() {
+        header.setLength(0);
+
+        // 1️⃣ State
         AppState currentState = stateMachine.getCurrentState();
+        MvpEvent lastEvent = eventTracker.getLastEvent();
+        header.append("STATE ").append(currentState != null ? currentState.name() : "N/A")
+                .append("  EVENT ").append(lastEvent != null ? lastEvent.name() : "NONE")
+                .append('\n');
+
+        // 2️⃣ Throughput
+        header.append("FPS ");
+        appendTenths(header, performanceLogger.getFramesPerSecond());
+        header.append("  SCANS/MIN ");
+        appendTenths(header, performanceLogger.getScansPerMinute());
+        header.append("  DROPPED ").append(performanceLogger.getDroppedFrames())
+                .append('+').append(TaskScheduler.stats(Lane.REALTIME_VISION).getRejected())
+                .append('\n');
+
+        // 3️⃣ Lane queues
+        header.append("QUEUE");
+        for (Lane lane : LANES) {
+            header.append(' ').append(lane.name(), 0, Math.min(4, lane.name().length()))
+                    .append('=').append(TaskScheduler.queueDepth(lane));
+        }
+        header.append('\n');
 
-        StringBuilder sb = new StringBuilder(128);
+        // 4️⃣ Memory / thermal
+        Runtime runtime = Runtime.getRuntime();
+        header.append("HEAP ").append((runtime.totalMemory() - runtime.freeMemory()) / MB)
+                .append('/').append(runtime.maxMemory() / MB)
+                .append("MB  NATIVE ").append(Debug.getNativeHeapAllocatedSize() / MB)
+                .append("MB  THERMAL ").append(thermalStatus())
+                .append("  LEVEL ").append(degradation.getLevel().name())
+                .append('\n');
 
-        sb.append("STATE: ")
-                .append(currentState != null ? currentState.name() : "N/A")
-                .append("\n");
+        // 5️⃣ Caches
+        long hits = ScanCropCache.getHits();
+        long lookups = hits + ScanCropCache.getMisses();
+        header.append("CROP CACHE ");
+        if (lookups == 0) {
+            header.append('-');
+        } else {
+            header.append(hits * 100 / lookups).append("% of ").append(lookups);
+        }
 
-        sb.append("LAST EVENT: ")
-                .append(eventTracker.getLastEvent() != null
-                        ? eventTracker.getLastEvent().name()
-                        : "NONE")
-                .append("\n");
+        // 6️⃣ Stage sparklines: mean latency since the previous tick
+        stageLabels.setLength(0);
+        int visible = 0;
+        for (PipelineStage stage : STAGES) {
+            int i = stage.ordinal();
+            long count = performanceLogger.stageCount(stage);
+            long sum = performanceLogger.stageSumMicros(stage);
+            long n = count - lastCount[i];
+            float meanMs = n > 0 ? (sum - lastSumMicros[i]) / (n * 1000f) : 0f;
+            lastCount[i] = count;
+            lastSumMicros[i] = sum;
+            history[i][head] = meanMs;
+            if (count == 0) continue;
 
-        sb.append("YOLO: ")
-                .append(performanceLogger.getLastYoloLatencyMs())
-                .append(" ms\n");
+            long p95Micros = performanceLogger.stagePercentileMicros(stage, 0.95);
+            alarmed[i] = meanMs * 1000f > p95Micros;
 
-        sb.append("OCR: ")
-                .append(performanceLogger.getLastOcrLatencyMs())
-                .append(" ms\n");
+            if (visible > 0) stageLabels.append('\n');
+            stageLabels.append(stage.name());
+            for (int pad = stage.name().length(); pad < 14; pad++) stageLabels.append(' ');
+            stageLabels.append("p95 ");
+            appendTenths(stageLabels, p95Micros / 1000f);
+            stageLabels.append("ms");
+            visibleStages[visible++] = i;
+        }
+        head = (head + 1) % HISTORY;
 
-        sb.append("SCAN: ")
-                .append(performanceLogger.getLastEndToEndLatencyMs())
-                .append(" ms");
+        hud.update(visible, head);
+    }
+
+    /* =========================================================
+       INTERNAL HELPERS
+       ========================================================= */
+
+    private String thermalStatus() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || powerManager == null) return "N/A";
+        int status = powerManager.getCurrentThermalStatus();
+        return status >= 0 && status < THERMAL.length ? THERMAL[status] : "?";
+    }
 
-        debugText.setText(sb.toString());
+    /**
+     * One decimal without String.format / float-to-string allocation.
+     */
+    private static void appendTenths(StringBuilder sb, float value) {
+        long tenths = Math.round(value * 10f);
+        if (tenths < 0) {
+            sb.append('-');
+            tenths = -tenths;
+        }
+        sb.append(tenths / 10).append('.').append(tenths % 10);
     }
 }
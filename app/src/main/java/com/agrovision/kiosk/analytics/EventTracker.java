@@ -115,9 +115,11 @@ package com.agrovision.kiosk.analytics;
 import android.content.Context;
 
 import com.agrovision.kiosk.analytics.events.MvpEvent;
+import com.agrovision.kiosk.analytics.telemetry.TelemetryRecorder;
 import com.agrovision.kiosk.state.AppState;   // ✅ Added
 import com.agrovision.kiosk.state.StateEvent; // ✅ Added
-import com.agrovision.kiosk.threading.IoExecutor;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
 import com.agrovision.kiosk.util.LogUtils;
 
 import java.util.concurrent.atomic.AtomicReference;
@@ -132,7 +134,8 @@ import java.util.concurrent.atomic.AtomicReference;
  * DESIGN:
  * - Singleton
  * - Holds Application Context only
- * - Delegates async work to IoExecutor
+ * - Delegates async work to TaskScheduler (IO lane)
+ * - Events are persisted via TelemetryRecorder (batched, compacted, uploaded)
  *
  * HARD RULES:
  * - ONLY StateMachine may emit events
@@ -177,10 +180,10 @@ public final class EventTracker {
     /**
      * Asynchronous initialization hook.
      *
-     * Uses IoExecutor to avoid creating new threads.
+     * Uses the IO lane to avoid creating new threads.
      */
     public void initAsync() {
-        IoExecutor.submit(() -> {
+        TaskScheduler.submit(Lane.IO, () -> {
             try {
                 // Future initialization logic (file/db/network)
                 LogUtils.i("EventTracker initialized");
@@ -205,10 +208,10 @@ public final class EventTracker {
             // Update last event for observability
             lastEvent.set(event);
 
-            // MVP analytics output (Logcat only)
             LogUtils.i("MVP_EVENT=" + event.name());
 
-            // Future: persist / upload via IoExecutor
+            // Buffered write, never blocks the caller
+            TelemetryRecorder.getInstance(appContext).record(event);
 
         } catch (Exception e) {
             // Analytics must never affect system stability
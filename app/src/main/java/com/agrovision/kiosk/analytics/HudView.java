@@ -0,0 +1,180 @@
+package com.agrovision.kiosk.analytics;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.view.View;
+
+/**
+ * HudView
+ *
+ * Draws the DebugOverlay HUD: text lines plus one latency
+ * sparkline per pipeline stage.
+ *
+ * DESIGN:
+ * - Renders data owned by DebugOverlay (no metrics access here)
+ * - onDraw() never allocates: text is drawn from the shared
+ *   StringBuilder by line ranges, sparklines from a reused point array
+ *
+ * RULES:
+ * - Main thread only
+ */
+final class HudView extends View {
+
+    private static final int BACKGROUND = 0xAA000000;   // semi-transparent black
+    private static final int SPARK_COLOR = 0xFF4CAF50;
+    private static final int SPARK_ALARM_COLOR = 0xFFFF5252;
+
+    private final float density;
+    private final float padding;
+    private final float lineHeight;
+    private final float sparkWidth;
+
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint sparkPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    // Bound by DebugOverlay
+    private CharSequence header = "";
+    private CharSequence stageLabels = "";
+    private float[][] history = new float[0][0];
+    private int[] visibleStages = new int[0];
+    private boolean[] alarmed = new boolean[0];
+    private int visibleCount;
+    private int head;
+
+    private float[] points = new float[0];
+    private int measuredLines = -1;
+
+    HudView(Context context) {
+        super(context);
+        density = context.getResources().getDisplayMetrics().density;
+        padding = 8 * density;
+        lineHeight = 14 * density;
+        sparkWidth = 120 * density;
+
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTextSize(11 * density);
+        textPaint.setTypeface(Typeface.MONOSPACE);
+
+        sparkPaint.setStrokeWidth(1.5f * density);
+        sparkPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    /**
+     * Binds the buffers once; DebugOverlay refills them in place.
+     */
+    void bind(CharSequence header,
+              CharSequence stageLabels,
+              float[][] history,
+              int[] visibleStages,
+              boolean[] alarmed) {
+        this.header = header;
+        this.stageLabels = stageLabels;
+        this.history = history;
+        this.visibleStages = visibleStages;
+        this.alarmed = alarmed;
+        this.points = new float[history.length == 0 ? 0 : (history[0].length - 1) * 4];
+    }
+
+    /**
+     * @param visibleCount number of valid entries in visibleStages
+     * @param head         next write slot of every history ring
+     */
+    void update(int visibleCount, int head) {
+        this.visibleCount = visibleCount;
+        this.head = head;
+        if (countLines(header) + visibleCount != measuredLines) {
+            requestLayout();
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int lines = countLines(header) + visibleCount;
+        measuredLines = lines;
+        int height = (int) (2 * padding + lines * lineHeight);
+        setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), height);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        canvas.drawColor(BACKGROUND);
+
+        float y = padding + lineHeight;
+        y = drawLines(canvas, header, y);
+
+        // Stage rows: label, then sparkline right-aligned on the same line
+        int start = 0;
+        for (int row = 0; row < visibleCount; row++) {
+            int end = lineEnd(stageLabels, start);
+            canvas.drawText(stageLabels, start, end, padding, y, textPaint);
+            drawSparkline(canvas, visibleStages[row], y);
+            start = end + 1;
+            y += lineHeight;
+        }
+    }
+
+    /* =========================================================
+       INTERNAL HELPERS
+       ========================================================= */
+
+    private float drawLines(Canvas canvas, CharSequence text, float y) {
+        int start = 0;
+        int length = text.length();
+        while (start < length) {
+            int end = lineEnd(text, start);
+            canvas.drawText(text, start, end, padding, y, textPaint);
+            start = end + 1;
+            y += lineHeight;
+        }
+        return y;
+    }
+
+    private void drawSparkline(Canvas canvas, int stage, float baseline) {
+        float[] ring = history[stage];
+        int n = ring.length;
+        if (n < 2) return;
+
+        float max = 0f;
+        for (float v : ring) max = Math.max(max, v);
+        if (max <= 0f) return;
+
+        float left = getWidth() - padding - sparkWidth;
+        float top = baseline - lineHeight + 3 * density;
+        float height = lineHeight - 4 * density;
+        float step = sparkWidth / (n - 1);
+
+        // Oldest sample first: the ring starts at head
+        int p = 0;
+        for (int i = 0; i < n - 1; i++) {
+            float a = ring[(head + i) % n];
+            float b = ring[(head + i + 1) % n];
+            points[p++] = left + i * step;
+            points[p++] = top + height * (1f - a / max);
+            points[p++] = left + (i + 1) * step;
+            points[p++] = top + height * (1f - b / max);
+        }
+        sparkPaint.setColor(alarmed[stage] ? SPARK_ALARM_COLOR : SPARK_COLOR);
+        canvas.drawLines(points, 0, p, sparkPaint);
+    }
+
+    private static int lineEnd(CharSequence text, int start) {
+        int length = text.length();
+        for (int i = start; i < length; i++) {
+            if (text.charAt(i) == '\n') return i;
+        }
+        return length;
+    }
+
+    private static int countLines(CharSequence text) {
+        if (text.length() == 0) return 0;
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') lines++;
+        }
+        return lines;
+    }
+}
@@ -1,9 +1,14 @@
 package com.agrovision.kiosk.analytics;
 
-import com.agrovision.kiosk.threading.IoExecutor;
+import com.agrovision.kiosk.analytics.metrics.LatencyHistogram;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.analytics.metrics.RateMeter;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
 import com.agrovision.kiosk.util.LogUtils;
 import com.agrovision.kiosk.util.TimeUtils;
 
+import java.util.Locale;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -12,12 +17,20 @@ import java.util.concurrent.atomic.AtomicLong;
  * PURPOSE:
  * - Measure and expose system performance metrics
  *
+ * RECORDED:
+ * - One LatencyHistogram per PipelineStage (p50 / p95 / p99)
+ * - A second, drained set per telemetry interval
+ * - Windowed rates: frames/sec, scans/min
+ * - Frames dropped because the pipeline was busy
+ * - Last YOLO / OCR / end-to-end latency (HUD, scan history)
+ *
  * DESIGN RULES:
  * - Measurement only (no decisions)
  * - No analytics emission
  * - No AppState knowledge
  * - No UI interaction
  * - No thread creation
+ * - Recording never allocates, locks or logs (camera thread safe)
  *
  * All interpretation of these metrics
  * MUST happen in StateMachine.
@@ -27,6 +40,22 @@ public final class PerformanceLogger {
     // Singleton instance
     private static final PerformanceLogger INSTANCE = new PerformanceLogger();
 
+    // Rate windows
+    private static final int FPS_WINDOW_S = 5;
+    private static final int SCAN_WINDOW_S = 60;
+
+    // Stage summary is logged every N completed scans
+    private static final int SUMMARY_EVERY_SCANS = 25;
+
+    // Indexed by PipelineStage.ordinal() (no EnumMap lookup on the hot path)
+    private final LatencyHistogram[] stages = new LatencyHistogram[PipelineStage.values().length];
+
+    // Same stages since the last telemetry interval (drained by TelemetryRecorder)
+    private final LatencyHistogram[] intervals = new LatencyHistogram[PipelineStage.values().length];
+
+    private final RateMeter frames = new RateMeter(FPS_WINDOW_S);
+    private final RateMeter scans = new RateMeter(SCAN_WINDOW_S);
+
     // Last YOLO inference time (ms)
     private final AtomicLong lastYoloLatencyMs = new AtomicLong(0);
 
@@ -36,8 +65,19 @@ public final class PerformanceLogger {
     // Last end-to-end scan time (ms)
     private final AtomicLong lastEndToEndLatencyMs = new AtomicLong(0);
 
+    // Frames skipped while OCR / matching was still busy
+    private final AtomicLong droppedFrames = new AtomicLong(0);
+
+    // Start of the scan in progress (nano, 0 = none)
+    private final AtomicLong currentScanStartNano = new AtomicLong(0);
+
     // Private constructor
-    private PerformanceLogger() {}
+    private PerformanceLogger() {
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram();
+            intervals[i] = new LatencyHistogram();
+        }
+    }
 
     /**
      * Returns singleton instance.
@@ -46,6 +86,43 @@ public final class PerformanceLogger {
         return INSTANCE;
     }
 
+    /* =========================================================
+       STAGE RECORDING (ANY THREAD)
+       ========================================================= */
+
+    /**
+     * Records the time since startNano (TimeUtils.nowNano()) for a stage.
+     *
+     * @return elapsed nanos (for callers that also need the value)
+     */
+    public long record(PipelineStage stage, long startNano) {
+        long elapsed = TimeUtils.elapsedNano(startNano);
+        recordNanos(stage, elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Records an already measured duration.
+     */
+    public void recordNanos(PipelineStage stage, long nanos) {
+        stages[stage.ordinal()].recordNanos(nanos);
+        intervals[stage.ordinal()].recordNanos(nanos);
+    }
+
+    /**
+     * One analyzed camera frame (drives frames/sec).
+     */
+    public void markFrame() {
+        frames.mark();
+    }
+
+    /**
+     * One camera frame skipped because the pipeline was still busy.
+     */
+    public void markFrameDropped() {
+        droppedFrames.incrementAndGet();
+    }
+
     /* =========================================================
        YOLO MEASUREMENT
        ========================================================= */
@@ -63,11 +140,7 @@ public final class PerformanceLogger {
      * Marks end of YOLO inference.
      */
     public void markYoloEnd(long startNano) {
-        long durationMs = TimeUtils.elapsedMs(startNano);
-        lastYoloLatencyMs.set(durationMs);
-
-        // Debug logging only (non-blocking)
-        LogUtils.d("YOLO latency = " + durationMs + " ms");
+        lastYoloLatencyMs.set(record(PipelineStage.DETECT, startNano) / 1_000_000L);
     }
 
     /* =========================================================
@@ -85,10 +158,7 @@ public final class PerformanceLogger {
      * Marks end of OCR processing.
      */
     public void markOcrEnd(long startNano) {
-        long durationMs = TimeUtils.elapsedMs(startNano);
-        lastOcrLatencyMs.set(durationMs);
-
-        LogUtils.d("OCR latency = " + durationMs + " ms");
+        lastOcrLatencyMs.set(record(PipelineStage.OCR, startNano) / 1_000_000L);
     }
 
     /* =========================================================
@@ -97,22 +167,38 @@ public final class PerformanceLogger {
 
     /**
      * Marks start of full scan session.
+     * Also remembered, so the component that finishes the scan
+     * can close it without the start being passed along.
      */
     public long markScanStart() {
-        return TimeUtils.nowNano();
+        long start = TimeUtils.nowNano();
+        currentScanStartNano.set(start);
+        return start;
+    }
+
+    /**
+     * Closes the scan started by the last markScanStart().
+     *
+     * @return end-to-end latency (ms), 0 if no scan was started
+     */
+    public long markScanEnd() {
+        long start = currentScanStartNano.getAndSet(0);
+        if (start == 0) return 0;
+        markScanEnd(start);
+        return lastEndToEndLatencyMs.get();
     }
 
     /**
      * Marks end of full scan session.
      */
     public void markScanEnd(long startNano) {
-        long durationMs = TimeUtils.elapsedMs(startNano);
-        lastEndToEndLatencyMs.set(durationMs);
+        lastEndToEndLatencyMs.set(record(PipelineStage.SCAN, startNano) / 1_000_000L);
+        scans.mark();
 
-        // Persist raw metric asynchronously if needed
-        IoExecutor.submit(() ->
-                LogUtils.d("Scan end-to-end latency = " + durationMs + " ms")
-        );
+        // Periodic stage summary, formatted off the scan path
+        if (stages[PipelineStage.SCAN.ordinal()].getCount() % SUMMARY_EVERY_SCANS == 0) {
+            TaskScheduler.submit(Lane.BACKGROUND, () -> LogUtils.i(summary()));
+        }
     }
 
     /* =========================================================
@@ -130,4 +216,56 @@ public final class PerformanceLogger {
     public long getLastEndToEndLatencyMs() {
         return lastEndToEndLatencyMs.get();
     }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /* Allocation-free stage readers (HUD) */
+
+    public long stageCount(PipelineStage stage) {
+        return stages[stage.ordinal()].getCount();
+    }
+
+    public long stageSumMicros(PipelineStage stage) {
+        return stages[stage.ordinal()].getSumMicros();
+    }
+
+    public long stagePercentileMicros(PipelineStage stage, double p) {
+        return stages[stage.ordinal()].percentileMicros(p);
+    }
+
+    public LatencyHistogram.Snapshot snapshot(PipelineStage stage) {
+        return stages[stage.ordinal()].snapshot();
+    }
+
+    /**
+     * Stage latencies since the previous call (telemetry intervals only).
+     */
+    public LatencyHistogram.Snapshot drainInterval(PipelineStage stage) {
+        return intervals[stage.ordinal()].drain();
+    }
+
+    public float getFramesPerSecond() {
+        return frames.perSecond(FPS_WINDOW_S);
+    }
+
+    public float getScansPerMinute() {
+        return scans.perMinute(SCAN_WINDOW_S);
+    }
+
+    /**
+     * Multi-line per-stage report for logs and diagnostics.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("Perf: fps=").append(String.format(Locale.US, "%.1f", getFramesPerSecond()))
+                .append(" scans/min=").append(String.format(Locale.US, "%.1f", getScansPerMinute()));
+        for (PipelineStage stage : PipelineStage.values()) {
+            LatencyHistogram.Snapshot s = snapshot(stage);
+            if (s.count == 0) continue;
+            sb.append('\n').append(stage.name()).append(": ").append(s);
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,174 @@
+package com.agrovision.kiosk.analytics;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.analytics.trace.ScanTracer;
+import com.agrovision.kiosk.data.database.AppDatabase;
+import com.agrovision.kiosk.data.database.dao.SuccessfulScanDao;
+import com.agrovision.kiosk.data.database.entity.SuccessfulScanEntity;
+import com.agrovision.kiosk.threading.BatchFlusher;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.ui.result.model.ScanResult;
+import com.agrovision.kiosk.util.LogUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ScanHistoryRecorder
+ *
+ * Write-behind buffer for per-scan history (successful_scans).
+ *
+ * DESIGN:
+ * - record() only builds rows and enqueues them (no IO, no locks)
+ * - Flushed in ONE transaction every FLUSH_EVERY rows or
+ *   FLUSH_INTERVAL_MS after the first buffered row (BatchFlusher)
+ * - Compaction (age + row cap) piggybacks on a flush, at most every few hours
+ *
+ * HARD RULES:
+ * - Never blocks the scan path
+ * - History is best effort: a crash loses at most one unflushed batch
+ * - Never creates its own threads (BACKGROUND lane)
+ */
+public final class ScanHistoryRecorder {
+
+    private static final int FLUSH_EVERY = 20;
+    private static final long FLUSH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final long RETENTION_MS = TimeUnit.DAYS.toMillis(90);
+    private static final int MAX_ROWS = 50_000;
+    private static final long COMPACTION_INTERVAL_MS = TimeUnit.HOURS.toMillis(6);
+
+    private static volatile ScanHistoryRecorder INSTANCE;
+
+    private final SuccessfulScanDao dao;
+    private final AppDatabase database;
+    private final PerformanceLogger perf = PerformanceLogger.getInstance();
+    private final ScanTracer tracer = ScanTracer.getInstance();
+
+    private final ConcurrentLinkedQueue<SuccessfulScanEntity> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final BatchFlusher flusher =
+            new BatchFlusher(Lane.BACKGROUND, FLUSH_EVERY, FLUSH_INTERVAL_MS, this::flush);
+
+    // BACKGROUND lane only
+    private long lastCompactionAt = 0L;
+
+    public static ScanHistoryRecorder getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ScanHistoryRecorder.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ScanHistoryRecorder(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private ScanHistoryRecorder(Context appContext) {
+        this.database = AppDatabase.getInstance(appContext);
+        this.dao = database.successfulScanDao();
+    }
+
+    /* =========================================================
+       RECORD (ANY THREAD, NON-BLOCKING)
+       ========================================================= */
+
+    /**
+     * Records one completed scan: one row per result.
+     *
+     * Detect / OCR time and track frames are read back from this
+     * scan's ScanTracer spans (not the global "last" latencies, which
+     * may already belong to the next frame).
+     *
+     * @param source  SuccessfulScanEntity.SOURCE_*
+     * @param scanId  ScanTracer ID of this scan
+     * @param matchMs time spent resolving text / barcode into results
+     */
+    public void record(@NonNull List<ScanResult> results, @NonNull String source, long scanId, long matchMs) {
+        if (results.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        boolean camera = SuccessfulScanEntity.SOURCE_CAMERA.equals(source);
+        // Barcode scans have no camera clock: input → results is the match time
+        long totalMs = camera ? perf.markScanEnd() : matchMs;
+        int trackFrames = camera ? tracer.count(scanId, PipelineStage.DETECT) : 0;
+        long detectMs = camera ? tracer.sumNanos(scanId, PipelineStage.DETECT) / 1_000_000L : 0;
+        long ocrMs = camera ? tracer.sumNanos(scanId, PipelineStage.OCR) / 1_000_000L : 0;
+
+        for (ScanResult r : results) {
+            SuccessfulScanEntity row = new SuccessfulScanEntity();
+            row.timestamp = now;
+            row.medicineId = r.medicineId;
+            row.resultType = r.resultType != null ? r.resultType.name() : "";
+            row.source = source;
+            row.confidence = r.confidence;
+            row.lowConfidence = r.isConfidenceLow;
+            row.trackCount = trackFrames;
+            row.detectMs = detectMs;
+            row.ocrMs = ocrMs;
+            row.matchMs = matchMs;
+            row.totalMs = totalMs;
+            buffer.add(row);
+        }
+
+        flusher.onPending(buffered.addAndGet(results.size()));
+    }
+
+    /**
+     * Writes everything buffered now (e.g. when the kiosk goes to background).
+     */
+    public void flushNow() {
+        flusher.flushNow();
+    }
+
+    /* =========================================================
+       FLUSH (BACKGROUND LANE)
+       ========================================================= */
+
+    private void flush() {
+        List<SuccessfulScanEntity> batch = new ArrayList<>(Math.max(FLUSH_EVERY, buffered.get()));
+        SuccessfulScanEntity row;
+        while ((row = buffer.poll()) != null) {
+            batch.add(row);
+        }
+        buffered.addAndGet(-batch.size());
+        if (batch.isEmpty()) return;
+
+        try {
+            // @Insert of a list is one transaction
+            dao.insertAll(batch);
+            LogUtils.d("ScanHistory: flushed " + batch.size() + " scans");
+        } catch (Exception e) {
+            // Analytics must never affect system stability
+            LogUtils.e("ScanHistory: flush failed, dropped " + batch.size() + " scans", e);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastCompactionAt >= COMPACTION_INTERVAL_MS) {
+            lastCompactionAt = now;
+            compact(now);
+        }
+    }
+
+    private void compact(long now) {
+        try {
+            database.runInTransaction(() -> {
+                int expired = dao.deleteOlderThan(now - RETENTION_MS);
+                int trimmed = dao.trimToNewest(MAX_ROWS);
+                if (expired + trimmed > 0) {
+                    LogUtils.i("ScanHistory: compacted " + expired + " expired, " + trimmed + " over cap");
+                }
+            });
+        } catch (Exception e) {
+            LogUtils.e("ScanHistory: compaction failed", e);
+        }
+    }
+}
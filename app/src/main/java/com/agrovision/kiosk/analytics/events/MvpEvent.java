@@ -110,5 +110,15 @@ public enum MvpEvent {
     /**
      * System recovered after a fatal error.
      */
-    SYSTEM_RECOVERED
+    SYSTEM_RECOVERED,
+
+    /**
+     * Vision pipeline stepped down (device running hot).
+     */
+    PIPELINE_DEGRADED,
+
+    /**
+     * Vision pipeline stepped back up (device cooled down).
+     */
+    PIPELINE_RECOVERED
 }
@@ -0,0 +1,189 @@
+package com.agrovision.kiosk.analytics.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram
+ *
+ * Lock-free, fixed-size latency histogram (HDR-style log-linear buckets).
+ *
+ * DESIGN:
+ * - Values are microseconds
+ * - Every power of two is split into SUB_BUCKETS linear buckets
+ *   → percentiles within ~6% of the true value, from 1 µs to hours
+ * - One AtomicLongArray: no allocation, no locks, no resizing
+ *
+ * RULES:
+ * - record*() is safe from any thread, including the camera thread
+ * - Snapshots are approximate while writers are active (never torn per bucket)
+ * - drain() hands every recorded value to exactly one caller (interval telemetry)
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;   // 16
+    private static final int MAX_MAGNITUDE = 40;                   // 2^40 µs ≈ 12.7 days
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /* =========================================================
+       RECORDING (ANY THREAD, NON-BLOCKING)
+       ========================================================= */
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1_000L);
+    }
+
+    public void recordMicros(long micros) {
+        if (micros < 0) micros = 0;
+        counts.incrementAndGet(bucketOf(micros));
+        total.incrementAndGet();
+        sumMicros.addAndGet(micros);
+
+        long max;
+        while (micros > (max = maxMicros.get())) {
+            if (maxMicros.compareAndSet(max, micros)) break;
+        }
+    }
+
+    /* =========================================================
+       READING
+       ========================================================= */
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getSumMicros() {
+        return sumMicros.get();
+    }
+
+    /**
+     * Allocation-free (HUD); snapshot() for several quantiles at once.
+     *
+     * @param p quantile in [0, 1]
+     * @return upper bound of the bucket holding the quantile (µs), 0 if empty
+     */
+    public long percentileMicros(double p) {
+        long n = total.get();
+        if (n == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(n * p));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    public Snapshot snapshot() {
+        long[] local = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            local[i] = counts.get(i);
+        }
+        return snapshotOf(local, sumMicros.get(), maxMicros.get());
+    }
+
+    /**
+     * Snapshot of everything recorded since the previous drain(), then reset.
+     * Values recorded concurrently land in either this drain or the next.
+     */
+    public Snapshot drain() {
+        long[] local = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            local[i] = counts.getAndSet(i, 0);
+            n += local[i];
+        }
+        total.addAndGet(-n);
+        return snapshotOf(local, sumMicros.getAndSet(0), maxMicros.getAndSet(0));
+    }
+
+    private static Snapshot snapshotOf(long[] local, long sum, long max) {
+        long n = 0;
+        for (long c : local) n += c;
+        return new Snapshot(
+                n,
+                n == 0 ? 0 : sum / n,
+                percentileOf(local, n, max, 0.50),
+                percentileOf(local, n, max, 0.95),
+                percentileOf(local, n, max, 0.99),
+                max);
+    }
+
+    private static long percentileOf(long[] local, long n, long max, double p) {
+        if (n == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(n * p));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += local[i];
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Immutable point-in-time view (µs).
+     */
+    public static final class Snapshot {
+        public final long count;
+        public final long meanMicros;
+        public final long p50Micros;
+        public final long p95Micros;
+        public final long p99Micros;
+        public final long maxMicros;
+
+        Snapshot(long count, long meanMicros, long p50Micros, long p95Micros, long p99Micros, long maxMicros) {
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "n=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                    count, p50Micros / 1000f, p95Micros / 1000f, p99Micros / 1000f, maxMicros / 1000f);
+        }
+    }
+
+    /* =========================================================
+       BUCKET MATH
+       ========================================================= */
+
+    /**
+     * [0, 16) → one bucket per value; above that, 16 buckets per power of two.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);   // >= SUB_BUCKET_BITS
+        if (magnitude > MAX_MAGNITUDE) return BUCKETS - 1;
+
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
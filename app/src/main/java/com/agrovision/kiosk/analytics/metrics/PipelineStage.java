@@ -0,0 +1,24 @@
+package com.agrovision.kiosk.analytics.metrics;
+
+/**
+ * PipelineStage
+ *
+ * One latency histogram per stage (see PerformanceLogger).
+ * Order = order of the scan path.
+ */
+public enum PipelineStage {
+
+    FRAME_CONVERT,  // ImageProxy → Bitmap
+    PREPROCESS,     // Resize + normalize into the YOLO input tensor
+    INFERENCE,      // interpreter.run
+    DECODE,         // Output tensor → raw boxes
+    NMS,            // Non-max suppression
+    DETECT,         // Whole detector call (PREPROCESS .. NMS)
+    CROP,           // Box → OCR input bitmap
+    OCR,            // ML Kit text recognition
+    MATCH,          // Text / barcode → ScanResults
+    RENDER,         // Result screen bind
+    LAUNCH,         // Result screen requested → first result shown
+    AUDIO,          // Result screen shown → first audio playing
+    SCAN            // End-to-end: first promising frame → results
+}
@@ -0,0 +1,80 @@
+package com.agrovision.kiosk.analytics.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * RateMeter
+ *
+ * Windowed event rate (frames/sec, scans/min) over the last N seconds.
+ *
+ * DESIGN:
+ * - Ring of one-second slots, each tagged with the second it counts
+ * - A slot is recycled lazily by the first mark() of a new second
+ *
+ * RULES:
+ * - mark() is lock-free and allocation-free (camera thread safe)
+ * - Rates are approximate: a mark racing a slot recycle may be lost
+ */
+public final class RateMeter {
+
+    private final int slots;
+    private final AtomicLongArray seconds;
+    private final AtomicLongArray counts;
+
+    /**
+     * @param windowSeconds longest window that can be queried
+     */
+    public RateMeter(int windowSeconds) {
+        // +1: the current (partial) second is never part of a full window
+        this.slots = windowSeconds + 1;
+        this.seconds = new AtomicLongArray(slots);
+        this.counts = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) seconds.set(i, -1);
+    }
+
+    public void mark() {
+        mark(nowSecond());
+    }
+
+    void mark(long second) {
+        int slot = (int) (second % slots);
+
+        long tagged = seconds.get(slot);
+        if (tagged != second && seconds.compareAndSet(slot, tagged, second)) {
+            counts.set(slot, 0);
+        }
+        counts.incrementAndGet(slot);
+    }
+
+    /**
+     * @return events in the last windowSeconds complete seconds
+     */
+    public long count(int windowSeconds) {
+        return count(windowSeconds, nowSecond());
+    }
+
+    long count(int windowSeconds, long current) {
+        int window = Math.min(windowSeconds, slots - 1);
+
+        long sum = 0;
+        for (int i = 0; i < slots; i++) {
+            long age = current - seconds.get(i);
+            if (age >= 1 && age <= window) {
+                sum += counts.get(i);
+            }
+        }
+        return sum;
+    }
+
+    public float perSecond(int windowSeconds) {
+        return count(windowSeconds) / (float) Math.max(1, Math.min(windowSeconds, slots - 1));
+    }
+
+    public float perMinute(int windowSeconds) {
+        return perSecond(windowSeconds) * 60f;
+    }
+
+    private static long nowSecond() {
+        return System.nanoTime() / 1_000_000_000L;
+    }
+}
@@ -0,0 +1,85 @@
+package com.agrovision.kiosk.analytics.telemetry;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Debug;
+import android.os.PowerManager;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.camera.DegradationController;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * DeviceVitals
+ *
+ * Point-in-time device health for a telemetry summary.
+ *
+ * RECORDED:
+ * - Battery temperature / level / charging (sticky broadcast, no receiver kept)
+ * - Thermal status (API 29+), vision degradation level
+ * - Java heap, native heap, system available memory
+ *
+ * RULES:
+ * - Worker thread only
+ * - Every source is optional: missing values are omitted, never faked
+ */
+final class DeviceVitals {
+
+    private static final long MB = 1024L * 1024L;
+
+    private DeviceVitals() {
+        throw new AssertionError("No instances allowed");
+    }
+
+    static JSONObject collect(@NonNull Context context) throws JSONException {
+        JSONObject vitals = new JSONObject();
+
+        // 1️⃣ Battery (temperature is reported in tenths of °C)
+        Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery != null) {
+            int temperature = battery.getIntExtra(BatteryManager.EXTRA_TEMPERATURE, Integer.MIN_VALUE);
+            if (temperature != Integer.MIN_VALUE) {
+                vitals.put("batteryTempC", temperature / 10.0);
+            }
+            int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            if (level >= 0 && scale > 0) {
+                vitals.put("batteryPct", level * 100 / scale);
+            }
+            vitals.put("charging", battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0);
+        }
+
+        // 2️⃣ Thermal status (PowerManager.THERMAL_STATUS_*)
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager power = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            if (power != null) {
+                vitals.put("thermalStatus", power.getCurrentThermalStatus());
+            }
+        }
+
+        vitals.put("degradationLevel", DegradationController.getInstance(context).getLevel().name());
+
+        // 3️⃣ Memory
+        Runtime runtime = Runtime.getRuntime();
+        vitals.put("heapUsedMb", (runtime.totalMemory() - runtime.freeMemory()) / MB);
+        vitals.put("heapMaxMb", runtime.maxMemory() / MB);
+        vitals.put("nativeHeapMb", Debug.getNativeHeapAllocatedSize() / MB);
+
+        ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (am != null) {
+            ActivityManager.MemoryInfo info = new ActivityManager.MemoryInfo();
+            am.getMemoryInfo(info);
+            vitals.put("availMemMb", info.availMem / MB);
+            vitals.put("lowMemory", info.lowMemory);
+        }
+
+        return vitals;
+    }
+}
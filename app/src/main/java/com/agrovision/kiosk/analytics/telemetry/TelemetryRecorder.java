@@ -0,0 +1,206 @@
+package com.agrovision.kiosk.analytics.telemetry;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.analytics.PerformanceLogger;
+import com.agrovision.kiosk.analytics.events.MvpEvent;
+import com.agrovision.kiosk.analytics.metrics.LatencyHistogram;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.data.database.AppDatabase;
+import com.agrovision.kiosk.data.database.dao.TelemetryDao;
+import com.agrovision.kiosk.data.database.entity.TelemetryEventEntity;
+import com.agrovision.kiosk.data.database.entity.TelemetrySummaryEntity;
+import com.agrovision.kiosk.threading.BatchFlusher;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
+import com.agrovision.kiosk.util.LogUtils;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TelemetryRecorder
+ *
+ * Buffers kiosk telemetry locally and compacts it into one
+ * summary row per interval (uploaded later by HeartbeatWorker).
+ *
+ * DESIGN:
+ * - record() only enqueues (no IO, no locks); events are written to
+ *   Room in batches (BatchFlusher)
+ * - Every INTERVAL_MS one compaction builds a summary:
+ *   event counts, per-stage latency percentiles, rates, successful
+ *   scans and DeviceVitals — then deletes the raw events it counted
+ * - Summaries are keyed by interval start, so an interval uploads
+ *   once no matter how often the upload is retried
+ *
+ * HARD RULES:
+ * - Never blocks callers
+ * - Telemetry is best effort: it must never affect the scan path
+ * - Never creates its own threads (BACKGROUND lane)
+ * - Offline backlog is capped (MAX_PENDING_SUMMARIES)
+ */
+public final class TelemetryRecorder {
+
+    public static final long INTERVAL_MS = TimeUnit.MINUTES.toMillis(15);
+
+    private static final int FLUSH_EVERY = 20;
+    private static final long FLUSH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(60);
+
+    // One week of 15 min intervals
+    private static final int MAX_PENDING_SUMMARIES = 672;
+
+    private static volatile TelemetryRecorder INSTANCE;
+
+    private final Context appContext;
+    private final AppDatabase database;
+    private final TelemetryDao dao;
+    private final PerformanceLogger perf = PerformanceLogger.getInstance();
+
+    private final ConcurrentLinkedQueue<TelemetryEventEntity> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final BatchFlusher flusher =
+            new BatchFlusher(Lane.BACKGROUND, FLUSH_EVERY, FLUSH_INTERVAL_MS, this::flush);
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final Handler tickHandler = new Handler(Looper.getMainLooper());
+    private final Runnable intervalTick = new Runnable() {
+        @Override
+        public void run() {
+            tickHandler.postDelayed(this, INTERVAL_MS);
+            // A rejected tick only makes the next interval longer
+            TaskScheduler.submit(Lane.BACKGROUND, TelemetryRecorder.this::compact);
+        }
+    };
+
+    // BACKGROUND lane only
+    private long intervalStart = System.currentTimeMillis();
+
+    public static TelemetryRecorder getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (TelemetryRecorder.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new TelemetryRecorder(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private TelemetryRecorder(Context appContext) {
+        this.appContext = appContext;
+        this.database = AppDatabase.getInstance(appContext);
+        this.dao = database.telemetryDao();
+    }
+
+    /**
+     * Starts interval compaction. Idempotent.
+     */
+    public void start() {
+        if (started.compareAndSet(false, true)) {
+            tickHandler.postDelayed(intervalTick, INTERVAL_MS);
+        }
+    }
+
+    /* =========================================================
+       RECORD (ANY THREAD, NON-BLOCKING)
+       ========================================================= */
+
+    public void record(@NonNull MvpEvent event) {
+        buffer.add(new TelemetryEventEntity(System.currentTimeMillis(), event.name()));
+        flusher.onPending(buffered.incrementAndGet());
+    }
+
+    /* =========================================================
+       FLUSH / COMPACT (BACKGROUND LANE)
+       ========================================================= */
+
+    private void flush() {
+        List<TelemetryEventEntity> batch = new ArrayList<>(Math.max(FLUSH_EVERY, buffered.get()));
+        TelemetryEventEntity event;
+        while ((event = buffer.poll()) != null) {
+            batch.add(event);
+        }
+        buffered.addAndGet(-batch.size());
+        if (batch.isEmpty()) return;
+
+        try {
+            dao.insertEvents(batch);
+        } catch (Exception e) {
+            LogUtils.e("Telemetry: flush failed, dropped " + batch.size() + " events", e);
+        }
+    }
+
+    private void compact() {
+        // Events still in memory belong to this interval
+        flush();
+
+        long end = System.currentTimeMillis();
+        try {
+            // Leftovers of a previous process extend the first interval back
+            Long oldest = dao.oldestEventTimestamp();
+            long start = oldest != null ? Math.min(oldest, intervalStart) : intervalStart;
+
+            JSONObject payload = new JSONObject();
+            payload.put("events", eventCounts(end));
+            payload.put("stages", drainStages());
+            payload.put("framesPerSecond", perf.getFramesPerSecond());
+            payload.put("scansPerMinute", perf.getScansPerMinute());
+            payload.put("successfulScans", database.successfulScanDao().countSince(start));
+            payload.put("vitals", DeviceVitals.collect(appContext));
+
+            TelemetrySummaryEntity summary = new TelemetrySummaryEntity(start, end, payload.toString());
+            database.runInTransaction(() -> {
+                dao.insertSummary(summary);
+                dao.deleteEventsBefore(end);
+                int trimmed = dao.trimSummaries(MAX_PENDING_SUMMARIES);
+                if (trimmed > 0) {
+                    LogUtils.w("Telemetry: dropped " + trimmed + " oldest summaries (offline backlog)");
+                }
+            });
+            intervalStart = end;
+            LogUtils.d("Telemetry: summary " + start + ".." + end + " stored");
+        } catch (Exception e) {
+            // Analytics must never affect system stability
+            LogUtils.e("Telemetry: compaction failed", e);
+        }
+    }
+
+    private JSONObject eventCounts(long before) throws JSONException {
+        JSONObject events = new JSONObject();
+        for (TelemetryDao.EventCount c : dao.countEventsBefore(before)) {
+            events.put(c.name, c.count);
+        }
+        return events;
+    }
+
+    /**
+     * Per-stage latency (µs) since the previous interval; idle stages are omitted.
+     */
+    private JSONObject drainStages() throws JSONException {
+        JSONObject stages = new JSONObject();
+        for (PipelineStage stage : PipelineStage.values()) {
+            LatencyHistogram.Snapshot s = perf.drainInterval(stage);
+            if (s.count == 0) continue;
+
+            JSONObject json = new JSONObject();
+            json.put("count", s.count);
+            json.put("meanUs", s.meanMicros);
+            json.put("p50Us", s.p50Micros);
+            json.put("p95Us", s.p95Micros);
+            json.put("p99Us", s.p99Micros);
+            json.put("maxUs", s.maxMicros);
+            stages.put(stage.name(), json);
+        }
+        return stages;
+    }
+}
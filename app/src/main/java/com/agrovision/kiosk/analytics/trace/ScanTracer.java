@@ -0,0 +1,283 @@
+package com.agrovision.kiosk.analytics.trace;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Process;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.util.TimeUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ScanTracer
+ *
+ * Per-scan trace spans, correlated by a scan ID.
+ *
+ * FLOW:
+ * - A scan ID is minted when a camera track (or barcode input) starts
+ * - Every stage of that scan records a span: detect, OCR, match,
+ *   result launch, audio start … and the whole scan
+ * - Spans land in a fixed ring buffer (last RING_CAPACITY spans)
+ * - export() writes the ring as Chrome / Perfetto trace JSON,
+ *   one track per scan
+ * - begin() / end() also emit android.os.Trace async sections
+ *   (API 29+), visible in a system trace
+ *
+ * RULES:
+ * - begin() / end() never allocate or lock (camera thread safe)
+ * - NO_SCAN spans only reach android.os.Trace, not the ring
+ * - Export is IO: never on the main thread
+ */
+public final class ScanTracer {
+
+    public static final long NO_SCAN = 0L;
+
+    // Intent extras for spans that cross into ResultActivity
+    public static final String EXTRA_SCAN_ID = "com.agrovision.kiosk.EXTRA_SCAN_ID";
+    public static final String EXTRA_LAUNCH_START = "com.agrovision.kiosk.EXTRA_LAUNCH_START";
+
+    public static final String TRACE_DIR = "traces";
+
+    private static final int RING_CAPACITY = 4096;          // Power of two
+    private static final int RING_MASK = RING_CAPACITY - 1;
+    private static final int SCAN_SLOTS = 64;               // Open scans remembered
+
+    public enum Outcome {
+        OK,
+        EMPTY,
+        UNKNOWN,
+        CANCELLED,
+        FAILED
+    }
+
+    private static final ScanTracer INSTANCE = new ScanTracer();
+
+    private final AtomicLong nextScanId = new AtomicLong(NO_SCAN);
+    private final AtomicLongArray scanStarts = new AtomicLongArray(SCAN_SLOTS);
+
+    // Ring: a slot is valid when seq == its write index (seqlock-style)
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLongArray seq = new AtomicLongArray(RING_CAPACITY);
+    private final long[] spanScan = new long[RING_CAPACITY];
+    private final long[] spanStart = new long[RING_CAPACITY];
+    private final long[] spanDuration = new long[RING_CAPACITY];
+    private final long[] spanThread = new long[RING_CAPACITY];
+    private final int[] spanStage = new int[RING_CAPACITY];
+    private final int[] spanOutcome = new int[RING_CAPACITY];
+
+    private ScanTracer() {
+        for (int i = 0; i < RING_CAPACITY; i++) seq.set(i, -1);
+    }
+
+    public static ScanTracer getInstance() {
+        return INSTANCE;
+    }
+
+    /* =========================================================
+       SCANS
+       ========================================================= */
+
+    /**
+     * Mints a new scan ID and starts its clock.
+     */
+    public long newScan() {
+        long scanId = nextScanId.incrementAndGet();
+        scanStarts.set((int) (scanId % SCAN_SLOTS), TimeUtils.nowNano());
+        return scanId;
+    }
+
+    /**
+     * Records the whole-scan span (newScan → now).
+     */
+    public void endScan(long scanId, @NonNull Outcome outcome) {
+        if (scanId == NO_SCAN) return;
+        long start = scanStarts.getAndSet((int) (scanId % SCAN_SLOTS), 0);
+        if (start == 0) return; // Already ended, or slot reused by a newer scan
+        write(PipelineStage.SCAN, scanId, start, TimeUtils.nowNano() - start, outcome);
+    }
+
+    /* =========================================================
+       SPANS
+       ========================================================= */
+
+    /**
+     * @return start timestamp (nano); pass it to end(), also across threads
+     */
+    public long begin(@NonNull PipelineStage stage) {
+        long start = TimeUtils.nowNano();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(stage.name(), cookie(start));
+        }
+        return start;
+    }
+
+    /**
+     * Closes a span opened by begin().
+     *
+     * @return span duration (nano)
+     */
+    public long end(@NonNull PipelineStage stage, long scanId, long startNano, @NonNull Outcome outcome) {
+        long duration = TimeUtils.nowNano() - startNano;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(stage.name(), cookie(startNano));
+        }
+        if (scanId != NO_SCAN) {
+            write(stage, scanId, startNano, duration, outcome);
+        }
+        return duration;
+    }
+
+    /**
+     * Records an already measured span (no android.os.Trace section),
+     * e.g. when the scan ID is only known after the stage ran.
+     */
+    public void record(@NonNull PipelineStage stage, long scanId, long startNano, long durationNanos,
+                       @NonNull Outcome outcome) {
+        if (scanId != NO_SCAN) {
+            write(stage, scanId, startNano, durationNanos, outcome);
+        }
+    }
+
+    private void write(PipelineStage stage, long scanId, long start, long duration, Outcome outcome) {
+        long index = cursor.getAndIncrement();
+        int slot = (int) (index & RING_MASK);
+
+        seq.set(slot, -1);
+        spanScan[slot] = scanId;
+        spanStart[slot] = start;
+        spanDuration[slot] = duration;
+        spanThread[slot] = Thread.currentThread().getId();
+        spanStage[slot] = stage.ordinal();
+        spanOutcome[slot] = outcome.ordinal();
+        seq.set(slot, index); // Volatile write publishes the fields
+    }
+
+    /* =========================================================
+       READ BACK
+       ========================================================= */
+
+    /**
+     * Summed duration of one scan's spans of a stage still in the ring.
+     * O(RING_CAPACITY), no allocation; not on the camera thread.
+     *
+     * @return total nanos, 0 if none (or already overwritten)
+     */
+    public long sumNanos(long scanId, @NonNull PipelineStage stage) {
+        long total = 0;
+        int ordinal = stage.ordinal();
+        long end = cursor.get();
+        for (long index = Math.max(0, end - RING_CAPACITY); index < end; index++) {
+            int slot = (int) (index & RING_MASK);
+            if (seq.get(slot) != index) continue;
+            boolean match = spanScan[slot] == scanId && spanStage[slot] == ordinal;
+            long duration = spanDuration[slot];
+            if (match && seq.get(slot) == index) total += duration;
+        }
+        return total;
+    }
+
+    /**
+     * Number of one scan's spans of a stage still in the ring
+     * (e.g. DETECT → frames the scan's track was detected in).
+     */
+    public int count(long scanId, @NonNull PipelineStage stage) {
+        int count = 0;
+        int ordinal = stage.ordinal();
+        long end = cursor.get();
+        for (long index = Math.max(0, end - RING_CAPACITY); index < end; index++) {
+            int slot = (int) (index & RING_MASK);
+            if (seq.get(slot) != index) continue;
+            boolean match = spanScan[slot] == scanId && spanStage[slot] == ordinal;
+            if (match && seq.get(slot) == index) count++;
+        }
+        return count;
+    }
+
+    private static int cookie(long startNano) {
+        return (int) (startNano ^ (startNano >>> 32));
+    }
+
+    /* =========================================================
+       EXPORT (CHROME / PERFETTO TRACE JSON)
+       ========================================================= */
+
+    /**
+     * Writes the ring buffer to filesDir/traces/scan_trace_<time>.json.
+     * Caller thread (IO / BACKGROUND lane).
+     */
+    @NonNull
+    public File export(@NonNull Context context) throws IOException {
+        File dir = new File(context.getFilesDir(), TRACE_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+
+        File file = new File(dir, "scan_trace_" + TimeUtils.nowWallClockMs() + ".json");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writeChromeTrace(out);
+        }
+        return file;
+    }
+
+    /**
+     * Complete ("X") events, pid = this process, tid = scan ID
+     * → Perfetto shows one row per scan.
+     */
+    public void writeChromeTrace(@NonNull Writer out) throws IOException {
+        PipelineStage[] stages = PipelineStage.values();
+        Outcome[] outcomes = Outcome.values();
+        int pid = Process.myPid();
+
+        long end = cursor.get();
+        long begin = Math.max(0, end - RING_CAPACITY);
+
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        long lastNamedScan = NO_SCAN;
+
+        for (long index = begin; index < end; index++) {
+            int slot = (int) (index & RING_MASK);
+            if (seq.get(slot) != index) continue;
+
+            long scanId = spanScan[slot];
+            long start = spanStart[slot];
+            long duration = spanDuration[slot];
+            long thread = spanThread[slot];
+            int stage = spanStage[slot];
+            int outcome = spanOutcome[slot];
+            if (seq.get(slot) != index) continue; // Overwritten while reading
+
+            if (!first) out.write(',');
+            first = false;
+
+            if (scanId != lastNamedScan) {
+                // Duplicates are harmless; names the row in the viewer
+                out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + pid
+                        + ",\"tid\":" + scanId + ",\"args\":{\"name\":\"scan " + scanId + "\"}},");
+                lastNamedScan = scanId;
+            }
+
+            out.write("{\"name\":\"" + stages[stage].name()
+                    + "\",\"cat\":\"scan\",\"ph\":\"X\""
+                    + ",\"ts\":" + (start / 1_000L)
+                    + ",\"dur\":" + (duration / 1_000L)
+                    + ",\"pid\":" + pid
+                    + ",\"tid\":" + scanId
+                    + ",\"args\":{\"scanId\":" + scanId
+                    + ",\"outcome\":\"" + outcomes[outcome].name()
+                    + "\",\"thread\":" + thread + "}}");
+        }
+        out.write("]}");
+    }
+}
@@ -2,6 +2,7 @@ package com.agrovision.kiosk.app;
 
 import android.content.Context;
 
+import androidx.work.BackoffPolicy;
 import androidx.work.Constraints;
 import androidx.work.ExistingPeriodicWorkPolicy;
 import androidx.work.NetworkType;
@@ -9,9 +10,15 @@ import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 
 import com.agrovision.kiosk.analytics.EventTracker;
+import com.agrovision.kiosk.analytics.telemetry.TelemetryRecorder;
+import com.agrovision.kiosk.camera.CameraController;
+import com.agrovision.kiosk.data.database.AppDatabase;
+import com.agrovision.kiosk.data.repository.MedicineRepository;
 import com.agrovision.kiosk.sync.SyncWorker;
-import com.agrovision.kiosk.threading.IoExecutor;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.ui.ad.AdManager;
 import com.agrovision.kiosk.util.LogUtils;
+import com.agrovision.kiosk.util.SoundManager;
 import com.agrovision.kiosk.watchdog.KioskExceptionHandler;
 
 import java.util.concurrent.TimeUnit;
@@ -23,7 +30,8 @@ import java.util.concurrent.TimeUnit;
  * STRICT RULES:
  * - No StateMachine access
  * - No UI access
- * - No camera / vision / session logic
+ * - No camera / vision / session logic (only their construction,
+ *   declared as StartupOrchestrator tasks)
  * - No heavy work on main thread
  */
 public final class AppInitializer {
@@ -66,17 +74,51 @@ public final class AppInitializer {
         LogUtils.i("AppInitializer: infrastructure boot started");
 
         // -------------------------------------------------
-        // 3️⃣ Kick off async heavy initializations
+        // 3️⃣ Declare subsystem init (critical path in parallel,
+        //    everything else after the first frame)
         // -------------------------------------------------
-        IoExecutor.submit(() -> {
+        declareStartupTasks(appContext);
+        StartupOrchestrator.getInstance().start();
+
+        initialized = true;
+        LogUtils.i("AppInitializer: infrastructure boot complete");
+    }
+
+    /**
+     * Startup graph.
+     *
+     * CRITICAL (scan path):
+     * - database → catalog on IO (Room open + migrations, then snapshot / Room / Firestore)
+     * - vision on REALTIME_VISION in parallel (TFLite interpreter + ML Kit
+     *   client, then one warm-up inference on the inference thread so the
+     *   first scan is not the cold one; the camera binds only after it)
+     *
+     * DEFERRED (after first frame + critical path):
+     * - telemetry, work scheduling, ads, sounds
+     */
+    private static void declareStartupTasks(Context appContext) {
+        StartupOrchestrator startup = StartupOrchestrator.getInstance();
+
+        startup.declare(StartupOrchestrator.TASK_DATABASE, StartupOrchestrator.Phase.CRITICAL, Lane.IO,
+                () -> AppDatabase.getInstance(appContext).getOpenHelper().getWritableDatabase());
+        startup.declare(StartupOrchestrator.TASK_CATALOG, StartupOrchestrator.Phase.CRITICAL, Lane.IO,
+                () -> MedicineRepository.getInstance(appContext),
+                StartupOrchestrator.TASK_DATABASE);
+        startup.declare(StartupOrchestrator.TASK_VISION, StartupOrchestrator.Phase.CRITICAL, Lane.REALTIME_VISION,
+                () -> CameraController.getInstance(appContext).warmUp());
+
+        startup.declare("telemetry", StartupOrchestrator.Phase.DEFERRED, Lane.BACKGROUND, () -> {
             EventTracker.getInstance(appContext).initAsync();
+            TelemetryRecorder.getInstance(appContext).start();
+        });
+        startup.declare("work", StartupOrchestrator.Phase.DEFERRED, Lane.BACKGROUND, () -> {
             scheduleBackgroundSync(appContext);
             scheduleHeartbeat(appContext);
-            LogUtils.i("AppInitializer: background services ready");
         });
-
-        initialized = true;
-        LogUtils.i("AppInitializer: infrastructure boot complete");
+        startup.declare("ads", StartupOrchestrator.Phase.DEFERRED, Lane.BACKGROUND,
+                () -> AdManager.getInstance(appContext));
+        startup.declare("sounds", StartupOrchestrator.Phase.DEFERRED, Lane.BACKGROUND,
+                () -> SoundManager.getInstance(appContext));
     }
 
     /**
@@ -103,8 +145,9 @@ public final class AppInitializer {
     }
 
     /**
-     * Schedules periodic kiosk heartbeat to monitor online/offline status.
-     * Interval: 15 minutes (WorkManager minimum).
+     * Schedules periodic kiosk heartbeat + telemetry upload.
+     * Interval: 15 minutes (WorkManager minimum), one compacted
+     * summary per interval; offline runs back off exponentially.
      */
     private static void scheduleHeartbeat(Context context) {
         Constraints constraints = new Constraints.Builder()
@@ -113,13 +156,15 @@ public final class AppInitializer {
 
         PeriodicWorkRequest heartbeatRequest = new PeriodicWorkRequest.Builder(
                 com.agrovision.kiosk.sync.HeartbeatWorker.class,
-                15, TimeUnit.MINUTES)
+                TelemetryRecorder.INTERVAL_MS, TimeUnit.MILLISECONDS)
                 .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 1, TimeUnit.MINUTES)
                 .build();
 
+        // UPDATE: installed kiosks pick up the new backoff without losing their schedule
         WorkManager.getInstance(context).enqueueUniquePeriodicWork(
                 "KioskHeartbeat",
-                ExistingPeriodicWorkPolicy.KEEP,
+                ExistingPeriodicWorkPolicy.UPDATE,
                 heartbeatRequest
         );
         LogUtils.i("AppInitializer: Heartbeat scheduled");
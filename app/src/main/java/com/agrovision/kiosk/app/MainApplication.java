@@ -27,6 +27,7 @@ public final class MainApplication extends Application {
         LogUtils.i("MainApplication onCreate");
 
         AppInitializer.initialize(this);
+        MemoryGovernor.getInstance(this).install();
         enforceImmersiveDefaults();
         setupActivityTracking();
     }
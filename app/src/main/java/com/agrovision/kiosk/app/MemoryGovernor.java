@@ -0,0 +1,226 @@
+package com.agrovision.kiosk.app;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.data.holder.CurrentScanHolder;
+import com.agrovision.kiosk.util.AudioCacheManager;
+import com.agrovision.kiosk.util.LogUtils;
+import com.agrovision.kiosk.vision.recognition.ScanCropCache;
+import com.bumptech.glide.Glide;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * MemoryGovernor
+ *
+ * Single ComponentCallbacks2 that releases in-memory caches in
+ * priority order when the system asks the kiosk to trim memory.
+ *
+ * DESIGN:
+ * - Every cache registers a footprint probe + a release action + a Tier
+ * - Static / eager caches are registered by install(); lazily created
+ *   ones register themselves when created (never instantiated here)
+ * - TRIM_MEMORY_* level → highest Tier to release; cheaper tiers go first
+ * - report() lists every cache with its current footprint (logged on each trim)
+ *
+ * TIERS:
+ * - EXPENDABLE: pure optimizations (crop cache, decoded images)
+ * - REBUILDABLE: rebuilt on next use at some CPU cost (search index)
+ * - LAST_RESORT: in use by the current flow; only dropped to avoid being killed
+ *
+ * HARD RULES:
+ * - Callbacks run on the main thread: release actions must be cheap
+ * - Caches never hold a reference to the governor (register and forget)
+ */
+public final class MemoryGovernor implements ComponentCallbacks2 {
+
+    public enum Tier {
+        EXPENDABLE,
+        REBUILDABLE,
+        LAST_RESORT
+    }
+
+    /**
+     * Footprint probe; returns bytes, or UNKNOWN.
+     */
+    public interface Footprint {
+        long bytes();
+    }
+
+    public static final long UNKNOWN = -1L;
+
+    private static final class Entry {
+        final String name;
+        final Tier tier;
+        final Footprint footprint;
+        final Runnable release;
+
+        Entry(String name, Tier tier, Footprint footprint, Runnable release) {
+            this.name = name;
+            this.tier = tier;
+            this.footprint = footprint;
+            this.release = release;
+        }
+    }
+
+    private static volatile MemoryGovernor INSTANCE;
+
+    private final Context appContext;
+    private final List<Entry> entries = new ArrayList<>();
+
+    public static MemoryGovernor getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (MemoryGovernor.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MemoryGovernor(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private MemoryGovernor(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    /**
+     * Registers the built-in caches and starts listening.
+     * MUST be called once from MainApplication.onCreate().
+     */
+    public void install() {
+        register("scan_crops", Tier.EXPENDABLE,
+                ScanCropCache::footprintBytes,
+                ScanCropCache::clear);
+
+        // Glide trims itself on the same callbacks; this only adds a full clear when critical
+        register("glide_memory", Tier.LAST_RESORT,
+                () -> UNKNOWN,
+                () -> Glide.get(appContext).clearMemory());
+
+        register("current_scan", Tier.LAST_RESORT,
+                () -> CurrentScanHolder.getInstance().footprintBytes(),
+                () -> CurrentScanHolder.getInstance().clear());
+
+        // On disk: reported only, deleting files frees no RAM
+        register("audio_files", null,
+                () -> AudioCacheManager.getInstance(appContext).diskFootprintBytes(),
+                null);
+
+        appContext.registerComponentCallbacks(this);
+        LogUtils.i("MemoryGovernor: installed (" + entries.size() + " caches)");
+    }
+
+    /**
+     * @param tier    null → report only, never released
+     * @param release null only together with a null tier
+     */
+    public synchronized void register(@NonNull String name,
+                                      Tier tier,
+                                      @NonNull Footprint footprint,
+                                      Runnable release) {
+        entries.add(new Entry(name, tier, footprint, release));
+    }
+
+    /* =========================================================
+       COMPONENT CALLBACKS (MAIN THREAD)
+       ========================================================= */
+
+    @Override
+    public void onTrimMemory(int level) {
+        Tier limit = tierFor(level);
+        if (limit == null) return;
+        release(limit, "trim level " + level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        release(Tier.LAST_RESORT, "low memory");
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        // Not memory related
+    }
+
+    /* =========================================================
+       REPORT
+       ========================================================= */
+
+    /**
+     * One line per cache: name, tier, footprint.
+     */
+    public synchronized String report() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("Memory:");
+        long total = 0;
+        for (Entry e : entries) {
+            long bytes = probe(e);
+            sb.append('\n').append(e.name)
+                    .append(" [").append(e.tier != null ? e.tier.name() : "REPORT_ONLY").append("] ")
+                    .append(bytes == UNKNOWN ? "n/a" : String.format(Locale.US, "%.1f KB", bytes / 1024f));
+            if (bytes > 0 && e.tier != null) total += bytes;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        sb.append(String.format(Locale.US, "\nreleasable=%.1f KB heap=%d/%d MB",
+                total / 1024f,
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024),
+                runtime.maxMemory() / (1024 * 1024)));
+        return sb.toString();
+    }
+
+    /* =========================================================
+       INTERNAL HELPERS
+       ========================================================= */
+
+    /**
+     * Foreground signals (RUNNING_*) matter most on a kiosk that is never
+     * backgrounded; background signals map to the same tiers.
+     */
+    private static Tier tierFor(int level) {
+        if (level == TRIM_MEMORY_RUNNING_CRITICAL || level >= TRIM_MEMORY_MODERATE) {
+            return Tier.LAST_RESORT;
+        }
+        if (level == TRIM_MEMORY_RUNNING_LOW || level >= TRIM_MEMORY_BACKGROUND) {
+            return Tier.REBUILDABLE;
+        }
+        if (level == TRIM_MEMORY_RUNNING_MODERATE || level >= TRIM_MEMORY_UI_HIDDEN) {
+            return Tier.EXPENDABLE;
+        }
+        return null;
+    }
+
+    private synchronized void release(Tier limit, String reason) {
+        long freed = 0;
+        // Cheapest tier first
+        for (Tier tier : Tier.values()) {
+            if (tier.ordinal() > limit.ordinal()) break;
+            for (Entry e : entries) {
+                if (e.tier != tier) continue;
+                long before = probe(e);
+                try {
+                    e.release.run();
+                } catch (Exception ex) {
+                    LogUtils.e("MemoryGovernor: release of " + e.name + " failed", ex);
+                }
+                if (before > 0) freed += Math.max(0, before - probe(e));
+            }
+        }
+        LogUtils.w("MemoryGovernor: " + reason + " → released up to " + limit.name()
+                + String.format(Locale.US, " (%.1f KB)", freed / 1024f));
+        LogUtils.i(report());
+    }
+
+    private static long probe(Entry e) {
+        try {
+            return e.footprint.bytes();
+        } catch (Exception ex) {
+            return UNKNOWN;
+        }
+    }
+}
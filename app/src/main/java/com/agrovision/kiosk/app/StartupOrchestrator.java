@@ -0,0 +1,338 @@
+package com.agrovision.kiosk.app;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskPriority;
+import com.agrovision.kiosk.threading.TaskScheduler;
+import com.agrovision.kiosk.util.LogUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * StartupOrchestrator
+ *
+ * Runs the one-time subsystem initialization of a cold start.
+ *
+ * PURPOSE:
+ * - Declare init tasks with their dependencies (AppInitializer)
+ * - Run independent CRITICAL tasks in parallel on their own lanes
+ * - Hold DEFERRED tasks (ads, updates, scheduling) until the first
+ *   frame is drawn AND the critical path has finished
+ * - Record per-task wait / run time and the scan-ready milestone
+ *
+ * DESIGN:
+ * - Dependencies must be declared before their dependents → no cycles
+ * - A task with no lane runs on the main thread
+ * - A failed task still releases its dependents: the subsystem's own
+ *   getInstance() retries lazily on first use, exactly as before
+ * - If no Activity ever draws (worker-only process start), deferred
+ *   tasks are released after DEFERRED_FALLBACK_MS
+ *
+ * RULES:
+ * - declare() only before start()
+ * - whenReady() / afterFirstFrame() callbacks always run on the main thread
+ */
+public final class StartupOrchestrator {
+
+    public enum Phase {
+        CRITICAL,   // Needed before the kiosk can scan
+        DEFERRED    // May wait until the first frame is on screen
+    }
+
+    // Task names other components wait for
+    public static final String TASK_DATABASE = "database";
+    public static final String TASK_CATALOG = "catalog";
+    public static final String TASK_VISION = "vision";
+
+    // Watchdog restart target: scanning within this budget
+    private static final long SCAN_READY_BUDGET_MS = 2_000;
+
+    // Release deferred work even if no Activity draws
+    private static final long DEFERRED_FALLBACK_MS = 5_000;
+
+    private static volatile StartupOrchestrator instance;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /* ===== Guarded by this ===== */
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final List<Runnable> firstFrameWaiters = new ArrayList<>();
+    private boolean started = false;
+    private boolean firstFrameDrawn = false;
+    private int criticalRemaining = 0;
+    private boolean deferredReleased = false;
+    private boolean scanReadyReported = false;
+
+    private static final class Task {
+        final String name;
+        final Phase phase;
+        @Nullable final Lane lane;          // null = main thread
+        final Runnable body;
+        final List<Task> dependents = new ArrayList<>();
+        final List<Runnable> waiters = new ArrayList<>();
+        int pendingDependencies;
+        boolean dispatched;
+        boolean finished;
+        boolean failed;
+        long queuedAt;
+        long startedAt;
+        long finishedAt;
+
+        Task(String name, Phase phase, @Nullable Lane lane, Runnable body) {
+            this.name = name;
+            this.phase = phase;
+            this.lane = lane;
+            this.body = body;
+        }
+    }
+
+    public static StartupOrchestrator getInstance() {
+        if (instance == null) {
+            synchronized (StartupOrchestrator.class) {
+                if (instance == null) {
+                    instance = new StartupOrchestrator();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private StartupOrchestrator() {}
+
+    /* =========================================================
+       DECLARATION
+       ========================================================= */
+
+    /**
+     * Declares one init task.
+     *
+     * @param lane       lane to run on, or null for the main thread
+     * @param dependsOn  names of previously declared tasks
+     */
+    public synchronized void declare(@NonNull String name,
+                                     @NonNull Phase phase,
+                                     @Nullable Lane lane,
+                                     @NonNull Runnable body,
+                                     String... dependsOn) {
+        if (started) {
+            throw new IllegalStateException("Startup already running, cannot declare " + name);
+        }
+        if (tasks.containsKey(name)) {
+            throw new IllegalStateException("Duplicate startup task: " + name);
+        }
+
+        Task task = new Task(name, phase, lane, body);
+        for (String dependency : dependsOn) {
+            Task parent = tasks.get(dependency);
+            if (parent == null) {
+                throw new IllegalStateException(name + " depends on undeclared task " + dependency);
+            }
+            parent.dependents.add(task);
+            task.pendingDependencies++;
+        }
+        tasks.put(name, task);
+        if (phase == Phase.CRITICAL) criticalRemaining++;
+    }
+
+    /* =========================================================
+       EXECUTION
+       ========================================================= */
+
+    /**
+     * Dispatches every critical task without pending dependencies.
+     * Idempotent.
+     */
+    public void start() {
+        synchronized (this) {
+            if (started) return;
+            started = true;
+            for (Task task : tasks.values()) {
+                dispatchIfReady(task);
+            }
+            releaseDeferredIfReady();
+        }
+        mainHandler.postDelayed(this::onFirstFrame, DEFERRED_FALLBACK_MS);
+        LogUtils.i("STARTUP dispatched " + tasks.size() + " tasks at " + sinceProcessStart() + "ms");
+    }
+
+    /**
+     * Releases deferred work once the given window has drawn its first frame.
+     * MUST be called from the main thread (Activity.onCreate).
+     */
+    public void watchFirstFrame(@NonNull View root) {
+        ViewTreeObserver observer = root.getViewTreeObserver();
+        observer.addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                root.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Posted → runs after this frame is handed to the renderer
+                mainHandler.post(StartupOrchestrator.this::onFirstFrame);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Runs the callback on the main thread once the named task has
+     * finished (immediately posted if it already has).
+     */
+    public void whenReady(@NonNull String name, @NonNull Runnable onMain) {
+        synchronized (this) {
+            Task task = tasks.get(name);
+            if (task != null && !task.finished) {
+                task.waiters.add(onMain);
+                return;
+            }
+        }
+        mainHandler.post(onMain);
+    }
+
+    /**
+     * Runs the callback on the main thread together with the DEFERRED
+     * phase. Used for Activity-scoped work (e.g. update dialogs).
+     */
+    public void afterFirstFrame(@NonNull Runnable onMain) {
+        synchronized (this) {
+            if (!deferredReleased) {
+                firstFrameWaiters.add(onMain);
+                return;
+            }
+        }
+        mainHandler.post(onMain);
+    }
+
+    /**
+     * Scan-ready milestone: the first camera frame reached detection.
+     * Logged once per process.
+     */
+    public void markScanReady() {
+        synchronized (this) {
+            if (scanReadyReported) return;
+            scanReadyReported = true;
+        }
+        long elapsed = sinceProcessStart();
+        if (elapsed > SCAN_READY_BUDGET_MS) {
+            LogUtils.w("STARTUP scan-ready at " + elapsed + "ms (budget " + SCAN_READY_BUDGET_MS + "ms)\n" + report());
+        } else {
+            LogUtils.i("STARTUP scan-ready at " + elapsed + "ms");
+        }
+    }
+
+    /**
+     * Per-task timings (ms since process start), in declaration order.
+     */
+    @NonNull
+    public synchronized String report() {
+        StringBuilder sb = new StringBuilder("STARTUP timings:");
+        for (Task task : tasks.values()) {
+            sb.append('\n').append(String.format(Locale.US, "  %-12s %-8s %-4s ",
+                    task.name, task.phase, task.lane != null ? task.lane.getThreadPrefix() : "main"));
+            if (!task.finished) {
+                sb.append(task.dispatched ? "running" : "pending");
+                continue;
+            }
+            sb.append("wait=").append(task.startedAt - task.queuedAt)
+                    .append("ms run=").append(task.finishedAt - task.startedAt)
+                    .append("ms done@").append(task.finishedAt - Process.getStartUptimeMillis())
+                    .append("ms");
+            if (task.failed) sb.append(" FAILED");
+        }
+        return sb.toString();
+    }
+
+    /* =========================================================
+       INTERNAL
+       ========================================================= */
+
+    // Caller holds this
+    private void dispatchIfReady(Task task) {
+        if (task.dispatched || task.pendingDependencies > 0) return;
+        if (task.phase == Phase.DEFERRED && !deferredReleased) return;
+
+        task.dispatched = true;
+        task.queuedAt = SystemClock.uptimeMillis();
+        Runnable run = () -> execute(task);
+        if (task.lane == null) {
+            mainHandler.post(run);
+        } else {
+            TaskScheduler.submit(task.lane, TaskPriority.HIGH, run);
+        }
+    }
+
+    private void execute(Task task) {
+        long start = SystemClock.uptimeMillis();
+        boolean failed = false;
+        try {
+            task.body.run();
+        } catch (Exception e) {
+            failed = true;
+            LogUtils.e("STARTUP task " + task.name + " failed", e);
+        }
+        long end = SystemClock.uptimeMillis();
+
+        List<Runnable> waiters;
+        synchronized (this) {
+            task.startedAt = start;
+            task.finishedAt = end;
+            task.failed = failed;
+            task.finished = true;
+            waiters = new ArrayList<>(task.waiters);
+            task.waiters.clear();
+
+            for (Task dependent : task.dependents) {
+                dependent.pendingDependencies--;
+                dispatchIfReady(dependent);
+            }
+            if (task.phase == Phase.CRITICAL && --criticalRemaining == 0) {
+                LogUtils.i("STARTUP critical path done at " + sinceProcessStart() + "ms");
+            }
+            releaseDeferredIfReady();
+        }
+
+        LogUtils.d("STARTUP " + task.name + " wait=" + (start - task.queuedAt)
+                + "ms run=" + (end - start) + "ms");
+        for (Runnable waiter : waiters) {
+            mainHandler.post(waiter);
+        }
+    }
+
+    private void onFirstFrame() {
+        synchronized (this) {
+            if (firstFrameDrawn) return;
+            firstFrameDrawn = true;
+            releaseDeferredIfReady();
+        }
+        LogUtils.i("STARTUP first frame at " + sinceProcessStart() + "ms");
+    }
+
+    // Caller holds this
+    private void releaseDeferredIfReady() {
+        if (deferredReleased || !started || !firstFrameDrawn || criticalRemaining > 0) return;
+        deferredReleased = true;
+
+        for (Task task : tasks.values()) {
+            dispatchIfReady(task);
+        }
+        for (Runnable waiter : firstFrameWaiters) {
+            mainHandler.post(waiter);
+        }
+        firstFrameWaiters.clear();
+    }
+
+    private static long sinceProcessStart() {
+        return SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+    }
+}
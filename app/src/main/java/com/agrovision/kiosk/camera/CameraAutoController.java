@@ -0,0 +1,271 @@
+package com.agrovision.kiosk.camera;
+
+import android.graphics.RectF;
+import android.util.Log;
+import android.util.Range;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.camera.core.Camera;
+import androidx.camera.core.CameraControl;
+import androidx.camera.core.ExposureState;
+import androidx.camera.core.FocusMeteringAction;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.MeteringPoint;
+import androidx.camera.core.MeteringPointFactory;
+import androidx.camera.core.SurfaceOrientedMeteringPointFactory;
+
+import com.agrovision.kiosk.util.LogUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CameraAutoController
+ *
+ * Closed-loop torch / exposure / focus control driven by
+ * frame brightness and OCR yield.
+ *
+ * INPUTS:
+ * - Mean luma + clipped highlight ratio of every analysed frame
+ * - Whether an object is currently detected
+ * - Stable detection box (once per track)
+ * - Whether each OCR pass produced readable text
+ *
+ * OUTPUTS (via CameraControl):
+ * - Torch on/off (with hysteresis and minimum dwell time)
+ * - Exposure compensation steps inside the supported range
+ * - Focus + AE metering on the stable bottle box
+ *
+ * HARD RULES:
+ * - Torch only stays on while an object is at the counter
+ * - At most one control decision per CONTROL_INTERVAL_MS
+ * - Never throws: camera control is best-effort
+ */
+public final class CameraAutoController {
+
+    private static final String TAG = "CAMERA_CTRL";
+
+    /* ---------------- CONFIG ---------------- */
+
+    private static final long CONTROL_INTERVAL_MS = 500;
+    private static final long TORCH_MIN_DWELL_MS = 2000;
+    private static final long TORCH_IDLE_OFF_MS = 10_000;
+    private static final long OBJECT_PRESENT_WINDOW_MS = 2000;
+
+    // Luma hysteresis (0-255)
+    private static final int TORCH_ON_LUMA = 45;
+    private static final int DIM_LUMA = 80;
+    private static final int TORCH_OFF_LUMA = 170;
+
+    // Exposure target window
+    private static final int TARGET_LUMA_LOW = 90;
+    private static final int TARGET_LUMA_HIGH = 150;
+
+    // Glare: fraction of clipped highlight samples
+    private static final float EXPOSURE_GLARE_RATIO = 0.05f;
+    private static final float TORCH_GLARE_RATIO = 0.08f;
+
+    // Consecutive unreadable OCR passes that count as "poor yield"
+    private static final int POOR_YIELD_PASSES = 2;
+
+    // Exponential smoothing of the mean luma
+    private static final float LUMA_SMOOTHING = 0.3f;
+
+    // Metering region size (normalized), clamped around the box
+    private static final float MIN_METERING_SIZE = 0.05f;
+    private static final float MAX_METERING_SIZE = 0.5f;
+    private static final long METERING_AUTO_CANCEL_S = 3;
+
+    /* ---------------- CAMERA (MAIN THREAD WRITES) ---------------- */
+
+    private volatile Camera camera;
+    private volatile MeteringPointFactory meteringPointFactory;
+    private volatile boolean hasFlash;
+
+    /* ---------------- LOOP STATE (ANALYZER THREAD) ---------------- */
+
+    private float smoothedLuma = -1f;
+    private float highlightRatio = 0f;
+    private long lastDecisionMs = 0;
+    private long lastTorchChangeMs = 0;
+    private long lastObjectSeenMs = 0;
+    private long lastMeteredTrackId = -1;
+    private boolean torchOn = false;
+    private int exposureIndex = 0;
+
+    // Written from the OCR lane
+    private final AtomicInteger unreadablePasses = new AtomicInteger();
+
+    /* =========================================================
+       LIFECYCLE
+       ========================================================= */
+
+    /**
+     * Called after every successful bind. Applies the default torch state.
+     */
+    public void attach(@NonNull Camera camera, @Nullable ImageAnalysis analysis) {
+        this.camera = camera;
+        this.hasFlash = camera.getCameraInfo().hasFlashUnit();
+        // Normalized [0,1] coordinates in the analysis buffer (same space as YOLO boxes)
+        this.meteringPointFactory = analysis != null
+                ? new SurfaceOrientedMeteringPointFactory(1f, 1f, analysis)
+                : null;
+
+        torchOn = false;
+        exposureIndex = 0;
+        lastMeteredTrackId = -1;
+        unreadablePasses.set(0);
+
+        if (hasFlash) {
+            setTorch(CameraConfig.TORCH_ENABLED_BY_DEFAULT, System.currentTimeMillis());
+        }
+    }
+
+    public void detach() {
+        camera = null;
+        meteringPointFactory = null;
+        torchOn = false;
+    }
+
+    /* =========================================================
+       INPUTS
+       ========================================================= */
+
+    /**
+     * Analyzer thread, every frame.
+     */
+    public void onLuminosity(int meanLuma, float highlightRatio) {
+        if (meanLuma < 0) return;
+
+        smoothedLuma = smoothedLuma < 0
+                ? meanLuma
+                : smoothedLuma + LUMA_SMOOTHING * (meanLuma - smoothedLuma);
+        this.highlightRatio = highlightRatio;
+
+        long now = System.currentTimeMillis();
+        if (now - lastDecisionMs < CONTROL_INTERVAL_MS) return;
+        lastDecisionMs = now;
+
+        evaluate(now);
+    }
+
+    /**
+     * Analyzer thread, after each detection pass.
+     */
+    public void onDetectionPresence(boolean objectPresent) {
+        if (objectPresent) {
+            lastObjectSeenMs = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Analyzer thread. Meters focus + exposure on the bottle once per track.
+     */
+    public void onStableTrack(long trackId, @Nullable RectF normBox) {
+        if (normBox == null || trackId == lastMeteredTrackId) return;
+
+        Camera cam = camera;
+        MeteringPointFactory factory = meteringPointFactory;
+        if (cam == null || factory == null) return;
+
+        lastMeteredTrackId = trackId;
+
+        try {
+            float size = Math.max(normBox.width(), normBox.height());
+            size = Math.max(MIN_METERING_SIZE, Math.min(MAX_METERING_SIZE, size));
+
+            MeteringPoint point = factory.createPoint(normBox.centerX(), normBox.centerY(), size);
+            FocusMeteringAction action = new FocusMeteringAction.Builder(
+                    point,
+                    FocusMeteringAction.FLAG_AF | FocusMeteringAction.FLAG_AE)
+                    .setAutoCancelDuration(METERING_AUTO_CANCEL_S, TimeUnit.SECONDS)
+                    .build();
+
+            if (!cam.getCameraInfo().isFocusMeteringSupported(action)) return;
+
+            cam.getCameraControl().startFocusAndMetering(action);
+            Log.d(TAG, "Metering on track " + trackId + " at " + normBox.toShortString());
+        } catch (Exception e) {
+            LogUtils.w("Focus metering failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * OCR lane. Reports whether an OCR pass produced any text.
+     */
+    public void onOcrYield(boolean readable) {
+        if (readable) {
+            unreadablePasses.set(0);
+        } else {
+            unreadablePasses.incrementAndGet();
+        }
+    }
+
+    /* =========================================================
+       CONTROL LOOP
+       ========================================================= */
+
+    private void evaluate(long now) {
+        Camera cam = camera;
+        if (cam == null) return;
+
+        boolean objectPresent = now - lastObjectSeenMs < OBJECT_PRESENT_WINDOW_MS;
+        boolean poorYield = unreadablePasses.get() >= POOR_YIELD_PASSES;
+        int luma = (int) smoothedLuma;
+
+        // 1️⃣ Torch (only worth it with a bottle at the counter)
+        if (hasFlash && now - lastTorchChangeMs >= TORCH_MIN_DWELL_MS) {
+            if (!torchOn && objectPresent
+                    && (luma < TORCH_ON_LUMA || (poorYield && luma < DIM_LUMA))) {
+                Log.i(TAG, "Torch ON (luma=" + luma + ", poorYield=" + poorYield + ")");
+                setTorch(true, now);
+                unreadablePasses.set(0);
+                return; // Let exposure settle under the new light
+            }
+            if (torchOn && (luma > TORCH_OFF_LUMA
+                    || highlightRatio > TORCH_GLARE_RATIO
+                    || now - lastObjectSeenMs > TORCH_IDLE_OFF_MS)) {
+                Log.i(TAG, "Torch OFF (luma=" + luma + ", glare=" + highlightRatio + ")");
+                setTorch(false, now);
+                return;
+            }
+        }
+
+        // 2️⃣ Exposure compensation (one step per decision)
+        ExposureState exposure = cam.getCameraInfo().getExposureState();
+        if (!exposure.isExposureCompensationSupported()) return;
+
+        int target = exposureIndex;
+        if (!objectPresent) {
+            target = 0; // Back to neutral when idle
+        } else if (highlightRatio > EXPOSURE_GLARE_RATIO || luma > TARGET_LUMA_HIGH) {
+            target = exposureIndex - 1;
+        } else if (luma < TARGET_LUMA_LOW
+                || (poorYield && luma < (TARGET_LUMA_LOW + TARGET_LUMA_HIGH) / 2)) {
+            target = exposureIndex + 1;
+        }
+
+        Range<Integer> range = exposure.getExposureCompensationRange();
+        target = Math.max(range.getLower(), Math.min(range.getUpper(), target));
+
+        if (target != exposureIndex) {
+            Log.d(TAG, "Exposure index " + exposureIndex + " -> " + target + " (luma=" + luma + ")");
+            exposureIndex = target;
+            cam.getCameraControl().setExposureCompensationIndex(target);
+        }
+    }
+
+    private void setTorch(boolean on, long now) {
+        Camera cam = camera;
+        if (cam == null) return;
+        try {
+            CameraControl control = cam.getCameraControl();
+            control.enableTorch(on);
+            torchOn = on;
+            lastTorchChangeMs = now;
+        } catch (Exception e) {
+            LogUtils.w("Torch toggle failed: " + e.getMessage());
+        }
+    }
+}
@@ -42,6 +42,11 @@ public final class CameraConfig {
      */
     public static final Size ANALYSIS_RESOLUTION = new Size(1920, 1080);
 
+    /**
+     * Analysis resolution while the device runs hot (DegradationController).
+     */
+    public static final Size REDUCED_ANALYSIS_RESOLUTION = new Size(1280, 720);
+
     /**
      * Image format for analysis.
      *
@@ -98,11 +103,14 @@ public final class CameraConfig {
        ========================================================= */
 
     /**
-     * Torch usage.
+     * Initial torch state after binding.
      *
      * FALSE by default:
      * - Shops prefer ambient light
      * - Torch drains battery & heats sensor
+     *
+     * At runtime CameraAutoController switches the torch on
+     * only while a bottle is at the counter in poor light.
      */
     public static final boolean TORCH_ENABLED_BY_DEFAULT = false;
 
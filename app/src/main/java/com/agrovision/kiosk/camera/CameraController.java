@@ -17,26 +17,38 @@ import androidx.camera.view.PreviewView;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.LifecycleOwner;
 
+import com.agrovision.kiosk.analytics.PerformanceLogger;
+import com.agrovision.kiosk.analytics.events.MvpEvent;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.analytics.trace.ScanTracer;
+import com.agrovision.kiosk.app.StartupOrchestrator;
+import com.agrovision.kiosk.data.repository.MedicineRepository;
 import com.agrovision.kiosk.state.StateEvent;
 import com.agrovision.kiosk.state.StateMachine;
-import com.agrovision.kiosk.threading.DetectionExecutor;
+import com.agrovision.kiosk.threading.CancellationToken;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
 import com.agrovision.kiosk.ui.home.BoundingBoxOverlay;
 import com.agrovision.kiosk.util.BitmapUtils;
 import com.agrovision.kiosk.util.ImageUtils;
 import com.agrovision.kiosk.util.LogUtils;
 import com.agrovision.kiosk.util.RectUtils;
+import com.agrovision.kiosk.util.TimeUtils;
 import com.agrovision.kiosk.vision.detection.*;
+import com.agrovision.kiosk.vision.mapping.MedicineMatcher;
+import com.agrovision.kiosk.vision.recognition.OcrConsensus;
 import com.agrovision.kiosk.vision.recognition.OcrProcessor;
+import com.agrovision.kiosk.vision.recognition.ScanCropCache;
 import com.agrovision.kiosk.vision.recognition.ScanDebouncer;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -46,6 +58,23 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * SINGLE OWNER of CameraX + vision pipeline.
  * Synchronizes rotation with display for upright preview and processing.
  * Optimized for 1-2 second end-to-end latency.
+ *
+ * SPECULATIVE OCR:
+ * - The most confident box is tracked by BoxStabilityTracker
+ * - While that track is promising but not yet stable, OCR starts early
+ * - The result is held and only delivered once the same track is stable
+ * - If the track moves or is replaced, the OCR is cancelled and
+ *   nothing more is speculated until a track stabilizes again
+ *
+ * OCR CONSENSUS:
+ * - Passes on the primary track are fused by OcrConsensus
+ * - The track is read again (max 3 passes) until the fused text
+ *   reaches the matcher's high-confidence threshold
+ * - Once settled, the primary box is not OCR'd again for that track
+ *
+ * CAMERA CONTROL LOOP:
+ * - CameraAutoController drives torch / exposure from frame brightness
+ *   and OCR yield, and meters focus on the stable primary box
  */
 public final class CameraController {
 
@@ -64,22 +93,53 @@ public final class CameraController {
 
     // Vision pipeline modules
     private final YoloDetector yoloDetector;
+    private final TfliteYoloModel yoloModel;
+    private final DegradationController degradation;
     private final BoxStabilityTracker stabilityTracker = new BoxStabilityTracker();
     private final OcrProcessor ocrProcessor;
+    private final VisionWarmUp visionWarmUp;
     private final ScanDebouncer scanDebouncer = new ScanDebouncer();
+    private final OcrConsensus primaryConsensus;
     private ScanResultCallback scanResultCallback;
 
     private final FrameAnalyzer frameAnalyzer;
+    private final CameraAutoController autoController = new CameraAutoController();
+    private final PerformanceLogger perf = PerformanceLogger.getInstance();
+    private final ScanTracer tracer = ScanTracer.getInstance();
 
     // UI Overlay
-    private BoundingBoxOverlay overlayView;
+    private volatile BoundingBoxOverlay overlayView;
+    private volatile boolean overlayMirrored = false;      // cached per bind
+    private final float[] overlayBoxes = new float[BoundingBoxOverlay.MAX_BOXES * 4]; // vision thread only
 
     // 🚀 Multi-object detection fields
     private final AtomicBoolean isProcessingQueue = new AtomicBoolean(false);
     private final AtomicBoolean isDetectionEnabled = new AtomicBoolean(true);
+    private boolean scanReadyReported = false;      // vision thread only
     private final Queue<DetectionResult> pendingDetections = new LinkedList<>();
-    private final Set<String> processedResults = new HashSet<>();
+    // Cleared on the vision thread, checked / added on the OCR lane
+    private final Set<String> processedResults = ConcurrentHashMap.newKeySet();
     private Bitmap currentProcessingBitmap;
+    private DetectionResult queuePrimary;           // primary box of the running queue
+    private long queueTrackId;
+    private long queueScanId = ScanTracer.NO_SCAN;
+    private long scanStartTrackId = NO_TRACK;       // track the scan clock runs for
+    private long detectedTrackId = NO_TRACK;        // track OBJECT_DETECTED was reported for
+
+    // 🚀 Trace correlation (vision thread only)
+    private long scanTrackId = NO_TRACK;            // track the current scan ID belongs to
+    private long scanId = ScanTracer.NO_SCAN;
+
+    // 🚀 Speculative OCR state (guarded by speculationLock)
+    private static final long NO_TRACK = -1;
+    private final Object speculationLock = new Object();
+    private CancellationToken speculativeToken;     // non-null while OCR is running
+    private long speculativeTrackId = NO_TRACK;     // track the speculation belongs to
+    private String speculativeText;                 // finished but not yet delivered
+    private long awaitingTrackId = NO_TRACK;        // stable track waiting for the running OCR
+    private long speculativeScanId = ScanTracer.NO_SCAN;
+    private long speculativeOcrStart;               // OCR span start (closed on cancel too)
+    private boolean speculationSuppressed = false;  // set after a cancel, cleared on stability
 
     public static CameraController getInstance(@NonNull Context context) {
         if (instance == null) {
@@ -87,7 +147,7 @@ public final class CameraController {
                 if (instance == null) {
                     instance = new CameraController(
                             context.getApplicationContext(),
-                            DetectionExecutor.get()
+                            TaskScheduler.executor(Lane.REALTIME_VISION)
                     );
                 }
             }
@@ -102,19 +162,38 @@ public final class CameraController {
         this.cameraExecutor = executor;
         this.stateMachine = StateMachine.getInstance(appContext);
 
-        this.yoloDetector = new YoloDetector(
-                new TfliteYoloModel(appContext)
-        );
+        this.yoloModel = new TfliteYoloModel(appContext);
+        this.yoloDetector = new YoloDetector(yoloModel);
+        this.degradation = DegradationController.getInstance(appContext);
 
         this.ocrProcessor = new OcrProcessor(appContext);
+        this.visionWarmUp = new VisionWarmUp(yoloModel, ocrProcessor);
+        stateMachine.addObserver(visionWarmUp);
+
+        // Repository resolved per check: vision init must not wait for the catalog
+        this.primaryConsensus = new OcrConsensus(
+                text -> MedicineMatcher.isHighConfidence(text,
+                        MedicineRepository.getInstance(appContext).getSnapshot().getMatcherIndex())
+        );
 
         this.frameAnalyzer = new FrameAnalyzer(
                 new LuminosityAnalyzer(),
                 this::handleFrame,
-                () -> LogUtils.w("Low light detected at counter")
+                () -> LogUtils.w("Low light detected at counter"),
+                autoController::onLuminosity
         );
     }
 
+    /**
+     * 🚀 Boot warm-up: first inference and first OCR are paid on a
+     * synthetic image. Called by the vision startup task on the
+     * REALTIME_VISION lane (the inference thread), before the camera
+     * binds (no frames are flowing yet).
+     */
+    public void warmUp() {
+        visionWarmUp.runAtBoot();
+    }
+
     public void setScanResultCallback(ScanResultCallback callback) {
         this.scanResultCallback = callback;
     }
@@ -128,14 +207,14 @@ public final class CameraController {
      * Completely pauses the vision pipeline (YOLO + OCR).
      */
     public void setDetectionEnabled(boolean enabled) {
-        Log.i("PIPELINE_TRACE", "Detection " + (enabled ? "ENABLED" : "DISABLED"));
         Log.d("SCAN_DEBUG", "Vision analyzer " + (enabled ? "RESUMED" : "PAUSED"));
         isDetectionEnabled.set(enabled);
         if (!enabled) {
             resetPipeline();
             // Clear overlay immediately when disabled
-            if (overlayView != null) {
-                overlayView.post(() -> overlayView.setBoxes(Collections.emptyList()));
+            BoundingBoxOverlay overlay = overlayView;
+            if (overlay != null) {
+                overlay.clearBoxes();
             }
         }
     }
@@ -146,7 +225,6 @@ public final class CameraController {
      * Should be called when scanning starts/resumes to prevent deadlocks.
      */
     public void resetPipeline() {
-        Log.i("PIPELINE_TRACE", "Resetting vision pipeline status");
         isProcessingQueue.set(false);
         pendingDetections.clear();
         processedResults.clear();
@@ -154,6 +232,12 @@ public final class CameraController {
             BitmapUtils.safeRecycle(currentProcessingBitmap);
             currentProcessingBitmap = null;
         }
+        synchronized (speculationLock) {
+            cancelSpeculationLocked();
+            speculationSuppressed = false;
+        }
+        stabilityTracker.reset();
+        primaryConsensus.reset();
     }
 
     /**
@@ -204,86 +288,154 @@ public final class CameraController {
        ========================================================= */
 
     private long lastProcessTime = 0;
-    private static final long PROCESS_THROTTLE_MS = 100; // 🚀 Reduced from 200ms to 100ms for "instant" feel
+    // 🚀 Frame interval comes from DegradationController.Level (100 ms when cool)
 
     private void handleFrame(@NonNull ImageProxy image) {
         if (!isDetectionEnabled.get()) {
             image.close();
             return;
         }
+        if (!scanReadyReported) {
+            scanReadyReported = true;
+            StartupOrchestrator.getInstance().markScanReady();
+        }
 
         // 🚀 PERFORMANCE OPTIMIZATION:
         // If the pipeline is busy processing previous detections (OCR/Matching),
         // we skip detection on new frames to free up CPU resources.
         // This prevents the "stuttering" or "stuck" feel on lower-end kiosk hardware.
         if (isProcessingQueue.get()) {
+            perf.markFrameDropped();
             return;
         }
 
         long now = System.currentTimeMillis();
-        Log.v("PIPELINE_TRACE", "1. Frame received");
 
-        // 🚀 Step 2: Still throttle detection to avoid overworking CPU
-        if (now - lastProcessTime < PROCESS_THROTTLE_MS) {
+        // 🚀 Step 2: Still throttle detection to avoid overworking CPU (slower when hot)
+        DegradationController.Level level = degradation.getLevel();
+        if (now - lastProcessTime < level.frameIntervalMs) {
             return;
         }
         lastProcessTime = now;
 
+        // Hot and nobody at the counter → skip detection entirely
+        if (!degradation.allowsDetection()) {
+            return;
+        }
+        yoloModel.setNumThreads(level.interpreterThreads);
+
+        // Woke from idle: the first inference runs on a synthetic frame, not this one
+        if (visionWarmUp.runPendingWake()) {
+            return;
+        }
+
         try {
+            long convertStart = TimeUtils.nowNano();
             Bitmap bitmap = ImageUtils.toBitmap(image);
             if (bitmap == null) return;
+            perf.record(PipelineStage.FRAME_CONVERT, convertStart);
+            perf.markFrame();
 
             // 🚀 ALWAYS DETECT (Step 8: Detection continues always)
+            long yoloStart = perf.markYoloStart();
             List<DetectionResult> detections = yoloDetector.detect(bitmap);
-            Log.v("PIPELINE_TRACE", "2. YOLO Detection finished. Boxes: " + detections.size());
+            long yoloNanos = TimeUtils.elapsedNano(yoloStart);
+            perf.markYoloEnd(yoloStart);
 
             // 🚀 ALWAYS UPDATE UI OVERLAY
             updateOverlay(detections, bitmap.getWidth(), bitmap.getHeight());
 
-            if (detections.isEmpty()) {
+            // STEP 3: confidence > 0.5, most confident first
+            List<DetectionResult> validDetections = new ArrayList<>();
+            for (DetectionResult det : detections) {
+                if (det.getConfidence() > 0.5f) {
+                    validDetections.add(det);
+                }
+            }
+            validDetections.sort((a, b) -> Float.compare(b.getConfidence(), a.getConfidence()));
+
+            // 🚀 TRACK THE PRIMARY BOX ACROSS FRAMES
+            DetectionResult primary = validDetections.isEmpty() ? null : validDetections.get(0);
+            stabilityTracker.update(primary);
+            long trackId = stabilityTracker.getTrackId();
+            onTrackUpdated(primary == null, trackId);
+            autoController.onDetectionPresence(primary != null);
+
+            // 🚀 ONE SCAN ID PER TRACK (correlates every span of this bottle)
+            if (primary != null) {
+                if (trackId != scanTrackId) {
+                    scanTrackId = trackId;
+                    scanId = tracer.newScan();
+                }
+                tracer.record(PipelineStage.DETECT, scanId, yoloStart, yoloNanos, ScanTracer.Outcome.OK);
+            }
+
+            if (primary == null) {
+                BitmapUtils.safeRecycle(bitmap);
+                return;
+            }
+
+            // 🚀 NOT STABLE YET: read the primary box speculatively
+            if (!stabilityTracker.isStable()) {
+                maybeStartSpeculation(bitmap, trackId);
                 BitmapUtils.safeRecycle(bitmap);
                 return;
             }
 
+            // 🚀 METER FOCUS + EXPOSURE ON THE BOTTLE (once per track)
+            autoController.onStableTrack(trackId, stabilityTracker.getStableBox());
+
             // 🚀 START PROCESSING QUEUE IF IDLE (Step 6: Create Processing Queue)
             // Use compareAndSet to prevent race conditions when multiple frames are processed
             if (isProcessingQueue.compareAndSet(false, true)) {
-                List<DetectionResult> validDetections = new ArrayList<>();
-                for (DetectionResult det : detections) {
-                    // STEP 3: confidence > 0.5
-                    if (det.getConfidence() > 0.5f) {
-                        validDetections.add(det);
+                markScanStart(trackId);
+
+                // 🚀 STATE TRANSITION: Notify that an object is detected (once per track)
+                if (detectedTrackId != trackId) {
+                    detectedTrackId = trackId;
+                    stateMachine.transition(StateEvent.OBJECT_DETECTED);
+                }
+
+                String heldText = null;
+                boolean awaitingSpeculation = false;
+                synchronized (speculationLock) {
+                    speculationSuppressed = false;
+                    if (speculativeTrackId == trackId) {
+                        if (speculativeToken != null) {
+                            // Primary box is already being read: deliver on arrival
+                            awaitingTrackId = trackId;
+                            awaitingSpeculation = true;
+                        } else if (speculativeText != null) {
+                            heldText = speculativeText;
+                            speculativeText = null;
+                        }
                     }
                 }
 
-                if (!validDetections.isEmpty()) {
-                    Log.i("PIPELINE_TRACE", "3. Processing triggered. Valid Boxes: " + validDetections.size());
+                // STEP 4: LIMIT MAX OBJECTS
+                int limit = Math.min(validDetections.size(), 3);
 
-                    // 🚀 STATE TRANSITION: Notify that an object is detected
-                    stateMachine.transition(StateEvent.OBJECT_DETECTED);
+                pendingDetections.clear();
+                processedResults.clear();
 
-                    // STEP 4: LIMIT MAX OBJECTS
-                    validDetections.sort((a, b) -> Float.compare(b.getConfidence(), a.getConfidence()));
-                    int limit = Math.min(validDetections.size(), 3);
-                    
-                    pendingDetections.clear();
-                    processedResults.clear();
-                    
-                    for (int i = 0; i < limit; i++) {
-                        pendingDetections.add(validDetections.get(i));
-                    }
-                    
-                    currentProcessingBitmap = bitmap;
-                    Log.d("SCAN_DEBUG", "Boxes detected: " + validDetections.size() + ". Starting queue processing.");
-                    processNext();
-                    return; // Don't recycle bitmap, processNext will do it.
-                } else {
-                    // Reset flag if no valid detections found
-                    isProcessingQueue.set(false);
-                    Log.v("PIPELINE_TRACE", "3. No boxes passed confidence threshold (>0.5)");
+                // Speculative read counts as the first consensus pass
+                if (heldText != null) {
+                    onPrimaryText(trackId, heldText, scanId);
                 }
-            } else {
-                Log.v("PIPELINE_TRACE", "3. Processing skipped: Queue is busy");
+
+                // Primary box already settled, or still read speculatively → skip it
+                int first = awaitingSpeculation || primaryConsensus.isSettled(trackId) ? 1 : 0;
+                for (int i = first; i < limit; i++) {
+                    pendingDetections.add(validDetections.get(i));
+                }
+                queuePrimary = first == 0 ? primary : null;
+                queueTrackId = trackId;
+                queueScanId = scanId;
+
+                currentProcessingBitmap = bitmap;
+                Log.d("SCAN_DEBUG", "Boxes detected: " + validDetections.size() + ". Starting queue processing.");
+                processNext();
+                return; // Don't recycle bitmap, processNext will do it.
             }
 
             BitmapUtils.safeRecycle(bitmap);
@@ -298,7 +450,6 @@ public final class CameraController {
 
         if (detection == null) {
             // STEP 6: Queue empty -> return
-            Log.d("PIPELINE_TRACE", "Queue empty, resetting processing flag.");
             isProcessingQueue.set(false);
             if (currentProcessingBitmap != null) {
                 BitmapUtils.safeRecycle(currentProcessingBitmap);
@@ -307,85 +458,258 @@ public final class CameraController {
             return;
         }
 
-        Log.d("PIPELINE_TRACE", "4. Cropping box index: " + pendingDetections.size());
         Log.d("SCAN_DEBUG", "Processing next box in queue...");
 
-        RectF normBox = detection.getBoundingBox();
+        Bitmap ocrInput = cropForOcr(currentProcessingBitmap, detection.getBoundingBox());
+
+        if (ocrInput != null) {
+            long ocrScanId = queueScanId;
+            long ocrStart = tracer.begin(PipelineStage.OCR);
+            ocrProcessor.process(ocrInput, normalizedText -> {
+                perf.markOcrEnd(ocrStart);
+                tracer.end(PipelineStage.OCR, ocrScanId, ocrStart,
+                        normalizedText.isEmpty() ? ScanTracer.Outcome.EMPTY : ScanTracer.Outcome.OK);
+                // Kept for an UNKNOWN result (cache owns + recycles it)
+                ScanCropCache.put(normalizedText, ocrInput);
+                autoController.onOcrYield(!normalizedText.isEmpty());
+
+                if (detection == queuePrimary) {
+                    onPrimaryText(queueTrackId, normalizedText, ocrScanId);
+                } else {
+                    deliverText(normalizedText, ocrScanId);
+                }
+
+                // STEP 6: After complete -> call processNext()
+                processNext();
+            });
+        } else {
+            processNext();
+        }
+    }
+
+    /**
+     * Crops a normalized box out of the frame and scales it for OCR.
+     *
+     * @return a new bitmap owned by the caller, or null if the crop failed
+     */
+    private Bitmap cropForOcr(@NonNull Bitmap frame, @NonNull RectF normBox) {
+        long cropStart = TimeUtils.nowNano();
 
         // 🚀 SCALE NORMALIZED -> PIXELS for cropping
-        float left = normBox.left * currentProcessingBitmap.getWidth();
-        float top = normBox.top * currentProcessingBitmap.getHeight();
-        float right = normBox.right * currentProcessingBitmap.getWidth();
-        float bottom = normBox.bottom * currentProcessingBitmap.getHeight();
+        float left = normBox.left * frame.getWidth();
+        float top = normBox.top * frame.getHeight();
+        float right = normBox.right * frame.getWidth();
+        float bottom = normBox.bottom * frame.getHeight();
         RectF pixelBox = new RectF(left, top, right, bottom);
 
         Bitmap cropped = BitmapUtils.safeCrop(
-                currentProcessingBitmap,
+                frame,
                 RectUtils.toRect(
                         pixelBox,
-                        currentProcessingBitmap.getWidth(),
-                        currentProcessingBitmap.getHeight()
+                        frame.getWidth(),
+                        frame.getHeight()
                 )
         );
+        if (cropped == null) return null;
+
+        Bitmap ocrInput = BitmapUtils.scaleToWidth(cropped, 640);
+        if (ocrInput != cropped) {
+            BitmapUtils.safeRecycle(cropped);
+        }
+        perf.record(PipelineStage.CROP, cropStart);
+        return ocrInput;
+    }
+
+    /**
+     * Feeds one pass of the primary box into the consensus and
+     * delivers the fused text once the track is settled.
+     */
+    private void onPrimaryText(long trackId, String normalizedText, long textScanId) {
+        String consensus = primaryConsensus.add(trackId, normalizedText);
+        if (consensus != null) {
+            ScanCropCache.alias(normalizedText, consensus);
+            deliverText(consensus, textScanId);
+        }
+    }
+
+    /**
+     * Debounces one OCR result and hands it to the result callback.
+     */
+    private void deliverText(String normalizedText, long textScanId) {
+        if (normalizedText != null && !normalizedText.isEmpty()) {
+            // STEP 7: AVOID DUPLICATES & PREVENT SPAM (using ScanDebouncer)
+            if (scanDebouncer.shouldProcess(normalizedText) && processedResults.add(normalizedText)) {
+                // STEP 9: UPDATE RESULT FLOW - Send one-by-one for immediate display
+                if (scanResultCallback != null) {
+                    scanResultCallback.onScanCompleted(Collections.singletonList(normalizedText), textScanId);
+                }
+            }
+        } else {
+            stateMachine.report(MvpEvent.OCR_TEXT_EMPTY);
+        }
+    }
+
+    /* =========================================================
+       SPECULATIVE OCR
+       ========================================================= */
+
+    /**
+     * Called once per analysed frame after the tracker update.
+     * Drops speculative work that belongs to a track that no longer exists.
+     */
+    private void onTrackUpdated(boolean trackLost, long trackId) {
+        // Track ended or changed before the consensus settled: deliver the best effort
+        String leftover = primaryConsensus.flushUnless(trackLost ? NO_TRACK : trackId);
+        if (leftover != null) {
+            deliverText(leftover, scanId);
+        }
 
-        if (cropped != null) {
-            Log.d("PIPELINE_TRACE", "5. OCR Started");
-            Bitmap ocrInput = BitmapUtils.scaleToWidth(cropped, 640);
-            if (ocrInput != cropped) {
-                BitmapUtils.safeRecycle(cropped);
+        synchronized (speculationLock) {
+            if (trackLost) {
+                // Object left the counter: the next one may be speculated again
+                cancelSpeculationLocked();
+                speculationSuppressed = false;
+                return;
             }
 
-            ocrProcessor.process(ocrInput, normalizedText -> {
-                Log.d("PIPELINE_TRACE", "6. OCR Finished. Text: [" + normalizedText + "]");
-                BitmapUtils.safeRecycle(ocrInput);
-
-                if (normalizedText != null && !normalizedText.isEmpty()) {
-                    // STEP 7: AVOID DUPLICATES & PREVENT SPAM (using ScanDebouncer)
-                    if (scanDebouncer.shouldProcess(normalizedText) && !processedResults.contains(normalizedText)) {
-                        processedResults.add(normalizedText);
-
-                        Log.i("PIPELINE_TRACE", "7. Notifying callback with result");
-                        // STEP 9: UPDATE RESULT FLOW - Send one-by-one for immediate display
-                        if (scanResultCallback != null) {
-                            scanResultCallback.onScanCompleted(Collections.singletonList(normalizedText));
-                        }
-                    } else {
-                        Log.d("PIPELINE_TRACE", "7. Result debounced or already processed");
-                    }
-                } else {
-                    Log.d("PIPELINE_TRACE", "7. OCR returned empty/null");
+            if (speculativeTrackId != NO_TRACK && speculativeTrackId != trackId) {
+                boolean unconsumed = speculativeToken != null || speculativeText != null;
+                cancelSpeculationLocked();
+                if (unconsumed) {
+                    // Track moved or was replaced: re-read only once it is stable
+                    speculationSuppressed = true;
                 }
+            }
+        }
+    }
 
-                // STEP 6: After complete -> call processNext()
-                processNext();
-            });
-        } else {
-            Log.w("PIPELINE_TRACE", "5. Crop failed");
-            processNext();
+    /**
+     * Starts OCR on the primary box of a promising (not yet stable) track.
+     * At most one speculation per track; never competes with the queue.
+     */
+    private void maybeStartSpeculation(@NonNull Bitmap frame, long trackId) {
+        if (!stabilityTracker.isPromising() || isProcessingQueue.get() || ocrProcessor.isBusy()) {
+            return;
         }
+
+        RectF box = stabilityTracker.getLatestBox();
+        if (box == null) return;
+
+        CancellationToken token;
+        Bitmap ocrInput;
+        synchronized (speculationLock) {
+            if (speculationSuppressed || speculativeTrackId == trackId) return;
+
+            ocrInput = cropForOcr(frame, box);
+            if (ocrInput == null) return;
+
+            token = new CancellationToken();
+            speculativeToken = token;
+            speculativeTrackId = trackId;
+            speculativeText = null;
+            speculativeScanId = scanId;
+            speculativeOcrStart = tracer.begin(PipelineStage.OCR);
+        }
+
+        markScanStart(trackId);
+        long ocrStart = speculativeOcrStart;
+        ocrProcessor.process(ocrInput, token, normalizedText -> {
+            perf.markOcrEnd(ocrStart);
+            onSpeculativeResult(token, trackId, ocrInput, normalizedText);
+        });
     }
 
-    @OptIn(markerClass = ExperimentalLensFacing.class)
-    private void updateOverlay(List<DetectionResult> detections, int bitmapW, int bitmapH) {
-        if (overlayView == null) return;
+    /**
+     * Starts the end-to-end clock at the first OCR of a track
+     * (closed by the scan history via PerformanceLogger.markScanEnd()).
+     * Vision thread only.
+     */
+    private void markScanStart(long trackId) {
+        if (scanStartTrackId == trackId) return;
+        scanStartTrackId = trackId;
+        perf.markScanStart();
+    }
 
-        float viewW = overlayView.getWidth();
-        float viewH = overlayView.getHeight();
+    /**
+     * Not called for cancelled tokens (OcrProcessor drops them).
+     */
+    private void onSpeculativeResult(CancellationToken token,
+                                     long trackId,
+                                     Bitmap ocrInput,
+                                     String normalizedText) {
+        ScanCropCache.put(normalizedText, ocrInput);
+        autoController.onOcrYield(!normalizedText.isEmpty());
+
+        boolean deliverNow;
+        long textScanId;
+        synchronized (speculationLock) {
+            if (token.isCancelled() || speculativeToken != token) return;
+            speculativeToken = null;
+            textScanId = speculativeScanId;
+            tracer.end(PipelineStage.OCR, textScanId, speculativeOcrStart,
+                    normalizedText.isEmpty() ? ScanTracer.Outcome.EMPTY : ScanTracer.Outcome.OK);
+
+            // Track became stable while reading → deliver right away
+            deliverNow = awaitingTrackId == trackId;
+            if (deliverNow) {
+                awaitingTrackId = NO_TRACK;
+            } else {
+                speculativeText = normalizedText;
+            }
+        }
+
+        if (deliverNow) {
+            processedResults.clear();
+            onPrimaryText(trackId, normalizedText, textScanId);
+        }
+    }
 
-        if (viewW <= 0 || viewH <= 0 || bitmapW <= 0 || bitmapH <= 0) return;
+    /**
+     * Caller must hold speculationLock.
+     *
+     * The cancelled OCR input is NOT recycled here: ML Kit may still be
+     * reading it, so it is left to the garbage collector.
+     */
+    private void cancelSpeculationLocked() {
+        if (speculativeToken != null) {
+            ocrProcessor.cancel(speculativeToken);
+            speculativeToken = null;
+            tracer.end(PipelineStage.OCR, speculativeScanId, speculativeOcrStart, ScanTracer.Outcome.CANCELLED);
+        }
+        speculativeTrackId = NO_TRACK;
+        speculativeText = null;
+        awaitingTrackId = NO_TRACK;
+    }
 
-        // 🚀 CALCULATE FILL_CENTER SCALE
-        float scale = Math.max(viewW / (float) bitmapW, viewH / (float) bitmapH);
-        float scaledW = bitmapW * scale;
-        float scaledH = bitmapH * scale;
+    /**
+     * Publishes normalized boxes to the overlay.
+     *
+     * Zero allocation: boxes are packed into a reused float array
+     * (the overlay copies it), mapping and vsync coalescing happen
+     * in BoundingBoxOverlay.
+     */
+    private void updateOverlay(List<DetectionResult> detections, int bitmapW, int bitmapH) {
+        BoundingBoxOverlay overlay = overlayView;
+        if (overlay == null) return;
 
-        // 🚀 CALCULATE OFFSETS (Centering)
-        float offsetX = (scaledW - viewW) / 2f;
-        float offsetY = (scaledH - viewH) / 2f;
+        int count = Math.min(detections.size(), BoundingBoxOverlay.MAX_BOXES);
+        for (int i = 0; i < count; i++) {
+            // Normalized [0, 1], no defensive RectF copy
+            detections.get(i).writeBoundingBox(overlayBoxes, i * 4);
+        }
 
-        // 🚀 MIRRORING DETECTION
-        // Kiosk external cameras often behave like front-facing cameras or
-        // come mirrored by default. We enable mirroring if it's front OR external.
+        overlay.submitBoxes(overlayBoxes, count, bitmapW, bitmapH, overlayMirrored);
+    }
+
+    /**
+     * 🚀 MIRRORING DETECTION
+     * Kiosk external cameras often behave like front-facing cameras or
+     * come mirrored by default. We enable mirroring if it's front OR external.
+     *
+     * Evaluated once per bind instead of once per frame.
+     */
+    @OptIn(markerClass = ExperimentalLensFacing.class)
+    private void updateLensMirroring() {
         boolean isMirrored = false;
         try {
             if (camera != null) {
@@ -394,27 +718,7 @@ public final class CameraController {
                                               lens == CameraSelector.LENS_FACING_EXTERNAL));
             }
         } catch (Exception ignored) {}
-
-        List<RectF> mappedBoxes = new ArrayList<>();
-        for (DetectionResult det : detections) {
-            RectF box = det.getBoundingBox(); // Normalized [0, 1]
-
-            float left = (box.left * scaledW) - offsetX;
-            float top = (box.top * scaledH) - offsetY;
-            float right = (box.right * scaledW) - offsetX;
-            float bottom = (box.bottom * scaledH) - offsetY;
-
-            if (isMirrored) {
-                float mLeft = viewW - right;
-                float mRight = viewW - left;
-                left = mLeft;
-                right = mRight;
-            }
-
-            mappedBoxes.add(new RectF(left, top, right, bottom));
-        }
-
-        overlayView.post(() -> overlayView.setBoxes(mappedBoxes));
+        overlayMirrored = isMirrored;
     }
 
     /* =========================================================
@@ -443,6 +747,16 @@ public final class CameraController {
         });
     }
 
+    /**
+     * Resolution for the next bind: 720p while the device runs hot.
+     * Takes effect on the next camera start (every return to Home).
+     */
+    private android.util.Size analysisResolution() {
+        return degradation.getLevel().reducedResolution
+                ? CameraConfig.REDUCED_ANALYSIS_RESOLUTION
+                : CameraConfig.ANALYSIS_RESOLUTION;
+    }
+
     public void startSilentAnalysis(@NonNull LifecycleOwner owner) {
         ListenableFuture<ProcessCameraProvider> future =
                 ProcessCameraProvider.getInstance(appContext);
@@ -458,7 +772,7 @@ public final class CameraController {
 
                 ResolutionSelector resSelector = new ResolutionSelector.Builder()
                         .setResolutionStrategy(new ResolutionStrategy(
-                                CameraConfig.ANALYSIS_RESOLUTION,
+                                analysisResolution(),
                                 ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER))
                         .build();
 
@@ -477,6 +791,8 @@ public final class CameraController {
                             selector,
                             imageAnalysis
                     );
+                    autoController.attach(camera, imageAnalysis);
+                    updateLensMirroring();
                 } catch (Exception e) {
                     LogUtils.w("Silent analysis bind with RGBA failed, falling back to YUV");
                     imageAnalysis = new ImageAnalysis.Builder()
@@ -491,6 +807,8 @@ public final class CameraController {
                             selector,
                             imageAnalysis
                     );
+                    autoController.attach(camera, imageAnalysis);
+                    updateLensMirroring();
                 }
             } catch (Exception e) {
                 LogUtils.e("Silent analysis start failed", e);
@@ -514,7 +832,7 @@ public final class CameraController {
         // FALLBACK_RULE_CLOSEST_LOWER ensures compatibility if 1080p is not supported.
         ResolutionSelector resSelector = new ResolutionSelector.Builder()
                 .setResolutionStrategy(new ResolutionStrategy(
-                        CameraConfig.ANALYSIS_RESOLUTION,
+                        analysisResolution(),
                         ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER))
                 .build();
 
@@ -547,9 +865,9 @@ public final class CameraController {
                     imageCapture
             );
 
-            if (camera.getCameraInfo().hasFlashUnit()) {
-                camera.getCameraControl().enableTorch(CameraConfig.TORCH_ENABLED_BY_DEFAULT);
-            }
+            // Applies TORCH_ENABLED_BY_DEFAULT, then the control loop takes over
+            autoController.attach(camera, imageAnalysis);
+            updateLensMirroring();
         } catch (Exception e) {
             LogUtils.e("Primary camera bind failed (1080p/RGBA), retrying with safe fallback (720p/YUV)", e);
             // 🚀 EMULATOR & COMPATIBILITY FALLBACK: 
@@ -584,6 +902,8 @@ public final class CameraController {
                         imageAnalysis,
                         imageCapture
                 );
+                autoController.attach(camera, imageAnalysis);
+                updateLensMirroring();
             } catch (Exception fatal) {
                 LogUtils.e("Camera bind failed permanently", fatal);
             }
@@ -594,6 +914,7 @@ public final class CameraController {
         if (cameraProvider != null) {
             cameraProvider.unbindAll();
         }
+        autoController.detach();
         camera = null;
     }
 }
@@ -0,0 +1,207 @@
+package com.agrovision.kiosk.camera;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.analytics.events.MvpEvent;
+import com.agrovision.kiosk.state.AppState;
+import com.agrovision.kiosk.state.StateMachine;
+import com.agrovision.kiosk.util.LogUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DegradationController
+ *
+ * Steps the vision pipeline down while the device is hot and back
+ * up as it cools.
+ *
+ * INPUTS:
+ * - PowerManager thermal status (API 29+)
+ * - Battery temperature (ACTION_BATTERY_CHANGED, all API levels)
+ *
+ * STEPS (see Level):
+ * - fewer interpreter threads → lower analysis rate → 720p analysis
+ *   → detection paused in ad / idle states
+ *
+ * DESIGN:
+ * - Heating up applies the target level immediately
+ * - Cooling down recovers ONE level per RECOVERY_DWELL_MS (no flapping)
+ * - Battery thresholds use hysteresis (RECOVERY_MARGIN_C)
+ * - Every transition is logged and reported (MvpEvent)
+ *
+ * RULES:
+ * - getLevel() is a volatile read (camera thread, every frame)
+ * - State is only changed on the main thread
+ * - Consumers apply a level themselves (camera thread / next bind)
+ */
+public final class DegradationController {
+
+    public enum Level {
+        //        threads  frame interval  reduced res  pause idle
+        NOMINAL(4, 100, false, false),
+        WARM(2, 150, false, false),
+        HOT(2, 250, true, true),
+        CRITICAL(1, 500, true, true);
+
+        public final int interpreterThreads;
+        public final long frameIntervalMs;
+        public final boolean reducedResolution;
+        public final boolean pauseWhenIdle;
+
+        Level(int interpreterThreads, long frameIntervalMs, boolean reducedResolution, boolean pauseWhenIdle) {
+            this.interpreterThreads = interpreterThreads;
+            this.frameIntervalMs = frameIntervalMs;
+            this.reducedResolution = reducedResolution;
+            this.pauseWhenIdle = pauseWhenIdle;
+        }
+    }
+
+    // Battery temperature thresholds (°C) for WARM / HOT / CRITICAL
+    private static final float[] BATTERY_THRESHOLDS_C = {40f, 43f, 46f};
+    private static final float RECOVERY_MARGIN_C = 2f;
+
+    private static final long RECOVERY_DWELL_MS = TimeUnit.SECONDS.toMillis(90);
+
+    private static volatile DegradationController INSTANCE;
+
+    private final StateMachine stateMachine;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable recoveryCheck = this::evaluate;
+
+    private volatile Level level = Level.NOMINAL;
+
+    // Main thread only
+    private Level thermalLevel = Level.NOMINAL;
+    private Level batteryLevel = Level.NOMINAL;
+    private float batteryTempC = Float.NaN;
+    private long lastChangeAt = 0L;
+
+    public static DegradationController getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            synchronized (DegradationController.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DegradationController(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private DegradationController(Context appContext) {
+        this.stateMachine = StateMachine.getInstance(appContext);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager power = (PowerManager) appContext.getSystemService(Context.POWER_SERVICE);
+            if (power != null) {
+                // Called immediately with the current status, then on every change
+                power.addThermalStatusListener(appContext.getMainExecutor(), status -> {
+                    thermalLevel = fromThermalStatus(status);
+                    evaluate();
+                });
+            }
+        }
+
+        // Sticky: delivers the current battery state right away (main thread)
+        appContext.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                int tenths = intent.getIntExtra(BatteryManager.EXTRA_TEMPERATURE, Integer.MIN_VALUE);
+                if (tenths == Integer.MIN_VALUE) return;
+                batteryTempC = tenths / 10f;
+                batteryLevel = fromBatteryTemperature(batteryTempC, batteryLevel);
+                evaluate();
+            }
+        }, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+    }
+
+    /* =========================================================
+       READ-ONLY ACCESSORS (ANY THREAD)
+       ========================================================= */
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * False while hot and nobody is at the counter (ads, idle):
+     * the camera keeps running, detection does not.
+     */
+    public boolean allowsDetection() {
+        if (!level.pauseWhenIdle) return true;
+        AppState state = stateMachine.getCurrentState();
+        return state != AppState.IDLE && state != AppState.IDLE_AD && state != AppState.SCAN_AD;
+    }
+
+    /* =========================================================
+       POLICY (MAIN THREAD)
+       ========================================================= */
+
+    private void evaluate() {
+        mainHandler.removeCallbacks(recoveryCheck);
+
+        Level target = thermalLevel.ordinal() >= batteryLevel.ordinal() ? thermalLevel : batteryLevel;
+        Level current = level;
+        if (target == current) return;
+
+        long now = SystemClock.elapsedRealtime();
+        Level next;
+        if (target.ordinal() > current.ordinal()) {
+            next = target;
+        } else {
+            long wait = lastChangeAt + RECOVERY_DWELL_MS - now;
+            if (wait > 0) {
+                mainHandler.postDelayed(recoveryCheck, wait);
+                return;
+            }
+            next = Level.values()[current.ordinal() - 1];
+        }
+
+        level = next;
+        lastChangeAt = now;
+        LogUtils.w("DEGRADATION_LEVEL=" + next.name() + " (was " + current.name()
+                + ", thermal=" + thermalLevel.name() + ", battery=" + batteryTempC + "C)");
+        stateMachine.report(next.ordinal() > current.ordinal()
+                ? MvpEvent.PIPELINE_DEGRADED
+                : MvpEvent.PIPELINE_RECOVERED);
+
+        // Still above target → keep stepping down after the dwell
+        if (next != target) {
+            mainHandler.postDelayed(recoveryCheck, RECOVERY_DWELL_MS);
+        }
+    }
+
+    private static Level fromThermalStatus(int status) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return Level.NOMINAL;
+        if (status >= PowerManager.THERMAL_STATUS_SEVERE) return Level.CRITICAL;
+        if (status >= PowerManager.THERMAL_STATUS_MODERATE) return Level.HOT;
+        if (status >= PowerManager.THERMAL_STATUS_LIGHT) return Level.WARM;
+        return Level.NOMINAL;
+    }
+
+    /**
+     * Rising: first threshold reached. Falling: a level is kept until the
+     * temperature is RECOVERY_MARGIN_C below its threshold.
+     */
+    private static Level fromBatteryTemperature(float tempC, Level previous) {
+        int rising = 0;
+        while (rising < BATTERY_THRESHOLDS_C.length && tempC >= BATTERY_THRESHOLDS_C[rising]) {
+            rising++;
+        }
+        int kept = previous.ordinal();
+        while (kept > 0 && tempC < BATTERY_THRESHOLDS_C[kept - 1] - RECOVERY_MARGIN_C) {
+            kept--;
+        }
+        return Level.values()[Math.max(rising, kept)];
+    }
+}
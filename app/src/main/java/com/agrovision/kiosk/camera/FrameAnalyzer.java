@@ -1,6 +1,7 @@
 package com.agrovision.kiosk.camera;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 
@@ -14,6 +15,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * PURPOSE:
  * - Enforce strict backpressure
  * - Perform light checks (non-blocking)
+ * - Report brightness statistics to the camera control loop
  * - Forward frames synchronously
  *
  * HARD CONTRACT:
@@ -29,13 +31,24 @@ public final class FrameAnalyzer implements ImageAnalysis.Analyzer {
     private final SyncFrameConsumer frameConsumer;
     private final LowLightListener lowLightListener;
 
+    @Nullable
+    private final LuminosityListener luminosityListener;
+
     public FrameAnalyzer(@NonNull LuminosityAnalyzer luminosityAnalyzer,
                          @NonNull SyncFrameConsumer frameConsumer,
                          @NonNull LowLightListener lowLightListener) {
+        this(luminosityAnalyzer, frameConsumer, lowLightListener, null);
+    }
+
+    public FrameAnalyzer(@NonNull LuminosityAnalyzer luminosityAnalyzer,
+                         @NonNull SyncFrameConsumer frameConsumer,
+                         @NonNull LowLightListener lowLightListener,
+                         @Nullable LuminosityListener luminosityListener) {
 
         this.luminosityAnalyzer = luminosityAnalyzer;
         this.frameConsumer = frameConsumer;
         this.lowLightListener = lowLightListener;
+        this.luminosityListener = luminosityListener;
     }
 
     @Override
@@ -50,6 +63,14 @@ public final class FrameAnalyzer implements ImageAnalysis.Analyzer {
                 }
             }
 
+            // Statistics were measured by isTooDark() above (no second pass)
+            if (luminosityListener != null && luminosityAnalyzer.getLastMeanLuma() >= 0) {
+                luminosityListener.onLuminosity(
+                        luminosityAnalyzer.getLastMeanLuma(),
+                        luminosityAnalyzer.getLastHighlightRatio()
+                );
+            }
+
             // 2️⃣ Synchronous downstream processing ONLY
             frameConsumer.onFrame(image);
 
@@ -80,4 +101,12 @@ public final class FrameAnalyzer implements ImageAnalysis.Analyzer {
     public interface LowLightListener {
         void onLowLightDetected();
     }
+
+    @FunctionalInterface
+    public interface LuminosityListener {
+        /**
+         * Called on the analyzer thread. MUST be cheap.
+         */
+        void onLuminosity(int meanLuma, float highlightRatio);
+    }
 }
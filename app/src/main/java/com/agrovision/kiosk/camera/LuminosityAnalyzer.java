@@ -4,6 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.camera.core.ImageProxy;
 
 import android.graphics.ImageFormat;
+import android.graphics.PixelFormat;
 
 import java.nio.ByteBuffer;
 
@@ -13,15 +14,30 @@ import java.nio.ByteBuffer;
  * PURPOSE:
  * - Determine whether ambient lighting is sufficient
  *   for reliable vision processing.
+ * - Expose frame brightness statistics for the camera control loop
  *
  * DESIGN:
  * - Non-destructive buffer access
- * - High performance sampling (stride 10)
+ * - High performance sampling (every 8th pixel of every 8th row)
+ * - Works on YUV_420_888 (Y plane) and RGBA_8888 (approximate luma)
+ * - Never allocates; last statistics are kept in fields
+ *
+ * THREADING:
+ * - Single analyzer thread only
  */
 public final class LuminosityAnalyzer {
 
     private static final int DARKNESS_THRESHOLD = 25;
 
+    // Luma at or above this counts as clipped highlight (glare)
+    private static final int HIGHLIGHT_THRESHOLD = 250;
+
+    private static final int SAMPLE_STEP = 8;
+
+    // Last measured statistics (-1 = unknown)
+    private int lastMeanLuma = -1;
+    private float lastHighlightRatio = 0f;
+
     /**
      * Returns true if the frame is too dark.
      *
@@ -30,32 +46,84 @@ public final class LuminosityAnalyzer {
      * - Safe for downstream consumers (YOLO, OCR)
      */
     public boolean isTooDark(@NonNull ImageProxy image) {
+        int mean = measure(image);
+        return mean >= 0 && mean < DARKNESS_THRESHOLD;
+    }
 
-        if (image.getFormat() != ImageFormat.YUV_420_888) {
-            return false; // Fail-safe
-        }
+    /**
+     * Samples the frame and updates the last statistics.
+     *
+     * @return mean luma [0, 255], or -1 if the format is unsupported
+     */
+    public int measure(@NonNull ImageProxy image) {
 
-        ImageProxy.PlaneProxy yPlane = image.getPlanes()[0];
-        if (yPlane == null) {
-            return false;
-        }
+        lastMeanLuma = -1;
+        lastHighlightRatio = 0f;
 
-        ByteBuffer buffer = yPlane.getBuffer();
-        int pixelCount = buffer.remaining();
+        int format = image.getFormat();
+        boolean yuv = format == ImageFormat.YUV_420_888;
+        boolean rgba = format == PixelFormat.RGBA_8888;
+        if (!yuv && !rgba) {
+            return -1; // Fail-safe
+        }
 
-        if (pixelCount <= 0) {
-            return false;
+        ImageProxy.PlaneProxy plane = image.getPlanes()[0];
+        if (plane == null) {
+            return -1;
         }
 
+        ByteBuffer buffer = plane.getBuffer();
+        int rowStride = plane.getRowStride();
+        int pixelStride = plane.getPixelStride();
+        int limit = buffer.limit();
+
         long sum = 0;
+        int samples = 0;
+        int highlights = 0;
 
         // ✅ Absolute indexing — does NOT move buffer position
-        // Optimized: sample every 10th pixel for performance
-        for (int i = 0; i < pixelCount; i += 10) {
-            sum += (buffer.get(i) & 0xFF);
+        for (int y = 0; y < image.getHeight(); y += SAMPLE_STEP) {
+            int rowOffset = y * rowStride;
+            for (int x = 0; x < image.getWidth(); x += SAMPLE_STEP) {
+                int i = rowOffset + x * pixelStride;
+                if (i + (rgba ? 2 : 0) >= limit) break;
+
+                int luma;
+                if (yuv) {
+                    luma = buffer.get(i) & 0xFF;
+                } else {
+                    // Rec.601 approximation: (77R + 150G + 29B) / 256
+                    luma = ((buffer.get(i) & 0xFF) * 77
+                            + (buffer.get(i + 1) & 0xFF) * 150
+                            + (buffer.get(i + 2) & 0xFF) * 29) >> 8;
+                }
+
+                sum += luma;
+                samples++;
+                if (luma >= HIGHLIGHT_THRESHOLD) highlights++;
+            }
+        }
+
+        if (samples == 0) {
+            return -1;
         }
 
-        int averageLuminance = (int) (sum / (pixelCount / 10));
-        return averageLuminance < DARKNESS_THRESHOLD;
+        lastMeanLuma = (int) (sum / samples);
+        lastHighlightRatio = highlights / (float) samples;
+        return lastMeanLuma;
+    }
+
+    /**
+     * Mean luma of the last measured frame (-1 = unknown).
+     */
+    public int getLastMeanLuma() {
+        return lastMeanLuma;
+    }
+
+    /**
+     * Fraction [0, 1] of samples that were clipped highlights.
+     */
+    public float getLastHighlightRatio() {
+        return lastHighlightRatio;
     }
 }
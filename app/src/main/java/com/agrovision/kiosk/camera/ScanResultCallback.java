@@ -3,5 +3,9 @@ package com.agrovision.kiosk.camera;
 import java.util.List;
 
 public interface ScanResultCallback {
-    void onScanCompleted(List<String> normalizedTexts);
+
+    /**
+     * @param scanId ScanTracer scan the texts belong to (ScanTracer.NO_SCAN if none)
+     */
+    void onScanCompleted(List<String> normalizedTexts, long scanId);
 }
@@ -0,0 +1,160 @@
+package com.agrovision.kiosk.camera;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.analytics.PerformanceLogger;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.state.AppState;
+import com.agrovision.kiosk.state.StateObserver;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
+import com.agrovision.kiosk.util.BitmapUtils;
+import com.agrovision.kiosk.util.LogUtils;
+import com.agrovision.kiosk.vision.detection.TfliteYoloModel;
+import com.agrovision.kiosk.vision.recognition.OcrProcessor;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * VisionWarmUp
+ *
+ * Pays the first-inference cost (JIT, XNNPACK / NNAPI compilation,
+ * ML Kit model initialization) on a synthetic image instead of on
+ * the first farmer's scan.
+ *
+ * WHEN:
+ * - Boot: inside the vision startup task (REALTIME_VISION lane),
+ *   before the camera binds. YOLO runs once (the cold pass is all
+ *   the critical path needs); OCR runs cold + warm asynchronously
+ * - Wake (IDLE / IDLE_AD → READY): OCR once on BACKGROUND, YOLO once
+ *   on the next analyzed frame (that frame is skipped) → compared to
+ *   the steady-state p50 of DETECT / OCR
+ *
+ * RULES:
+ * - YOLO warm-up runs on the inference thread only (shared tensors)
+ * - Warm-up passes never enter the stage histograms
+ * - onStateChanged only flags / submits work (StateObserver contract)
+ */
+final class VisionWarmUp implements StateObserver {
+
+    private static final int SYNTHETIC_WIDTH = 640;
+    private static final int SYNTHETIC_HEIGHT = 480;
+    private static final String[] SYNTHETIC_TEXT = {"AGROVISION", "KRISHI 250 ML", "BATCH 0421"};
+
+    private final TfliteYoloModel model;
+    private final OcrProcessor ocr;
+    private final PerformanceLogger perf = PerformanceLogger.getInstance();
+
+    private final AtomicBoolean wakePending = new AtomicBoolean(false);
+    private volatile AppState lastState;
+
+    VisionWarmUp(@NonNull TfliteYoloModel model, @NonNull OcrProcessor ocr) {
+        this.model = model;
+        this.ocr = ocr;
+    }
+
+    /* =========================================================
+       BOOT
+       ========================================================= */
+
+    /**
+     * Cold YOLO pass (inline), then cold + warm OCR (ML Kit, off the
+     * calling thread). Inference thread only; no frames may be flowing yet.
+     */
+    void runAtBoot() {
+        Bitmap image = createSynthetic();
+
+        LogUtils.i("WARMUP boot yolo cold=" + ms(model.warmUp(image)));
+
+        // Chained: the second pass must see an initialized recognizer
+        ocr.warmUp(image, ocrCold -> ocr.warmUp(image, ocrWarm -> {
+            LogUtils.i("WARMUP boot ocr cold=" + ms(ocrCold) + " warm=" + ms(ocrWarm));
+            BitmapUtils.safeRecycle(image);
+        }));
+    }
+
+    /* =========================================================
+       WAKE
+       ========================================================= */
+
+    @Override
+    public void onStateChanged(AppState newState) {
+        AppState previous = lastState;
+        lastState = newState;
+
+        boolean wasIdle = previous == AppState.IDLE || previous == AppState.IDLE_AD;
+        if (!wasIdle || newState != AppState.READY) return;
+
+        wakePending.set(true);
+        TaskScheduler.submit(Lane.BACKGROUND, () -> {
+            Bitmap image = createSynthetic();
+            ocr.warmUp(image, elapsed -> {
+                logAgainstSteadyState("ocr", elapsed, PipelineStage.OCR);
+                BitmapUtils.safeRecycle(image);
+            });
+        });
+    }
+
+    /**
+     * Runs the pending wake warm-up in place of the current frame.
+     * Inference thread only.
+     *
+     * @return true if the caller should skip the frame
+     */
+    boolean runPendingWake() {
+        if (!wakePending.compareAndSet(true, false)) return false;
+
+        Bitmap image = createSynthetic();
+        try {
+            logAgainstSteadyState("yolo", model.warmUp(image), PipelineStage.DETECT);
+        } finally {
+            BitmapUtils.safeRecycle(image);
+        }
+        return true;
+    }
+
+    /* =========================================================
+       INTERNAL
+       ========================================================= */
+
+    private void logAgainstSteadyState(String name, long elapsedNanos, PipelineStage stage) {
+        long p50Micros = perf.stagePercentileMicros(stage, 0.50);
+        LogUtils.i("WARMUP wake " + name + " first=" + ms(elapsedNanos)
+                + " steadyP50=" + (p50Micros > 0 ? ms(p50Micros * 1_000L) : "n/a"));
+    }
+
+    /**
+     * Label-like block with printed text: exercises detection and the
+     * full recognizer path (an empty frame short-circuits ML Kit).
+     */
+    private static Bitmap createSynthetic() {
+        Bitmap bitmap = Bitmap.createBitmap(SYNTHETIC_WIDTH, SYNTHETIC_HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(Color.LTGRAY);
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.WHITE);
+        canvas.drawRect(120, 60, 520, 420, paint);
+
+        paint.setColor(Color.BLACK);
+        paint.setTextSize(40f);
+        paint.setFakeBoldText(true);
+        float y = 160;
+        for (String line : SYNTHETIC_TEXT) {
+            canvas.drawText(line, 150, y, paint);
+            y += 90;
+        }
+        return bitmap;
+    }
+
+    private static String ms(long nanos) {
+        if (nanos < 0) return "failed";
+        return String.format(Locale.US, "%.1fms", nanos / 1_000_000f);
+    }
+}
@@ -9,8 +9,18 @@ import androidx.room.TypeConverters;
 
 import com.agrovision.kiosk.data.database.converter.StringListConverter;
 import com.agrovision.kiosk.data.database.dao.MedicineDao;
+import com.agrovision.kiosk.data.database.dao.SuccessfulScanDao;
+import com.agrovision.kiosk.data.database.dao.SyncStateDao;
+import com.agrovision.kiosk.data.database.dao.TelemetryDao;
 import com.agrovision.kiosk.data.database.dao.UnknownDetectionDao;
+import com.agrovision.kiosk.data.database.entity.MedicineBarcodePrefixEntity;
 import com.agrovision.kiosk.data.database.entity.MedicineEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineKeywordEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineMediaEntity;
+import com.agrovision.kiosk.data.database.entity.SuccessfulScanEntity;
+import com.agrovision.kiosk.data.database.entity.SyncStateEntity;
+import com.agrovision.kiosk.data.database.entity.TelemetryEventEntity;
+import com.agrovision.kiosk.data.database.entity.TelemetrySummaryEntity;
 import com.agrovision.kiosk.data.database.entity.UnknownDetectionEntity;
 
 /**
@@ -31,10 +41,17 @@ import com.agrovision.kiosk.data.database.entity.UnknownDetectionEntity;
 @Database(
         entities = {
                 MedicineEntity.class,
-                UnknownDetectionEntity.class
+                MedicineKeywordEntity.class,
+                MedicineBarcodePrefixEntity.class,
+                MedicineMediaEntity.class,
+                UnknownDetectionEntity.class,
+                SyncStateEntity.class,
+                SuccessfulScanEntity.class,
+                TelemetryEventEntity.class,
+                TelemetrySummaryEntity.class
         },
-        version = 4,
-        exportSchema = false
+        version = 10,
+        exportSchema = true
 )
 @TypeConverters({
         StringListConverter.class
@@ -62,9 +79,11 @@ public abstract class AppDatabase extends RoomDatabase {
                                     AppDatabase.class,
                                     "agrovision.db"
                             )
-                            // Destructive migration is acceptable for MVP
-                            // because this DB stores reference data only
-                            .fallbackToDestructiveMigration()
+                            // 🚀 Real migrations: an upgrade never wipes the catalog
+                            .addMigrations(Migrations.ALL)
+                            // Pre-release schemas (1-3) never reached a kiosk
+                            .fallbackToDestructiveMigrationFrom(1, 2, 3)
+                            .fallbackToDestructiveMigrationOnDowngrade()
                             .build();
                 }
             }
@@ -85,4 +104,19 @@ public abstract class AppDatabase extends RoomDatabase {
      * Provides access to Unknown Detection DAO.
      */
     public abstract UnknownDetectionDao unknownDetectionDao();
+
+    /**
+     * Provides access to catalog sync watermarks.
+     */
+    public abstract SyncStateDao syncStateDao();
+
+    /**
+     * Provides access to per-scan history (via ScanHistoryRecorder).
+     */
+    public abstract SuccessfulScanDao successfulScanDao();
+
+    /**
+     * Provides access to buffered telemetry (via TelemetryRecorder).
+     */
+    public abstract TelemetryDao telemetryDao();
 }
@@ -0,0 +1,238 @@
+package com.agrovision.kiosk.data.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.agrovision.kiosk.data.database.converter.StringListConverter;
+import com.agrovision.kiosk.data.database.entity.MedicineMediaEntity;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Migrations
+ *
+ * Schema migrations for AppDatabase.
+ *
+ * HARD RULES:
+ * - Every version bump from 4 (first shipped schema) on MUST add
+ *   a Migration here
+ *   (the catalog is never wiped on upgrade)
+ * - DDL must match what Room generates for the entities exactly,
+ *   otherwise Room's schema validation fails on open
+ * - Runs inside Room's migration transaction: no partial upgrades
+ */
+public final class Migrations {
+
+    private Migrations() {
+        throw new AssertionError("No instances allowed");
+    }
+
+    /* =========================================================
+       4 → 5: PER-SOURCE SYNC WATERMARKS
+       - an empty sync_state only costs one full re-sync
+       ========================================================= */
+
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_state` ("
+                    + "`source` TEXT NOT NULL, `watermark` INTEGER NOT NULL, "
+                    + "`lastSyncAt` INTEGER NOT NULL, PRIMARY KEY(`source`))");
+        }
+    };
+
+    /* =========================================================
+       5 → 6: NORMALIZED CATALOG
+       - searchKeywords / barcodePrefixes / imageUrls / audioUrls
+         move from pipe-joined columns into child tables
+       ========================================================= */
+
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+
+            // 1️⃣ Rebuild medicines without the list columns (no DROP COLUMN before SQLite 3.35)
+            db.execSQL("ALTER TABLE `medicines` RENAME TO `medicines_v5`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `medicines` ("
+                    + "`id` TEXT NOT NULL, `name` TEXT, `company` TEXT, `cibNo` TEXT, "
+                    + "`chemicalName` TEXT, `supportedCrops` TEXT, `supportedDiseases` TEXT, "
+                    + "`usageInstructions` TEXT, `warnings` TEXT, "
+                    + "`updatedAt` INTEGER NOT NULL, `isRemote` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`id`))");
+            db.execSQL("INSERT INTO `medicines` (`id`, `name`, `company`, `cibNo`, `chemicalName`, "
+                    + "`supportedCrops`, `supportedDiseases`, `usageInstructions`, `warnings`, "
+                    + "`updatedAt`, `isRemote`) "
+                    + "SELECT `id`, `name`, `company`, `cibNo`, `chemicalName`, "
+                    + "`supportedCrops`, `supportedDiseases`, `usageInstructions`, `warnings`, "
+                    + "`updatedAt`, `isRemote` FROM `medicines_v5`");
+
+            // 2️⃣ Child tables
+            db.execSQL("CREATE TABLE IF NOT EXISTS `medicine_keywords` ("
+                    + "`medicineId` TEXT NOT NULL, `position` INTEGER NOT NULL, `keyword` TEXT NOT NULL, "
+                    + "PRIMARY KEY(`medicineId`, `position`), "
+                    + "FOREIGN KEY(`medicineId`) REFERENCES `medicines`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `medicine_barcode_prefixes` ("
+                    + "`medicineId` TEXT NOT NULL, `prefix` TEXT NOT NULL, "
+                    + "PRIMARY KEY(`medicineId`, `prefix`), "
+                    + "FOREIGN KEY(`medicineId`) REFERENCES `medicines`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `medicine_media` ("
+                    + "`medicineId` TEXT NOT NULL, `type` TEXT NOT NULL, `position` INTEGER NOT NULL, "
+                    + "`url` TEXT NOT NULL, "
+                    + "PRIMARY KEY(`medicineId`, `type`, `position`), "
+                    + "FOREIGN KEY(`medicineId`) REFERENCES `medicines`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+            // 3️⃣ Split the old pipe-joined columns into rows
+            Cursor c = db.query("SELECT `id`, `searchKeywords`, `barcodePrefixes`, "
+                    + "`imageUrls`, `audioUrls` FROM `medicines_v5`");
+            try {
+                ContentValues values = new ContentValues();
+                while (c.moveToNext()) {
+                    String id = c.getString(0);
+                    List<String> keywords = StringListConverter.toList(c.getString(1));
+
+                    for (int i = 0; i < keywords.size(); i++) {
+                        values.clear();
+                        values.put("medicineId", id);
+                        values.put("position", i);
+                        values.put("keyword", keywords.get(i));
+                        db.insert("medicine_keywords", SQLiteDatabase.CONFLICT_IGNORE, values);
+                    }
+
+                    for (String prefix : new LinkedHashSet<>(StringListConverter.toList(c.getString(2)))) {
+                        values.clear();
+                        values.put("medicineId", id);
+                        values.put("prefix", prefix);
+                        db.insert("medicine_barcode_prefixes", SQLiteDatabase.CONFLICT_IGNORE, values);
+                    }
+
+                    insertMedia(db, values, id, MedicineMediaEntity.TYPE_IMAGE, c.getString(3));
+                    insertMedia(db, values, id, MedicineMediaEntity.TYPE_AUDIO, c.getString(4));
+                }
+            } finally {
+                c.close();
+            }
+
+            db.execSQL("DROP TABLE `medicines_v5`");
+        }
+    };
+
+    /* =========================================================
+       6 → 7: PER-SCAN HISTORY
+       ========================================================= */
+
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Placeholder entity was never registered; drop any stray table
+            db.execSQL("DROP TABLE IF EXISTS `successful_scans`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `successful_scans` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `timestamp` INTEGER NOT NULL, "
+                    + "`medicineId` TEXT, `resultType` TEXT NOT NULL, `source` TEXT NOT NULL, "
+                    + "`confidence` REAL NOT NULL, `lowConfidence` INTEGER NOT NULL, "
+                    + "`trackCount` INTEGER NOT NULL, `detectMs` INTEGER NOT NULL, "
+                    + "`ocrMs` INTEGER NOT NULL, `matchMs` INTEGER NOT NULL, `totalMs` INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_successful_scans_timestamp` "
+                    + "ON `successful_scans` (`timestamp`)");
+        }
+    };
+
+    /* =========================================================
+       7 → 8: OFFLINE UNKNOWN-DETECTION QUEUE
+       - kind (detection / discovery) + rawCode
+       - index on isSynced (SyncWorker polls pending rows)
+       ========================================================= */
+
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `unknown_detections_v8` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `kind` TEXT NOT NULL, "
+                    + "`rawOcrText` TEXT NOT NULL, `rawCode` TEXT, `localImagePath` TEXT, "
+                    + "`timestamp` INTEGER NOT NULL, `isSynced` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO `unknown_detections_v8` (`id`, `kind`, `rawOcrText`, `rawCode`, "
+                    + "`localImagePath`, `timestamp`, `isSynced`) "
+                    + "SELECT `id`, 'detection', `rawOcrText`, NULL, `localImagePath`, `timestamp`, `isSynced` "
+                    + "FROM `unknown_detections`");
+            db.execSQL("DROP TABLE `unknown_detections`");
+            db.execSQL("ALTER TABLE `unknown_detections_v8` RENAME TO `unknown_detections`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_unknown_detections_isSynced` "
+                    + "ON `unknown_detections` (`isSynced`)");
+        }
+    };
+
+    /* =========================================================
+       8 → 9: RESUMABLE UNKNOWN UPLOADS
+       - per-row upload state, so a retry only redoes what failed
+       ========================================================= */
+
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `unknown_detections` ADD COLUMN `imageHash` TEXT");
+            db.execSQL("ALTER TABLE `unknown_detections` ADD COLUMN `imageUrl` TEXT");
+            db.execSQL("ALTER TABLE `unknown_detections` ADD COLUMN `uploadSessionUri` TEXT");
+            db.execSQL("ALTER TABLE `unknown_detections` ADD COLUMN `documentId` TEXT");
+            db.execSQL("ALTER TABLE `unknown_detections` ADD COLUMN `attempts` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `unknown_detections` ADD COLUMN `nextAttemptAt` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `unknown_detections` ADD COLUMN `lastError` TEXT");
+        }
+    };
+
+    /* =========================================================
+       9 → 10: BATCHED TELEMETRY
+       - buffered events + compacted per-interval summaries
+       ========================================================= */
+
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `telemetry_events` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `timestamp` INTEGER NOT NULL, "
+                    + "`name` TEXT NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_telemetry_events_timestamp` "
+                    + "ON `telemetry_events` (`timestamp`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `telemetry_summaries` ("
+                    + "`intervalStart` INTEGER NOT NULL, `intervalEnd` INTEGER NOT NULL, "
+                    + "`payload` TEXT NOT NULL, PRIMARY KEY(`intervalStart`))");
+        }
+    };
+
+    /**
+     * All migrations, oldest first (pass to Room.databaseBuilder).
+     */
+    public static final Migration[] ALL = {
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10
+    };
+
+    private static void insertMedia(SupportSQLiteDatabase db,
+                                    ContentValues values,
+                                    String medicineId,
+                                    String type,
+                                    String joinedUrls) {
+        List<String> urls = StringListConverter.toList(joinedUrls);
+        for (int i = 0; i < urls.size(); i++) {
+            values.clear();
+            values.put("medicineId", medicineId);
+            values.put("type", type);
+            values.put("position", i);
+            values.put("url", urls.get(i));
+            db.insert("medicine_media", SQLiteDatabase.CONFLICT_IGNORE, values);
+        }
+    }
+}
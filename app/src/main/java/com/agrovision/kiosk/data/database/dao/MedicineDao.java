@@ -4,41 +4,115 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
+import com.agrovision.kiosk.data.database.entity.MedicineBarcodePrefixEntity;
 import com.agrovision.kiosk.data.database.entity.MedicineEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineKeywordEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineMediaEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineVersion;
+import com.agrovision.kiosk.data.database.entity.MedicineWithDetails;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * MedicineDao
  *
- * Data Access Object for the medicines table.
+ * Data Access Object for the medicines table and its child tables
+ * (keywords, barcode prefixes, media).
  *
  * RULES:
  * - DAO does NOT contain business logic
  * - DAO methods must be called off the UI thread
  * - DAO only works with Entity objects
+ * - A medicine and all of its rows are written in ONE transaction
  */
 @Dao
-public interface MedicineDao {
+public abstract class MedicineDao {
+
+    // SQLite bound-parameter limit is 999; stay well below
+    private static final int ID_CHUNK = 500;
+
+    /* =========================================================
+       WRITES
+       ========================================================= */
 
     /**
-     * Inserts or updates a list of medicines.
+     * Inserts or updates medicines with all of their child rows.
      *
-     * OnConflictStrategy.REPLACE ensures:
-     * - Catalog refresh does not crash
-     * - Latest data always wins
+     * Old child rows are replaced, so removed keywords / prefixes /
+     * URLs do not survive an update.
      */
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertAll(List<MedicineEntity> medicines);
+    @Transaction
+    public void upsertAll(List<MedicineWithDetails> medicines) {
+        if (medicines.isEmpty()) return;
+
+        List<String> ids = new ArrayList<>(medicines.size());
+        List<MedicineEntity> rows = new ArrayList<>(medicines.size());
+        List<MedicineKeywordEntity> keywords = new ArrayList<>();
+        List<MedicineBarcodePrefixEntity> prefixes = new ArrayList<>();
+        List<MedicineMediaEntity> media = new ArrayList<>();
+
+        for (MedicineWithDetails m : medicines) {
+            ids.add(m.medicine.id);
+            rows.add(m.medicine);
+            keywords.addAll(m.keywords);
+            prefixes.addAll(m.barcodePrefixes);
+            media.addAll(m.media);
+        }
+
+        deleteChildRows(ids);
+        insertMedicines(rows);
+        insertKeywords(keywords);
+        insertBarcodePrefixes(prefixes);
+        insertMedia(media);
+    }
+
+    /**
+     * Adds one learned prefix (no-op if already present).
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    public abstract void insertBarcodePrefix(MedicineBarcodePrefixEntity prefix);
+
+    /**
+     * Delete medicines by ID (with their child rows).
+     */
+    @Transaction
+    public void deleteByIds(List<String> ids) {
+        deleteChildRows(ids);
+        for (int i = 0; i < ids.size(); i += ID_CHUNK) {
+            deleteMedicineRows(ids.subList(i, Math.min(ids.size(), i + ID_CHUNK)));
+        }
+    }
+
+    /**
+     * Deletes all medicines.
+     *
+     * Used for:
+     * - Full refresh
+     * - Debug reset
+     */
+    @Transaction
+    public void clearAll() {
+        clearKeywords();
+        clearBarcodePrefixes();
+        clearMedia();
+        clearMedicines();
+    }
+
+    /* =========================================================
+       READS
+       ========================================================= */
 
     /**
      * Fetch a single medicine by ID.
      *
      * Returns null if not found.
      */
+    @Transaction
     @Query("SELECT * FROM medicines WHERE id = :id LIMIT 1")
-    MedicineEntity getById(String id);
+    public abstract MedicineWithDetails getById(String id);
 
     /**
      * Fetch all medicines.
@@ -48,30 +122,67 @@ public interface MedicineDao {
      * - Debug
      * - Cache warm-up
      */
+    @Transaction
     @Query("SELECT * FROM medicines")
-    List<MedicineEntity> getAll();
+    public abstract List<MedicineWithDetails> getAll();
 
     /**
-     * Deletes all medicines.
+     * Fetch id + updatedAt of every medicine from one source.
      *
-     * Used for:
-     * - Full refresh
-     * - Debug reset
+     * Used by delta sync to skip unchanged rows
+     * without loading full entities.
      */
-    @Query("DELETE FROM medicines")
-    void clearAll();
+    @Query("SELECT id, updatedAt FROM medicines WHERE isRemote = :remote")
+    public abstract List<MedicineVersion> getVersions(boolean remote);
+
+    /* =========================================================
+       PRIMITIVES
+       ========================================================= */
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertMedicines(List<MedicineEntity> medicines);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertKeywords(List<MedicineKeywordEntity> keywords);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertBarcodePrefixes(List<MedicineBarcodePrefixEntity> prefixes);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertMedia(List<MedicineMediaEntity> media);
+
+    // Chunked: SQLite bound-parameter limit
+    @Transaction
+    protected void deleteChildRows(List<String> ids) {
+        for (int i = 0; i < ids.size(); i += ID_CHUNK) {
+            List<String> chunk = ids.subList(i, Math.min(ids.size(), i + ID_CHUNK));
+            deleteKeywords(chunk);
+            deleteBarcodePrefixes(chunk);
+            deleteMedia(chunk);
+        }
+    }
 
-    /**
-     * Delete medicines by ID.
-     */
     @Query("DELETE FROM medicines WHERE id IN (:ids)")
-    void deleteByIds(List<String> ids);
+    protected abstract void deleteMedicineRows(List<String> ids);
 
-    /**
-     * Fetch a medicine by its barcode prefix.
-     *
-     * Uses LIKE to search within the CSV string of prefixes.
-     */
-    @Query("SELECT * FROM medicines WHERE barcodePrefixes LIKE '%' || :pattern || '%' LIMIT 1")
-    MedicineEntity getByBarcodePrefix(String pattern);
+    @Query("DELETE FROM medicine_keywords WHERE medicineId IN (:ids)")
+    protected abstract void deleteKeywords(List<String> ids);
+
+    @Query("DELETE FROM medicine_barcode_prefixes WHERE medicineId IN (:ids)")
+    protected abstract void deleteBarcodePrefixes(List<String> ids);
+
+    @Query("DELETE FROM medicine_media WHERE medicineId IN (:ids)")
+    protected abstract void deleteMedia(List<String> ids);
+
+    @Query("DELETE FROM medicines")
+    protected abstract void clearMedicines();
+
+    @Query("DELETE FROM medicine_keywords")
+    protected abstract void clearKeywords();
+
+    @Query("DELETE FROM medicine_barcode_prefixes")
+    protected abstract void clearBarcodePrefixes();
+
+    @Query("DELETE FROM medicine_media")
+    protected abstract void clearMedia();
 }
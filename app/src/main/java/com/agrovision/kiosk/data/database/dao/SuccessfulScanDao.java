@@ -1,8 +1,46 @@
 package com.agrovision.kiosk.data.database.dao;
 
 import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
 
+import com.agrovision.kiosk.data.database.entity.SuccessfulScanEntity;
+
+import java.util.List;
+
+/**
+ * SuccessfulScanDao
+ *
+ * Per-scan history.
+ *
+ * RULES:
+ * - DAO methods must be called off the UI thread
+ * - Inserts arrive in batches (one transaction per flush)
+ */
 @Dao
 public interface SuccessfulScanDao {
-    // Placeholder for future implementation
+
+    @Insert
+    void insertAll(List<SuccessfulScanEntity> scans);
+
+    @Query("SELECT * FROM successful_scans WHERE timestamp >= :since ORDER BY timestamp DESC LIMIT :limit")
+    List<SuccessfulScanEntity> getSince(long since, int limit);
+
+    @Query("SELECT COUNT(*) FROM successful_scans WHERE timestamp >= :since")
+    int countSince(long since);
+
+    @Query("SELECT COUNT(*) FROM successful_scans WHERE timestamp >= :since AND resultType = :resultType")
+    int countSince(long since, String resultType);
+
+    /* ---------------- COMPACTION ---------------- */
+
+    @Query("DELETE FROM successful_scans WHERE timestamp < :cutoff")
+    int deleteOlderThan(long cutoff);
+
+    /**
+     * Keeps only the newest rows (hard cap independent of age).
+     */
+    @Query("DELETE FROM successful_scans WHERE id NOT IN "
+            + "(SELECT id FROM successful_scans ORDER BY id DESC LIMIT :keep)")
+    int trimToNewest(int keep);
 }
@@ -0,0 +1,29 @@
+package com.agrovision.kiosk.data.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.agrovision.kiosk.data.database.entity.SyncStateEntity;
+
+/**
+ * SyncStateDao
+ *
+ * Per-source sync watermarks.
+ *
+ * RULES:
+ * - DAO methods must be called off the UI thread
+ */
+@Dao
+public interface SyncStateDao {
+
+    /**
+     * Returns null if the source was never synced.
+     */
+    @Query("SELECT * FROM sync_state WHERE source = :source LIMIT 1")
+    SyncStateEntity get(String source);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(SyncStateEntity state);
+}
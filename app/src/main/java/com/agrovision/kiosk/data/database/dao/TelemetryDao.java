@@ -0,0 +1,67 @@
+package com.agrovision.kiosk.data.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.agrovision.kiosk.data.database.entity.TelemetryEventEntity;
+import com.agrovision.kiosk.data.database.entity.TelemetrySummaryEntity;
+
+import java.util.List;
+
+/**
+ * TelemetryDao
+ *
+ * Buffered telemetry events and the compacted per-interval summaries.
+ *
+ * RULES:
+ * - DAO methods must be called off the UI thread
+ * - Events are written by TelemetryRecorder, summaries drained by HeartbeatWorker
+ */
+@Dao
+public interface TelemetryDao {
+
+    /**
+     * Per-name event count of one interval.
+     */
+    class EventCount {
+        public String name;
+        public int count;
+    }
+
+    /* ---------------- EVENTS ---------------- */
+
+    @Insert
+    void insertEvents(List<TelemetryEventEntity> events);
+
+    @Query("SELECT name, COUNT(*) AS count FROM telemetry_events WHERE timestamp < :before GROUP BY name")
+    List<EventCount> countEventsBefore(long before);
+
+    @Query("SELECT MIN(timestamp) FROM telemetry_events")
+    Long oldestEventTimestamp();
+
+    @Query("DELETE FROM telemetry_events WHERE timestamp < :before")
+    int deleteEventsBefore(long before);
+
+    /* ---------------- SUMMARIES ---------------- */
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertSummary(TelemetrySummaryEntity summary);
+
+    /**
+     * Oldest first (one upload batch).
+     */
+    @Query("SELECT * FROM telemetry_summaries ORDER BY intervalStart LIMIT :limit")
+    List<TelemetrySummaryEntity> getPendingSummaries(int limit);
+
+    @Query("DELETE FROM telemetry_summaries WHERE intervalStart IN (:intervalStarts)")
+    void deleteSummaries(List<Long> intervalStarts);
+
+    /**
+     * Keeps only the newest summaries (offline backlog cap).
+     */
+    @Query("DELETE FROM telemetry_summaries WHERE intervalStart NOT IN "
+            + "(SELECT intervalStart FROM telemetry_summaries ORDER BY intervalStart DESC LIMIT :keep)")
+    int trimSummaries(int keep);
+}
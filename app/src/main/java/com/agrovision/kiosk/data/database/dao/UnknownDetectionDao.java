@@ -9,6 +9,15 @@ import com.agrovision.kiosk.data.database.entity.UnknownDetectionEntity;
 
 import java.util.List;
 
+/**
+ * UnknownDetectionDao
+ *
+ * Local upload queue for unknown detections / discoveries.
+ *
+ * RULES:
+ * - DAO methods must be called off the UI thread
+ * - Written by the scan path, drained by SyncWorker
+ */
 @Dao
 public interface UnknownDetectionDao {
 
@@ -18,9 +27,35 @@ public interface UnknownDetectionDao {
     @Query("SELECT * FROM unknown_detections WHERE isSynced = 0")
     List<UnknownDetectionEntity> getUnsynced();
 
+    /**
+     * Oldest pending rows that are due (not backing off), one upload batch.
+     * Rows that failed in this run get a future nextAttemptAt and drop out.
+     */
+    @Query("SELECT * FROM unknown_detections WHERE isSynced = 0 AND nextAttemptAt <= :now "
+            + "ORDER BY id LIMIT :limit")
+    List<UnknownDetectionEntity> getDue(long now, int limit);
+
+    @Query("SELECT COUNT(*) FROM unknown_detections WHERE isSynced = 0")
+    int countUnsynced();
+
+    /**
+     * Pending rows still pointing at a local crop (crops are shared by content hash).
+     */
+    @Query("SELECT COUNT(*) FROM unknown_detections WHERE isSynced = 0 AND localImagePath = :path")
+    int countUnsyncedWithImage(String path);
+
     @Update
     void update(UnknownDetectionEntity detection);
 
+    /**
+     * Persists a resumable session as soon as Storage opens it.
+     */
+    @Query("UPDATE unknown_detections SET uploadSessionUri = :sessionUri WHERE id = :id")
+    void setUploadSession(long id, String sessionUri);
+
+    @Query("UPDATE unknown_detections SET isSynced = 1 WHERE id IN (:ids)")
+    void markSynced(List<Long> ids);
+
     @Query("DELETE FROM unknown_detections WHERE isSynced = 1")
     void clearSynced();
 }
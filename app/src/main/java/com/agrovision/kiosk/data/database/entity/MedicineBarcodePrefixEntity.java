@@ -0,0 +1,41 @@
+package com.agrovision.kiosk.data.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * MedicineBarcodePrefixEntity
+ *
+ * One learned QR/barcode prefix of a medicine (child of medicines).
+ *
+ * RULES:
+ * - (medicineId, prefix) is unique
+ * - Deleted together with its medicine
+ */
+@Entity(
+        tableName = "medicine_barcode_prefixes",
+        primaryKeys = {"medicineId", "prefix"},
+        foreignKeys = @ForeignKey(
+                entity = MedicineEntity.class,
+                parentColumns = "id",
+                childColumns = "medicineId",
+                onDelete = ForeignKey.CASCADE
+        )
+)
+public class MedicineBarcodePrefixEntity {
+
+    @NonNull
+    public String medicineId;
+
+    /**
+     * Example: "GS19C"
+     */
+    @NonNull
+    public String prefix;
+
+    public MedicineBarcodePrefixEntity(@NonNull String medicineId, @NonNull String prefix) {
+        this.medicineId = medicineId;
+        this.prefix = prefix;
+    }
+}
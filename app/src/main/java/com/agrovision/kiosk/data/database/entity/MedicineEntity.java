@@ -17,7 +17,9 @@ import androidx.room.PrimaryKey;
  * - NO Bitmaps
  * - NO OCR text
  * - NO session/runtime data
- * - Strings only (Lists handled via TypeConverters)
+ * - Strings only (short display lists handled via TypeConverters)
+ * - Keywords, barcode prefixes and media URLs live in child tables
+ *   (see MedicineWithDetails)
  */
 @Entity(tableName = "medicines")
 public class MedicineEntity {
@@ -77,35 +79,6 @@ public class MedicineEntity {
      */
     public String warnings;
 
-    /**
-     * Image URLs.
-     *
-     * Stored as CSV string via StringListConverter.
-     */
-    public String imageUrls;
-
-    /**
-     * Audio URLs.
-     *
-     * Stored as CSV string via StringListConverter.
-     */
-    public String audioUrls;
-
-    /**
-     * Search Keywords for matching.
-     *
-     * Stored as CSV string via StringListConverter.
-     */
-    public String searchKeywords;
-
-    /**
-     * QR/Barcode Prefixes for high-speed matching.
-     *
-     * Stored as CSV string via StringListConverter.
-     * Example: "GS19C,GS1902"
-     */
-    public String barcodePrefixes;
-
     /**
      * Timestamp of last update.
      */
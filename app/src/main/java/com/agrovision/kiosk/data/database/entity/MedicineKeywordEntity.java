@@ -0,0 +1,41 @@
+package com.agrovision.kiosk.data.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * MedicineKeywordEntity
+ *
+ * One search keyword (OCR synonym) of a medicine (child of medicines).
+ *
+ * RULES:
+ * - position keeps the original keyword order
+ * - Deleted together with its medicine
+ */
+@Entity(
+        tableName = "medicine_keywords",
+        primaryKeys = {"medicineId", "position"},
+        foreignKeys = @ForeignKey(
+                entity = MedicineEntity.class,
+                parentColumns = "id",
+                childColumns = "medicineId",
+                onDelete = ForeignKey.CASCADE
+        )
+)
+public class MedicineKeywordEntity {
+
+    @NonNull
+    public String medicineId;
+
+    public int position;
+
+    @NonNull
+    public String keyword;
+
+    public MedicineKeywordEntity(@NonNull String medicineId, int position, @NonNull String keyword) {
+        this.medicineId = medicineId;
+        this.position = position;
+        this.keyword = keyword;
+    }
+}
@@ -0,0 +1,52 @@
+package com.agrovision.kiosk.data.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+/**
+ * MedicineMediaEntity
+ *
+ * One image or audio URL of a medicine (child of medicines).
+ *
+ * RULES:
+ * - type is TYPE_IMAGE or TYPE_AUDIO
+ * - position keeps the original order within a type
+ * - Deleted together with its medicine
+ */
+@Entity(
+        tableName = "medicine_media",
+        primaryKeys = {"medicineId", "type", "position"},
+        foreignKeys = @ForeignKey(
+                entity = MedicineEntity.class,
+                parentColumns = "id",
+                childColumns = "medicineId",
+                onDelete = ForeignKey.CASCADE
+        )
+)
+public class MedicineMediaEntity {
+
+    public static final String TYPE_IMAGE = "image";
+    public static final String TYPE_AUDIO = "audio";
+
+    @NonNull
+    public String medicineId;
+
+    @NonNull
+    public String type;
+
+    public int position;
+
+    @NonNull
+    public String url;
+
+    public MedicineMediaEntity(@NonNull String medicineId,
+                               @NonNull String type,
+                               int position,
+                               @NonNull String url) {
+        this.medicineId = medicineId;
+        this.type = type;
+        this.position = position;
+        this.url = url;
+    }
+}
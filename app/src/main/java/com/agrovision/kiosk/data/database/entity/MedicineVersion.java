@@ -0,0 +1,17 @@
+package com.agrovision.kiosk.data.database.entity;
+
+import androidx.annotation.NonNull;
+
+/**
+ * MedicineVersion
+ *
+ * Projection of the medicines table (NOT a table).
+ * Lets delta sync compare versions without loading full rows.
+ */
+public class MedicineVersion {
+
+    @NonNull
+    public String id = "";
+
+    public long updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.agrovision.kiosk.data.database.entity;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MedicineWithDetails
+ *
+ * A medicines row together with its child rows (NOT a table).
+ * Room loads each relation with one batched IN query.
+ */
+public class MedicineWithDetails {
+
+    @Embedded
+    public MedicineEntity medicine;
+
+    @Relation(parentColumn = "id", entityColumn = "medicineId")
+    public List<MedicineKeywordEntity> keywords = new ArrayList<>();
+
+    @Relation(parentColumn = "id", entityColumn = "medicineId")
+    public List<MedicineBarcodePrefixEntity> barcodePrefixes = new ArrayList<>();
+
+    @Relation(parentColumn = "id", entityColumn = "medicineId")
+    public List<MedicineMediaEntity> media = new ArrayList<>();
+}
@@ -1,13 +1,76 @@
 package com.agrovision.kiosk.data.database.entity;
 
+import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "successful_scans")
+/**
+ * SuccessfulScanEntity
+ *
+ * One row per completed scan (one resolved bottle / barcode),
+ * KNOWN or UNKNOWN. Source of per-scan analytics.
+ *
+ * RULES:
+ * - Written only through ScanHistoryRecorder (batched, never on the scan path)
+ * - Rows are compacted by age / count, never updated
+ */
+@Entity(
+        tableName = "successful_scans",
+        indices = {@Index("timestamp")}
+)
 public class SuccessfulScanEntity {
+
+    public static final String SOURCE_CAMERA = "CAMERA";
+    public static final String SOURCE_BARCODE = "BARCODE";
+
     @PrimaryKey(autoGenerate = true)
     public long id;
-    
-    public String medicineId;
+
+    /**
+     * Wall-clock time the result was shown (ms).
+     */
     public long timestamp;
+
+    /**
+     * Matched medicine; null for UNKNOWN results.
+     */
+    public String medicineId;
+
+    /**
+     * ResultType name (KNOWN / UNKNOWN).
+     */
+    @NonNull
+    public String resultType = "";
+
+    /**
+     * SOURCE_CAMERA or SOURCE_BARCODE.
+     */
+    @NonNull
+    public String source = SOURCE_CAMERA;
+
+    /**
+     * Match confidence 0..1 (0 for UNKNOWN).
+     */
+    public float confidence;
+
+    public boolean lowConfidence;
+
+    /**
+     * Frames the scan's camera track was detected in (0 for barcode).
+     */
+    public int trackCount;
+
+    /* ---------------- TIMING BREAKDOWN (ms, 0 = not measured) ---------------- */
+
+    // detectMs / ocrMs: summed over this scan's frames / OCR passes
+
+    public long detectMs;
+    public long ocrMs;
+    public long matchMs;
+
+    /**
+     * First OCR of the track (or barcode input) → results ready.
+     */
+    public long totalMs;
 }
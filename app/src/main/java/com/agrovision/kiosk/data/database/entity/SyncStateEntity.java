@@ -0,0 +1,43 @@
+package com.agrovision.kiosk.data.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * SyncStateEntity
+ *
+ * One row per catalog source ("remote", "assets").
+ * Stores the watermark of the last successfully applied sync.
+ *
+ * RULES:
+ * - Written in the SAME transaction as the catalog rows it describes
+ * - Losing this table only costs one full re-sync
+ */
+@Entity(tableName = "sync_state")
+public class SyncStateEntity {
+
+    /**
+     * Source name (see MedicineRepository source constants).
+     */
+    @PrimaryKey
+    @NonNull
+    public String source;
+
+    /**
+     * Highest updatedAt applied from this source (ms).
+     * For the asset source: APK lastUpdateTime of the applied file.
+     */
+    public long watermark;
+
+    /**
+     * Wall-clock time of the last applied delta (ms).
+     */
+    public long lastSyncAt;
+
+    public SyncStateEntity(@NonNull String source, long watermark, long lastSyncAt) {
+        this.source = source;
+        this.watermark = watermark;
+        this.lastSyncAt = lastSyncAt;
+    }
+}
@@ -0,0 +1,39 @@
+package com.agrovision.kiosk.data.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * TelemetryEventEntity
+ *
+ * One buffered analytics event (MvpEvent name), waiting to be
+ * compacted into a TelemetrySummaryEntity.
+ *
+ * RULES:
+ * - Written only through TelemetryRecorder (batched)
+ * - Deleted by the compaction that counted it; never uploaded one by one
+ */
+@Entity(
+        tableName = "telemetry_events",
+        indices = {@Index("timestamp")}
+)
+public class TelemetryEventEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    /**
+     * Wall-clock time of the event (ms).
+     */
+    public long timestamp;
+
+    @NonNull
+    public String name;
+
+    public TelemetryEventEntity(long timestamp, @NonNull String name) {
+        this.timestamp = timestamp;
+        this.name = name;
+    }
+}
@@ -0,0 +1,42 @@
+package com.agrovision.kiosk.data.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * TelemetrySummaryEntity
+ *
+ * One compacted telemetry interval (event counts, stage latency
+ * percentiles, rates, device vitals), waiting for upload.
+ *
+ * RULES:
+ * - Keyed by interval start: re-uploading an interval overwrites, never duplicates
+ * - Deleted once uploaded; capped while offline
+ */
+@Entity(tableName = "telemetry_summaries")
+public class TelemetrySummaryEntity {
+
+    /**
+     * Wall-clock start of the interval (ms).
+     */
+    @PrimaryKey
+    public long intervalStart;
+
+    /**
+     * Wall-clock end of the interval (ms, exclusive).
+     */
+    public long intervalEnd;
+
+    /**
+     * Summary as a JSON object (schema owned by TelemetryRecorder).
+     */
+    @NonNull
+    public String payload;
+
+    public TelemetrySummaryEntity(long intervalStart, long intervalEnd, @NonNull String payload) {
+        this.intervalStart = intervalStart;
+        this.intervalEnd = intervalEnd;
+        this.payload = payload;
+    }
+}
@@ -2,26 +2,49 @@ package com.agrovision.kiosk.data.database.entity;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * UnknownDetectionEntity
  *
- * Stores OCR text and metadata for medicines not found in the catalog.
- * This data is synced to Firebase for system training.
+ * Offline-first queue of things the catalog could not resolve:
+ * - KIND_DETECTION: OCR text of an unknown bottle (+ local crop image)
+ * - KIND_DISCOVERY: product identified from a QR / web portal
+ *   that is not in the catalog
+ *
+ * This data is synced to Firebase for system training by SyncWorker.
  */
-@Entity(tableName = "unknown_detections")
+@Entity(
+        tableName = "unknown_detections",
+        indices = {@Index("isSynced")}
+)
 public class UnknownDetectionEntity {
 
+    public static final String KIND_DETECTION = "detection";
+    public static final String KIND_DISCOVERY = "discovery";
+
     @PrimaryKey(autoGenerate = true)
     public long id;
 
     /**
-     * The raw OCR text that was detected.
+     * KIND_DETECTION or KIND_DISCOVERY.
+     */
+    @NonNull
+    public String kind;
+
+    /**
+     * The raw OCR text that was detected
+     * (discoveries: the scraped product name).
      */
     @NonNull
     public String rawOcrText;
 
+    /**
+     * Scanned barcode / QR content (discoveries only).
+     */
+    public String rawCode;
+
     /**
      * Local path to the captured image of the bottle.
      * Nullable if image capture failed.
@@ -40,8 +63,53 @@ public class UnknownDetectionEntity {
      */
     public boolean isSynced;
 
-    public UnknownDetectionEntity(@NonNull String rawOcrText, String localImagePath, long timestamp) {
+    /* ===== UPLOAD STATE (SyncWorker) ===== */
+
+    /**
+     * Content hash of the prepared (recompressed) image;
+     * also its Storage object name → re-uploads are idempotent.
+     */
+    public String imageHash;
+
+    /**
+     * Download URL once the image is in Storage (never uploaded twice).
+     */
+    public String imageUrl;
+
+    /**
+     * Resumable Storage session of an interrupted upload.
+     */
+    public String uploadSessionUri;
+
+    /**
+     * Firestore document id, fixed before the first write
+     * (a retried commit overwrites instead of duplicating).
+     */
+    public String documentId;
+
+    /**
+     * Failed upload attempts so far (drives the backoff).
+     */
+    public int attempts;
+
+    /**
+     * Not retried before this time (epoch ms).
+     */
+    public long nextAttemptAt;
+
+    /**
+     * Last upload error, for diagnostics.
+     */
+    public String lastError;
+
+    public UnknownDetectionEntity(@NonNull String kind,
+                                  @NonNull String rawOcrText,
+                                  String rawCode,
+                                  String localImagePath,
+                                  long timestamp) {
+        this.kind = kind;
         this.rawOcrText = rawOcrText;
+        this.rawCode = rawCode;
         this.localImagePath = localImagePath;
         this.timestamp = timestamp;
         this.isSynced = false;
@@ -139,6 +139,15 @@ public final class CurrentScanHolder {
        MEMORY CONTROL (CRITICAL)
        ========================================================= */
 
+    /**
+     * Bytes held by the scan bitmap (MemoryGovernor report).
+     */
+    public synchronized long footprintBytes() {
+        return scanBitmap != null && !scanBitmap.isRecycled()
+                ? scanBitmap.getAllocationByteCount()
+                : 0L;
+    }
+
     /**
      * Clears ALL scan data.
      *
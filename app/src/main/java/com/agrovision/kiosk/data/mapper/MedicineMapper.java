@@ -1,21 +1,29 @@
 package com.agrovision.kiosk.data.mapper;
 
 import com.agrovision.kiosk.data.database.converter.StringListConverter;
+import com.agrovision.kiosk.data.database.entity.MedicineBarcodePrefixEntity;
 import com.agrovision.kiosk.data.database.entity.MedicineEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineKeywordEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineMediaEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineWithDetails;
 import com.agrovision.kiosk.data.model.Medicine;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
  * MedicineMapper
  *
- * Translates between Domain model (Medicine) and Database entity (MedicineEntity).
+ * Translates between Domain model (Medicine) and Database entities
+ * (MedicineEntity + child rows).
  */
 public final class MedicineMapper {
 
     private MedicineMapper() {}
 
-    public static MedicineEntity toEntity(Medicine medicine) {
+    public static MedicineWithDetails toEntity(Medicine medicine) {
         if (medicine == null) return null;
 
         MedicineEntity entity = new MedicineEntity();
@@ -26,27 +34,59 @@ public final class MedicineMapper {
         entity.chemicalName = medicine.getChemicalName();
         entity.supportedCrops = StringListConverter.fromList(medicine.getSupportedCrops());
         entity.supportedDiseases = StringListConverter.fromList(medicine.getSupportedDiseases());
-        entity.imageUrls = StringListConverter.fromList(medicine.getImageUrls());
-        entity.audioUrls = StringListConverter.fromList(medicine.getAudioUrls());
-        entity.searchKeywords = StringListConverter.fromList(medicine.getSearchKeywords());
-        entity.barcodePrefixes = StringListConverter.fromList(medicine.getBarcodePrefixes());
         entity.usageInstructions = medicine.getUsageInstructions();
         entity.warnings = medicine.getWarnings();
         entity.updatedAt = medicine.getUpdatedAt();
         entity.isRemote = medicine.isRemote();
 
-        return entity;
+        MedicineWithDetails details = new MedicineWithDetails();
+        details.medicine = entity;
+
+        int position = 0;
+        for (String kw : medicine.getSearchKeywords()) {
+            if (kw == null || kw.trim().isEmpty()) continue;
+            details.keywords.add(new MedicineKeywordEntity(entity.id, position++, kw.trim()));
+        }
+
+        // (medicineId, prefix) is the primary key → de-duplicate
+        for (String prefix : new LinkedHashSet<>(medicine.getBarcodePrefixes())) {
+            if (prefix == null || prefix.trim().isEmpty()) continue;
+            details.barcodePrefixes.add(new MedicineBarcodePrefixEntity(entity.id, prefix.trim()));
+        }
+
+        addMedia(details, MedicineMediaEntity.TYPE_IMAGE, medicine.getImageUrls());
+        addMedia(details, MedicineMediaEntity.TYPE_AUDIO, medicine.getAudioUrls());
+
+        return details;
     }
 
-    public static Medicine toDomain(MedicineEntity entity) {
-        if (entity == null) return null;
+    public static Medicine toDomain(MedicineWithDetails details) {
+        if (details == null || details.medicine == null) return null;
+        MedicineEntity entity = details.medicine;
 
         List<String> crops = StringListConverter.toList(entity.supportedCrops);
         List<String> diseases = StringListConverter.toList(entity.supportedDiseases);
-        List<String> images = StringListConverter.toList(entity.imageUrls);
-        List<String> audios = StringListConverter.toList(entity.audioUrls);
-        List<String> keywords = StringListConverter.toList(entity.searchKeywords);
-        List<String> prefixes = StringListConverter.toList(entity.barcodePrefixes);
+
+        // Relations come back unordered
+        List<MedicineKeywordEntity> kwRows = new ArrayList<>(details.keywords);
+        Collections.sort(kwRows, (a, b) -> Integer.compare(a.position, b.position));
+        List<String> keywords = new ArrayList<>(kwRows.size());
+        for (MedicineKeywordEntity k : kwRows) keywords.add(k.keyword);
+
+        List<String> prefixes = new ArrayList<>(details.barcodePrefixes.size());
+        for (MedicineBarcodePrefixEntity p : details.barcodePrefixes) prefixes.add(p.prefix);
+
+        List<MedicineMediaEntity> mediaRows = new ArrayList<>(details.media);
+        Collections.sort(mediaRows, (a, b) -> Integer.compare(a.position, b.position));
+        List<String> images = new ArrayList<>();
+        List<String> audios = new ArrayList<>();
+        for (MedicineMediaEntity m : mediaRows) {
+            if (MedicineMediaEntity.TYPE_AUDIO.equals(m.type)) {
+                audios.add(m.url);
+            } else {
+                images.add(m.url);
+            }
+        }
 
         return new Medicine(
                 entity.id,
@@ -66,4 +106,12 @@ public final class MedicineMapper {
                 entity.isRemote
         );
     }
+
+    private static void addMedia(MedicineWithDetails details, String type, List<String> urls) {
+        int position = 0;
+        for (String url : urls) {
+            if (url == null || url.trim().isEmpty()) continue;
+            details.media.add(new MedicineMediaEntity(details.medicine.id, type, position++, url.trim()));
+        }
+    }
 }
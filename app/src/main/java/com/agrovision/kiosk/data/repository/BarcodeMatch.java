@@ -0,0 +1,82 @@
+package com.agrovision.kiosk.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.agrovision.kiosk.data.model.Medicine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BarcodeMatch
+ *
+ * Result of a barcode prefix lookup.
+ *
+ * CASES:
+ * - NONE: no learned prefix fits the code
+ * - Single: exactly one medicine owns the longest matching prefix
+ * - Ambiguous: the same prefix was learned for several medicines
+ *   (caller decides: show all, or fall back to scraping)
+ */
+public final class BarcodeMatch {
+
+    public static final BarcodeMatch NONE =
+            new BarcodeMatch(Collections.emptyList(), "", false);
+
+    private final List<Medicine> candidates;
+    private final String matchedPrefix;
+    private final boolean completion;
+
+    BarcodeMatch(@NonNull List<Medicine> candidates,
+                 @NonNull String matchedPrefix,
+                 boolean completion) {
+        this.candidates = Collections.unmodifiableList(candidates);
+        this.matchedPrefix = matchedPrefix;
+        this.completion = completion;
+    }
+
+    public boolean isFound() {
+        return !candidates.isEmpty();
+    }
+
+    public boolean isAmbiguous() {
+        return candidates.size() > 1;
+    }
+
+    /**
+     * @return the medicine if the match is unique, otherwise null
+     */
+    @Nullable
+    public Medicine getMedicine() {
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    @NonNull
+    public List<Medicine> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Learned prefix that matched (the code itself for completions).
+     */
+    @NonNull
+    public String getMatchedPrefix() {
+        return matchedPrefix;
+    }
+
+    /**
+     * True if the scanned code was SHORTER than the learned prefix
+     * (code is a prefix of it) rather than starting with it.
+     */
+    public boolean isCompletion() {
+        return completion;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "BarcodeMatch{prefix='" + matchedPrefix + "', candidates=" + candidates.size()
+                + (completion ? ", completion" : "") + "}";
+    }
+}
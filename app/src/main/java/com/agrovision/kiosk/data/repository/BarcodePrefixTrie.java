@@ -0,0 +1,170 @@
+package com.agrovision.kiosk.data.repository;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.data.model.Medicine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BarcodePrefixTrie
+ *
+ * Immutable trie over every learned barcode prefix of one catalog snapshot.
+ *
+ * DESIGN:
+ * - Barcodes are digit strings: nodes hold a 10-slot child array,
+ *   any other character falls back to a small sparse list
+ * - A node keeps every medicine whose prefix ends on it
+ * - Lookup walks the scanned code once: O(code length),
+ *   independent of catalog size
+ *
+ * RULES:
+ * - Built once per snapshot (IO lane), read from any thread
+ * - Never mutated after build()
+ */
+final class BarcodePrefixTrie {
+
+    // Enough to tell "unique" from "ambiguous" without walking a whole subtree
+    private static final int MAX_COMPLETIONS = 4;
+
+    static final BarcodePrefixTrie EMPTY = new BarcodePrefixTrie(new Node(), 0);
+
+    private final Node root;
+    private final int prefixCount;
+
+    private BarcodePrefixTrie(Node root, int prefixCount) {
+        this.root = root;
+        this.prefixCount = prefixCount;
+    }
+
+    @NonNull
+    static BarcodePrefixTrie build(@NonNull List<Medicine> medicines) {
+        Node root = new Node();
+        int count = 0;
+        for (Medicine m : medicines) {
+            for (String prefix : m.getBarcodePrefixes()) {
+                if (prefix == null) continue;
+                String p = prefix.trim();
+                if (p.isEmpty()) continue;
+
+                Node node = root;
+                for (int i = 0; i < p.length(); i++) {
+                    node = node.childOrCreate(p.charAt(i));
+                }
+                if (!node.medicines.contains(m)) {
+                    node.medicines.add(m);
+                    count++;
+                }
+            }
+        }
+        return count == 0 ? EMPTY : new BarcodePrefixTrie(root, count);
+    }
+
+    /**
+     * Number of (prefix, medicine) pairs in the trie.
+     */
+    int size() {
+        return prefixCount;
+    }
+
+    /**
+     * Longest-prefix match, O(code length).
+     *
+     * 1. The deepest learned prefix the code starts with wins
+     * 2. Otherwise, if the code is itself a prefix of learned
+     *    prefixes, the distinct medicines below it (bounded)
+     */
+    @NonNull
+    BarcodeMatch find(@NonNull String code) {
+        Node node = root;
+        Node best = null;
+        int bestDepth = 0;
+        int depth = 0;
+
+        while (depth < code.length()) {
+            node = node.child(code.charAt(depth));
+            if (node == null) break;
+            depth++;
+            if (!node.medicines.isEmpty()) {
+                best = node;
+                bestDepth = depth;
+            }
+        }
+
+        if (best != null) {
+            return new BarcodeMatch(best.medicines, code.substring(0, bestDepth), false);
+        }
+
+        // Code ran out inside the trie → completions
+        if (node != null && depth == code.length() && depth > 0) {
+            List<Medicine> below = new ArrayList<>(MAX_COMPLETIONS);
+            collect(node, below);
+            if (!below.isEmpty()) {
+                return new BarcodeMatch(below, code, true);
+            }
+        }
+        return BarcodeMatch.NONE;
+    }
+
+    private static void collect(Node node, List<Medicine> out) {
+        for (Medicine m : node.medicines) {
+            if (out.size() >= MAX_COMPLETIONS) return;
+            if (!out.contains(m)) out.add(m);
+        }
+        if (node.digits != null) {
+            for (Node child : node.digits) {
+                if (out.size() >= MAX_COMPLETIONS) return;
+                if (child != null) collect(child, out);
+            }
+        }
+        if (node.otherNodes != null) {
+            for (Node child : node.otherNodes) {
+                if (out.size() >= MAX_COMPLETIONS) return;
+                collect(child, out);
+            }
+        }
+    }
+
+    /* =========================================================
+       NODE
+       ========================================================= */
+
+    private static final class Node {
+
+        private Node[] digits;
+        private List<Node> otherNodes;
+        private List<Character> otherKeys;
+
+        // Medicines whose prefix ends here
+        final List<Medicine> medicines = new ArrayList<>(1);
+
+        Node child(char c) {
+            if (c >= '0' && c <= '9') {
+                return digits == null ? null : digits[c - '0'];
+            }
+            if (otherKeys == null) return null;
+            int i = otherKeys.indexOf(c);
+            return i < 0 ? null : otherNodes.get(i);
+        }
+
+        private Node childOrCreate(char c) {
+            Node existing = child(c);
+            if (existing != null) return existing;
+
+            Node created = new Node();
+            if (c >= '0' && c <= '9') {
+                if (digits == null) digits = new Node[10];
+                digits[c - '0'] = created;
+            } else {
+                if (otherKeys == null) {
+                    otherKeys = new ArrayList<>(2);
+                    otherNodes = new ArrayList<>(2);
+                }
+                otherKeys.add(c);
+                otherNodes.add(created);
+            }
+            return created;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.agrovision.kiosk.data.repository;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.data.model.Medicine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CatalogDelta
+ *
+ * Immutable set of row changes from ONE catalog source,
+ * applied in a single Room transaction.
+ *
+ * RULES:
+ * - Contains only rows that actually changed
+ * - Watermark is persisted together with the rows
+ */
+final class CatalogDelta {
+
+    private final String source;
+    private final List<Medicine> upserts;
+    private final List<String> removedIds;
+    private final long watermark;
+
+    CatalogDelta(@NonNull String source,
+                 @NonNull List<Medicine> upserts,
+                 @NonNull List<String> removedIds,
+                 long watermark) {
+        this.source = source;
+        this.upserts = Collections.unmodifiableList(upserts);
+        this.removedIds = Collections.unmodifiableList(removedIds);
+        this.watermark = watermark;
+    }
+
+    @NonNull
+    String getSource() {
+        return source;
+    }
+
+    @NonNull
+    List<Medicine> getUpserts() {
+        return upserts;
+    }
+
+    @NonNull
+    List<String> getRemovedIds() {
+        return removedIds;
+    }
+
+    long getWatermark() {
+        return watermark;
+    }
+
+    boolean isEmpty() {
+        return upserts.isEmpty() && removedIds.isEmpty();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return source + " delta: +" + upserts.size() + " / -" + removedIds.size()
+                + " (watermark=" + watermark + ")";
+    }
+}
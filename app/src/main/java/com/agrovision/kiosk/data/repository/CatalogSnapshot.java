@@ -0,0 +1,179 @@
+package com.agrovision.kiosk.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.agrovision.kiosk.data.model.Medicine;
+import com.agrovision.kiosk.vision.mapping.MatcherIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CatalogSnapshot
+ *
+ * One immutable, fully indexed version of the medicine catalog.
+ *
+ * CONTAINS:
+ * - Monotonic version (increases on every publish)
+ * - Medicine list + id → medicine map
+ * - Barcode prefix trie
+ * - Prebuilt matcher index (tokens, weights)
+ * - Content fingerprint (detects identical reloads)
+ *
+ * RULES:
+ * - Built on the IO lane, published through a volatile reference
+ * - Never mutated: hold on to a snapshot for a whole scan
+ *   and every lookup sees the same catalog
+ */
+public final class CatalogSnapshot {
+
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(
+            0L,
+            Collections.emptyList(),
+            Collections.emptyMap(),
+            BarcodePrefixTrie.EMPTY,
+            MatcherIndex.EMPTY,
+            fingerprintOf(Collections.emptyList())
+    );
+
+    private final long version;
+    private final List<Medicine> medicines;
+    private final Map<String, Medicine> byId;
+    private final BarcodePrefixTrie barcodeTrie;
+    private final MatcherIndex matcherIndex;
+    private final long fingerprint;
+
+    private CatalogSnapshot(long version,
+                            List<Medicine> medicines,
+                            Map<String, Medicine> byId,
+                            BarcodePrefixTrie barcodeTrie,
+                            MatcherIndex matcherIndex,
+                            long fingerprint) {
+        this.version = version;
+        this.medicines = medicines;
+        this.byId = byId;
+        this.barcodeTrie = barcodeTrie;
+        this.matcherIndex = matcherIndex;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Builds every index for the given medicines (IO lane only).
+     */
+    @NonNull
+    static CatalogSnapshot build(long version, @NonNull Collection<Medicine> source) {
+        List<Medicine> list = Collections.unmodifiableList(new ArrayList<>(source));
+        return assemble(version, list, MatcherIndex.build(list));
+    }
+
+    /**
+     * Same as build(), with a matcher index restored from the binary
+     * catalog file instead of re-tokenizing every medicine.
+     */
+    @NonNull
+    static CatalogSnapshot restore(long version, @NonNull MatcherIndex matcherIndex) {
+        List<Medicine> list = new ArrayList<>(matcherIndex.size());
+        for (int i = 0; i < matcherIndex.size(); i++) {
+            list.add(matcherIndex.medicineAt(i));
+        }
+        return assemble(version, Collections.unmodifiableList(list), matcherIndex);
+    }
+
+    private static CatalogSnapshot assemble(long version, List<Medicine> list, MatcherIndex matcherIndex) {
+        Map<String, Medicine> byId = new HashMap<>(list.size() * 2);
+        for (Medicine m : list) {
+            byId.put(m.getId(), m);
+        }
+
+        return new CatalogSnapshot(
+                version,
+                list,
+                Collections.unmodifiableMap(byId),
+                BarcodePrefixTrie.build(list),
+                matcherIndex,
+                fingerprintOf(list)
+        );
+    }
+
+    /**
+     * Cheap content hash: ids, versions and every field the indexes use.
+     * Order-independent: the same rows loaded in another order match.
+     * Equal fingerprints → publishing would change nothing.
+     */
+    static long fingerprintOf(@NonNull Collection<Medicine> medicines) {
+        long sum = medicines.size();
+        for (Medicine m : medicines) {
+            long h = hash(m.getId());
+            h = 31 * h + m.getUpdatedAt();
+            h = 31 * h + hash(m.getName());
+            h = 31 * h + hash(m.getCompany());
+            h = 31 * h + m.getSearchKeywords().hashCode();
+            h = 31 * h + m.getBarcodePrefixes().hashCode();
+            // Mix before summing so field swaps between rows don't cancel out
+            h *= 0x9E3779B97F4A7C15L;
+            sum += h ^ (h >>> 32);
+        }
+        return sum;
+    }
+
+    private static int hash(@Nullable String s) {
+        return s == null ? 0 : s.hashCode();
+    }
+
+    /* =========================================================
+       ACCESSORS
+       ========================================================= */
+
+    public long getVersion() {
+        return version;
+    }
+
+    @NonNull
+    public List<Medicine> getMedicines() {
+        return medicines;
+    }
+
+    @Nullable
+    public Medicine getById(@Nullable String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * Longest learned barcode prefix of the code (trie walk, O(code length)).
+     */
+    @NonNull
+    public BarcodeMatch findByBarcode(@Nullable String code) {
+        if (code == null) return BarcodeMatch.NONE;
+        String c = code.trim();
+        return c.isEmpty() ? BarcodeMatch.NONE : barcodeTrie.find(c);
+    }
+
+    @NonNull
+    public MatcherIndex getMatcherIndex() {
+        return matcherIndex;
+    }
+
+    public int size() {
+        return medicines.size();
+    }
+
+    public boolean isEmpty() {
+        return medicines.isEmpty();
+    }
+
+    long getFingerprint() {
+        return fingerprint;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "CatalogSnapshot{v" + version + ", " + medicines.size() + " medicines, "
+                + barcodeTrie.size() + " barcode prefixes}";
+    }
+}
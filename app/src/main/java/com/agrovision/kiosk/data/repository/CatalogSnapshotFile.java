@@ -0,0 +1,298 @@
+package com.agrovision.kiosk.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.agrovision.kiosk.data.model.Medicine;
+import com.agrovision.kiosk.vision.mapping.MatcherIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CatalogSnapshotFile
+ *
+ * Compact binary copy of the last published catalog, memory-mapped
+ * at startup so scans can match before Room / Firebase are ready.
+ *
+ * LAYOUT (big-endian):
+ * - Header: magic, format version, total length, fingerprint,
+ *   string count, medicine count
+ * - String pool: every distinct string ONCE (UTF-8, length-prefixed)
+ * - Records: medicine fields + matcher tokens as string-pool ids
+ *
+ * DESIGN:
+ * - Interned pool: crops, companies, keywords repeat across medicines;
+ *   decoded once and shared as the same String instance
+ * - Matcher tokens are stored, so loading does no regex tokenization
+ * - Barcode trie is rebuilt from the prefixes (a plain loop, not stored)
+ *
+ * RULES:
+ * - Written to a temp file and renamed: never half-written
+ * - Any mismatch (magic, version, length, fingerprint) → null,
+ *   caller falls back to Room
+ * - IO / BACKGROUND lanes only
+ */
+final class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x41474354; // "AGCT"
+
+    // Bump whenever the layout OR the matcher tokenizer changes
+    private static final int FORMAT_VERSION = 1;
+
+    // magic, version, length, fingerprint, string count, medicine count
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8 + 4 + 4;
+
+    private static final int NO_STRING = -1;
+
+    private CatalogSnapshotFile() {
+        throw new AssertionError("No instances allowed");
+    }
+
+    /* =========================================================
+       WRITE
+       ========================================================= */
+
+    static void write(@NonNull File file, @NonNull CatalogSnapshot snapshot) throws IOException {
+        MatcherIndex index = snapshot.getMatcherIndex();
+
+        // 1️⃣ Intern every string
+        StringPool pool = new StringPool();
+        for (int i = 0; i < index.size(); i++) {
+            Medicine m = index.medicineAt(i);
+            MatcherIndex.Tokens t = index.tokensAt(i);
+            pool.add(m.getId());
+            pool.add(m.getName());
+            pool.add(m.getCompany());
+            pool.add(m.getCibNo());
+            pool.add(m.getChemicalName());
+            pool.add(m.getUsageInstructions());
+            pool.add(m.getWarnings());
+            pool.addAll(m.getSupportedCrops());
+            pool.addAll(m.getSupportedDiseases());
+            pool.addAll(m.getSearchKeywords());
+            pool.addAll(m.getBarcodePrefixes());
+            pool.addAll(m.getImageUrls());
+            pool.addAll(m.getAudioUrls());
+            pool.addAll(t.name);
+            pool.addAll(t.company);
+            pool.add(t.cleanName);
+            pool.addAll(t.keywordRaw);
+            for (List<String> kw : t.keywordTokens) pool.addAll(kw);
+        }
+
+        // 2️⃣ Body into memory (catalog is small), then header with its length
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        for (String s : pool.strings) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            body.writeInt(utf8.length);
+            body.write(utf8);
+        }
+
+        for (int i = 0; i < index.size(); i++) {
+            Medicine m = index.medicineAt(i);
+            MatcherIndex.Tokens t = index.tokensAt(i);
+
+            body.writeInt(pool.id(m.getId()));
+            body.writeInt(pool.id(m.getName()));
+            body.writeInt(pool.id(m.getCompany()));
+            body.writeInt(pool.id(m.getCibNo()));
+            body.writeInt(pool.id(m.getChemicalName()));
+            body.writeInt(pool.id(m.getUsageInstructions()));
+            body.writeInt(pool.id(m.getWarnings()));
+            body.writeLong(m.getUpdatedAt());
+            body.writeBoolean(m.isRemote());
+            writeIds(body, pool, m.getSupportedCrops());
+            writeIds(body, pool, m.getSupportedDiseases());
+            writeIds(body, pool, m.getSearchKeywords());
+            writeIds(body, pool, m.getBarcodePrefixes());
+            writeIds(body, pool, m.getImageUrls());
+            writeIds(body, pool, m.getAudioUrls());
+
+            writeIds(body, pool, t.name);
+            writeIds(body, pool, t.company);
+            body.writeInt(pool.id(t.cleanName));
+            body.writeInt(t.keywordRaw.size());
+            for (int k = 0; k < t.keywordRaw.size(); k++) {
+                body.writeInt(pool.id(t.keywordRaw.get(k)));
+                writeIds(body, pool, t.keywordTokens.get(k));
+            }
+        }
+        body.flush();
+
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(HEADER_SIZE + bodyBytes.size());
+            out.writeLong(snapshot.getFingerprint());
+            out.writeInt(pool.strings.size());
+            out.writeInt(index.size());
+            bodyBytes.writeTo(out);
+            out.flush();
+        } finally {
+            out.close();
+        }
+
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    private static void writeIds(DataOutputStream out, StringPool pool, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String v : values) out.writeInt(pool.id(v));
+    }
+
+    /* =========================================================
+       READ
+       ========================================================= */
+
+    /**
+     * @return the stored catalog as a snapshot with the given version,
+     *         or null if the file is missing, outdated or damaged
+     */
+    @Nullable
+    static CatalogSnapshot read(@NonNull File file, long version) throws IOException {
+        if (!file.exists()) return null;
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) return null;
+
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            if (buf.getInt() != MAGIC) return null;
+            if (buf.getInt() != FORMAT_VERSION) return null;
+            if (buf.getInt() != length) return null; // Truncated / appended
+
+            long fingerprint = buf.getLong();
+            int stringCount = buf.getInt();
+            int medicineCount = buf.getInt();
+            if (stringCount < 0 || stringCount > length / 4
+                    || medicineCount < 0 || medicineCount > length / 4) {
+                return null;
+            }
+
+            String[] strings = new String[stringCount];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < stringCount; i++) {
+                int len = buf.getInt();
+                if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+                buf.get(scratch, 0, len);
+                strings[i] = new String(scratch, 0, len, StandardCharsets.UTF_8);
+            }
+
+            List<Medicine> medicines = new ArrayList<>(medicineCount);
+            List<MatcherIndex.Tokens> tokens = new ArrayList<>(medicineCount);
+
+            for (int i = 0; i < medicineCount; i++) {
+                String id = str(strings, buf.getInt());
+                String name = str(strings, buf.getInt());
+                String company = str(strings, buf.getInt());
+                String cibNo = str(strings, buf.getInt());
+                String chemicalName = str(strings, buf.getInt());
+                String usage = str(strings, buf.getInt());
+                String warnings = str(strings, buf.getInt());
+                long updatedAt = buf.getLong();
+                boolean remote = buf.get() != 0;
+                List<String> crops = readIds(buf, strings);
+                List<String> diseases = readIds(buf, strings);
+                List<String> keywords = readIds(buf, strings);
+                List<String> prefixes = readIds(buf, strings);
+                List<String> images = readIds(buf, strings);
+                List<String> audio = readIds(buf, strings);
+
+                medicines.add(new Medicine(id, name, company, cibNo, chemicalName,
+                        crops, diseases, usage, warnings,
+                        keywords, prefixes, images, audio, updatedAt, remote));
+
+                List<String> nameTokens = readIds(buf, strings);
+                List<String> companyTokens = readIds(buf, strings);
+                String cleanName = str(strings, buf.getInt());
+                int kwCount = buf.getInt();
+                List<String> kwRaw = new ArrayList<>(kwCount);
+                List<List<String>> kwTokens = new ArrayList<>(kwCount);
+                for (int k = 0; k < kwCount; k++) {
+                    kwRaw.add(str(strings, buf.getInt()));
+                    kwTokens.add(readIds(buf, strings));
+                }
+                tokens.add(new MatcherIndex.Tokens(nameTokens, companyTokens,
+                        cleanName != null ? cleanName : "", kwRaw, kwTokens));
+            }
+
+            CatalogSnapshot snapshot = CatalogSnapshot.restore(version, MatcherIndex.restore(medicines, tokens));
+            // Recomputed over the decoded rows: catches silent corruption
+            return snapshot.getFingerprint() == fingerprint ? snapshot : null;
+
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static List<String> readIds(ByteBuffer buf, String[] strings) {
+        int n = buf.getInt();
+        if (n == 0) return Collections.emptyList();
+        if (n < 0 || n > buf.remaining() / 4) throw new IndexOutOfBoundsException("Bad list size " + n);
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String s = str(strings, buf.getInt());
+            if (s != null) out.add(s);
+        }
+        return out;
+    }
+
+    @Nullable
+    private static String str(String[] strings, int id) {
+        return id == NO_STRING ? null : strings[id];
+    }
+
+    /* =========================================================
+       STRING POOL
+       ========================================================= */
+
+    private static final class StringPool {
+
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> ids = new HashMap<>();
+
+        void add(@Nullable String s) {
+            if (s != null && !ids.containsKey(s)) {
+                ids.put(s, strings.size());
+                strings.add(s);
+            }
+        }
+
+        void addAll(List<String> values) {
+            for (String v : values) add(v);
+        }
+
+        int id(@Nullable String s) {
+            return s == null ? NO_STRING : ids.get(s);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.agrovision.kiosk.data.repository;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.agrovision.kiosk.data.model.Medicine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * MedicineAssetReader
+ *
+ * Streaming reader for the bundled data/medicines.json (a JSON array).
+ *
+ * DESIGN:
+ * - Pull-based: next() parses exactly ONE medicine
+ * - Only the current object is ever in memory
+ *   (no full-file String, no JSONArray DOM)
+ * - Unknown fields are skipped without being materialized
+ *
+ * RULES:
+ * - Same field rules as the old JSONObject parser:
+ *   name / medicineName, searchKeywords / ocrKeywords / name fallback,
+ *   company defaults to "Unknown", missing strings become ""
+ * - A medicine without a name aborts the load (invalid asset)
+ * - Not thread-safe: one reader per load
+ */
+final class MedicineAssetReader implements Closeable {
+
+    private final JsonReader reader;
+    private boolean started = false;
+
+    MedicineAssetReader(@NonNull InputStream in) {
+        this.reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8)));
+        // Asset is hand-edited: accept what org.json used to accept
+        this.reader.setLenient(true);
+    }
+
+    /**
+     * @return next medicine, or null at the end of the array
+     */
+    @Nullable
+    Medicine next() throws IOException {
+        if (!started) {
+            reader.beginArray();
+            started = true;
+        }
+        if (!reader.hasNext()) {
+            reader.endArray();
+            return null;
+        }
+        return readMedicine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /* =========================================================
+       OBJECT
+       ========================================================= */
+
+    private Medicine readMedicine() throws IOException {
+        String id = null;
+        String name = null;
+        String medicineName = null;
+        String company = null;
+        String cibNo = null;
+        String chemicalName = null;
+        String usageInstructions = null;
+        String warnings = null;
+        long updatedAt = 0L;
+        List<String> searchKeywords = Collections.emptyList();
+        List<String> ocrKeywords = Collections.emptyList();
+        List<String> barcodePrefixes = Collections.emptyList();
+        List<String> crops = Collections.emptyList();
+        List<String> diseases = Collections.emptyList();
+        List<String> imageUrls = Collections.emptyList();
+        List<String> audioUrls = Collections.emptyList();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            switch (field) {
+                case "id": id = readString(); break;
+                case "name": name = readString(); break;
+                case "medicineName": medicineName = readString(); break;
+                case "company": company = readString(); break;
+                case "cibNo": cibNo = readString(); break;
+                case "chemicalName": chemicalName = readString(); break;
+                case "usageInstructions": usageInstructions = readString(); break;
+                case "warnings": warnings = readString(); break;
+                case "updatedAt": updatedAt = readLong(); break;
+                case "searchKeywords": searchKeywords = readStringList(); break;
+                case "ocrKeywords": ocrKeywords = readStringList(); break;
+                case "barcodePrefixes": barcodePrefixes = readStringList(); break;
+                case "supportedCrops": crops = readStringList(); break;
+                case "supportedDiseases": diseases = readStringList(); break;
+                case "imageUrls": imageUrls = readStringList(); break;
+                case "audioUrls": audioUrls = readStringList(); break;
+                default: reader.skipValue(); break;
+            }
+        }
+        reader.endObject();
+
+        // 🚀 UNIFIED SCHEMA VALIDATION
+        if (id == null) {
+            throw new IllegalArgumentException("JSON Medicine missing required field: id");
+        }
+        if (name == null) name = medicineName != null ? medicineName : "";
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("JSON Medicine missing required field: name (ID: " + id + ")");
+        }
+
+        List<String> keywords = !searchKeywords.isEmpty() ? searchKeywords : ocrKeywords;
+        // Fallback: if no keywords, use name as a keyword
+        if (keywords.isEmpty()) {
+            keywords = new ArrayList<>();
+            keywords.add(name);
+        }
+
+        return new Medicine(
+                id,
+                name,
+                company != null ? company : "Unknown",
+                orEmpty(cibNo),
+                orEmpty(chemicalName),
+                crops,
+                diseases,
+                orEmpty(usageInstructions),
+                orEmpty(warnings),
+                keywords,
+                barcodePrefixes,
+                imageUrls,
+                audioUrls,
+                updatedAt
+        );
+    }
+
+    /* =========================================================
+       VALUES
+       ========================================================= */
+
+    @Nullable
+    private String readString() throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private long readLong() throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER) {
+            return reader.nextLong();
+        }
+        if (token == JsonToken.STRING) {
+            try {
+                return Long.parseLong(reader.nextString().trim());
+            } catch (NumberFormatException e) {
+                return 0L;
+            }
+        }
+        reader.skipValue();
+        return 0L;
+    }
+
+    /**
+     * Array of strings; a single string is accepted as a one-element list.
+     */
+    @NonNull
+    private List<String> readStringList() throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING) {
+            List<String> single = new ArrayList<>(1);
+            single.add(reader.nextString());
+            return single;
+        }
+        if (token != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return Collections.emptyList();
+        }
+
+        List<String> list = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String value = readString();
+            if (value != null) list.add(value);
+        }
+        reader.endArray();
+        return list;
+    }
+
+    private static String orEmpty(@Nullable String value) {
+        return value != null ? value : "";
+    }
+}
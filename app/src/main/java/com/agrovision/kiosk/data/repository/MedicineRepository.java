@@ -1,45 +1,96 @@
 package com.agrovision.kiosk.data.repository;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import com.agrovision.kiosk.data.database.AppDatabase;
 import com.agrovision.kiosk.data.database.dao.MedicineDao;
-import com.agrovision.kiosk.data.database.entity.MedicineEntity;
+import com.agrovision.kiosk.data.database.dao.SyncStateDao;
+import com.agrovision.kiosk.data.database.dao.UnknownDetectionDao;
+import com.agrovision.kiosk.data.database.entity.MedicineBarcodePrefixEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineVersion;
+import com.agrovision.kiosk.data.database.entity.SyncStateEntity;
+import com.agrovision.kiosk.data.database.entity.MedicineWithDetails;
 import com.agrovision.kiosk.data.database.entity.UnknownDetectionEntity;
 import com.agrovision.kiosk.data.mapper.MedicineMapper;
 import com.agrovision.kiosk.data.model.Medicine;
-import com.agrovision.kiosk.threading.IoExecutor;
+import com.agrovision.kiosk.sync.SyncWorker;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskPriority;
+import com.agrovision.kiosk.threading.TaskScheduler;
+import com.agrovision.kiosk.util.BitmapUtils;
 import com.agrovision.kiosk.util.LogUtils;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreSettings;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class MedicineRepository {
     private static final String TAG = "MedicineRepository";
     private static volatile MedicineRepository INSTANCE;
+
+    // Catalog sources (keys of sync_state)
+    private static final String SOURCE_REMOTE = "remote";
+    private static final String SOURCE_ASSETS = "assets";
+
+    // Medicines per Room transaction while streaming the asset
+    private static final int ASSET_BATCH_SIZE = 50;
+
+    private static final String SNAPSHOT_FILE = "catalog.bin";
+
+    // Local crops of unknown bottles, deleted once uploaded
+    public static final String UNKNOWN_CROP_DIR = "unknown_crops";
+    private static final int UNKNOWN_CROP_QUALITY = 85;
     
     private final Context appContext;
+    private final AppDatabase database;
     private final MedicineDao medicineDao;
+    private final SyncStateDao syncStateDao;
+    private final UnknownDetectionDao unknownDetectionDao;
     private final FirebaseFirestore firestore;
     
-    private volatile List<Medicine> cachedCatalog = new ArrayList<>();
-    private OnCatalogUpdateListener updateListener;
+    // 🚀 COPY-ON-WRITE: readers grab the reference once, never lock
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+
+    // Mutable working set behind the snapshot (guarded by catalogLock)
+    private final Object catalogLock = new Object();
+    private final Map<String, Medicine> catalogById = new LinkedHashMap<>();
+
+    // Set once a server (non-cache) snapshot removed rows deleted while offline
+    private volatile boolean remoteReconciled = false;
+
+    // Highest remote updatedAt committed to Room (written on IO, read by the listener)
+    private volatile long remoteWatermark = 0L;
+
+    private final List<CatalogListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong lastNotifiedVersion = new AtomicLong(0L);
 
-    public interface OnCatalogUpdateListener {
-        void onCatalogUpdated(List<Medicine> newCatalog);
+    // Binary copy of the catalog for the next cold start
+    private final Object snapshotFileLock = new Object();
+    private volatile long persistedFingerprint;
+
+    /**
+     * Notified (on the IO lane) after a NEW catalog version is published.
+     * Identical reloads are not reported.
+     */
+    public interface CatalogListener {
+        void onCatalogPublished(CatalogSnapshot snapshot);
     }
 
     public static MedicineRepository getInstance(Context context) {
@@ -55,8 +106,10 @@ public final class MedicineRepository {
 
     private MedicineRepository(Context appContext) {
         this.appContext = appContext;
-        AppDatabase db = AppDatabase.getInstance(appContext);
-        this.medicineDao = db.medicineDao();
+        this.database = AppDatabase.getInstance(appContext);
+        this.medicineDao = database.medicineDao();
+        this.syncStateDao = database.syncStateDao();
+        this.unknownDetectionDao = database.unknownDetectionDao();
         
         this.firestore = FirebaseFirestore.getInstance();
         FirebaseFirestoreSettings settings = new FirebaseFirestoreSettings.Builder()
@@ -65,31 +118,79 @@ public final class MedicineRepository {
         this.firestore.setFirestoreSettings(settings);
 
         // 🚀 SYNC STRATEGY:
+        // 0. Map the binary snapshot of the last catalog (matching within ms)
+        loadCatalogFromSnapshotFile();
+
         // 1. Load what we have in DB immediately (warm cache)
         loadCatalogFromRoom();
 
-        // 2. Always sync with JSON assets (source of truth for static data)
-        // This ensures deleted medicines in JSON are removed from DB
+        // 2. Sync with JSON assets (source of truth for static data)
+        // Skipped entirely unless the APK changed since the last applied sync
         loadCatalogFromAssets();
 
-        // 3. Start background sync with Firebase
+        // 3. Start background DELTA sync with Firebase
         startRealtimeSync();
     }
 
-    public void setOnCatalogUpdateListener(OnCatalogUpdateListener listener) {
-        this.updateListener = listener;
+    public void addCatalogListener(CatalogListener listener) {
+        if (listener != null && !listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeCatalogListener(CatalogListener listener) {
+        listeners.remove(listener);
     }
 
-    private void loadCatalogFromRoom() {
-        IoExecutor.submit(() -> {
+    /**
+     * Publishes the catalog persisted by the last run before Room is even
+     * opened. Room / assets / Firebase then publish on top of it as usual
+     * (identical content is deduplicated by fingerprint).
+     */
+    private void loadCatalogFromSnapshotFile() {
+        TaskScheduler.submit(Lane.IO, TaskPriority.HIGH, () -> {
+            long start = System.currentTimeMillis();
             try {
-                List<MedicineEntity> entities = medicineDao.getAll();
-                updateCacheFromEntities(entities);
-                Log.i(TAG, "Database: Initialized. Loaded " + cachedCatalog.size() + " total items from Room.");
+                synchronized (catalogLock) {
+                    // Something newer already arrived
+                    if (!snapshot.isEmpty()) return;
 
-                if (updateListener != null) {
-                    updateListener.onCatalogUpdated(cachedCatalog);
+                    CatalogSnapshot restored = CatalogSnapshotFile.read(snapshotFile(), snapshot.getVersion() + 1);
+                    if (restored == null || restored.isEmpty()) {
+                        Log.i(TAG, "Snapshot file: None usable, waiting for Room.");
+                        return;
+                    }
+                    for (Medicine m : restored.getMedicines()) {
+                        catalogById.put(m.getId(), m);
+                    }
+                    snapshot = restored;
+                    persistedFingerprint = restored.getFingerprint();
+                }
+                Log.i(TAG, "Snapshot file: Published " + snapshot + " in "
+                        + (System.currentTimeMillis() - start) + "ms");
+                notifyCatalogUpdated();
+            } catch (Exception e) {
+                Log.e(TAG, "Snapshot file: Failed to load, deleting.", e);
+                //noinspection ResultOfMethodCallIgnored
+                snapshotFile().delete();
+            }
+        });
+    }
+
+    private void loadCatalogFromRoom() {
+        TaskScheduler.submit(Lane.IO, () -> {
+            try {
+                List<MedicineWithDetails> rows = medicineDao.getAll();
+                synchronized (catalogLock) {
+                    catalogById.clear();
+                    for (MedicineWithDetails row : rows) {
+                        catalogById.put(row.medicine.id, MedicineMapper.toDomain(row));
+                    }
+                    publishCatalogLocked();
                 }
+                Log.i(TAG, "Database: Initialized. Loaded " + snapshot.size() + " total items from Room.");
+
+                notifyCatalogUpdated();
             } catch (Exception e) {
                 Log.e(TAG, "Database: Failed to load from Room.", e);
             }
@@ -97,28 +198,93 @@ public final class MedicineRepository {
     }
 
     private void loadCatalogFromAssets() {
-        IoExecutor.submit(() -> {
+        TaskScheduler.submit(Lane.IO, TaskPriority.LOW, () -> {
             try {
-                Log.d(TAG, "Assets: Loading medicines.json...");
-                InputStream is = appContext.getAssets().open("data/medicines.json");
-                String json = readFully(is);
-                JSONArray array = new JSONArray(json);
-                List<Medicine> medicines = new ArrayList<>();
-                for (int i = 0; i < array.length(); i++) {
-                    JSONObject obj = array.getJSONObject(i);
-                    medicines.add(parseMedicine(obj));
+                // 🚀 WATERMARK: assets only change with the APK
+                long apkVersion = appContext.getPackageManager()
+                        .getPackageInfo(appContext.getPackageName(), 0).lastUpdateTime;
+                SyncStateEntity state = syncStateDao.get(SOURCE_ASSETS);
+                if (state != null && state.watermark == apkVersion) {
+                    Log.i(TAG, "Assets: Unchanged since last sync, skipping.");
+                    return;
+                }
+
+                Log.d(TAG, "Assets: Streaming medicines.json...");
+                Map<String, Long> stored = storedVersions(false);
+                // Same-id remote rows win: REPLACE would otherwise overwrite them (IO lane is serial)
+                Set<String> remoteIds = storedVersions(true).keySet();
+                Set<String> seenIds = new HashSet<>();
+                List<Medicine> changed = new ArrayList<>();
+                List<Medicine> batch = new ArrayList<>(ASSET_BATCH_SIZE);
+
+                // 🚀 STREAMING: one object in memory at a time, Room written per batch
+                try (MedicineAssetReader reader =
+                             new MedicineAssetReader(appContext.getAssets().open("data/medicines.json"))) {
+                    Medicine m;
+                    while ((m = reader.next()) != null) {
+                        seenIds.add(m.getId());
+                        if (remoteIds.contains(m.getId()) || isStoredVersion(stored, m)) continue;
+                        batch.add(m);
+                        if (batch.size() == ASSET_BATCH_SIZE) {
+                            writeAssetBatch(batch);
+                            changed.addAll(batch);
+                            batch.clear();
+                        }
+                    }
+                }
+                writeAssetBatch(batch);
+                changed.addAll(batch);
+                Log.i(TAG, "Assets: Streamed " + seenIds.size() + " items (" + changed.size() + " changed).");
+
+                // Full set: anything local that is no longer in the file is removed
+                List<String> removed = new ArrayList<>();
+                for (String id : stored.keySet()) {
+                    if (!seenIds.contains(id)) removed.add(id);
+                }
+
+                // Rows are already in Room: only deletions + watermark remain
+                CatalogDelta delta = new CatalogDelta(SOURCE_ASSETS, changed, removed, apkVersion);
+                SyncStateEntity done = new SyncStateEntity(SOURCE_ASSETS, apkVersion, System.currentTimeMillis());
+                database.runInTransaction(() -> {
+                    medicineDao.deleteByIds(removed);
+                    syncStateDao.upsert(done);
+                });
+                if (!delta.isEmpty()) {
+                    publishDelta(delta);
+                } else {
+                    Log.d(TAG, "Database: " + SOURCE_ASSETS + " already up to date.");
                 }
-                Log.i(TAG, "Assets: Loaded " + medicines.size() + " items from JSON.");
-                syncToDatabase(medicines, false); // false = LOCAL source
             } catch (Exception e) {
                 Log.e(TAG, "Assets: Failed to load/sync fallback data.", e);
             }
         });
     }
 
+    /**
+     * Reads the remote watermark, then attaches the listener.
+     */
     private void startRealtimeSync() {
-        Log.i(TAG, "Firebase: Starting sync with 'approved_medicines'...");
-        
+        TaskScheduler.submit(Lane.IO, TaskPriority.NORMAL, () -> {
+            remoteWatermark = readWatermark(SOURCE_REMOTE);
+            attachRemoteListener();
+        });
+    }
+
+    /**
+     * Listens to 'approved_medicines' and applies ONLY the document changes.
+     *
+     * - ADDED: every attach re-delivers all documents as ADDED. Those at
+     *   or below the watermark are not parsed; on the IO lane only the
+     *   ones missing from Room are. Newer ones are upserted unless the
+     *   stored row has the same updatedAt
+     * - MODIFIED: always upserted
+     * - REMOVED: deleted
+     * - First server snapshot: also removes rows deleted while offline
+     */
+    private void attachRemoteListener() {
+        Log.i(TAG, "Firebase: Starting delta sync with 'approved_medicines' (watermark "
+                + remoteWatermark + ")...");
+
         firestore.collection("approved_medicines")
                 .addSnapshotListener((value, error) -> {
                     if (error != null) {
@@ -126,92 +292,317 @@ public final class MedicineRepository {
                         return;
                     }
 
-                    if (value != null) {
-                        List<Medicine> remoteMedicines = new ArrayList<>();
+                    if (value == null) return;
+
+                    List<Medicine> added = new ArrayList<>();
+                    List<DocumentSnapshot> belowWatermark = new ArrayList<>();
+                    List<Medicine> modified = new ArrayList<>();
+                    List<String> removed = new ArrayList<>();
+                    long watermark = remoteWatermark;
+
+                    for (DocumentChange change : value.getDocumentChanges()) {
+                        DocumentSnapshot doc = change.getDocument();
+                        switch (change.getType()) {
+                            case ADDED: {
+                                long updatedAt = updatedAtOf(doc);
+                                if (updatedAt != 0 && updatedAt <= watermark) {
+                                    belowWatermark.add(doc);
+                                    break;
+                                }
+                                Medicine m = docToMedicine(doc);
+                                if (m != null) added.add(m);
+                                break;
+                            }
+                            case MODIFIED: {
+                                Medicine m = docToMedicine(doc);
+                                if (m != null) {
+                                    modified.add(m);
+                                } else {
+                                    // Became invalid → must not stay searchable
+                                    removed.add(doc.getId());
+                                }
+                                break;
+                            }
+                            case REMOVED:
+                                removed.add(doc.getId());
+                                break;
+                        }
+                    }
+
+                    // Full id set only needed once, from the server
+                    Set<String> fullIdSet = null;
+                    if (!remoteReconciled && !value.getMetadata().isFromCache()) {
+                        fullIdSet = new HashSet<>();
                         for (DocumentSnapshot doc : value.getDocuments()) {
-                            Medicine m = docToMedicine(doc);
-                            if (m != null) remoteMedicines.add(m);
+                            fullIdSet.add(doc.getId());
                         }
+                    }
 
-                        Log.i(TAG, "Firebase: Syncing " + remoteMedicines.size() + " remote items.");
-                        syncToDatabase(remoteMedicines, true); // true = REMOTE source
+                    if (added.isEmpty() && belowWatermark.isEmpty() && modified.isEmpty()
+                            && removed.isEmpty() && fullIdSet == null) {
+                        return;
                     }
+
+                    Log.i(TAG, "Firebase: Changes +" + added.size() + " (" + belowWatermark.size()
+                            + " at/below watermark) ~" + modified.size()
+                            + " -" + removed.size() + (fullIdSet != null ? " (reconcile)" : ""));
+
+                    Set<String> reconcileIds = fullIdSet;
+                    TaskScheduler.submit(Lane.IO, TaskPriority.LOW, () -> {
+                        try {
+                            applyDelta(buildDelta(SOURCE_REMOTE, true, added, belowWatermark,
+                                    modified, removed, reconcileIds, readWatermark(SOURCE_REMOTE)));
+                            if (reconcileIds != null) remoteReconciled = true;
+                        } catch (Exception e) {
+                            Log.e(TAG, "Database: Remote delta failed.", e);
+                        }
+                    });
                 });
     }
 
-    private void syncToDatabase(List<Medicine> incomingMedicines, boolean isRemoteSource) {
-        IoExecutor.submit(() -> {
-            try {
-                String sourceName = isRemoteSource ? "Remote (Firebase)" : "Local (Assets)";
-                Log.d(TAG, "Database: Syncing " + incomingMedicines.size() + " items from " + sourceName);
-
-                // 🚀 DELETE SYNCHRONIZATION:
-                // Find items in DB from THIS source that are NOT in the incoming list
-                List<MedicineEntity> allEntities = medicineDao.getAll();
-                List<String> incomingIds = new ArrayList<>();
-                for (Medicine m : incomingMedicines) incomingIds.add(m.getId());
-
-                List<String> idsToDelete = new ArrayList<>();
-                for (MedicineEntity entity : allEntities) {
-                    if (entity.isRemote == isRemoteSource) {
-                        if (!incomingIds.contains(entity.id)) {
-                            idsToDelete.add(entity.id);
-                        }
-                    }
-                }
+    /* =========================================================
+       DELTA SYNC ENGINE (IO LANE ONLY)
+       ========================================================= */
 
-                if (!idsToDelete.isEmpty()) {
-                    Log.i(TAG, "Database: Removing " + idsToDelete.size() + " stale items from " + sourceName + ": " + idsToDelete);
-                    medicineDao.deleteByIds(idsToDelete);
-                }
+    /**
+     * Computes the rows that actually change for one source.
+     *
+     * @param added      upserted unless the stored updatedAt is identical
+     * @param belowWatermark not parsed by the listener; only ids missing
+     *                   from Room are parsed and upserted
+     * @param modified   always upserted
+     * @param removed    deleted if present for this source
+     * @param fullIdSet  if non-null: complete id set of the source,
+     *                   every stored row outside it is deleted
+     * @param watermark  previous watermark (raised by incoming updatedAt)
+     */
+    private CatalogDelta buildDelta(String source,
+                                    boolean isRemoteSource,
+                                    List<Medicine> added,
+                                    List<DocumentSnapshot> belowWatermark,
+                                    List<Medicine> modified,
+                                    List<String> removed,
+                                    Set<String> fullIdSet,
+                                    long watermark) {
+
+        Map<String, Long> stored = storedVersions(isRemoteSource);
+
+        List<Medicine> upserts = new ArrayList<>(modified);
+        for (Medicine m : added) {
+            if (isStoredVersion(stored, m)) continue;
+            upserts.add(m);
+        }
+        for (DocumentSnapshot doc : belowWatermark) {
+            if (stored.containsKey(doc.getId())) continue;
+            Medicine m = docToMedicine(doc);
+            if (m != null) upserts.add(m);
+        }
 
-                // Insert/Update new items
-                List<MedicineEntity> entitiesToInsert = new ArrayList<>();
-                for (Medicine m : incomingMedicines) {
-                    entitiesToInsert.add(MedicineMapper.toEntity(m));
-                }
-                medicineDao.insertAll(entitiesToInsert);
+        Set<String> deletions = new HashSet<>();
+        for (String id : removed) {
+            if (stored.containsKey(id)) deletions.add(id);
+        }
+        if (fullIdSet != null) {
+            for (String id : stored.keySet()) {
+                if (!fullIdSet.contains(id)) deletions.add(id);
+            }
+        }
 
-                // Refresh final searchable catalog
-                List<MedicineEntity> finalEntities = medicineDao.getAll();
-                updateCacheFromEntities(finalEntities);
+        long newWatermark = watermark;
+        for (Medicine m : upserts) {
+            newWatermark = Math.max(newWatermark, m.getUpdatedAt());
+        }
 
-                Log.i(TAG, "Database: Sync complete for " + sourceName + ". Final searchable items: " + cachedCatalog.size());
+        return new CatalogDelta(source, upserts, new ArrayList<>(deletions), newWatermark);
+    }
 
-                if (updateListener != null) {
-                    updateListener.onCatalogUpdated(cachedCatalog);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Database: Sync operation failed.", e);
-            }
+    /**
+     * Applies a delta to Room (one transaction) and to the in-memory catalog.
+     * Listeners are only notified if something changed.
+     */
+    private void applyDelta(CatalogDelta delta) {
+        long now = System.currentTimeMillis();
+        SyncStateEntity state = new SyncStateEntity(delta.getSource(), delta.getWatermark(), now);
+
+        if (delta.isEmpty()) {
+            syncStateDao.upsert(state);
+            onWatermarkCommitted(delta);
+            Log.d(TAG, "Database: " + delta.getSource() + " already up to date.");
+            return;
+        }
+
+        database.runInTransaction(() -> {
+            // DAO chunks ids below the SQLite parameter limit
+            medicineDao.deleteByIds(delta.getRemovedIds());
+            upsertMedicines(delta.getUpserts());
+            syncStateDao.upsert(state);
         });
+        onWatermarkCommitted(delta);
+
+        publishDelta(delta);
     }
 
-    private void updateCacheFromEntities(List<MedicineEntity> entities) {
-        List<Medicine> domains = new ArrayList<>();
-        for (MedicineEntity entity : entities) {
-            domains.add(MedicineMapper.toDomain(entity));
+    private void onWatermarkCommitted(CatalogDelta delta) {
+        if (SOURCE_REMOTE.equals(delta.getSource())) {
+            remoteWatermark = delta.getWatermark();
         }
-        this.cachedCatalog = Collections.unmodifiableList(domains);
     }
 
-    public List<Medicine> getAll() {
-        return cachedCatalog;
+    /**
+     * One Room transaction per streamed batch. The watermark is NOT
+     * written here: an interrupted load is simply redone next boot
+     * (rows already written are skipped by their updatedAt).
+     */
+    private void writeAssetBatch(List<Medicine> batch) {
+        if (batch.isEmpty()) return;
+        upsertMedicines(batch);
+    }
+
+    /**
+     * Maps domain models to rows and writes them
+     * (mapping stays here; the DAO only sees entities).
+     */
+    private void upsertMedicines(List<Medicine> medicines) {
+        if (medicines.isEmpty()) return;
+        List<MedicineWithDetails> rows = new ArrayList<>(medicines.size());
+        for (Medicine m : medicines) {
+            rows.add(MedicineMapper.toEntity(m));
+        }
+        medicineDao.upsertAll(rows);
+    }
+
+    /**
+     * Applies an already-persisted delta to the in-memory catalog.
+     */
+    private void publishDelta(CatalogDelta delta) {
+        synchronized (catalogLock) {
+            for (String id : delta.getRemovedIds()) {
+                catalogById.remove(id);
+            }
+            for (Medicine m : delta.getUpserts()) {
+                catalogById.put(m.getId(), m);
+            }
+            publishCatalogLocked();
+        }
+
+        Log.i(TAG, "Database: Applied " + delta + ". Searchable items: " + snapshot.size());
+        notifyCatalogUpdated();
+    }
+
+    /**
+     * id → updatedAt of stored rows (one projection query, no entities).
+     */
+    private Map<String, Long> storedVersions(boolean isRemoteSource) {
+        Map<String, Long> stored = new HashMap<>();
+        for (MedicineVersion v : medicineDao.getVersions(isRemoteSource)) {
+            stored.put(v.id, v.updatedAt);
+        }
+        return stored;
+    }
+
+    /**
+     * updatedAt == 0 means "unknown version" → always written.
+     */
+    private static boolean isStoredVersion(Map<String, Long> stored, Medicine m) {
+        Long storedAt = stored.get(m.getId());
+        return storedAt != null && m.getUpdatedAt() != 0 && storedAt == m.getUpdatedAt();
+    }
+
+    private long readWatermark(String source) {
+        SyncStateEntity state = syncStateDao.get(source);
+        return state != null ? state.watermark : 0L;
+    }
+
+    /**
+     * Builds and atomically publishes the next snapshot.
+     * Skipped when the content is identical to the current one
+     * (e.g. Room load and assets load racing with the same rows).
+     *
+     * Caller holds catalogLock.
+     */
+    private void publishCatalogLocked() {
+        CatalogSnapshot current = snapshot;
+        if (current.size() == catalogById.size()
+                && current.getFingerprint() == CatalogSnapshot.fingerprintOf(catalogById.values())) {
+            Log.d(TAG, "Catalog: Identical content, keeping " + current);
+            return;
+        }
+        CatalogSnapshot next = CatalogSnapshot.build(current.getVersion() + 1, catalogById.values());
+        snapshot = next;
+        Log.i(TAG, "Catalog: Published " + next);
+    }
+
+    /**
+     * Delivers the LATEST snapshot once per version (never older, never twice).
+     * Called outside catalogLock.
+     */
+    private void notifyCatalogUpdated() {
+        CatalogSnapshot current = snapshot;
+        long version = current.getVersion();
+        while (true) {
+            long notified = lastNotifiedVersion.get();
+            if (version <= notified) return;
+            if (lastNotifiedVersion.compareAndSet(notified, version)) break;
+        }
+        for (CatalogListener listener : listeners) {
+            try {
+                listener.onCatalogPublished(current);
+            } catch (Exception e) {
+                Log.e(TAG, "Catalog: Listener failed", e);
+            }
+        }
+        persistSnapshotFile();
     }
 
     /**
-     * Finds a medicine by its barcode prefix in the local cache.
+     * Rewrites the binary snapshot after a new catalog version
+     * (off the critical path, only the latest version, only if changed).
      */
-    public Medicine getByBarcodePrefix(String prefix) {
-        if (prefix == null || prefix.isEmpty()) return null;
-        for (Medicine m : cachedCatalog) {
-            for (String p : m.getBarcodePrefixes()) {
-                if (prefix.startsWith(p) || p.startsWith(prefix)) {
-                    return m;
+    private void persistSnapshotFile() {
+        TaskScheduler.submit(Lane.BACKGROUND, () -> {
+            CatalogSnapshot current = snapshot;
+            if (current.isEmpty() || current.getFingerprint() == persistedFingerprint) return;
+            synchronized (snapshotFileLock) {
+                if (current != snapshot) return; // A newer publish will persist itself
+                try {
+                    long start = System.currentTimeMillis();
+                    CatalogSnapshotFile.write(snapshotFile(), current);
+                    persistedFingerprint = current.getFingerprint();
+                    Log.i(TAG, "Snapshot file: Wrote " + current + " in "
+                            + (System.currentTimeMillis() - start) + "ms");
+                } catch (Exception e) {
+                    Log.e(TAG, "Snapshot file: Write failed.", e);
                 }
             }
+        });
+    }
+
+    private File snapshotFile() {
+        return new File(appContext.getNoBackupFilesDir(), SNAPSHOT_FILE);
+    }
+
+    /**
+     * Current immutable catalog. Grab once per operation.
+     */
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public List<Medicine> getAll() {
+        return snapshot.getMedicines();
+    }
+
+    /**
+     * Finds the medicine(s) owning the longest learned prefix of a barcode.
+     * Served from the snapshot's prefix trie: no DB access, O(code length).
+     */
+    public BarcodeMatch findByBarcode(String code) {
+        BarcodeMatch match = snapshot.findByBarcode(code);
+        if (match.isAmbiguous()) {
+            Log.w(TAG, "Barcode: Prefix '" + match.getMatchedPrefix() + "' is shared by "
+                    + match.getCandidates().size() + " medicines");
         }
-        return null;
+        return match;
     }
 
     /**
@@ -219,114 +610,102 @@ public final class MedicineRepository {
      * Updates both Local Room DB and Cloud Firestore.
      */
     public void addBarcodePrefix(String medicineId, String newPrefix) {
-        IoExecutor.submit(() -> {
-            MedicineEntity entity = medicineDao.getById(medicineId);
-            if (entity != null) {
-                List<String> prefixes = new ArrayList<>(com.agrovision.kiosk.data.database.converter.StringListConverter.toList(entity.barcodePrefixes));
+        TaskScheduler.submit(Lane.IO, TaskPriority.HIGH, () -> {
+            MedicineWithDetails row = medicineDao.getById(medicineId);
+            if (row != null) {
+                Medicine current = MedicineMapper.toDomain(row);
+                List<String> prefixes = new ArrayList<>(current.getBarcodePrefixes());
                 if (!prefixes.contains(newPrefix)) {
                     prefixes.add(newPrefix);
-                    String updatedCsv = com.agrovision.kiosk.data.database.converter.StringListConverter.fromList(prefixes);
                     
-                    // 1. Update Local Room
-                    entity.barcodePrefixes = updatedCsv;
-                    medicineDao.insertAll(Collections.singletonList(entity));
+                    // 1. Update Local Room (one child row, no parent rewrite)
+                    medicineDao.insertBarcodePrefix(new MedicineBarcodePrefixEntity(medicineId, newPrefix));
+
+                    // Refresh only this entry in the cache
+                    synchronized (catalogLock) {
+                        catalogById.put(medicineId, MedicineMapper.toDomain(medicineDao.getById(medicineId)));
+                        publishCatalogLocked();
+                    }
+                    notifyCatalogUpdated();
                     
                     // 2. Update Cloud Firestore
                     firestore.collection("approved_medicines").document(medicineId)
                             .update("barcodePrefixes", prefixes)
                             .addOnSuccessListener(aVoid -> Log.i(TAG, "Cloud: Learned prefix " + newPrefix + " for " + medicineId))
                             .addOnFailureListener(e -> Log.e(TAG, "Cloud: Failed to sync learned prefix", e));
-
-                    // Refresh cache
-                    loadCatalogFromRoom();
                 }
             }
         });
     }
 
-    public void logUnknownDetection(String rawOcrText, String imagePath) {
+    /**
+     * Queues an unknown bottle for review (offline-first).
+     * The crop is stored as a local JPEG; SyncWorker uploads both later.
+     *
+     * @param crop OCR crop, owned (and recycled) by this call; may be null
+     */
+    public void logUnknownDetection(String rawOcrText, @Nullable Bitmap crop) {
         long timestamp = System.currentTimeMillis();
-        IoExecutor.submit(() -> {
-            Map<String, Object> data = new HashMap<>();
-            data.put("ocrText", rawOcrText);
-            data.put("timestamp", timestamp);
-            data.put("status", "pending_review");
-            data.put("deviceId", android.os.Build.MODEL);
-            data.put("imagePath", imagePath);
-
-            firestore.collection("unknown_medicines")
-                    .add(data)
-                    .addOnSuccessListener(documentReference -> {
-                        Log.i(TAG, "Cloud: Logged unknown medicine for review.");
-                    });
+        // HIGH: the queued task pins the crop Bitmap until it is written out
+        TaskScheduler.submit(Lane.IO, TaskPriority.HIGH, () -> {
+            String imagePath = saveUnknownCrop(crop, timestamp);
+            enqueueUnknown(new UnknownDetectionEntity(UnknownDetectionEntity.KIND_DETECTION,
+                    rawOcrText, null, imagePath, timestamp));
         });
     }
 
     /**
-     * Log unknown QR discovery for market intelligence.
+     * Log unknown QR discovery for market intelligence (offline-first).
      */
     public void logUnknownDiscovery(String scrapedName, String rawCode) {
         long timestamp = System.currentTimeMillis();
-        IoExecutor.submit(() -> {
-            Map<String, Object> data = new HashMap<>();
-            data.put("scrapedName", scrapedName);
-            data.put("rawCode", rawCode);
-            data.put("timestamp", timestamp);
-            data.put("shopId", appContext.getSharedPreferences("kiosk_settings", Context.MODE_PRIVATE)
-                    .getString("shop_mobile", "910000000000"));
-
-            firestore.collection("unknown_discovery")
-                    .add(data)
-                    .addOnSuccessListener(ref -> Log.i(TAG, "Cloud: Logged market discovery: " + scrapedName));
-        });
+        TaskScheduler.submit(Lane.IO, TaskPriority.LOW, () ->
+                enqueueUnknown(new UnknownDetectionEntity(UnknownDetectionEntity.KIND_DISCOVERY,
+                        scrapedName, rawCode, null, timestamp)));
     }
 
-    private String readFully(InputStream is) throws Exception {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        byte[] buffer = new byte[4096];
-        int read;
-        while ((read = is.read(buffer)) != -1) out.write(buffer, 0, read);
-        is.close();
-        return out.toString(StandardCharsets.UTF_8.name());
+    private void enqueueUnknown(UnknownDetectionEntity entity) {
+        try {
+            unknownDetectionDao.insert(entity);
+            Log.i(TAG, "Queue: Stored unknown " + entity.kind + " for upload.");
+            SyncWorker.requestUpload(appContext);
+        } catch (Exception e) {
+            Log.e(TAG, "Queue: Failed to store unknown " + entity.kind, e);
+        }
     }
 
-    private Medicine parseMedicine(JSONObject obj) throws Exception {
-        String id = obj.getString("id");
-        String name = obj.optString("name", obj.optString("medicineName"));
+    @Nullable
+    private String saveUnknownCrop(@Nullable Bitmap crop, long timestamp) {
+        if (crop == null) return null;
+        try {
+            File dir = new File(appContext.getFilesDir(), UNKNOWN_CROP_DIR);
+            if (!dir.isDirectory() && !dir.mkdirs()) return null;
 
-        // 🚀 UNIFIED SCHEMA VALIDATION
-        if (name.isEmpty()) {
-            throw new IllegalArgumentException("JSON Medicine missing required field: name (ID: " + id + ")");
+            File file = new File(dir, "unknown_" + timestamp + "_" + System.nanoTime() + ".jpg");
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                if (!crop.compress(Bitmap.CompressFormat.JPEG, UNKNOWN_CROP_QUALITY, out)) return null;
+            }
+            return file.getAbsolutePath();
+        } catch (Exception e) {
+            Log.e(TAG, "Queue: Failed to save crop.", e);
+            return null;
+        } finally {
+            BitmapUtils.safeRecycle(crop);
         }
+    }
 
-        List<String> keywords = jsonArrayToList(obj.optJSONArray("searchKeywords"));
-        if (keywords.isEmpty()) {
-            keywords = jsonArrayToList(obj.optJSONArray("ocrKeywords"));
-        }
-        // Fallback: if no keywords, use name as a keyword
-        if (keywords.isEmpty()) {
-            keywords = new ArrayList<>();
-            keywords.add(name);
+    /**
+     * Handle updatedAt: support both Long (ms) and Firebase Timestamp.
+     * 0 = missing (unknown version).
+     */
+    private static long updatedAtOf(DocumentSnapshot doc) {
+        Object val = doc.get("updatedAt");
+        if (val instanceof Long) {
+            return (Long) val;
+        } else if (val instanceof com.google.firebase.Timestamp) {
+            return ((com.google.firebase.Timestamp) val).toDate().getTime();
         }
-
-        List<String> prefixes = jsonArrayToList(obj.optJSONArray("barcodePrefixes"));
-
-        return new Medicine(
-                id,
-                name,
-                obj.optString("company", "Unknown"),
-                obj.optString("cibNo"),
-                obj.optString("chemicalName"),
-                jsonArrayToList(obj.optJSONArray("supportedCrops")),
-                jsonArrayToList(obj.optJSONArray("supportedDiseases")),
-                obj.optString("usageInstructions"),
-                obj.optString("warnings"),
-                keywords,
-                prefixes,
-                jsonArrayToList(obj.optJSONArray("imageUrls")),
-                jsonArrayToList(obj.optJSONArray("audioUrls")),
-                obj.optLong("updatedAt", 0)
-        );
+        return 0L;
     }
 
     private Medicine docToMedicine(DocumentSnapshot doc) {
@@ -380,16 +759,7 @@ public final class MedicineRepository {
             if (usage == null || usage.isEmpty()) usage = doc.getString("usage");
             if (usage == null || usage.isEmpty()) usage = doc.getString("usuage"); // Legacy typo support
 
-            // Handle updatedAt: support both Long (ms) and Firebase Timestamp
-            long updatedAt = 0;
-            if (doc.contains("updatedAt")) {
-                Object val = doc.get("updatedAt");
-                if (val instanceof Long) {
-                    updatedAt = (Long) val;
-                } else if (val instanceof com.google.firebase.Timestamp) {
-                    updatedAt = ((com.google.firebase.Timestamp) val).toDate().getTime();
-                }
-            }
+            long updatedAt = updatedAtOf(doc);
 
             Medicine m = new Medicine(
                     doc.getId(), 
@@ -434,14 +804,4 @@ public final class MedicineRepository {
         }
         return Collections.emptyList();
     }
-
-    private List<String> jsonArrayToList(JSONArray arr) {
-        if (arr == null) return Collections.emptyList();
-        List<String> list = new ArrayList<>(arr.length());
-        for (int i = 0; i < arr.length(); i++) {
-            String val = arr.optString(i);
-            if (val != null) list.add(val);
-        }
-        return list;
-    }
 }
@@ -0,0 +1,344 @@
+package com.agrovision.kiosk.data.search;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.agrovision.kiosk.data.model.Medicine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * MedicineSearchIndex
+ *
+ * Immutable in-memory type-ahead index over one catalog version.
+ *
+ * INDEXED FIELDS (weight):
+ * - Name (3.0), search keywords (2.0), crops / diseases (1.5),
+ *   company / chemical name (1.0)
+ *
+ * DESIGN:
+ * - Every field is tokenized (Latin + Devanagari, marks kept)
+ * - Sorted term array → prefix match by binary search
+ * - Trigram → term postings → fuzzy match (1 edit, 2 for long words),
+ *   also against the start of longer terms (half-typed words)
+ * - Multi-word queries are AND: every query word must match
+ *
+ * RULES:
+ * - Built off the main thread, never mutated after build
+ * - A query touches only matching terms, not every medicine
+ */
+public final class MedicineSearchIndex {
+
+    public static final MedicineSearchIndex EMPTY =
+            new MedicineSearchIndex(-1L, Collections.emptyList(), new String[0],
+                    new int[0][], new float[0][], Collections.emptyMap());
+
+    /* ---------------- WEIGHTS ---------------- */
+
+    private static final float WEIGHT_NAME = 3.0f;
+    private static final float WEIGHT_KEYWORD = 2.0f;
+    private static final float WEIGHT_CROP_DISEASE = 1.5f;
+    private static final float WEIGHT_OTHER = 1.0f;
+
+    private static final float MATCH_EXACT = 1.0f;
+    private static final float MATCH_PREFIX = 0.8f;
+    private static final float MATCH_FUZZY = 0.5f;
+
+    // Shorter words are too ambiguous for fuzzy matching
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int LONG_WORD_LENGTH = 8;
+
+    private final long version;
+    private final List<Medicine> medicines;
+
+    // Distinct terms, sorted; postings are parallel arrays per term
+    private final String[] terms;
+    private final int[][] postingDocs;
+    private final float[][] postingWeights;
+
+    // Trigram → ids of terms containing it
+    private final Map<String, int[]> trigrams;
+
+    private MedicineSearchIndex(long version,
+                                List<Medicine> medicines,
+                                String[] terms,
+                                int[][] postingDocs,
+                                float[][] postingWeights,
+                                Map<String, int[]> trigrams) {
+        this.version = version;
+        this.medicines = medicines;
+        this.terms = terms;
+        this.postingDocs = postingDocs;
+        this.postingWeights = postingWeights;
+        this.trigrams = trigrams;
+    }
+
+    /* =========================================================
+       BUILD
+       ========================================================= */
+
+    @NonNull
+    public static MedicineSearchIndex build(long version, @NonNull List<Medicine> medicines) {
+        // term → (doc → best field weight)
+        TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+
+        for (int doc = 0; doc < medicines.size(); doc++) {
+            Medicine m = medicines.get(doc);
+            addField(postings, doc, m.getName(), WEIGHT_NAME);
+            for (String kw : m.getSearchKeywords()) addField(postings, doc, kw, WEIGHT_KEYWORD);
+            for (String crop : m.getSupportedCrops()) addField(postings, doc, crop, WEIGHT_CROP_DISEASE);
+            for (String disease : m.getSupportedDiseases()) addField(postings, doc, disease, WEIGHT_CROP_DISEASE);
+            addField(postings, doc, m.getCompany(), WEIGHT_OTHER);
+            addField(postings, doc, m.getChemicalName(), WEIGHT_OTHER);
+        }
+
+        int n = postings.size();
+        String[] terms = new String[n];
+        int[][] docs = new int[n][];
+        float[][] weights = new float[n][];
+        Map<String, List<Integer>> grams = new HashMap<>();
+
+        int t = 0;
+        for (Map.Entry<String, Map<Integer, Float>> e : postings.entrySet()) {
+            terms[t] = e.getKey();
+            Map<Integer, Float> p = e.getValue();
+            docs[t] = new int[p.size()];
+            weights[t] = new float[p.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> d : p.entrySet()) {
+                docs[t][i] = d.getKey();
+                weights[t][i] = d.getValue();
+                i++;
+            }
+            if (terms[t].length() >= MIN_FUZZY_LENGTH - 1) {
+                for (String g : trigramsOf(terms[t])) {
+                    List<Integer> ids = grams.get(g);
+                    if (ids == null) {
+                        ids = new ArrayList<>(4);
+                        grams.put(g, ids);
+                    }
+                    ids.add(t);
+                }
+            }
+            t++;
+        }
+
+        Map<String, int[]> trigramIndex = new HashMap<>(grams.size() * 2);
+        for (Map.Entry<String, List<Integer>> e : grams.entrySet()) {
+            List<Integer> ids = e.getValue();
+            int[] arr = new int[ids.size()];
+            for (int i = 0; i < arr.length; i++) arr[i] = ids.get(i);
+            trigramIndex.put(e.getKey(), arr);
+        }
+
+        return new MedicineSearchIndex(version, Collections.unmodifiableList(new ArrayList<>(medicines)),
+                terms, docs, weights, trigramIndex);
+    }
+
+    private static void addField(TreeMap<String, Map<Integer, Float>> postings,
+                                 int doc,
+                                 @Nullable String text,
+                                 float weight) {
+        for (String term : tokenize(text)) {
+            Map<Integer, Float> p = postings.get(term);
+            if (p == null) {
+                p = new HashMap<>(2);
+                postings.put(term, p);
+            }
+            Float current = p.get(doc);
+            if (current == null || current < weight) p.put(doc, weight);
+        }
+    }
+
+    /* =========================================================
+       QUERY
+       ========================================================= */
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return medicines.size();
+    }
+
+    /**
+     * Rough heap estimate (MemoryGovernor report); the medicines
+     * themselves are shared with the catalog and not counted.
+     */
+    public long approxBytes() {
+        long bytes = 0;
+        for (int t = 0; t < terms.length; t++) {
+            bytes += 40 + 2L * terms[t].length();                   // String + chars
+            bytes += 32 + 8L * postingDocs[t].length;               // int[] + float[]
+        }
+        for (Map.Entry<String, int[]> e : trigrams.entrySet()) {
+            bytes += 48 + 40 + 2L * e.getKey().length() + 4L * e.getValue().length;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return best matches first (at most limit)
+     */
+    @NonNull
+    public List<SearchHit> search(@Nullable String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || medicines.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int n = medicines.size();
+        float[] scores = new float[n];
+        int[] matchedWords = new int[n];
+        float[] best = new float[n];
+
+        for (String word : words) {
+            Arrays.fill(best, 0f);
+
+            // 1️⃣ Exact + prefix (contiguous range of the sorted terms)
+            int from = lowerBound(word);
+            for (int t = from; t < terms.length && terms[t].startsWith(word); t++) {
+                float kind = terms[t].length() == word.length() ? MATCH_EXACT : MATCH_PREFIX;
+                apply(t, kind, best);
+            }
+
+            // 2️⃣ Fuzzy (typos, OCR-like spelling variants)
+            if (word.length() >= MIN_FUZZY_LENGTH) {
+                int maxEdits = word.length() >= LONG_WORD_LENGTH ? 2 : 1;
+                for (int t : fuzzyCandidates(word)) {
+                    String term = terms[t];
+                    if (term.startsWith(word)) continue; // Already scored above
+                    if (withinEdits(term, word, maxEdits)
+                            || (term.length() > word.length()
+                            && withinEdits(term.substring(0, word.length()), word, maxEdits))) {
+                        apply(t, MATCH_FUZZY, best);
+                    }
+                }
+            }
+
+            for (int d = 0; d < n; d++) {
+                if (best[d] > 0f) {
+                    scores[d] += best[d];
+                    matchedWords[d]++;
+                }
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>();
+        for (int d = 0; d < n; d++) {
+            if (matchedWords[d] == words.size()) {
+                hits.add(new SearchHit(medicines.get(d), scores[d]));
+            }
+        }
+        Collections.sort(hits);
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private void apply(int term, float kind, float[] best) {
+        int[] docs = postingDocs[term];
+        float[] weights = postingWeights[term];
+        for (int i = 0; i < docs.length; i++) {
+            float s = weights[i] * kind;
+            if (s > best[docs[i]]) best[docs[i]] = s;
+        }
+    }
+
+    private int lowerBound(String word) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].compareTo(word) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private Set<Integer> fuzzyCandidates(String word) {
+        Set<Integer> out = new LinkedHashSet<>();
+        for (String g : trigramsOf(word)) {
+            int[] ids = trigrams.get(g);
+            if (ids == null) continue;
+            for (int id : ids) out.add(id);
+        }
+        return out;
+    }
+
+    /* =========================================================
+       TEXT
+       ========================================================= */
+
+    /**
+     * Lower-cased words; letters, digits and combining marks
+     * (Devanagari vowel signs) stay together.
+     */
+    @NonNull
+    static List<String> tokenize(@Nullable String text) {
+        if (text == null || text.isEmpty()) return Collections.emptyList();
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        Set<String> out = new LinkedHashSet<>();
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            int type = Character.getType(c);
+            if (Character.isLetterOrDigit(c)
+                    || type == Character.NON_SPACING_MARK
+                    || type == Character.COMBINING_SPACING_MARK) {
+                sb.append(c);
+            } else if (sb.length() > 0) {
+                out.add(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        if (sb.length() > 0) out.add(sb.toString());
+        return new ArrayList<>(out);
+    }
+
+    private static List<String> trigramsOf(String term) {
+        List<String> out = new ArrayList<>(Math.max(1, term.length() - 2));
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            out.add(term.substring(i, i + 3));
+        }
+        return out;
+    }
+
+    /**
+     * Bounded Levenshtein: stops as soon as a row exceeds maxEdits.
+     */
+    private static boolean withinEdits(String a, String b, int maxEdits) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > maxEdits) return false;
+
+        int[] prev = new int[lb + 1];
+        int[] curr = new int[lb + 1];
+        for (int j = 0; j <= lb; j++) prev[j] = j;
+
+        for (int i = 1; i <= la; i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= lb; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+                if (curr[j] < rowMin) rowMin = curr[j];
+            }
+            if (rowMin > maxEdits) return false;
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[lb] <= maxEdits;
+    }
+}
@@ -0,0 +1,167 @@
+package com.agrovision.kiosk.data.search;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.app.MemoryGovernor;
+import com.agrovision.kiosk.data.repository.CatalogSnapshot;
+import com.agrovision.kiosk.data.repository.MedicineRepository;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskPriority;
+import com.agrovision.kiosk.threading.TaskScheduler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MedicineSearchService
+ *
+ * Type-ahead medicine search for the manual search screen
+ * (fallback when OCR cannot read the bottle).
+ *
+ * DESIGN:
+ * - Keystrokes are debounced on the main thread
+ * - Queries run on the IO lane (HIGH priority, ahead of bulk sync)
+ * - Only the newest query's results are delivered; older ones are dropped
+ * - The index is rebuilt once per catalog version, eagerly when a
+ *   new catalog is published, lazily if a query arrives first
+ *
+ * HARD RULES:
+ * - search() / cancel() on the main thread only
+ * - Results are delivered on the main thread
+ */
+public final class MedicineSearchService {
+
+    private static final String TAG = "MedicineSearch";
+
+    private static final long DEBOUNCE_MS = 150;
+    private static final int MAX_RESULTS = 30;
+
+    private static volatile MedicineSearchService INSTANCE;
+
+    public interface Callback {
+        void onResults(@NonNull String query, @NonNull List<SearchHit> hits);
+    }
+
+    private final MedicineRepository repository;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Incremented per keystroke; stale results are discarded
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Object indexLock = new Object();
+    private volatile MedicineSearchIndex index = MedicineSearchIndex.EMPTY;
+
+    // Main thread only
+    private Runnable pendingQuery;
+
+    public static MedicineSearchService getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (MedicineSearchService.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MedicineSearchService(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private MedicineSearchService(Context appContext) {
+        this.repository = MedicineRepository.getInstance(appContext);
+        MemoryGovernor.getInstance(appContext).register("search_index", MemoryGovernor.Tier.REBUILDABLE,
+                () -> index.approxBytes(), this::releaseIndex);
+        // Listener runs on the IO lane: prebuild so the first keystroke is instant
+        this.repository.addCatalogListener(this::indexFor);
+        // Catalog may already be published before the first search screen opens
+        TaskScheduler.submit(Lane.IO, TaskPriority.LOW, () -> indexFor(repository.getSnapshot()));
+    }
+
+    /* =========================================================
+       PUBLIC API (MAIN THREAD)
+       ========================================================= */
+
+    /**
+     * Schedules a search for the current text of the search box.
+     * Each call replaces the previous pending one.
+     */
+    @MainThread
+    public void search(@NonNull String query, @NonNull Callback callback) {
+        cancel();
+
+        long gen = generation.get();
+        String q = query.trim();
+
+        if (q.isEmpty()) {
+            callback.onResults(q, Collections.emptyList());
+            return;
+        }
+
+        pendingQuery = () -> {
+            pendingQuery = null;
+            TaskScheduler.submit(Lane.IO, TaskPriority.HIGH, () -> {
+                if (generation.get() != gen) return; // Superseded while queued
+
+                long start = System.nanoTime();
+                List<SearchHit> hits = indexFor(repository.getSnapshot()).search(q, MAX_RESULTS);
+                Log.d(TAG, "'" + q + "' -> " + hits.size() + " hits in "
+                        + (System.nanoTime() - start) / 1000 + "us");
+
+                mainHandler.post(() -> {
+                    if (generation.get() == gen) {
+                        callback.onResults(q, hits);
+                    }
+                });
+            });
+        };
+        mainHandler.postDelayed(pendingQuery, DEBOUNCE_MS);
+    }
+
+    /**
+     * Drops the pending and in-flight query (e.g. search screen closed).
+     */
+    @MainThread
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pendingQuery != null) {
+            mainHandler.removeCallbacks(pendingQuery);
+            pendingQuery = null;
+        }
+    }
+
+    /* =========================================================
+       INDEX
+       ========================================================= */
+
+    /**
+     * Drops the index under memory pressure; the next search rebuilds it.
+     */
+    private void releaseIndex() {
+        synchronized (indexLock) {
+            index = MedicineSearchIndex.EMPTY;
+        }
+    }
+
+    private MedicineSearchIndex indexFor(CatalogSnapshot snapshot) {
+        MedicineSearchIndex current = index;
+        if (current.getVersion() == snapshot.getVersion()) return current;
+
+        synchronized (indexLock) {
+            current = index;
+            // Never replace a newer index with an older snapshot
+            if (current.getVersion() >= snapshot.getVersion()) return current;
+
+            long start = System.currentTimeMillis();
+            current = MedicineSearchIndex.build(snapshot.getVersion(), snapshot.getMedicines());
+            index = current;
+            Log.i(TAG, "Index built for catalog v" + snapshot.getVersion() + " ("
+                    + current.size() + " medicines) in " + (System.currentTimeMillis() - start) + "ms");
+            return current;
+        }
+    }
+}
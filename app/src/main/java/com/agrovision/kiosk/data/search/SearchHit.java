@@ -0,0 +1,40 @@
+package com.agrovision.kiosk.data.search;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.data.model.Medicine;
+
+/**
+ * SearchHit
+ *
+ * One medicine returned by MedicineSearchIndex, with its score.
+ * Sorts best-first (ties by name).
+ */
+public final class SearchHit implements Comparable<SearchHit> {
+
+    private final Medicine medicine;
+    private final float score;
+
+    SearchHit(@NonNull Medicine medicine, float score) {
+        this.medicine = medicine;
+        this.score = score;
+    }
+
+    @NonNull
+    public Medicine getMedicine() {
+        return medicine;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    @Override
+    public int compareTo(SearchHit other) {
+        int byScore = Float.compare(other.score, score);
+        if (byScore != 0) return byScore;
+        String a = medicine.getName() != null ? medicine.getName() : "";
+        String b = other.medicine.getName() != null ? other.medicine.getName() : "";
+        return a.compareToIgnoreCase(b);
+    }
+}
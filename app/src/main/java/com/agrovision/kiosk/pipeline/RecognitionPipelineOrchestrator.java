@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.Log;
 
 import com.agrovision.kiosk.data.model.Medicine;
+import com.agrovision.kiosk.data.repository.BarcodeMatch;
 import com.agrovision.kiosk.data.repository.MedicineRepository;
 import com.agrovision.kiosk.network.PortalScraper;
 import com.agrovision.kiosk.ui.result.mapper.ResultInfoMapper;
@@ -12,7 +13,9 @@ import com.agrovision.kiosk.ui.result.model.ResultType;
 import com.agrovision.kiosk.ui.result.model.ScanResult;
 import com.agrovision.kiosk.util.BarcodeParser;
 import com.agrovision.kiosk.vision.mapping.MatchResult;
+import com.agrovision.kiosk.vision.mapping.MatcherIndex;
 import com.agrovision.kiosk.vision.mapping.MedicineMatcher;
+import com.agrovision.kiosk.vision.recognition.ScanCropCache;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -28,7 +31,6 @@ public final class RecognitionPipelineOrchestrator {
 
     private static final String TAG = "RecognitionPipelineOrchestrator";
     private final MedicineRepository repository;
-    private List<Medicine> medicineCatalog;
 
     public interface BarcodeCallback {
         void onResult(List<ScanResult> results);
@@ -38,12 +40,6 @@ public final class RecognitionPipelineOrchestrator {
 
     public RecognitionPipelineOrchestrator(Context context) {
         this.repository = MedicineRepository.getInstance(context);
-        this.medicineCatalog = repository.getAll();
-        
-        this.repository.setOnCatalogUpdateListener(newCatalog -> {
-            Log.i(TAG, "Catalog updated. New size: " + newCatalog.size());
-            this.medicineCatalog = newCatalog;
-        });
     }
 
     /**
@@ -53,12 +49,19 @@ public final class RecognitionPipelineOrchestrator {
         String cleanId = BarcodeParser.getCleanIdentity(rawInput);
         String prefix = BarcodeParser.getPrefix(cleanId);
 
-        // 🚀 PRIORITY 1: LOCAL MATCH (Instant)
-        Medicine localMatch = repository.getByBarcodePrefix(prefix);
-        if (localMatch != null) {
-            Log.i(TAG, "Barcode: Found exact local match: " + localMatch.getName());
-            callback.onResult(wrapInResults(localMatch, rawInput));
-            return;
+        // 🚀 PRIORITY 1: LOCAL MATCH (Instant, longest learned prefix)
+        if (!cleanId.startsWith("http")) {
+            BarcodeMatch localMatch = repository.findByBarcode(cleanId);
+            if (localMatch.isFound()) {
+                if (localMatch.isAmbiguous()) {
+                    Log.w(TAG, "Barcode: Ambiguous local match " + localMatch);
+                    callback.onResult(wrapAmbiguous(localMatch.getCandidates(), rawInput));
+                } else {
+                    Log.i(TAG, "Barcode: Found exact local match: " + localMatch.getMedicine().getName());
+                    callback.onResult(wrapInResults(localMatch.getMedicine(), rawInput));
+                }
+                return;
+            }
         }
 
         // 🚀 PRIORITY 2: INTERNET SCRAPE (if URL or potential UID)
@@ -72,7 +75,8 @@ public final class RecognitionPipelineOrchestrator {
                     }
 
                     // 🚀 SMART MATCH: Match scraped name against local catalog
-                    MatchResult match = MedicineMatcher.match(scrapedName, medicineCatalog);
+                    MatchResult match = MedicineMatcher.match(scrapedName,
+                            repository.getSnapshot().getMatcherIndex());
                     if (match.isMatched() && match.getMedicine() != null) {
                         Medicine m = match.getMedicine();
                         Log.i(TAG, "Barcode: Web match identified as: " + m.getName());
@@ -112,25 +116,48 @@ public final class RecognitionPipelineOrchestrator {
                 m.getAudioUrls(),
                 infoItems,
                 raw,
-                false
+                false,
+                1f
         );
         return Collections.singletonList(res);
     }
 
+    /**
+     * Shared prefix: show every candidate, flagged low-confidence.
+     */
+    private List<ScanResult> wrapAmbiguous(List<Medicine> candidates, String raw) {
+        List<ScanResult> results = new ArrayList<>(candidates.size());
+        for (Medicine m : candidates) {
+            results.add(new ScanResult(
+                    ResultType.KNOWN,
+                    m.getId(),
+                    m.getName(),
+                    m.getImageUrls(),
+                    m.getAudioUrls(),
+                    ResultInfoMapper.fromMedicine(m),
+                    raw,
+                    true,
+                    1f / candidates.size()
+            ));
+        }
+        return results;
+    }
+
     /**
      * Resolves OCR strings into ScanResults.
      * 100% Offline Matching.
      */
     public List<ScanResult> resolve(List<String> normalizedTexts) {
-        Log.d("PIPELINE_TRACE", "9a. Orchestrator resolving " + (normalizedTexts != null ? normalizedTexts.size() : 0) + " items");
-        
         List<ScanResult> results = new ArrayList<>();
         if (normalizedTexts == null || normalizedTexts.isEmpty()) return results;
 
+        // One consistent catalog version for the whole scan
+        MatcherIndex index = repository.getSnapshot().getMatcherIndex();
+
         for (String text : normalizedTexts) {
             if (text == null || text.trim().isEmpty()) continue;
 
-            MatchResult match = MedicineMatcher.match(text, medicineCatalog);
+            MatchResult match = MedicineMatcher.match(text, index);
             if (match.isMatched() && match.getMedicine() != null) {
                 Medicine medicine = match.getMedicine();
                 List<ResultInfoItem> infoItems = ResultInfoMapper.fromMedicine(medicine);
@@ -143,10 +170,12 @@ public final class RecognitionPipelineOrchestrator {
                         medicine.getAudioUrls(),
                         infoItems,
                         text,
-                        match.isLowConfidence()
+                        match.isLowConfidence(),
+                        match.getConfidence()
                 ));
             } else {
-                repository.logUnknownDetection(text, null);
+                // Queued locally with the bottle crop; uploaded by SyncWorker
+                repository.logUnknownDetection(text, ScanCropCache.take(text));
                 results.add(new ScanResult(
                         ResultType.UNKNOWN,
                         null,
@@ -155,7 +184,8 @@ public final class RecognitionPipelineOrchestrator {
                         Collections.emptyList(),
                         Collections.emptyList(),
                         text,
-                        false
+                        false,
+                        0f
                 ));
             }
         }
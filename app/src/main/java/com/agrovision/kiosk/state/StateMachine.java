@@ -6,6 +6,7 @@ import android.os.Looper;
 import android.util.Log;
 
 import com.agrovision.kiosk.analytics.EventTracker;
+import com.agrovision.kiosk.analytics.events.MvpEvent;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -64,6 +65,15 @@ public final class StateMachine {
         notifyObservers(next);
     }
 
+    /**
+     * Reports an analytics fact observed by a component.
+     * Only the StateMachine emits events (EventTracker contract);
+     * reporting never changes state.
+     */
+    public void report(MvpEvent event) {
+        eventTracker.track(event);
+    }
+
     public synchronized void addObserver(StateObserver observer) {
         observers.add(observer);
         Log.d("STATE_DEBUG", "Observer added: " + observer.getClass().getSimpleName() + ". Total: " + observers.size());
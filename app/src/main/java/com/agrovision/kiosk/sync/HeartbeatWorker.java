@@ -9,15 +9,50 @@ import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
 import com.agrovision.kiosk.BuildConfig;
+import com.agrovision.kiosk.data.database.AppDatabase;
+import com.agrovision.kiosk.data.database.dao.TelemetryDao;
+import com.agrovision.kiosk.data.database.entity.TelemetrySummaryEntity;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * HeartbeatWorker
+ *
+ * Kiosk heartbeat + telemetry uploader.
+ *
+ * DESIGN:
+ * - Pending interval summaries (TelemetryRecorder) and the kiosk
+ *   heartbeat go out in ONE Firestore WriteBatch per run
+ * - Summaries are written to kiosks/{shop}/telemetry/{intervalStart}:
+ *   a retried batch overwrites, never duplicates
+ * - Rows are deleted only after the batch committed
+ * - Offline / failed → Result.retry() (exponential backoff, see AppInitializer)
+ *
+ * RULES:
+ * - Status (ONLINE / OFFLINE) stays with KioskStatusManager, which only
+ *   writes on change: this heartbeat is what proves an ONLINE kiosk alive
+ */
 public final class HeartbeatWorker extends Worker {
     private static final String TAG = "HeartbeatWorker";
 
+    // Firestore allows 500 writes per batch; one is the heartbeat
+    private static final int SUMMARIES_PER_BATCH = 96;
+    private static final long COMMIT_TIMEOUT_S = 60;
+
     public HeartbeatWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
         super(context, workerParams);
     }
@@ -30,27 +65,81 @@ public final class HeartbeatWorker extends Worker {
         String shopName = prefs.getString("shop_name", "Unknown");
 
         if (shopId == null) {
-            return Result.success(); // Not registered yet
+            return Result.success(); // Not registered yet; summaries wait (capped)
         }
 
+        TelemetryDao dao = AppDatabase.getInstance(getApplicationContext()).telemetryDao();
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance();
+        DocumentReference kiosk = firestore.collection("kiosks").document(shopId);
+        CollectionReference telemetry = kiosk.collection("telemetry");
+
+        try {
+            // First batch always carries the heartbeat, even without summaries
+            boolean heartbeatSent = false;
+            List<TelemetrySummaryEntity> pending;
+            do {
+                pending = dao.getPendingSummaries(SUMMARIES_PER_BATCH);
+                if (pending.isEmpty() && heartbeatSent) break;
+
+                WriteBatch batch = firestore.batch();
+                List<Long> uploaded = new ArrayList<>(pending.size());
+                for (TelemetrySummaryEntity summary : pending) {
+                    batch.set(telemetry.document(String.valueOf(summary.intervalStart)), toDocument(summary));
+                    uploaded.add(summary.intervalStart);
+                }
+                if (!heartbeatSent) {
+                    batch.set(kiosk, heartbeat(shopName), SetOptions.merge());
+                }
+
+                Tasks.await(batch.commit(), COMMIT_TIMEOUT_S, TimeUnit.SECONDS);
+                heartbeatSent = true;
+                if (!uploaded.isEmpty()) {
+                    dao.deleteSummaries(uploaded);
+                    Log.d(TAG, "Uploaded " + uploaded.size() + " telemetry summaries for " + shopId);
+                }
+            } while (pending.size() == SUMMARIES_PER_BATCH && !isStopped());
+
+            Log.d(TAG, "Heartbeat synced for " + shopId);
+            return Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Heartbeat / telemetry upload failed", e);
+            return Result.retry();
+        }
+    }
+
+    /* =========================================================
+       INTERNAL HELPERS
+       ========================================================= */
+
+    private static Map<String, Object> heartbeat(String shopName) {
         Map<String, Object> heartbeat = new HashMap<>();
         heartbeat.put("lastActiveTimestamp", System.currentTimeMillis());
         heartbeat.put("appVersion", BuildConfig.VERSION_NAME);
         heartbeat.put("shopName", shopName);
         // Do NOT set status here, let KioskStatusManager handle the lifecycle-based status.
-        // Or set it to ONLINE only if we are absolutely sure the app is "Live".
-        // For now, we update the timestamp but don't force ONLINE if it was set to OFFLINE.
         heartbeat.put("deviceId", android.os.Build.MODEL);
+        return heartbeat;
+    }
 
-        try {
-            FirebaseFirestore.getInstance().collection("kiosks")
-                    .document(shopId)
-                    .set(heartbeat, SetOptions.merge());
-            Log.d(TAG, "Heartbeat synced for " + shopId);
-            return Result.success();
-        } catch (Exception e) {
-            Log.e(TAG, "Heartbeat failed", e);
-            return Result.retry();
+    private static Map<String, Object> toDocument(TelemetrySummaryEntity summary) throws JSONException {
+        Map<String, Object> doc = toMap(new JSONObject(summary.payload));
+        doc.put("intervalStart", summary.intervalStart);
+        doc.put("intervalEnd", summary.intervalEnd);
+        doc.put("appVersion", BuildConfig.VERSION_NAME);
+        return doc;
+    }
+
+    /**
+     * Nested JSON objects become nested maps (queryable Firestore fields).
+     */
+    private static Map<String, Object> toMap(JSONObject json) throws JSONException {
+        Map<String, Object> map = new HashMap<>();
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = json.get(key);
+            map.put(key, value instanceof JSONObject ? toMap((JSONObject) value) : value);
         }
+        return map;
     }
 }
@@ -2,12 +2,9 @@ package com.agrovision.kiosk.sync;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 
 import com.agrovision.kiosk.BuildConfig;
-import com.agrovision.kiosk.util.LogUtils;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.SetOptions;
 
@@ -17,17 +14,29 @@ import java.util.Map;
 /**
  * KioskStatusManager
  *
- * Responsibility: Manages real-time online/offline status in Firestore.
- * Sends frequent heartbeats while the app is active and an OFFLINE signal on shutdown.
+ * Responsibility: Publishes the lifecycle-based ONLINE / OFFLINE status in Firestore.
+ *
+ * DESIGN:
+ * - One write per status CHANGE (foreground ↔ background), no polling loop
+ * - Liveness comes from HeartbeatWorker's lastActiveTimestamp
+ *   (every TelemetryRecorder.INTERVAL_MS): a kiosk still marked ONLINE
+ *   whose heartbeat is older than two intervals is stale (crashed /
+ *   powered off without an OFFLINE write)
+ *
+ * RULES:
+ * - start() / stop() from the main thread (activity lifecycle callbacks)
  */
 public final class KioskStatusManager {
     private static final String TAG = "KioskStatusManager";
-    private static final long HEARTBEAT_INTERVAL_MS = 30_000; // 30 seconds
+
+    private static final String STATUS_ONLINE = "ONLINE";
+    private static final String STATUS_OFFLINE = "OFFLINE";
 
     private static volatile KioskStatusManager INSTANCE;
     private final Context appContext;
-    private final Handler handler = new Handler(Looper.getMainLooper());
-    private boolean isRunning = false;
+
+    // Main thread only
+    private String lastStatus = null;
 
     private KioskStatusManager(Context context) {
         this.appContext = context.getApplicationContext();
@@ -44,50 +53,49 @@ public final class KioskStatusManager {
         return INSTANCE;
     }
 
-    private final Runnable heartbeatRunnable = new Runnable() {
-        @Override
-        public void run() {
-            sendUpdate("ONLINE");
-            handler.postDelayed(this, HEARTBEAT_INTERVAL_MS);
-        }
-    };
-
     /**
-     * Start frequent heartbeats. Call this from Activity.onStart() or similar.
+     * Signal ONLINE. Call this from Activity.onStart() or similar.
      */
     public void start() {
-        if (!isRunning) {
-            isRunning = true;
-            handler.post(heartbeatRunnable);
-            Log.d(TAG, "Foreground heartbeat started");
+        if (publish(STATUS_ONLINE)) {
+            Log.d(TAG, "Foreground: signaled ONLINE");
         }
     }
 
     /**
-     * Stop frequent heartbeats and signal OFFLINE.
+     * Signal OFFLINE.
      */
     public void stop() {
-        isRunning = false;
-        handler.removeCallbacks(heartbeatRunnable);
-        sendUpdate("OFFLINE");
-        Log.d(TAG, "Foreground heartbeat stopped, signaled OFFLINE");
+        if (publish(STATUS_OFFLINE)) {
+            Log.d(TAG, "Background: signaled OFFLINE");
+        }
     }
 
-    private void sendUpdate(String status) {
+    /**
+     * @return true if the status changed and a write was issued
+     */
+    private boolean publish(String status) {
+        if (status.equals(lastStatus)) return false;
+
         SharedPreferences prefs = appContext.getSharedPreferences("kiosk_settings", Context.MODE_PRIVATE);
         String shopId = prefs.getString("shop_mobile", null);
 
-        if (shopId == null) return;
+        if (shopId == null) return false; // Not registered yet; retried on the next change
+        lastStatus = status;
 
+        long now = System.currentTimeMillis();
         Map<String, Object> data = new HashMap<>();
-        data.put("lastActiveTimestamp", System.currentTimeMillis());
         data.put("status", status);
+        data.put("statusChangedAt", now);
+        data.put("lastActiveTimestamp", now);
         data.put("appVersion", BuildConfig.VERSION_NAME);
         data.put("deviceId", android.os.Build.MODEL);
 
+        // Firestore queues the write offline and sends it on reconnect
         FirebaseFirestore.getInstance().collection("kiosks")
                 .document(shopId)
                 .set(data, SetOptions.merge())
                 .addOnFailureListener(e -> Log.w(TAG, "Failed to update status to " + status, e));
+        return true;
     }
 }
@@ -0,0 +1,165 @@
+package com.agrovision.kiosk.sync;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.threading.BatchFlusher;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
+import com.agrovision.kiosk.util.LogUtils;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScanCountAggregator
+ *
+ * Daily scan counter for daily_scans/{shop}_{day}.
+ *
+ * DESIGN:
+ * - increment() only bumps a local per-day delta (persisted, survives restarts)
+ * - Deltas are flushed every FLUSH_EVERY scans or FLUSH_DELAY_MS after the
+ *   first one (BatchFlusher), all days in ONE batch of FieldValue.increment() writes
+ *   (no read, no lost updates between concurrent writers)
+ * - A delta is cleared once the batch is handed to Firestore: its offline
+ *   queue replays the write, so a local retry would double count
+ * - closeDay() reconciles a finished day with the absolute local total
+ *   (scan_stats), correcting any increment that never made it
+ *
+ * RULES:
+ * - Never blocks the caller (prefs + Firestore work on the IO lane)
+ * - Counts are best effort between rollovers; closed days are exact
+ */
+public final class ScanCountAggregator {
+
+    private static final String PREFS_NAME = "scan_count_pending";
+    private static final String COLLECTION = "daily_scans";
+
+    private static final int FLUSH_EVERY = 10;
+    private static final long FLUSH_DELAY_MS = TimeUnit.SECONDS.toMillis(60);
+
+    private static volatile ScanCountAggregator INSTANCE;
+
+    private final Context appContext;
+
+    // IO lane only (single thread)
+    private final SharedPreferences pending;
+
+    private final BatchFlusher flusher =
+            new BatchFlusher(Lane.IO, FLUSH_EVERY, FLUSH_DELAY_MS, this::flush);
+
+    public static ScanCountAggregator getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ScanCountAggregator.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ScanCountAggregator(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private ScanCountAggregator(Context appContext) {
+        this.appContext = appContext;
+        this.pending = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /* =========================================================
+       PUBLIC API (ANY THREAD, NON-BLOCKING)
+       ========================================================= */
+
+    /**
+     * Counts one scan for the given day (yyyy-MM-dd).
+     */
+    public void increment(@NonNull String day) {
+        TaskScheduler.submit(Lane.IO, () -> {
+            int delta = pending.getInt(day, 0) + 1;
+            pending.edit().putInt(day, delta).apply();
+            flusher.onPending(delta);
+        });
+    }
+
+    /**
+     * Day rollover: writes the final local total of a finished day
+     * (absolute, not an increment) and drops its unflushed delta.
+     */
+    public void closeDay(@NonNull String day, int finalCount) {
+        TaskScheduler.submit(Lane.IO, () -> {
+            pending.edit().remove(day).apply();
+            String shopId = shopId();
+            Map<String, Object> data = dayDocument(shopId, day);
+            data.put("scanCount", finalCount);
+            data.put("reconciled", true);
+
+            FirebaseFirestore.getInstance().collection(COLLECTION)
+                    .document(shopId + "_" + day)
+                    .set(data, SetOptions.merge())
+                    .addOnFailureListener(e -> LogUtils.e("ScanCount: reconcile of " + day + " failed", e));
+        });
+    }
+
+    /**
+     * Flushes all pending deltas (e.g. when the kiosk goes to background).
+     */
+    public void flushNow() {
+        flusher.flushNow();
+    }
+
+    /* =========================================================
+       FLUSH (IO LANE)
+       ========================================================= */
+
+    private void flush() {
+        Map<String, Integer> deltas = new HashMap<>();
+        for (Map.Entry<String, ?> entry : pending.getAll().entrySet()) {
+            if (entry.getValue() instanceof Integer && (Integer) entry.getValue() > 0) {
+                deltas.put(entry.getKey(), (Integer) entry.getValue());
+            }
+        }
+        if (deltas.isEmpty()) return;
+
+        // Handed to Firestore below (see class doc)
+        SharedPreferences.Editor editor = pending.edit();
+        for (String day : deltas.keySet()) {
+            editor.remove(day);
+        }
+        editor.apply();
+
+        String shopId = shopId();
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance();
+        WriteBatch batch = firestore.batch();
+        for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+            Map<String, Object> data = dayDocument(shopId, entry.getKey());
+            data.put("scanCount", FieldValue.increment(entry.getValue()));
+            batch.set(firestore.collection(COLLECTION).document(shopId + "_" + entry.getKey()),
+                    data, SetOptions.merge());
+        }
+        batch.commit()
+                .addOnSuccessListener(unused -> LogUtils.d("ScanCount: synced " + deltas))
+                .addOnFailureListener(e -> LogUtils.e("ScanCount: sync failed", e));
+    }
+
+    /* =========================================================
+       INTERNAL HELPERS
+       ========================================================= */
+
+    private String shopId() {
+        return appContext.getSharedPreferences("kiosk_settings", Context.MODE_PRIVATE)
+                .getString("shop_mobile", "910000000000");
+    }
+
+    private static Map<String, Object> dayDocument(String shopId, String day) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("lastUpdated", FieldValue.serverTimestamp());
+        data.put("shopId", shopId);
+        data.put("date", day);
+        return data;
+    }
+}
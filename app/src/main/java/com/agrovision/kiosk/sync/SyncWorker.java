@@ -5,86 +5,431 @@ import android.net.Uri;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
 import com.agrovision.kiosk.data.database.AppDatabase;
 import com.agrovision.kiosk.data.database.dao.UnknownDetectionDao;
 import com.agrovision.kiosk.data.database.entity.UnknownDetectionEntity;
+import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
 import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * SyncWorker
+ *
+ * Drains the local unknown-detection queue (Room) to Firebase.
+ *
+ * DESIGN:
+ * - Rows are uploaded in batches of BATCH_SIZE
+ * - Each crop is prepared ONCE (downscaled, WebP, content-hash name)
+ * - Crop images upload in parallel, at most MAX_PARALLEL_UPLOADS at once
+ *   across the whole run, resuming the Storage session of an interrupted
+ *   (or timed-out, paused) upload
+ * - All documents of a batch are written with ONE Firestore WriteBatch,
+ *   under document ids fixed before the first attempt
+ * - Progress is persisted per row (imageUrl, session, attempts), so a retry
+ *   only redoes the step that failed, for the rows that failed
+ *
+ * RULES:
+ * - The scan path never talks to Firebase for unknowns: it only inserts rows
+ * - A failed row backs off on its own; it never holds back the rest
+ * - Local crops are deleted once no unsynced row references them
+ */
 public final class SyncWorker extends Worker {
 
     private static final String TAG = "SyncWorker";
 
+    private static final String UPLOAD_WORK = "UnknownUpload";
+    private static final long UPLOAD_DELAY_S = 30; // Collect a few detections per run
+
+    private static final int BATCH_SIZE = 25;      // Well below Firestore's 500 writes per batch
+    private static final int MAX_PARALLEL_UPLOADS = 3;
+    private static final long UPLOAD_TIMEOUT_S = 120;
+
+    private static final long RETRY_BASE_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final long RETRY_MAX_MS = TimeUnit.HOURS.toMillis(6);
+    private static final int MAX_ERROR_CHARS = 200;
+
+    private static final String COLLECTION_DETECTIONS = "unknown_medicines";
+    private static final String COLLECTION_DISCOVERIES = "unknown_discovery";
+    private static final String IMAGE_FOLDER = "unknown_images/";
+
+    private UnknownDetectionDao dao;
+
+    // One per run: slots are shared by every batch of this run
+    private final Semaphore uploadSlots = new Semaphore(MAX_PARALLEL_UPLOADS);
+
     public SyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
     }
 
+    /**
+     * Schedules a one-off drain once the network is available
+     * (the periodic run still catches anything left over).
+     */
+    public static void requestUpload(@NonNull Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SyncWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setInitialDelay(UPLOAD_DELAY_S, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(UPLOAD_WORK, ExistingWorkPolicy.KEEP, request);
+    }
+
     @NonNull
     @Override
     public Result doWork() {
         Log.d(TAG, "Starting background sync for unknown detections...");
 
-        UnknownDetectionDao dao = AppDatabase.getInstance(getApplicationContext()).unknownDetectionDao();
-        List<UnknownDetectionEntity> unsynced = dao.getUnsynced();
+        dao = AppDatabase.getInstance(getApplicationContext()).unknownDetectionDao();
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance();
+        FirebaseStorage storage = FirebaseStorage.getInstance();
+        String shopId = getApplicationContext().getSharedPreferences("kiosk_settings", Context.MODE_PRIVATE)
+                .getString("shop_mobile", "910000000000");
+
+        // Fixed for the whole run: rows failing now move past it and drop out
+        long runStartedAt = System.currentTimeMillis();
+        int synced = 0;
+        int failed = 0;
+
+        while (!isStopped()) {
+            List<UnknownDetectionEntity> batch = dao.getDue(runStartedAt, BATCH_SIZE);
+            if (batch.isEmpty()) break;
 
-        if (unsynced.isEmpty()) {
-            Log.d(TAG, "No pending detections to sync.");
-            return Result.success();
+            BatchOutcome outcome = syncBatch(batch, firestore, storage, shopId);
+            synced += outcome.synced;
+            failed += outcome.failed;
         }
 
-        FirebaseFirestore firestore = FirebaseFirestore.getInstance();
-        FirebaseStorage storage = FirebaseStorage.getInstance();
+        dao.clearSynced();
+        Log.i(TAG, "Synced " + synced + " unknown detections, " + failed + " failed");
+        return failed == 0 && !isStopped() ? Result.success() : Result.retry();
+    }
+
+    /* =========================================================
+       ONE BATCH
+       ========================================================= */
+
+    private static final class BatchOutcome {
+        int synced;
+        int failed;
+    }
+
+    private static final class Upload {
+        final AtomicReference<UploadTask> put = new AtomicReference<>();
+        final AtomicBoolean slotReleased = new AtomicBoolean(false);
+        Task<Uri> result;
+    }
 
-        boolean allSuccessful = true;
+    private BatchOutcome syncBatch(List<UnknownDetectionEntity> batch,
+                                   FirebaseFirestore firestore,
+                                   FirebaseStorage storage,
+                                   String shopId) {
+        BatchOutcome outcome = new BatchOutcome();
+        List<UnknownDetectionEntity> ready = new ArrayList<>(batch.size());
 
-        for (UnknownDetectionEntity detection : unsynced) {
+        // 1️⃣ Prepare once: recompressed crop + stable document id
+        for (UnknownDetectionEntity row : batch) {
             try {
-                String imageUrl = null;
-
-                // 1. Upload image if it exists
-                if (detection.localImagePath != null) {
-                    File file = new File(detection.localImagePath);
-                    if (file.exists()) {
-                        StorageReference ref = storage.getReference()
-                                .child("unknown_images/" + System.currentTimeMillis() + ".jpg");
-                        
-                        Tasks.await(ref.putFile(Uri.fromFile(file)));
-                        imageUrl = Tasks.await(ref.getDownloadUrl()).toString();
-                    }
+                prepare(row, firestore);
+                ready.add(row);
+            } catch (Exception e) {
+                Log.e(TAG, "Prepare failed: " + row.localImagePath, e);
+                fail(row, e, outcome);
+            }
+        }
+
+        // 2️⃣ Images in parallel (bounded)
+        Map<Long, Upload> uploads = startUploads(ready, storage, outcome);
+
+        // 3️⃣ One WriteBatch for every row whose image (if any) is in Storage
+        WriteBatch writes = firestore.batch();
+        List<UnknownDetectionEntity> staged = new ArrayList<>(ready.size());
+
+        for (UnknownDetectionEntity row : ready) {
+            Upload upload = uploads.get(row.id);
+            if (upload == null && needsUpload(row)) {
+                // Interrupted before its upload started
+                fail(row, new InterruptedException("upload not started"), outcome);
+                continue;
+            }
+            if (upload != null) {
+                try {
+                    row.imageUrl = Tasks.await(upload.result, UPLOAD_TIMEOUT_S, TimeUnit.SECONDS).toString();
+                    row.uploadSessionUri = null;
+                    dao.update(row); // Never upload this image again
+                } catch (Exception e) {
+                    Log.e(TAG, "Image upload failed: " + row.localImagePath, e);
+                    if (e instanceof TimeoutException) stopTimedOut(upload);
+                    row.uploadSessionUri = resumableSession(upload, e);
+                    fail(row, e, outcome);
+                    continue;
                 }
+            }
 
-                // 2. Upload metadata to Firestore
-                Map<String, Object> data = new HashMap<>();
-                data.put("ocrText", detection.rawOcrText);
-                data.put("timestamp", detection.timestamp);
-                data.put("imageUrl", imageUrl);
-                data.put("deviceId", android.os.Build.MODEL);
+            boolean discovery = UnknownDetectionEntity.KIND_DISCOVERY.equals(row.kind);
+            writes.set(firestore.collection(collectionOf(row)).document(row.documentId),
+                    discovery ? discoveryData(row, shopId) : detectionData(row));
+            staged.add(row);
+        }
 
-                Tasks.await(firestore.collection("unknown_detections").add(data));
+        if (staged.isEmpty()) return outcome;
 
-                // 3. Mark as synced in local DB
-                detection.isSynced = true;
-                dao.update(detection);
-                
-                Log.i(TAG, "Successfully synced: " + detection.rawOcrText);
+        try {
+            Tasks.await(writes.commit(), UPLOAD_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            Log.e(TAG, "Batch commit failed (" + staged.size() + " rows)", e);
+            for (UnknownDetectionEntity row : staged) fail(row, e, outcome);
+            return outcome;
+        }
 
-            } catch (ExecutionException | InterruptedException e) {
-                Log.e(TAG, "Failed to sync detection: " + detection.rawOcrText, e);
-                allSuccessful = false;
+        List<Long> ids = new ArrayList<>(staged.size());
+        for (UnknownDetectionEntity row : staged) ids.add(row.id);
+        dao.markSynced(ids);
+        deleteLocalImages(staged);
+        outcome.synced += staged.size();
+        return outcome;
+    }
+
+    /**
+     * Idempotent: rows that were prepared in an earlier attempt are untouched.
+     */
+    private void prepare(UnknownDetectionEntity row, FirebaseFirestore firestore) throws Exception {
+        boolean changed = false;
+
+        if (row.documentId == null) {
+            row.documentId = firestore.collection(collectionOf(row)).document().getId();
+            changed = true;
+        }
+
+        File replaced = null;
+        if (row.imageUrl == null && row.imageHash == null && row.localImagePath != null) {
+            File source = new File(row.localImagePath);
+            UploadImagePreparer.Prepared prepared = UploadImagePreparer.prepare(source);
+            // Crop gone (storage cleared): upload the text alone
+            row.localImagePath = prepared != null ? prepared.file.getAbsolutePath() : null;
+            row.imageHash = prepared != null ? prepared.hash : null;
+            if (prepared != null && !prepared.file.equals(source)) replaced = source;
+            changed = true;
+        }
+
+        if (changed) dao.update(row);
+
+        // Only once the row points at the prepared file: a crash before
+        // the update leaves the original in place to be prepared again
+        if (replaced != null) {
+            //noinspection ResultOfMethodCallIgnored
+            replaced.delete();
+        }
+    }
+
+    /**
+     * Starts at most MAX_PARALLEL_UPLOADS uploads at a time.
+     * Blocks (worker thread) up to UPLOAD_TIMEOUT_S for a free slot;
+     * a row that gets none is failed (backs off) and removed from rows.
+     * Once one wait timed out the slots are stalled: later rows only
+     * take a slot that is free right away.
+     */
+    private Map<Long, Upload> startUploads(List<UnknownDetectionEntity> rows,
+                                           FirebaseStorage storage,
+                                           BatchOutcome outcome) {
+        Map<Long, Upload> uploads = new LinkedHashMap<>();
+        boolean stalled = false;
+
+        for (Iterator<UnknownDetectionEntity> it = rows.iterator(); it.hasNext(); ) {
+            UnknownDetectionEntity row = it.next();
+            if (!needsUpload(row)) continue;
+            File file = new File(row.localImagePath);
+
+            try {
+                if (!uploadSlots.tryAcquire(stalled ? 0 : UPLOAD_TIMEOUT_S, TimeUnit.SECONDS)) {
+                    stalled = true;
+                    fail(row, new TimeoutException("no upload slot within " + UPLOAD_TIMEOUT_S + " s"), outcome);
+                    it.remove();
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            Upload upload = startUpload(row, file, storage);
+            // Direct executor: only releases the slot
+            upload.result.addOnCompleteListener(Runnable::run, done -> releaseSlot(upload));
+            uploads.put(row.id, upload);
+        }
+        return uploads;
+    }
+
+    private void releaseSlot(Upload upload) {
+        if (upload.slotReleased.compareAndSet(false, true)) uploadSlots.release();
+    }
+
+    /**
+     * Pauses a timed-out transfer so it stops competing with the next
+     * uploads; the session it keeps is resumed by the row's next attempt.
+     * A paused task never completes → its slot is released here.
+     */
+    private void stopTimedOut(Upload upload) {
+        UploadTask put = upload.put.get();
+        if (put != null) put.pause();
+        releaseSlot(upload);
+    }
+
+    /**
+     * Image not in Storage yet and still on disk (a lost crop uploads as text only).
+     */
+    private static boolean needsUpload(UnknownDetectionEntity row) {
+        return row.imageUrl == null && row.localImagePath != null && new File(row.localImagePath).exists();
+    }
+
+    private Upload startUpload(UnknownDetectionEntity row, File file, FirebaseStorage storage) {
+        StorageReference ref = storage.getReference().child(IMAGE_FOLDER + file.getName());
+        Upload upload = new Upload();
+
+        // Retried row: the object may already be there (content-addressed name)
+        Task<Uri> existing = row.attempts > 0 && row.uploadSessionUri == null
+                ? ref.getDownloadUrl()
+                : Tasks.forException(new IllegalStateException("not checked"));
+
+        upload.result = existing.continueWithTask(check -> {
+            if (check.isSuccessful()) return check;
+
+            UploadTask put = putFile(ref, file, row);
+            upload.put.set(put);
+            return put.continueWithTask(done -> {
+                if (!done.isSuccessful()) throw done.getException();
+                return ref.getDownloadUrl();
+            });
+        });
+        return upload;
+    }
+
+    private UploadTask putFile(StorageReference ref, File file, UnknownDetectionEntity row) {
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType(file.getName().endsWith(".webp") ? "image/webp" : "image/jpeg")
+                .build();
+        Uri source = Uri.fromFile(file);
+
+        UploadTask put = row.uploadSessionUri != null
+                ? ref.putFile(source, metadata, Uri.parse(row.uploadSessionUri))
+                : ref.putFile(source, metadata);
+
+        // Persist the session as soon as it exists: survives process death
+        AtomicBoolean sessionSaved = new AtomicBoolean(row.uploadSessionUri != null);
+        put.addOnProgressListener(Runnable::run, snapshot -> {
+            Uri session = snapshot.getUploadSessionUri();
+            if (session != null && sessionSaved.compareAndSet(false, true)) {
+                dao.setUploadSession(row.id, session.toString());
             }
+        });
+        return put;
+    }
+
+    /**
+     * Session to resume from next time; dropped when Storage rejected it
+     * (expired / invalid session → start over).
+     */
+    private static String resumableSession(Upload upload, Exception e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof StorageException) {
+            int http = ((StorageException) cause).getHttpResultCode();
+            if (http >= 400 && http < 500) return null;
         }
+        UploadTask put = upload.put.get();
+        if (put == null) return null;
+        Uri session = put.getSnapshot().getUploadSessionUri();
+        return session != null ? session.toString() : null;
+    }
+
+    /**
+     * Per-row exponential backoff; the row keeps everything it already achieved.
+     */
+    private void fail(UnknownDetectionEntity row, Exception e, BatchOutcome outcome) {
+        row.attempts++;
+        long backoff = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(row.attempts - 1, 20));
+        row.nextAttemptAt = System.currentTimeMillis() + backoff;
+        String message = String.valueOf(e.getMessage());
+        row.lastError = message.length() > MAX_ERROR_CHARS ? message.substring(0, MAX_ERROR_CHARS) : message;
+        try {
+            dao.update(row);
+        } catch (Exception dbError) {
+            Log.e(TAG, "Failed to persist retry state for row " + row.id, dbError);
+        }
+        outcome.failed++;
+    }
 
-        return allSuccessful ? Result.success() : Result.retry();
+    /* =========================================================
+       DOCUMENTS
+       ========================================================= */
+
+    private static String collectionOf(UnknownDetectionEntity row) {
+        return UnknownDetectionEntity.KIND_DISCOVERY.equals(row.kind)
+                ? COLLECTION_DISCOVERIES
+                : COLLECTION_DETECTIONS;
+    }
+
+    private static Map<String, Object> detectionData(UnknownDetectionEntity detection) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("ocrText", detection.rawOcrText);
+        data.put("timestamp", detection.timestamp);
+        data.put("status", "pending_review");
+        data.put("deviceId", android.os.Build.MODEL);
+        data.put("imageUrl", detection.imageUrl);
+        data.put("imageHash", detection.imageHash);
+        return data;
+    }
+
+    private static Map<String, Object> discoveryData(UnknownDetectionEntity detection, String shopId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("scrapedName", detection.rawOcrText);
+        data.put("rawCode", detection.rawCode);
+        data.put("timestamp", detection.timestamp);
+        data.put("shopId", shopId);
+        return data;
+    }
+
+    /**
+     * Content-hash names: identical crops share one file, which stays
+     * until no unsynced row points at it anymore.
+     */
+    private void deleteLocalImages(List<UnknownDetectionEntity> rows) {
+        Set<String> paths = new HashSet<>();
+        for (UnknownDetectionEntity row : rows) {
+            if (row.localImagePath != null) paths.add(row.localImagePath);
+        }
+        for (String path : paths) {
+            if (dao.countUnsyncedWithImage(path) > 0) continue;
+            //noinspection ResultOfMethodCallIgnored
+            new File(path).delete();
+        }
     }
 }
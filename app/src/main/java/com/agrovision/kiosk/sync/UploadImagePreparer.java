@@ -0,0 +1,189 @@
+package com.agrovision.kiosk.sync;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.agrovision.kiosk.util.BitmapUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * UploadImagePreparer
+ *
+ * Turns a queued crop into the file that is actually uploaded.
+ *
+ * DESIGN:
+ * - Downscaled to MAX_EDGE_PX and re-encoded as WebP (JPEG fallback)
+ * - Named by the SHA-256 of the encoded bytes → the Storage object name
+ *   is stable across retries and identical crops upload once
+ * - Done ONCE per row; the prepared file replaces the original crop
+ *
+ * RULES:
+ * - Worker thread only (decode / encode / hash)
+ * - Original crop is kept when re-encoding does not make it smaller
+ * - Never deletes the source: the caller does, after its row is updated
+ */
+final class UploadImagePreparer {
+
+    private static final int MAX_EDGE_PX = 1024;
+    private static final int QUALITY = 75;
+    private static final int HASH_HEX_CHARS = 32;
+
+    static final class Prepared {
+        final File file;
+        final String hash;
+
+        Prepared(File file, String hash) {
+            this.file = file;
+            this.hash = hash;
+        }
+    }
+
+    private UploadImagePreparer() {
+        throw new AssertionError("No instances allowed");
+    }
+
+    /**
+     * Writes the prepared file next to the source. Idempotent: an
+     * interrupted earlier run produced the same (hash-named) target.
+     *
+     * @return the prepared file (may be the source itself), or null if the source is unreadable
+     */
+    @Nullable
+    static Prepared prepare(@NonNull File source) throws IOException {
+        if (!source.isFile()) return null;
+
+        byte[] original = readFully(source);
+        byte[] bytes = original;
+        String extension = extensionOf(source.getName());
+
+        Encoded encoded = reencode(original);
+        if (encoded != null && encoded.bytes.length < original.length) {
+            bytes = encoded.bytes;
+            extension = encoded.extension;
+        }
+
+        String hash = sha256(bytes);
+        File target = new File(source.getParentFile(), hash + "." + extension);
+        if (!target.equals(source)) {
+            if (!target.exists()) {
+                File tmp = new File(target.getPath() + ".tmp");
+                try (FileOutputStream out = new FileOutputStream(tmp)) {
+                    out.write(bytes);
+                    out.getFD().sync();
+                }
+                if (!tmp.renameTo(target)) {
+                    //noinspection ResultOfMethodCallIgnored
+                    tmp.delete();
+                    throw new IOException("rename failed: " + target);
+                }
+            }
+        }
+        return new Prepared(target, hash);
+    }
+
+    /* =========================================================
+       INTERNAL HELPERS
+       ========================================================= */
+
+    private static final class Encoded {
+        final byte[] bytes;
+        final String extension;
+
+        Encoded(byte[] bytes, String extension) {
+            this.bytes = bytes;
+            this.extension = extension;
+        }
+    }
+
+    @Nullable
+    private static Encoded reencode(byte[] original) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(original, 0, original.length, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+
+        // 1️⃣ Cheap power-of-two subsampling during decode
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inSampleSize = 1;
+        while (Math.max(bounds.outWidth, bounds.outHeight) / (opts.inSampleSize * 2) >= MAX_EDGE_PX) {
+            opts.inSampleSize *= 2;
+        }
+        Bitmap decoded = BitmapFactory.decodeByteArray(original, 0, original.length, opts);
+        if (decoded == null) return null;
+
+        // 2️⃣ Exact fit
+        Bitmap scaled = decoded;
+        int edge = Math.max(decoded.getWidth(), decoded.getHeight());
+        if (edge > MAX_EDGE_PX) {
+            float factor = MAX_EDGE_PX / (float) edge;
+            Bitmap fitted = BitmapUtils.scale(decoded, factor, factor);
+            if (fitted != null) scaled = fitted; // OOM → upload the subsampled one
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(original.length / 2);
+            if (scaled.compress(webpFormat(), QUALITY, out)) {
+                return new Encoded(out.toByteArray(), "webp");
+            }
+            out.reset();
+            if (scaled.compress(Bitmap.CompressFormat.JPEG, QUALITY, out)) {
+                return new Encoded(out.toByteArray(), "jpg");
+            }
+            return null;
+        } finally {
+            if (scaled != decoded) BitmapUtils.safeRecycle(scaled);
+            BitmapUtils.safeRecycle(decoded);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        // Pre-R WEBP is lossy for quality < 100
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(HASH_HEX_CHARS);
+            for (int i = 0; i < HASH_HEX_CHARS / 2; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+                        .append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : "jpg";
+    }
+}
@@ -0,0 +1,66 @@
+package com.agrovision.kiosk.threading;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * BatchFlusher
+ *
+ * Write-behind trigger: runs a flush on a lane once flushEvery items
+ * are pending, or maxDelayMs after the first pending item, whichever first.
+ *
+ * DESIGN:
+ * - The owner keeps its own pending items (queue, prefs) and
+ *   reports how many are waiting after each add
+ * - One main-looper timer per burst, armed by the first pending item
+ * - No "flush already scheduled" flag on purpose: the lane may reject
+ *   the task when full, and the next report must retry.
+ *   A surplus flush just finds nothing to write
+ *
+ * RULES:
+ * - onPending() / flushNow() from any thread, never block
+ * - The flush runs on the given lane only
+ */
+public final class BatchFlusher {
+
+    private final Lane lane;
+    private final int flushEvery;
+    private final long maxDelayMs;
+    private final Runnable flush;
+
+    private final AtomicBoolean timerArmed = new AtomicBoolean(false);
+    private final Handler timerHandler = new Handler(Looper.getMainLooper());
+    private final Runnable timerFlush = () -> {
+        timerArmed.set(false);
+        flushNow();
+    };
+
+    public BatchFlusher(@NonNull Lane lane, int flushEvery, long maxDelayMs, @NonNull Runnable flush) {
+        this.lane = lane;
+        this.flushEvery = flushEvery;
+        this.maxDelayMs = maxDelayMs;
+        this.flush = flush;
+    }
+
+    /**
+     * @param pending items waiting to be written, including the one just added
+     */
+    public void onPending(int pending) {
+        if (pending >= flushEvery) {
+            flushNow();
+        } else if (timerArmed.compareAndSet(false, true)) {
+            timerHandler.postDelayed(timerFlush, maxDelayMs);
+        }
+    }
+
+    /**
+     * Writes everything pending now (e.g. when the kiosk goes to background).
+     */
+    public void flushNow() {
+        TaskScheduler.submit(lane, flush);
+    }
+}
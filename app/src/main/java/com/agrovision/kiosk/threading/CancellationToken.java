@@ -0,0 +1,32 @@
+package com.agrovision.kiosk.threading;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CancellationToken
+ *
+ * One-way flag shared between the code that starts async work
+ * and the code that consumes its result.
+ *
+ * RULES:
+ * - Once cancelled, never un-cancelled
+ * - Producers check it before starting, consumers before delivering
+ * - Cancelling never interrupts threads
+ */
+public final class CancellationToken {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    /**
+     * Marks the work as stale.
+     *
+     * @return true if this call performed the cancellation
+     */
+    public boolean cancel() {
+        return cancelled.compareAndSet(false, true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+}
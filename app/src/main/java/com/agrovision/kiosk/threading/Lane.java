@@ -0,0 +1,30 @@
+package com.agrovision.kiosk.threading;
+
+/**
+ * Lane
+ *
+ * Named execution lanes owned by TaskScheduler.
+ *
+ * RULES:
+ * - Every background task runs on exactly one lane
+ * - Lanes never share threads
+ * - Lane names appear in thread names and stats dumps
+ */
+public enum Lane {
+
+    REALTIME_VISION("vision"),  // YOLO inference on the freshest camera frame
+    OCR("ocr"),                 // Text recognition + matching of cropped boxes
+    IO("io"),                   // Room / file / asset access
+    NETWORK("net"),             // Blocking Firestore / Storage round-trips
+    BACKGROUND("bg");           // Everything that may wait (warm-up, compaction)
+
+    private final String threadPrefix;
+
+    Lane(String threadPrefix) {
+        this.threadPrefix = threadPrefix;
+    }
+
+    public String getThreadPrefix() {
+        return threadPrefix;
+    }
+}
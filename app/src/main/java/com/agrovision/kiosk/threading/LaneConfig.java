@@ -0,0 +1,94 @@
+package com.agrovision.kiosk.threading;
+
+import com.agrovision.kiosk.util.Constants;
+
+/**
+ * LaneConfig
+ *
+ * Immutable sizing / priority / queueing description of one Lane.
+ *
+ * RULES:
+ * - No executor logic
+ * - Validated on creation (fail-fast)
+ */
+public final class LaneConfig {
+
+    private final int threads;
+    private final int threadPriority;
+    private final QueuePolicy queuePolicy;
+    private final int queueCapacity;
+
+    public LaneConfig(int threads,
+                      int threadPriority,
+                      QueuePolicy queuePolicy,
+                      int queueCapacity) {
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("Lane needs at least one thread");
+        }
+        if (threadPriority < Thread.MIN_PRIORITY || threadPriority > Thread.MAX_PRIORITY) {
+            throw new IllegalArgumentException("Invalid thread priority: " + threadPriority);
+        }
+        if (queuePolicy == null) {
+            throw new IllegalArgumentException("queuePolicy cannot be null");
+        }
+        if (queuePolicy != QueuePolicy.PRIORITY && queueCapacity < 1) {
+            throw new IllegalArgumentException("Bounded lanes need capacity >= 1");
+        }
+
+        this.threads = threads;
+        this.threadPriority = threadPriority;
+        this.queuePolicy = queuePolicy;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /* =========================================================
+       DEFAULTS
+       ========================================================= */
+
+    /**
+     * Default configuration of each lane.
+     *
+     * - Vision: one thread, queue of 1, freshest frame wins
+     * - OCR: one thread, never drops (OcrProcessor already limits
+     *   in-flight work; a dropped result would stall the scan queue)
+     * - IO: one thread, priority queue, never drops
+     * - Network: two threads so one slow upload cannot stall the rest
+     * - Background: one lowest-priority thread
+     */
+    public static LaneConfig defaultFor(Lane lane) {
+        switch (lane) {
+            case REALTIME_VISION:
+                return new LaneConfig(1, Constants.YOLO_THREAD_PRIORITY, QueuePolicy.LATEST_WINS, 1);
+            case OCR:
+                return new LaneConfig(1, Constants.OCR_THREAD_PRIORITY, QueuePolicy.PRIORITY, 0);
+            case IO:
+                return new LaneConfig(1, Constants.IO_THREAD_PRIORITY, QueuePolicy.PRIORITY, 0);
+            case NETWORK:
+                return new LaneConfig(2, Constants.IO_THREAD_PRIORITY, QueuePolicy.PRIORITY, 0);
+            case BACKGROUND:
+            default:
+                return new LaneConfig(1, Thread.MIN_PRIORITY, QueuePolicy.BOUNDED, 64);
+        }
+    }
+
+    /* =========================================================
+       READ-ONLY ACCESSORS
+       ========================================================= */
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getThreadPriority() {
+        return threadPriority;
+    }
+
+    public QueuePolicy getQueuePolicy() {
+        return queuePolicy;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+}
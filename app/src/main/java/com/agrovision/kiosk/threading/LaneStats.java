@@ -0,0 +1,164 @@
+package com.agrovision.kiosk.threading;
+
+import com.agrovision.kiosk.analytics.metrics.LatencyHistogram;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LaneStats
+ *
+ * Lock-free counters and histograms for one Lane.
+ *
+ * RECORDED:
+ * - Queue depth seen by each submission
+ * - Wait time (enqueue → start)
+ * - Run time (start → end)
+ * - Submitted / completed / failed / rejected counts
+ *
+ * DESIGN RULES:
+ * - Recording never allocates and never blocks
+ * - Readers get approximate (bucketed) percentiles
+ * - Wait / run times share LatencyHistogram with PerformanceLogger
+ */
+public final class LaneStats {
+
+    private final Lane lane;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final Log2Histogram queueDepth = new Log2Histogram();
+    private final LatencyHistogram wait = new LatencyHistogram();
+    private final LatencyHistogram run = new LatencyHistogram();
+
+    LaneStats(Lane lane) {
+        this.lane = lane;
+    }
+
+    /* =========================================================
+       RECORDING (CALLED BY TaskScheduler ONLY)
+       ========================================================= */
+
+    void recordSubmit(int depth) {
+        submitted.incrementAndGet();
+        queueDepth.record(depth);
+    }
+
+    void recordStart(long waitNanos) {
+        wait.recordNanos(waitNanos);
+    }
+
+    void recordEnd(long runNanos, boolean success) {
+        run.recordNanos(runNanos);
+        if (success) {
+            completed.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    void recordRejected() {
+        rejected.incrementAndGet();
+    }
+
+    /* =========================================================
+       READ-ONLY ACCESSORS
+       ========================================================= */
+
+    public Lane getLane() {
+        return lane;
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getQueueDepthPercentile(double p) {
+        return queueDepth.percentile(p);
+    }
+
+    public long getWaitMsPercentile(double p) {
+        return wait.percentileMicros(p) / 1_000L;
+    }
+
+    public long getRunMsPercentile(double p) {
+        return run.percentileMicros(p) / 1_000L;
+    }
+
+    public LatencyHistogram.Snapshot getWaitSnapshot() {
+        return wait.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot getRunSnapshot() {
+        return run.snapshot();
+    }
+
+    /**
+     * One-line summary for logs and diagnostics.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s submitted=%d done=%d failed=%d rejected=%d depth95=%d wait50=%dms wait95=%dms run50=%dms run95=%dms",
+                lane.name(),
+                getSubmitted(), getCompleted(), getFailed(), getRejected(),
+                getQueueDepthPercentile(0.95),
+                getWaitMsPercentile(0.50), getWaitMsPercentile(0.95),
+                getRunMsPercentile(0.50), getRunMsPercentile(0.95));
+    }
+
+    /* =========================================================
+       QUEUE DEPTH HISTOGRAM — POWER-OF-TWO BUCKETS
+       ========================================================= */
+
+    /**
+     * Bucket i holds values in [2^(i-1), 2^i); bucket 0 holds 0.
+     * Percentiles report the bucket's upper bound.
+     */
+    private static final class Log2Histogram {
+
+        private static final int BUCKETS = 32;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong total = new AtomicLong();
+
+        void record(long value) {
+            if (value < 0) value = 0;
+            int bucket = 64 - Long.numberOfLeadingZeros(value);
+            if (bucket >= BUCKETS) bucket = BUCKETS - 1;
+            counts.incrementAndGet(bucket);
+            total.incrementAndGet();
+        }
+
+        long percentile(double p) {
+            long n = total.get();
+            if (n == 0) return 0;
+
+            long target = (long) Math.ceil(n * p);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= target) {
+                    return i == 0 ? 0 : (1L << i) - 1;
+                }
+            }
+            return (1L << (BUCKETS - 1)) - 1;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.agrovision.kiosk.threading;
+
+/**
+ * QueuePolicy
+ *
+ * How a lane behaves when its workers are busy.
+ */
+public enum QueuePolicy {
+
+    /**
+     * Bounded FIFO queue; the OLDEST queued task is dropped
+     * to make room for the newest ("no time travel").
+     * Used for real-time camera work.
+     */
+    LATEST_WINS,
+
+    /**
+     * Priority-ordered queue that never drops work.
+     * FIFO within the same TaskPriority.
+     * Used for persistence and uploads.
+     */
+    PRIORITY,
+
+    /**
+     * Bounded FIFO queue; NEW tasks are rejected (and counted)
+     * once the capacity is reached.
+     */
+    BOUNDED
+}
@@ -0,0 +1,14 @@
+package com.agrovision.kiosk.threading;
+
+/**
+ * TaskPriority
+ *
+ * Ordering hint for lanes using QueuePolicy.PRIORITY.
+ * Ignored by other policies.
+ */
+public enum TaskPriority {
+
+    HIGH,       // Scan path (unknown detections, learned prefixes)
+    NORMAL,     // Default
+    LOW         // Bulk work (catalog sync, compaction)
+}
@@ -0,0 +1,345 @@
+package com.agrovision.kiosk.threading;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.util.LogUtils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TaskScheduler
+ *
+ * SINGLE OWNER of every background thread in the kiosk.
+ *
+ * PURPOSE:
+ * - Run work on named lanes (see Lane)
+ * - Apply per-lane size, thread priority and queue policy (see LaneConfig)
+ * - Record per-lane queue depth, wait time, run time and rejections (see LaneStats)
+ *
+ * HARD RULES:
+ * - No component creates its own ThreadPoolExecutor
+ * - Real-time lanes drop stale input, they never build a backlog
+ * - Persistence lanes never drop silently: they queue by priority,
+ *   so bulk catalog sync cannot starve scan-path writes
+ */
+public final class TaskScheduler {
+
+    // Lane executors (created lazily, guarded by class lock)
+    private static final Map<Lane, LaneExecutor> EXECUTORS = new EnumMap<>(Lane.class);
+
+    // Lane configuration overrides (guarded by class lock)
+    private static final Map<Lane, LaneConfig> CONFIGS = new EnumMap<>(Lane.class);
+
+    // Lane stats always exist, even before a lane starts
+    private static final Map<Lane, LaneStats> STATS = new EnumMap<>(Lane.class);
+
+    // Global submission order (FIFO tie-break inside a priority)
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    static {
+        for (Lane lane : Lane.values()) {
+            STATS.put(lane, new LaneStats(lane));
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private TaskScheduler() {
+        throw new AssertionError("No instances allowed");
+    }
+
+    /* =========================================================
+       CONFIGURATION
+       ========================================================= */
+
+    /**
+     * Overrides a lane configuration.
+     *
+     * Only effective BEFORE the lane receives its first task;
+     * later calls are logged and ignored.
+     */
+    public static synchronized void configure(@NonNull Lane lane, @NonNull LaneConfig config) {
+        if (EXECUTORS.containsKey(lane)) {
+            LogUtils.w("TaskScheduler: lane " + lane + " already running, config ignored");
+            return;
+        }
+        CONFIGS.put(lane, config);
+    }
+
+    /* =========================================================
+       SUBMISSION
+       ========================================================= */
+
+    /**
+     * Submit a task with NORMAL priority.
+     */
+    public static void submit(@NonNull Lane lane, Runnable task) {
+        submit(lane, TaskPriority.NORMAL, task);
+    }
+
+    /**
+     * Submit a task.
+     *
+     * BEHAVIOR:
+     * - LATEST_WINS lanes drop the oldest queued task if busy
+     * - PRIORITY lanes queue the task behind higher priorities
+     * - BOUNDED lanes reject the task if full (counted + logged)
+     */
+    public static void submit(@NonNull Lane lane, @NonNull TaskPriority priority, Runnable task) {
+
+        // Defensive null check
+        if (task == null) return;
+
+        LaneExecutor executor = executorFor(lane);
+        LaneStats stats = STATS.get(lane);
+
+        try {
+            stats.recordSubmit(executor.getQueue().size());
+            executor.execute(new LaneTask(task, priority, stats));
+        } catch (Exception e) {
+            // Executor shutdown or fatal state
+            stats.recordRejected();
+            LogUtils.e(lane + " task submission failed", e);
+        }
+    }
+
+    /**
+     * Returns an Executor view of a lane (NORMAL priority).
+     *
+     * Used where an API expects an Executor (e.g. CameraX analyzers).
+     */
+    @NonNull
+    public static Executor executor(@NonNull Lane lane) {
+        return task -> submit(lane, task);
+    }
+
+    /* =========================================================
+       DIAGNOSTICS
+       ========================================================= */
+
+    @NonNull
+    public static LaneStats stats(@NonNull Lane lane) {
+        return STATS.get(lane);
+    }
+
+    /**
+     * Current number of queued (not yet running) tasks on a lane.
+     */
+    public static synchronized int queueDepth(@NonNull Lane lane) {
+        LaneExecutor executor = EXECUTORS.get(lane);
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * Logs one summary line per lane.
+     */
+    public static void dumpStats() {
+        for (Lane lane : Lane.values()) {
+            LogUtils.i("LANE_STATS " + STATS.get(lane));
+        }
+    }
+
+    /* =========================================================
+       SHUTDOWN
+       ========================================================= */
+
+    /**
+     * Immediately shuts down every lane.
+     *
+     * Used only during:
+     * - Fatal crash recovery
+     * - App termination
+     */
+    public static synchronized void shutdownNow() {
+        for (LaneExecutor executor : EXECUTORS.values()) {
+            executor.shutdownNow();
+        }
+        EXECUTORS.clear();
+    }
+
+    /* =========================================================
+       LANE CREATION
+       ========================================================= */
+
+    private static synchronized LaneExecutor executorFor(Lane lane) {
+        LaneExecutor executor = EXECUTORS.get(lane);
+        if (executor != null) return executor;
+
+        LaneConfig config = CONFIGS.get(lane);
+        if (config == null) config = LaneConfig.defaultFor(lane);
+
+        executor = new LaneExecutor(lane, config, STATS.get(lane));
+
+        // Start threads eagerly to avoid first-task latency
+        executor.prestartAllCoreThreads();
+
+        EXECUTORS.put(lane, executor);
+        LogUtils.i("TaskScheduler: lane " + lane + " started (" + config.getThreads()
+                + " threads, " + config.getQueuePolicy() + ")");
+        return executor;
+    }
+
+    private static BlockingQueue<Runnable> createQueue(LaneConfig config) {
+        if (config.getQueuePolicy() == QueuePolicy.PRIORITY) {
+            // Elements are always LaneTask (Comparable)
+            return new PriorityBlockingQueue<>();
+        }
+        return new ArrayBlockingQueue<>(config.getQueueCapacity());
+    }
+
+    /* =========================================================
+       LANE EXECUTOR
+       ========================================================= */
+
+    private static final class LaneExecutor extends ThreadPoolExecutor {
+
+        LaneExecutor(Lane lane, LaneConfig config, LaneStats stats) {
+            super(
+                    config.getThreads(),            // Fixed size
+                    config.getThreads(),            // Never scale up
+                    0L,                             // Keep-alive irrelevant (core == max)
+                    TimeUnit.MILLISECONDS,
+                    createQueue(config),
+                    new LaneThreadFactory(lane, config.getThreadPriority()),
+                    config.getQueuePolicy() == QueuePolicy.LATEST_WINS
+                            ? new DropOldestPolicy(stats)
+                            : new CountingRejectPolicy(lane, stats)
+            );
+        }
+    }
+
+    /* =========================================================
+       TASK WRAPPER — TIMING + PRIORITY ORDER
+       ========================================================= */
+
+    private static final class LaneTask implements Runnable, Comparable<LaneTask> {
+
+        private final Runnable delegate;
+        private final TaskPriority priority;
+        private final LaneStats stats;
+        private final long sequence;
+        private final long enqueuedNanos;
+
+        LaneTask(Runnable delegate, TaskPriority priority, LaneStats stats) {
+            this.delegate = delegate;
+            this.priority = priority;
+            this.stats = stats;
+            this.sequence = SEQUENCE.getAndIncrement();
+            this.enqueuedNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            stats.recordStart(start - enqueuedNanos);
+
+            boolean success = false;
+            try {
+                delegate.run();
+                success = true;
+            } catch (RuntimeException e) {
+                // Keep the lane thread alive; failures must be visible
+                LogUtils.e(stats.getLane() + " task failed", e);
+            } finally {
+                stats.recordEnd(System.nanoTime() - start, success);
+            }
+        }
+
+        @Override
+        public int compareTo(LaneTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            if (byPriority != 0) return byPriority;
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /* =========================================================
+       THREAD FACTORY
+       ========================================================= */
+
+    /**
+     * Names threads "<lane>-N", applies the lane priority
+     * and makes crashes visible.
+     */
+    private static final class LaneThreadFactory implements ThreadFactory {
+
+        private final Lane lane;
+        private final int priority;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        LaneThreadFactory(Lane lane, int priority) {
+            this.lane = lane;
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r);
+            t.setName(lane.getThreadPrefix() + "-" + count.getAndIncrement());
+            t.setPriority(priority);
+            t.setUncaughtExceptionHandler((thread, throwable) ->
+                    LogUtils.e(lane + " thread crashed", throwable)
+            );
+            return t;
+        }
+    }
+
+    /* =========================================================
+       REJECTION POLICIES
+       ========================================================= */
+
+    /**
+     * Real-time lanes: drop the stale queued task, enqueue the newest.
+     */
+    private static final class DropOldestPolicy implements RejectedExecutionHandler {
+
+        private final LaneStats stats;
+
+        DropOldestPolicy(LaneStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) return;
+
+            if (executor.getQueue().poll() != null) {
+                stats.recordRejected();
+            }
+            executor.execute(r);
+        }
+    }
+
+    /**
+     * Bounded lanes: reject the new task, but never silently.
+     */
+    private static final class CountingRejectPolicy implements RejectedExecutionHandler {
+
+        private final Lane lane;
+        private final LaneStats stats;
+
+        CountingRejectPolicy(Lane lane, LaneStats stats) {
+            this.lane = lane;
+            this.stats = stats;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) return;
+
+            stats.recordRejected();
+            LogUtils.w(lane + " task rejected: queue full (total rejected="
+                    + stats.getRejected() + ")");
+        }
+    }
+}
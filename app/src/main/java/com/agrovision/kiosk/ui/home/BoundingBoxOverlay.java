@@ -3,27 +3,89 @@ package com.agrovision.kiosk.ui.home;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
-import android.graphics.RectF;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.View;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * BoundingBoxOverlay
  *
  * Custom view to draw bounding boxes over the camera preview.
+ *
+ * DESIGN:
+ * - Detections arrive as NORMALIZED [0,1] boxes in a flat float array
+ *   (left, top, right, bottom per box) from any thread
+ * - Double-buffered: the producer fills the back buffer, the UI
+ *   thread swaps it in on the next vsync
+ * - Normalized → view mapping is a cached Matrix, recomputed only when
+ *   the view size, source size or mirroring changes (FILL_CENTER)
+ * - Choreographer-aligned: at most one redraw per vsync, however
+ *   many detections arrive in between
+ * - Boxes glide towards each new detection, so a low detection
+ *   rate still looks smooth
+ *
+ * HARD RULES:
+ * - Zero allocation per detection and per frame
+ * - Never invalidates when nothing moved
  */
-public class BoundingBoxOverlay extends View {
+public class BoundingBoxOverlay extends View implements Choreographer.FrameCallback {
+
+    // Upper bound on drawn boxes (buffers are sized once)
+    public static final int MAX_BOXES = 16;
+
+    // Fraction of the remaining distance covered per vsync
+    private static final float SMOOTHING = 0.35f;
+
+    // Below this (pixels) a box is considered arrived
+    private static final float SETTLE_EPSILON_PX = 0.5f;
+
+    // A new box farther than this (fraction of view diagonal) snaps instead of gliding
+    private static final float MAX_GLIDE_DISTANCE = 0.25f;
 
-    private List<RectF> boxes = new ArrayList<>();
     private final Paint boxPaint;
     private final Paint dotPaint;
 
+    private final Choreographer choreographer;
+
+    /* ---------------- PRODUCER SIDE (guarded by bufferLock) ---------------- */
+
+    private final Object bufferLock = new Object();
+    private float[] backBuffer = new float[MAX_BOXES * 4];
+    private int backCount = 0;
+    private int backSourceW = 0;
+    private int backSourceH = 0;
+    private boolean backMirrored = false;
+    private boolean backDirty = false;
+    private boolean frameScheduled = false;
+
+    /* ---------------- UI THREAD ONLY ---------------- */
+
+    private float[] frontBuffer = new float[MAX_BOXES * 4];
+    private int frontCount = 0;
+
+    // Target boxes in view coordinates
+    private final float[] targets = new float[MAX_BOXES * 4];
+    private int targetCount = 0;
+
+    // Boxes currently drawn (gliding towards targets)
+    private final float[] drawn = new float[MAX_BOXES * 4];
+    private final float[] previous = new float[MAX_BOXES * 4];
+    private final boolean[] taken = new boolean[MAX_BOXES];
+    private int drawnCount = 0;
+
+    // Cached transform (normalized → view)
+    private final Matrix transform = new Matrix();
+    private int transformSourceW = -1;
+    private int transformSourceH = -1;
+    private boolean transformMirrored = false;
+    private boolean transformDirty = true;
+    private final float[] corners = new float[4];
+
     public BoundingBoxOverlay(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
 
@@ -37,26 +99,275 @@ public class BoundingBoxOverlay extends View {
         dotPaint.setColor(Color.RED);
         dotPaint.setStyle(Paint.Style.FILL);
         dotPaint.setAntiAlias(true);
+
+        // Views are inflated on the main thread → main Choreographer
+        choreographer = Choreographer.getInstance();
+    }
+
+    /* =========================================================
+       PRODUCER API (ANY THREAD)
+       ========================================================= */
+
+    /**
+     * Publishes the latest detections.
+     *
+     * @param normBoxes normalized boxes, 4 floats each (copied; caller may reuse)
+     * @param count     number of boxes (clamped to MAX_BOXES)
+     * @param sourceW   width of the analysed frame
+     * @param sourceH   height of the analysed frame
+     * @param mirrored  true for front / external lenses
+     */
+    public void submitBoxes(@NonNull float[] normBoxes,
+                            int count,
+                            int sourceW,
+                            int sourceH,
+                            boolean mirrored) {
+
+        int n = Math.max(0, Math.min(count, Math.min(MAX_BOXES, normBoxes.length / 4)));
+
+        synchronized (bufferLock) {
+            System.arraycopy(normBoxes, 0, backBuffer, 0, n * 4);
+            backCount = n;
+            backSourceW = sourceW;
+            backSourceH = sourceH;
+            backMirrored = mirrored;
+            backDirty = true;
+            scheduleFrameLocked();
+        }
+    }
+
+    /**
+     * Removes every box on the next vsync.
+     */
+    public void clearBoxes() {
+        synchronized (bufferLock) {
+            backCount = 0;
+            backDirty = true;
+            scheduleFrameLocked();
+        }
+    }
+
+    private void scheduleFrameLocked() {
+        if (frameScheduled) return;
+        frameScheduled = true;
+        // Thread-safe: posts to the main looper
+        choreographer.postFrameCallback(this);
+    }
+
+    /* =========================================================
+       VSYNC (UI THREAD)
+       ========================================================= */
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        boolean fresh;
+        int sourceW;
+        int sourceH;
+        boolean mirrored;
+
+        synchronized (bufferLock) {
+            frameScheduled = false;
+            fresh = backDirty;
+            if (fresh) {
+                // Swap buffers (no copy)
+                float[] tmp = frontBuffer;
+                frontBuffer = backBuffer;
+                backBuffer = tmp;
+                frontCount = backCount;
+                backDirty = false;
+            }
+            sourceW = backSourceW;
+            sourceH = backSourceH;
+            mirrored = backMirrored;
+        }
+
+        if (fresh) {
+            updateTransform(sourceW, sourceH, mirrored);
+            mapTargets();
+            matchDrawnToTargets();
+        }
+
+        boolean moving = glide();
+
+        if (fresh || moving) {
+            invalidate();
+        }
+        if (moving) {
+            synchronized (bufferLock) {
+                scheduleFrameLocked();
+            }
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        transformDirty = true;
+
+        // Re-map current boxes with the new layout (unless newer ones are pending)
+        synchronized (bufferLock) {
+            if (!backDirty) {
+                System.arraycopy(frontBuffer, 0, backBuffer, 0, frontCount * 4);
+                backCount = frontCount;
+                backDirty = true;
+            }
+            scheduleFrameLocked();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        choreographer.removeFrameCallback(this);
+        synchronized (bufferLock) {
+            frameScheduled = false;
+        }
+        super.onDetachedFromWindow();
     }
 
+    /* =========================================================
+       MAPPING
+       ========================================================= */
+
     /**
-     * Updates the boxes to be drawn.
-     * Coordinates should be already mapped to this view's dimensions.
+     * FILL_CENTER mapping of the normalized frame onto this view.
+     * Recomputed only on layout / source / lens change.
      */
-    public void setBoxes(List<RectF> boxes) {
-        this.boxes = boxes != null ? boxes : new ArrayList<>();
-        invalidate();
+    private void updateTransform(int sourceW, int sourceH, boolean mirrored) {
+        if (!transformDirty
+                && sourceW == transformSourceW
+                && sourceH == transformSourceH
+                && mirrored == transformMirrored) {
+            return;
+        }
+
+        float viewW = getWidth();
+        float viewH = getHeight();
+        transform.reset();
+
+        if (viewW > 0 && viewH > 0 && sourceW > 0 && sourceH > 0) {
+            // 🚀 CALCULATE FILL_CENTER SCALE
+            float scale = Math.max(viewW / sourceW, viewH / sourceH);
+            float scaledW = sourceW * scale;
+            float scaledH = sourceH * scale;
+
+            // 🚀 CALCULATE OFFSETS (Centering)
+            transform.setScale(scaledW, scaledH);
+            transform.postTranslate(-(scaledW - viewW) / 2f, -(scaledH - viewH) / 2f);
+
+            // 🚀 MIRRORING (front / external lenses)
+            if (mirrored) {
+                transform.postScale(-1f, 1f, viewW / 2f, 0f);
+            }
+        }
+
+        transformSourceW = sourceW;
+        transformSourceH = sourceH;
+        transformMirrored = mirrored;
+        transformDirty = false;
     }
 
+    private void mapTargets() {
+        targetCount = frontCount;
+        for (int i = 0; i < frontCount; i++) {
+            int o = i * 4;
+            corners[0] = frontBuffer[o];
+            corners[1] = frontBuffer[o + 1];
+            corners[2] = frontBuffer[o + 2];
+            corners[3] = frontBuffer[o + 3];
+            transform.mapPoints(corners);
+
+            // Mirroring swaps left/right
+            targets[o] = Math.min(corners[0], corners[2]);
+            targets[o + 1] = Math.min(corners[1], corners[3]);
+            targets[o + 2] = Math.max(corners[0], corners[2]);
+            targets[o + 3] = Math.max(corners[1], corners[3]);
+        }
+    }
+
+    /* =========================================================
+       INTERPOLATION
+       ========================================================= */
+
+    /**
+     * Reorders drawn boxes so drawn[i] is the previous box closest to
+     * targets[i] (greedy by center distance). Unmatched targets snap.
+     */
+    private void matchDrawnToTargets() {
+        int prevCount = drawnCount;
+        System.arraycopy(drawn, 0, previous, 0, prevCount * 4);
+        for (int j = 0; j < prevCount; j++) taken[j] = false;
+
+        float maxDist = MAX_GLIDE_DISTANCE * (float) Math.hypot(getWidth(), getHeight());
+        float maxDistSq = maxDist * maxDist;
+
+        for (int i = 0; i < targetCount; i++) {
+            int o = i * 4;
+            float cx = (targets[o] + targets[o + 2]) / 2f;
+            float cy = (targets[o + 1] + targets[o + 3]) / 2f;
+
+            int best = -1;
+            float bestDistSq = maxDistSq;
+            for (int j = 0; j < prevCount; j++) {
+                if (taken[j]) continue;
+                int p = j * 4;
+                float dx = (previous[p] + previous[p + 2]) / 2f - cx;
+                float dy = (previous[p + 1] + previous[p + 3]) / 2f - cy;
+                float distSq = dx * dx + dy * dy;
+                if (distSq <= bestDistSq) {
+                    best = j;
+                    bestDistSq = distSq;
+                }
+            }
+
+            if (best >= 0) {
+                taken[best] = true;
+                System.arraycopy(previous, best * 4, drawn, o, 4);
+            } else {
+                System.arraycopy(targets, o, drawn, o, 4);
+            }
+        }
+        drawnCount = targetCount;
+    }
+
+    /**
+     * Moves every drawn box one step towards its target.
+     *
+     * @return true if any box is still moving
+     */
+    private boolean glide() {
+        boolean moving = false;
+        int n = drawnCount * 4;
+        for (int i = 0; i < n; i++) {
+            float delta = targets[i] - drawn[i];
+            if (Math.abs(delta) > SETTLE_EPSILON_PX) {
+                drawn[i] += delta * SMOOTHING;
+                moving = true;
+            } else {
+                drawn[i] = targets[i];
+            }
+        }
+        return moving;
+    }
+
+    /* =========================================================
+       DRAW
+       ========================================================= */
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        for (RectF box : boxes) {
-            canvas.drawRect(box, boxPaint);
-            
+        for (int i = 0; i < drawnCount; i++) {
+            int o = i * 4;
+            float left = drawn[o];
+            float top = drawn[o + 1];
+            float right = drawn[o + 2];
+            float bottom = drawn[o + 3];
+
+            canvas.drawRect(left, top, right, bottom, boxPaint);
+
             // 🚀 DEBUG: Draw a small red dot in the center to verify alignment
-            canvas.drawCircle(box.centerX(), box.centerY(), 10f, dotPaint);
+            canvas.drawCircle((left + right) / 2f, (top + bottom) / 2f, 10f, dotPaint);
         }
     }
 }
@@ -6,12 +6,14 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.pm.ActivityInfo;
 import android.content.pm.PackageManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 import android.view.KeyEvent;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.EditText;
 import android.widget.SeekBar;
@@ -26,36 +28,43 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.camera.view.PreviewView;
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.Lifecycle;
 
 import com.agrovision.kiosk.R;
+import com.agrovision.kiosk.analytics.DebugOverlay;
+import com.agrovision.kiosk.analytics.PerformanceLogger;
+import com.agrovision.kiosk.analytics.ScanHistoryRecorder;
+import com.agrovision.kiosk.analytics.events.MvpEvent;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.analytics.trace.ScanTracer;
 import com.agrovision.kiosk.camera.CameraController;
 import com.agrovision.kiosk.camera.ScanResultCallback;
+import com.agrovision.kiosk.data.database.entity.SuccessfulScanEntity;
 import com.agrovision.kiosk.pipeline.RecognitionPipelineOrchestrator;
 import com.agrovision.kiosk.state.AppState;
 import com.agrovision.kiosk.state.StateEvent;
 import com.agrovision.kiosk.state.StateMachine;
 import com.agrovision.kiosk.state.StateObserver;
+import com.agrovision.kiosk.sync.ScanCountAggregator;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
 import com.agrovision.kiosk.ui.ad.AdActivity;
-import com.agrovision.kiosk.ui.ad.AdManager;
 import com.agrovision.kiosk.ui.result.ResultActivity;
 import com.agrovision.kiosk.ui.result.UnknownActivity;
+import com.agrovision.kiosk.app.StartupOrchestrator;
 import com.agrovision.kiosk.app.UpdateManager;
 import com.agrovision.kiosk.ui.result.model.ResultType;
 import com.agrovision.kiosk.ui.result.model.ScanResult;
 import com.agrovision.kiosk.util.AudioCacheManager;
 import com.agrovision.kiosk.util.LogUtils;
 import com.agrovision.kiosk.util.SoundManager;
-import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * HomeActivity
@@ -66,9 +75,17 @@ import java.util.Map;
 public final class HomeActivity extends AppCompatActivity
         implements StateObserver, ScanResultCallback {
 
+    /**
+     * Benchmark hook (:benchmark module): catalog text resolved exactly like
+     * an OCR result. Honoured on shell-profileable builds only (benchmark
+     * variants), never on production releases.
+     */
+    public static final String EXTRA_BENCHMARK_SCAN_TEXT = "benchmark_scan_text";
+
     private StateMachine stateMachine;
-    private CameraController cameraController;
-    private RecognitionPipelineOrchestrator pipeline;
+    // Bound when their startup tasks land (read from the OCR thread too)
+    private volatile CameraController cameraController;
+    private volatile RecognitionPipelineOrchestrator pipeline;
 
     private PreviewView cameraPreview;
     private BoundingBoxOverlay overlayView;
@@ -102,6 +119,10 @@ public final class HomeActivity extends AppCompatActivity
     private static final String KEY_SUCCESSFUL_AD_COUNT = "successful_ad_count";
     private static final String KEY_LAST_DATE = "last_date";
 
+    // Performance HUD (kiosk_settings)
+    private static final String KEY_DEBUG_HUD = "debug_hud";
+    private DebugOverlay debugOverlay;
+
     // 🚀 Idle Ad Timer
     private final Handler idleHandler = new Handler(Looper.getMainLooper());
     private static final long IDLE_THRESHOLD_MS = 30_000; // 30 seconds
@@ -142,17 +163,30 @@ public final class HomeActivity extends AppCompatActivity
         // Camera starts in onResume
         displayCurrentScanCount();
 
-        // 🚀 Initialize Ad Preloading
-        AdManager.getInstance(this);
+        // 🚀 STEP 3: Ads preload and OTA check wait for the first frame
+        StartupOrchestrator startup = StartupOrchestrator.getInstance();
+        startup.watchFirstFrame(getWindow().getDecorView());
+        startup.afterFirstFrame(() -> {
+            if (!isDestroyed()) new UpdateManager(this).checkForUpdates();
+        });
+
+        handleBenchmarkScan(getIntent());
+    }
 
-        // 🚀 STEP 3: Check for OTA updates
-        new UpdateManager(this).checkForUpdates();
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        setIntent(intent);
+        handleBenchmarkScan(intent);
     }
 
     @Override
     protected void onStart() {
         super.onStart();
         stateMachine.addObserver(this);
+        if (getSharedPreferences("kiosk_settings", MODE_PRIVATE).getBoolean(KEY_DEBUG_HUD, false)) {
+            setDebugHudVisible(true);
+        }
     }
 
     @Override
@@ -160,6 +194,9 @@ public final class HomeActivity extends AppCompatActivity
         super.onStop();
         stateMachine.removeObserver(this);
         stopIdleTimer(); // Prevent leaks
+        if (debugOverlay != null) debugOverlay.stop();
+        ScanHistoryRecorder.getInstance(this).flushNow();
+        ScanCountAggregator.getInstance(this).flushNow();
     }
 
     @Override
@@ -169,15 +206,9 @@ public final class HomeActivity extends AppCompatActivity
         
         // 🚀 Unlock scanning when returning to Home
         isScanLocked = false;
-        
-        // 🚀 ENSURE DETECTION IS RESUMED after ads or result screens
-        cameraController.setDetectionEnabled(true);
-        
-        // 🚀 CRITICAL FIX: Reset the pipeline lock to prevent deadlocks from previous activities
-        cameraController.resetPipeline();
-        
-        // 🚀 RE-BIND CAMERA: Check permissions first
-        checkCameraPermission();
+
+        // Cold start: camera resumes in onVisionReady instead
+        if (cameraController != null) resumeCamera();
         resetIdleTimer();
 
         // Hide progress if it was left visible
@@ -186,6 +217,17 @@ public final class HomeActivity extends AppCompatActivity
         }
     }
 
+    private void resumeCamera() {
+        // 🚀 ENSURE DETECTION IS RESUMED after ads or result screens
+        cameraController.setDetectionEnabled(true);
+
+        // 🚀 CRITICAL FIX: Reset the pipeline lock to prevent deadlocks from previous activities
+        cameraController.resetPipeline();
+
+        // 🚀 RE-BIND CAMERA: Check permissions first
+        checkCameraPermission();
+    }
+
     private void checkCameraPermission() {
         if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA)
                 == PackageManager.PERMISSION_GRANTED) {
@@ -209,6 +251,30 @@ public final class HomeActivity extends AppCompatActivity
         progressScanner = findViewById(R.id.progressScanner);
 
         findViewById(R.id.btnSettings).setOnClickListener(v -> showSettingsDialog());
+        // Field engineers: long-press toggles the performance HUD
+        findViewById(R.id.btnSettings).setOnLongClickListener(v -> {
+            boolean enable = debugOverlay == null;
+            getSharedPreferences("kiosk_settings", MODE_PRIVATE).edit()
+                    .putBoolean(KEY_DEBUG_HUD, enable)
+                    .apply();
+            setDebugHudVisible(enable);
+            return true;
+        });
+    }
+
+    private void setDebugHudVisible(boolean visible) {
+        ViewGroup root = findViewById(android.R.id.content);
+        if (visible) {
+            if (debugOverlay == null) {
+                debugOverlay = new DebugOverlay(this);
+                root.addView(debugOverlay.getView());
+            }
+            debugOverlay.start();
+        } else if (debugOverlay != null) {
+            debugOverlay.stop();
+            root.removeView(debugOverlay.getView());
+            debugOverlay = null;
+        }
     }
 
     private void showSettingsDialog() {
@@ -247,25 +313,75 @@ public final class HomeActivity extends AppCompatActivity
                             .apply();
                 })
                 .setNegativeButton("रद्द करा (Cancel)", null)
+                .setNeutralButton("Export traces", (dialog, which) -> exportScanTraces())
                 .show();
     }
 
+    /**
+     * Dumps the recent scan spans (Perfetto / chrome://tracing JSON)
+     * for field diagnosis of slow scans.
+     */
+    private void exportScanTraces() {
+        TaskScheduler.submit(Lane.IO, () -> {
+            String message;
+            try {
+                message = "Trace saved: " + ScanTracer.getInstance().export(getApplicationContext()).getName();
+            } catch (Exception e) {
+                LogUtils.e("Scan trace export failed", e);
+                message = "Trace export failed";
+            }
+            String toast = message;
+            runOnUiThread(() -> Toast.makeText(this, toast, Toast.LENGTH_LONG).show());
+        });
+    }
+
     private void initDependencies() {
         stateMachine = StateMachine.getInstance(getApplicationContext());
-        
+
+        // 🚀 Catalog and vision initialize off the main thread (StartupOrchestrator);
+        // after a restart they are usually still running when we get here
+        StartupOrchestrator startup = StartupOrchestrator.getInstance();
+        startup.whenReady(StartupOrchestrator.TASK_CATALOG,
+                () -> pipeline = new RecognitionPipelineOrchestrator(getApplicationContext()));
+        startup.whenReady(StartupOrchestrator.TASK_VISION, this::onVisionReady);
+    }
+
+    private void onVisionReady() {
+        if (isDestroyed()) return;
+
         // Setup CameraController
         cameraController = CameraController.getInstance(getApplicationContext());
         cameraController.setScanResultCallback(this);
         cameraController.setOverlayView(overlayView);
 
-        // Initialize Orchestrator
-        pipeline = new RecognitionPipelineOrchestrator(getApplicationContext());
+        if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.RESUMED)) {
+            resumeCamera();
+        }
+    }
+
+    /**
+     * Feeds EXTRA_BENCHMARK_SCAN_TEXT into onScanCompleted on the OCR lane,
+     * once the camera and the catalog are bound (same path as a camera scan
+     * from resolution onwards).
+     */
+    private void handleBenchmarkScan(@Nullable Intent intent) {
+        String text = intent != null ? intent.getStringExtra(EXTRA_BENCHMARK_SCAN_TEXT) : null;
+        if (text == null) return;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q
+                || !getApplicationInfo().isProfileableByShell()) {
+            LogUtils.w("Benchmark scan ignored: build is not profileable");
+            return;
+        }
 
-        // 🚀 Preload Sounds
-        SoundManager.getInstance(this);
+        StartupOrchestrator startup = StartupOrchestrator.getInstance();
+        startup.whenReady(StartupOrchestrator.TASK_VISION, () ->
+                startup.whenReady(StartupOrchestrator.TASK_CATALOG, () ->
+                        TaskScheduler.submit(Lane.OCR, () -> onScanCompleted(
+                                Collections.singletonList(text), ScanTracer.getInstance().newScan()))));
     }
 
     private void startCamera() {
+        if (cameraController == null) return; // Bound in onVisionReady
         cameraController.setScanResultCallback(this);
         cameraController.setOverlayView(overlayView);
         cameraController.startCamera(
@@ -304,13 +420,17 @@ public final class HomeActivity extends AppCompatActivity
     }
 
     private void handleBarcodeScan(String rawInput) {
+        if (pipeline == null) {
+            LogUtils.w("Barcode ignored: catalog still loading");
+            return;
+        }
         synchronized (this) {
             if (isScanLocked) return;
             isScanLocked = true;
         }
         
         // 🚀 STOP CAMERA PROCESSING
-        cameraController.resetPipeline();
+        if (cameraController != null) cameraController.resetPipeline();
         resetIdleTimer();
         
         // 🚀 SHOW PROGRESS UI
@@ -321,14 +441,22 @@ public final class HomeActivity extends AppCompatActivity
         });
 
         // 🚀 ORCHESTRATE BARCODE SCAN
+        ScanTracer tracer = ScanTracer.getInstance();
+        long scanId = tracer.newScan();
+        long barcodeStart = tracer.begin(PipelineStage.MATCH);
         pipeline.handleBarcodeScan(rawInput, new RecognitionPipelineOrchestrator.BarcodeCallback() {
             @Override
             public void onResult(List<ScanResult> results) {
+                long matchNanos = tracer.end(PipelineStage.MATCH, scanId, barcodeStart, outcomeOf(results));
+                PerformanceLogger.getInstance().recordNanos(PipelineStage.MATCH, matchNanos);
+                if (results.isEmpty()) tracer.endScan(scanId, ScanTracer.Outcome.EMPTY);
+                ScanHistoryRecorder.getInstance(HomeActivity.this).record(results,
+                        SuccessfulScanEntity.SOURCE_BARCODE, scanId, matchNanos / 1_000_000L);
                 runOnUiThread(() -> {
                     if (progressScanner != null) progressScanner.setVisibility(View.GONE);
                     if (!results.isEmpty()) {
                         lastScanTime = System.currentTimeMillis();
-                        cameraController.setDetectionEnabled(false);
+                        if (cameraController != null) cameraController.setDetectionEnabled(false);
                         
                         boolean hasKnown = false;
                         for (ScanResult r : results) {
@@ -339,7 +467,7 @@ public final class HomeActivity extends AppCompatActivity
                         }
                         incrementScanCount(hasKnown);
                         
-                        launchResultScreen(results);
+                        launchResultScreen(results, scanId);
                     } else {
                         synchronized (HomeActivity.this) {
                             isScanLocked = false;
@@ -350,10 +478,12 @@ public final class HomeActivity extends AppCompatActivity
 
             @Override
             public void onUnknown(String scrapedName, String rawCode) {
+                tracer.end(PipelineStage.MATCH, scanId, barcodeStart, ScanTracer.Outcome.UNKNOWN);
+                tracer.endScan(scanId, ScanTracer.Outcome.UNKNOWN);
                 runOnUiThread(() -> {
                     if (progressScanner != null) progressScanner.setVisibility(View.GONE);
                     lastScanTime = System.currentTimeMillis();
-                    cameraController.setDetectionEnabled(false);
+                    if (cameraController != null) cameraController.setDetectionEnabled(false);
 
                     // 🚀 Play Error Sound
                     SoundManager.getInstance(HomeActivity.this).playError();
@@ -368,6 +498,8 @@ public final class HomeActivity extends AppCompatActivity
 
             @Override
             public void onFailure() {
+                tracer.end(PipelineStage.MATCH, scanId, barcodeStart, ScanTracer.Outcome.FAILED);
+                tracer.endScan(scanId, ScanTracer.Outcome.FAILED);
                 runOnUiThread(() -> {
                     if (progressScanner != null) progressScanner.setVisibility(View.GONE);
                     synchronized (HomeActivity.this) {
@@ -379,23 +511,23 @@ public final class HomeActivity extends AppCompatActivity
     }
 
     @Override
-    public void onScanCompleted(List<String> normalizedTexts) {
-        Log.d("PIPELINE_TRACE", "8. onScanCompleted triggered in HomeActivity. Items: " + (normalizedTexts != null ? normalizedTexts.size() : 0));
+    public void onScanCompleted(List<String> normalizedTexts, long scanId) {
+        // Vision can be ready before the catalog on a cold start
+        if (pipeline == null) {
+            return;
+        }
 
         // 🚀 ATOMIC LOCK CHECK & DEBOUNCE (Fix for double-triggering)
         synchronized (this) {
             if (isScanLocked) {
-                Log.d("PIPELINE_TRACE", "8. Skipped: Scanner is already locked");
                 return;
             }
 
             long now = System.currentTimeMillis();
             if (now - lastScanTime < 2500) { // 🚀 Increased debounce to 2.5s for stability
-                Log.d("PIPELINE_TRACE", "8. Skipped: Debounce active (" + (now - lastScanTime) + "ms)");
                 return;
             }
 
-            Log.i("PIPELINE_TRACE", "8. 🟢 Scan Lock ACQUIRED");
             isScanLocked = true;
         }
 
@@ -407,23 +539,28 @@ public final class HomeActivity extends AppCompatActivity
 
         // If we were in IDLE state, transition to READY first (UI wake up)
         if (stateMachine.getCurrentState() == AppState.IDLE) {
-            Log.i("PIPELINE_TRACE", "8. Waking up from IDLE");
             stateMachine.transition(StateEvent.ACTIVITY_DETECTED);
         }
 
         // 🚀 PERFORM HEAVY RESOLUTION ON BACKGROUND THREAD
-        Log.d("PIPELINE_TRACE", "9. Resolving medicines on background thread...");
+        ScanTracer tracer = ScanTracer.getInstance();
+        long resolveStart = tracer.begin(PipelineStage.MATCH);
         List<ScanResult> results = pipeline.resolve(normalizedTexts);
+        long matchNanos = tracer.end(PipelineStage.MATCH, scanId, resolveStart, outcomeOf(results));
+        PerformanceLogger.getInstance().recordNanos(PipelineStage.MATCH, matchNanos);
+        long matchMs = matchNanos / 1_000_000L;
 
         if (results == null || results.isEmpty()) {
             LogUtils.w("No scan results produced");
-            Log.d("PIPELINE_TRACE", "9. Resolve returned empty list. UNLOCKING.");
+            tracer.endScan(scanId, ScanTracer.Outcome.EMPTY);
             synchronized (this) {
                 isScanLocked = false;
             }
             return;
         }
 
+        ScanHistoryRecorder.getInstance(this).record(results, SuccessfulScanEntity.SOURCE_CAMERA, scanId, matchMs);
+
         runOnUiThread(() -> {
             // Update timestamp only after successful resolution to start debounce period
             lastScanTime = System.currentTimeMillis();
@@ -441,8 +578,6 @@ public final class HomeActivity extends AppCompatActivity
                 }
             }
 
-            Log.i("PIPELINE_TRACE", "10. Launching Result screen. Count: " + results.size());
-            
             boolean hasKnown = false;
             for (ScanResult r : results) {
                 if (r.resultType == ResultType.KNOWN) {
@@ -452,16 +587,27 @@ public final class HomeActivity extends AppCompatActivity
             }
             incrementScanCount(hasKnown);
             
-            launchResultScreen(results);
+            launchResultScreen(results, scanId);
         });
     }
 
-    private void launchResultScreen(List<ScanResult> results) {
+    private static ScanTracer.Outcome outcomeOf(List<ScanResult> results) {
+        if (results == null || results.isEmpty()) return ScanTracer.Outcome.EMPTY;
+        for (ScanResult r : results) {
+            if (r.resultType == ResultType.KNOWN) return ScanTracer.Outcome.OK;
+        }
+        return ScanTracer.Outcome.UNKNOWN;
+    }
+
+    private void launchResultScreen(List<ScanResult> results, long scanId) {
         Intent intent = new Intent(this, ResultActivity.class);
         intent.putParcelableArrayListExtra(
                 ResultActivity.EXTRA_SCAN_RESULTS,
                 new ArrayList<>(results)
         );
+        // LAUNCH span is closed by ResultActivity once the first result is shown
+        intent.putExtra(ScanTracer.EXTRA_SCAN_ID, scanId);
+        intent.putExtra(ScanTracer.EXTRA_LAUNCH_START, ScanTracer.getInstance().begin(PipelineStage.LAUNCH));
 
         startActivity(intent);
         overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
@@ -476,7 +622,10 @@ public final class HomeActivity extends AppCompatActivity
             SoundManager.getInstance(this).playError();
         }
 
-        Log.d("PIPELINE_TRACE", "11. State transition. hasKnown: " + hasKnown);
+        boolean lowConfidence = results.stream().anyMatch(r -> r.isConfidenceLow);
+        if (hasKnown) stateMachine.report(MvpEvent.MATCH_SUCCESS);
+        if (lowConfidence) stateMachine.report(MvpEvent.MATCH_CONFIDENCE_LOW);
+
         if (hasKnown) {
             stateMachine.transition(StateEvent.MATCH_FOUND);
         } else {
@@ -525,10 +674,13 @@ public final class HomeActivity extends AppCompatActivity
         String lastDate = prefs.getString(KEY_LAST_DATE, "");
 
         int currentCount = prefs.getInt(KEY_SCAN_COUNT, 0);
+        ScanCountAggregator counter = ScanCountAggregator.getInstance(this);
 
         if (today.equals(lastDate)) {
             currentCount++;
         } else {
+            // Day rollover: the local total of the finished day is authoritative
+            if (!lastDate.isEmpty()) counter.closeDay(lastDate, currentCount);
             currentCount = 1;
         }
 
@@ -546,40 +698,8 @@ public final class HomeActivity extends AppCompatActivity
 
         displayCurrentScanCount();
 
-        // 🚀 Sync to Firebase in background
-        syncScanCountToFirebase(today);
-    }
-
-    private void syncScanCountToFirebase(String today) {
-        String shopId = getSharedPreferences("kiosk_settings", MODE_PRIVATE)
-                .getString("shop_mobile", "910000000000");
-
-        // Use top-level collection for easier dashboard aggregation
-        String docId = shopId + "_" + today;
-        DocumentReference docRef = FirebaseFirestore.getInstance()
-                .collection("daily_scans")
-                .document(docId);
-
-        docRef.get().addOnSuccessListener(document -> {
-            if (document.exists()) {
-                Long current = document.getLong("scanCount");
-                long newCount = (current != null ? current : 0) + 1;
-                docRef.update("scanCount", newCount,
-                        "lastUpdated", FieldValue.serverTimestamp(),
-                        "shopId", shopId,
-                        "date", today)
-                        .addOnFailureListener(e -> LogUtils.e("Firebase scan update failed", e));
-            } else {
-                Map<String, Object> data = new HashMap<>();
-                data.put("scanCount", 1);
-                data.put("lastUpdated", FieldValue.serverTimestamp());
-                data.put("shopId", shopId);
-                data.put("date", today);
-
-                docRef.set(data)
-                        .addOnFailureListener(e -> LogUtils.e("Firebase scan set failed", e));
-            }
-        }).addOnFailureListener(e -> LogUtils.e("Firebase scan fetch failed", e));
+        // 🚀 Batched FieldValue.increment() sync (no read-modify-write per scan)
+        counter.increment(today);
     }
 
     private void displayCurrentScanCount() {
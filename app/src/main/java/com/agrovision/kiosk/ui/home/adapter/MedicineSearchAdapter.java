@@ -5,17 +5,48 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.agrovision.kiosk.R;
-import java.util.ArrayList;
-import java.util.List;
+import com.agrovision.kiosk.data.model.Medicine;
+import com.agrovision.kiosk.data.search.SearchHit;
 
-public class MedicineSearchAdapter extends RecyclerView.Adapter<MedicineSearchAdapter.ViewHolder> {
-    private List<String> items = new ArrayList<>();
+import java.util.Objects;
 
-    public void setItems(List<String> newItems) {
-        this.items = newItems;
-        notifyDataSetChanged();
+/**
+ * MedicineSearchAdapter
+ *
+ * Type-ahead results (see MedicineSearchService).
+ * ListAdapter: each keystroke diffs against the previous list on a
+ * background thread and only changed rows are rebound.
+ */
+public class MedicineSearchAdapter extends ListAdapter<SearchHit, MedicineSearchAdapter.ViewHolder> {
+
+    public interface OnMedicineClickListener {
+        void onMedicineClick(@NonNull Medicine medicine);
+    }
+
+    private static final DiffUtil.ItemCallback<SearchHit> DIFF = new DiffUtil.ItemCallback<SearchHit>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SearchHit oldItem, @NonNull SearchHit newItem) {
+            return Objects.equals(oldItem.getMedicine().getId(), newItem.getMedicine().getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SearchHit oldItem, @NonNull SearchHit newItem) {
+            // Only the name is displayed
+            return Objects.equals(oldItem.getMedicine().getName(), newItem.getMedicine().getName());
+        }
+    };
+
+    @Nullable
+    private final OnMedicineClickListener clickListener;
+
+    public MedicineSearchAdapter(@Nullable OnMedicineClickListener clickListener) {
+        super(DIFF);
+        this.clickListener = clickListener;
     }
 
     @NonNull
@@ -27,12 +58,11 @@ public class MedicineSearchAdapter extends RecyclerView.Adapter<MedicineSearchAd
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        holder.tvName.setText(items.get(position));
-    }
-
-    @Override
-    public int getItemCount() {
-        return items.size();
+        Medicine medicine = getItem(position).getMedicine();
+        holder.tvName.setText(medicine.getName());
+        holder.itemView.setOnClickListener(v -> {
+            if (clickListener != null) clickListener.onMedicineClick(medicine);
+        });
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -20,6 +20,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 
 import com.agrovision.kiosk.R;
+import com.agrovision.kiosk.analytics.PerformanceLogger;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.analytics.trace.ScanTracer;
 import com.agrovision.kiosk.camera.CameraController;
 import com.agrovision.kiosk.state.AppState;
 import com.agrovision.kiosk.state.StateEvent;
@@ -84,6 +87,12 @@ public final class ResultActivity extends AppCompatActivity
     private boolean isAudioPlaying = false;
     private int lastPlayedIndex = -1;
 
+    // Trace spans of the scan that opened this screen (0 start = closed)
+    private final ScanTracer tracer = ScanTracer.getInstance();
+    private long scanId = ScanTracer.NO_SCAN;
+    private long launchSpanStart = 0;
+    private long audioSpanStart = 0;
+
     private final Runnable autoRotateRunnable = () -> {
         LogUtils.d("Timer triggered: automatically showing next result");
         showNextResult();
@@ -124,12 +133,14 @@ public final class ResultActivity extends AppCompatActivity
 
         if (scanResults == null || scanResults.isEmpty()) {
             LogUtils.i("No results available for navigation");
+            closeLaunchSpan(ScanTracer.Outcome.EMPTY);
             returnToScan();
             return;
         }
 
         setupControls();
         renderCurrent();
+        closeLaunchSpan(ScanTracer.Outcome.OK);
     }
 
     @Override
@@ -194,6 +205,35 @@ public final class ResultActivity extends AppCompatActivity
 
     private void loadResults() {
         scanResults = getIntent().getParcelableArrayListExtra(EXTRA_SCAN_RESULTS);
+        scanId = getIntent().getLongExtra(ScanTracer.EXTRA_SCAN_ID, ScanTracer.NO_SCAN);
+        launchSpanStart = getIntent().getLongExtra(ScanTracer.EXTRA_LAUNCH_START, 0);
+    }
+
+    /* =========================================================
+       SCAN TRACE
+       ========================================================= */
+
+    /**
+     * First result on screen: closes LAUNCH and the scan, opens AUDIO.
+     */
+    private void closeLaunchSpan(ScanTracer.Outcome outcome) {
+        if (launchSpanStart == 0) return;
+        PerformanceLogger.getInstance().recordNanos(PipelineStage.LAUNCH,
+                tracer.end(PipelineStage.LAUNCH, scanId, launchSpanStart, outcome));
+        tracer.endScan(scanId, outcome);
+        launchSpanStart = 0;
+        if (outcome == ScanTracer.Outcome.OK) {
+            audioSpanStart = tracer.begin(PipelineStage.AUDIO);
+        }
+    }
+
+    private void closeAudioSpan(ScanTracer.Outcome outcome) {
+        if (audioSpanStart == 0) return;
+        long nanos = tracer.end(PipelineStage.AUDIO, scanId, audioSpanStart, outcome);
+        if (outcome == ScanTracer.Outcome.OK) {
+            PerformanceLogger.getInstance().recordNanos(PipelineStage.AUDIO, nanos);
+        }
+        audioSpanStart = 0;
     }
 
     private void returnToScan() {
@@ -538,6 +578,7 @@ public final class ResultActivity extends AppCompatActivity
             mediaPlayer.setOnPreparedListener(mp -> {
                 Log.d("AUDIO", "playback started");
                 mp.start();
+                closeAudioSpan(ScanTracer.Outcome.OK);
             });
 
             mediaPlayer.setOnErrorListener((mp, what, extra) -> {
@@ -612,6 +653,8 @@ public final class ResultActivity extends AppCompatActivity
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        // No audio (muted / none / failed) before leaving
+        closeAudioSpan(ScanTracer.Outcome.CANCELLED);
         stopTimer();
         stopImageRotation();
         stopAudio();
@@ -7,11 +7,14 @@ import android.widget.TextView;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 
+import com.agrovision.kiosk.analytics.PerformanceLogger;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
 import com.agrovision.kiosk.ui.result.adapter.ResultImageAdapter;
 import com.agrovision.kiosk.ui.result.adapter.ResultInfoAdapter;
 import com.agrovision.kiosk.ui.result.model.ResultInfoItem;
 import com.agrovision.kiosk.ui.result.model.ResultType;
 import com.agrovision.kiosk.ui.result.model.ScanResult;
+import com.agrovision.kiosk.util.TimeUtils;
 
 import java.util.List;
 
@@ -64,12 +67,15 @@ public final class ResultRenderer {
      * Render ONE ScanResult.
      */
     public void render(ScanResult result) {
+        long start = TimeUtils.nowNano();
 
         if (result.resultType == ResultType.UNKNOWN) {
             renderUnknown(result);
         } else {
             renderKnown(result);
         }
+
+        PerformanceLogger.getInstance().record(PipelineStage.RENDER, start);
     }
 
     /* =========================================================
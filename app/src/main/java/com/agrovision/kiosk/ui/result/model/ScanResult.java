@@ -27,6 +27,9 @@ public final class ScanResult implements Parcelable {
     public final String rawOcrText;
     public final boolean isConfidenceLow;
 
+    // Match confidence 0..1 (0 for UNKNOWN)
+    public final float confidence;
+
     public ScanResult(
             ResultType resultType,
             String medicineId,
@@ -35,7 +38,8 @@ public final class ScanResult implements Parcelable {
             List<String> audioUrls,
             List<ResultInfoItem> infoItems,
             String rawOcrText,
-            boolean isConfidenceLow
+            boolean isConfidenceLow,
+            float confidence
     ) {
         this.resultType = resultType;
         this.medicineId = medicineId;
@@ -45,6 +49,7 @@ public final class ScanResult implements Parcelable {
         this.infoItems = infoItems;
         this.rawOcrText = rawOcrText;
         this.isConfidenceLow = isConfidenceLow;
+        this.confidence = confidence;
     }
 
     protected ScanResult(Parcel in) {
@@ -62,6 +67,7 @@ public final class ScanResult implements Parcelable {
         
         rawOcrText = in.readString();
         isConfidenceLow = in.readByte() != 0;
+        confidence = in.readFloat();
     }
 
     @Override
@@ -74,6 +80,7 @@ public final class ScanResult implements Parcelable {
         dest.writeTypedList(infoItems);
         dest.writeString(rawOcrText);
         dest.writeByte((byte) (isConfidenceLow ? 1 : 0));
+        dest.writeFloat(confidence);
     }
 
     @Override
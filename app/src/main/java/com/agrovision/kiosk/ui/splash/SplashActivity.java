@@ -26,7 +26,11 @@ public final class SplashActivity extends AppCompatActivity {
         boolean isRegistered = prefs.getBoolean("is_registered", false);
 
         if (isRegistered) {
-            startActivity(new Intent(this, HomeActivity.class));
+            Intent home = new Intent(this, HomeActivity.class);
+            // Launcher extras (e.g. benchmark scans) belong to HomeActivity
+            Bundle extras = getIntent().getExtras();
+            if (extras != null) home.putExtras(extras);
+            startActivity(home);
         } else {
             startActivity(new Intent(this, RegisterActivity.class));
         }
@@ -63,6 +63,19 @@ public class AudioCacheManager {
         return null;
     }
 
+    /**
+     * Total size of the cached audio files (MemoryGovernor report).
+     */
+    public long diskFootprintBytes() {
+        File[] files = audioCacheDir.listFiles();
+        if (files == null) return 0L;
+        long bytes = 0;
+        for (File file : files) {
+            bytes += file.length();
+        }
+        return bytes;
+    }
+
     /**
      * Deletes a cached audio file if it's found to be corrupted during playback.
      */
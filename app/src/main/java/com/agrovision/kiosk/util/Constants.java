@@ -64,4 +64,5 @@ public final class Constants {
        ========================================================= */
     public static final int YOLO_THREAD_PRIORITY = Thread.NORM_PRIORITY + 1;
     public static final int OCR_THREAD_PRIORITY = Thread.NORM_PRIORITY;
+    public static final int IO_THREAD_PRIORITY = Thread.NORM_PRIORITY - 2;
 }
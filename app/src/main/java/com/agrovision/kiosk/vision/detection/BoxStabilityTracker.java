@@ -14,6 +14,8 @@ import androidx.annotation.Nullable;
  * KEY GUARANTEE:
  * - Stability is evaluated against an anchor box
  * - Cropping always uses the most recent box
+ * - Every new anchor starts a new track (trackId changes),
+ *   so work started on an older track can be recognised as stale
  */
 public final class BoxStabilityTracker {
 
@@ -24,6 +26,9 @@ public final class BoxStabilityTracker {
     private static final float MIN_IOU_THRESHOLD = 0.5f;
     private static final float MIN_CONFIDENCE = 0.3f;
 
+    // Minimum confidence to start speculative work before the track is stable
+    private static final float PROMISING_CONFIDENCE = 0.6f;
+
     /* ---------------- INTERNAL STATE ---------------- */
 
     // Anchor for stability comparison
@@ -32,14 +37,21 @@ public final class BoxStabilityTracker {
     // Latest observed box (used for cropping)
     private RectF latestBox;
 
+    // Latest observed confidence (used for speculation)
+    private float latestConfidence = 0f;
+
     private long stableStartTimeMs = 0;
     private boolean stable = false;
 
+    // Incremented every time a new anchor is taken
+    private long trackId = 0;
+
     /* ---------------- PUBLIC API ---------------- */
 
     public void reset() {
         anchorBox = null;
         latestBox = null;
+        latestConfidence = 0f;
         stableStartTimeMs = 0;
         stable = false;
     }
@@ -66,22 +78,25 @@ public final class BoxStabilityTracker {
 
         // Always update latest box
         latestBox = currentBox;
+        latestConfidence = detection.getConfidence();
 
         // First valid detection
         if (anchorBox == null) {
             anchorBox = currentBox;
             stableStartTimeMs = timestampMs;
             stable = false;
+            trackId++;
             return false;
         }
 
         float iou = calculateIoU(anchorBox, currentBox);
 
         if (iou < MIN_IOU_THRESHOLD) {
-            // Movement too large → reset anchor
+            // Movement too large → reset anchor (new track)
             anchorBox = currentBox;
             stableStartTimeMs = timestampMs;
             stable = false;
+            trackId++;
             return false;
         }
 
@@ -98,6 +113,30 @@ public final class BoxStabilityTracker {
         return stable;
     }
 
+    /**
+     * A track worth speculating on: anchored, not stable yet,
+     * and confident enough that the stable window will likely pass.
+     */
+    public boolean isPromising() {
+        return anchorBox != null && !stable && latestConfidence >= PROMISING_CONFIDENCE;
+    }
+
+    /**
+     * Identifier of the current track (0 = no track yet).
+     */
+    public long getTrackId() {
+        return trackId;
+    }
+
+    /**
+     * Returns the most recent box regardless of stability
+     * (used for speculative cropping).
+     */
+    @Nullable
+    public RectF getLatestBox() {
+        return latestBox != null ? new RectF(latestBox) : null;
+    }
+
     /**
      * Returns the most recent stable bounding box
      * (safe for cropping).
@@ -34,6 +34,17 @@ public final class DetectionResult {
         return new RectF(boundingBox); // defensive copy
     }
 
+    /**
+     * Writes left, top, right, bottom into dest[offset..offset+3]
+     * without allocating (hot path: overlay updates).
+     */
+    public void writeBoundingBox(float[] dest, int offset) {
+        dest[offset] = boundingBox.left;
+        dest[offset + 1] = boundingBox.top;
+        dest[offset + 2] = boundingBox.right;
+        dest[offset + 3] = boundingBox.bottom;
+    }
+
     public float getConfidence() {
         return confidence;
     }
@@ -4,10 +4,13 @@ import android.content.Context;
 import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
 import android.graphics.RectF;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.agrovision.kiosk.analytics.PerformanceLogger;
+import com.agrovision.kiosk.analytics.metrics.PipelineStage;
+import com.agrovision.kiosk.util.TimeUtils;
+
 import org.tensorflow.lite.Interpreter;
 import org.tensorflow.lite.nnapi.NnApiDelegate;
 
@@ -24,8 +27,14 @@ import java.util.List;
 public final class TfliteYoloModel implements YoloModel, AutoCloseable {
 
     private static final String DEFAULT_MODEL_PATH = "models/best_float32.tflite";
+    private static final int DEFAULT_NUM_THREADS = 4;
+
+    private final MappedByteBuffer model;
 
-    private final Interpreter interpreter;
+    // Rebuilt on the inference thread when the thread count changes
+    private Interpreter interpreter;
+    private int numThreads = DEFAULT_NUM_THREADS;
+    private volatile int requestedThreads = DEFAULT_NUM_THREADS;
     private NnApiDelegate nnApiDelegate = null;
 
     private final int inputWidth;
@@ -40,6 +49,8 @@ public final class TfliteYoloModel implements YoloModel, AutoCloseable {
     private final float[][][] outputBuffer;
     private final int[] pixelBuffer;
 
+    private final PerformanceLogger perf = PerformanceLogger.getInstance();
+
     public TfliteYoloModel(@NonNull Context context) {
         this(context, DEFAULT_MODEL_PATH);
     }
@@ -47,15 +58,8 @@ public final class TfliteYoloModel implements YoloModel, AutoCloseable {
     public TfliteYoloModel(@NonNull Context context, @NonNull String assetPath) {
 
         try {
-            MappedByteBuffer model = loadModel(context.getApplicationContext(), assetPath);
-
-            Interpreter.Options options = new Interpreter.Options();
-            // 🚀 SPEED FIX: Use 4 CPU threads + XNNPACK + NNAPI for high-speed inference
-            options.setNumThreads(4);
-            options.setUseXNNPACK(true);
-            options.setUseNNAPI(true); // Enable Hardware Acceleration for Kiosk CPU/GPU
-
-            interpreter = new Interpreter(model, options);
+            model = loadModel(context.getApplicationContext(), assetPath);
+            interpreter = createInterpreter(model, numThreads);
 
             int[] inputShape = interpreter.getInputTensor(0).shape();
             inputHeight = inputShape[1];
@@ -92,28 +96,92 @@ public final class TfliteYoloModel implements YoloModel, AutoCloseable {
         if (bitmap == null) return Collections.emptyList();
 
         try {
-            long start = System.currentTimeMillis();
+            applyRequestedThreads();
+
+            long start = TimeUtils.nowNano();
             
             // 🚀 STEP 1: RESIZE TO MODEL INPUT SIZE
             preprocess(bitmap);
             
-            long prep = System.currentTimeMillis();
+            long prep = TimeUtils.nowNano();
+            perf.recordNanos(PipelineStage.PREPROCESS, prep - start);
             
             interpreter.run(inputBuffer, outputBuffer);
 
-            long infer = System.currentTimeMillis();
+            long infer = TimeUtils.nowNano();
+            perf.recordNanos(PipelineStage.INFERENCE, infer - prep);
             
             List<RawDetection> raw = parseOutput(bitmap.getWidth(), bitmap.getHeight());
-            
-            Log.d("YOLO_PERF", String.format("Prep: %dms, Infer: %dms", (prep - start), (infer - prep)));
+            long decode = TimeUtils.nowNano();
+            perf.recordNanos(PipelineStage.DECODE, decode - infer);
 
-            return applyNms(raw, 0.45f);
+            List<RawDetection> kept = applyNms(raw, 0.45f);
+            perf.record(PipelineStage.NMS, decode);
+            return kept;
 
         } catch (Exception e) {
             return Collections.emptyList();
         }
     }
 
+    /* ================= WARM-UP ================= */
+
+    /**
+     * Runs the full detector path (preprocess → inference → decode → NMS)
+     * on a synthetic image so JIT and XNNPACK / NNAPI compilation are paid
+     * before a real scan. Not recorded in the stage histograms.
+     *
+     * MUST run on the inference thread (shares the tensor buffers).
+     *
+     * @return elapsed ns, or -1 on failure
+     */
+    public long warmUp(@NonNull Bitmap synthetic) {
+        try {
+            applyRequestedThreads();
+
+            long start = TimeUtils.nowNano();
+            preprocess(synthetic);
+            interpreter.run(inputBuffer, outputBuffer);
+            applyNms(parseOutput(synthetic.getWidth(), synthetic.getHeight()), 0.45f);
+            return TimeUtils.nowNano() - start;
+
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /* ================= THREADS ================= */
+
+    /**
+     * Requests a different CPU thread count (thermal degradation).
+     * Applied before the next inference, on the inference thread.
+     */
+    public void setNumThreads(int threads) {
+        requestedThreads = Math.max(1, threads);
+    }
+
+    private void applyRequestedThreads() {
+        int threads = requestedThreads;
+        if (threads == numThreads) return;
+
+        // One attempt per request: a failed rebuild keeps the old interpreter
+        numThreads = threads;
+
+        // Same model → same tensor shapes: the buffers stay valid
+        Interpreter previous = interpreter;
+        interpreter = createInterpreter(model, threads);
+        previous.close();
+    }
+
+    private static Interpreter createInterpreter(MappedByteBuffer model, int threads) {
+        Interpreter.Options options = new Interpreter.Options();
+        // 🚀 SPEED FIX: CPU threads + XNNPACK + NNAPI for high-speed inference
+        options.setNumThreads(threads);
+        options.setUseXNNPACK(true);
+        options.setUseNNAPI(true); // Enable Hardware Acceleration for Kiosk CPU/GPU
+        return new Interpreter(model, options);
+    }
+
     /* ================= PREPROCESS ================= */
 
     private void preprocess(Bitmap bitmap) {
@@ -0,0 +1,233 @@
+package com.agrovision.kiosk.vision.mapping;
+
+import androidx.annotation.NonNull;
+
+import com.agrovision.kiosk.data.model.Medicine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * MatcherIndex
+ *
+ * Immutable, pre-tokenized view of the catalog for MedicineMatcher.
+ *
+ * PURPOSE:
+ * - Tokenize names / keywords / companies ONCE per catalog version
+ * - Precompute per-medicine denominators and regex-derived flags
+ *   so a scan only tokenizes the OCR text
+ *
+ * RULES:
+ * - Built off the main thread (catalog publish)
+ * - Never mutated after build (safe to share across threads)
+ * - Tokens are the only regex-derived part: they can be exported
+ *   and restored (binary catalog file) without re-tokenizing
+ */
+public final class MatcherIndex {
+
+    public static final MatcherIndex EMPTY = new MatcherIndex(Collections.emptyList());
+
+    private final List<Entry> entries;
+
+    private MatcherIndex(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    @NonNull
+    public static MatcherIndex build(@NonNull List<Medicine> medicines) {
+        if (medicines.isEmpty()) return EMPTY;
+
+        List<Entry> entries = new ArrayList<>(medicines.size());
+        for (Medicine m : medicines) {
+            if (m != null && m.getName() != null) {
+                entries.add(new Entry(m));
+            }
+        }
+        return new MatcherIndex(Collections.unmodifiableList(entries));
+    }
+
+    /**
+     * Rebuilds an index from previously exported tokens (no tokenization).
+     *
+     * @param tokens parallel to medicines
+     */
+    @NonNull
+    public static MatcherIndex restore(@NonNull List<Medicine> medicines, @NonNull List<Tokens> tokens) {
+        if (medicines.size() != tokens.size()) {
+            throw new IllegalArgumentException("Tokens do not match medicines: "
+                    + tokens.size() + " != " + medicines.size());
+        }
+        if (medicines.isEmpty()) return EMPTY;
+
+        List<Entry> entries = new ArrayList<>(medicines.size());
+        for (int i = 0; i < medicines.size(); i++) {
+            entries.add(new Entry(medicines.get(i), tokens.get(i)));
+        }
+        return new MatcherIndex(Collections.unmodifiableList(entries));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    @NonNull
+    public Medicine medicineAt(int index) {
+        return entries.get(index).medicine;
+    }
+
+    @NonNull
+    public Tokens tokensAt(int index) {
+        return entries.get(index).tokens;
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    /* =========================================================
+       TOKENS (EXPORTABLE)
+       ========================================================= */
+
+    /**
+     * Tokenizer output for one medicine. Everything else in an
+     * Entry (weights, flags) is derived from it by plain loops.
+     */
+    public static final class Tokens {
+
+        public final List<String> name;
+        public final List<String> company;
+        public final String cleanName;
+
+        // Keywords that produced tokens, with their tokens (parallel)
+        public final List<String> keywordRaw;
+        public final List<List<String>> keywordTokens;
+
+        public Tokens(@NonNull List<String> name,
+                      @NonNull List<String> company,
+                      @NonNull String cleanName,
+                      @NonNull List<String> keywordRaw,
+                      @NonNull List<List<String>> keywordTokens) {
+            if (keywordRaw.size() != keywordTokens.size()) {
+                throw new IllegalArgumentException("Keyword tokens do not match keywords");
+            }
+            this.name = Collections.unmodifiableList(name);
+            this.company = Collections.unmodifiableList(company);
+            this.cleanName = cleanName;
+            this.keywordRaw = Collections.unmodifiableList(keywordRaw);
+            this.keywordTokens = Collections.unmodifiableList(keywordTokens);
+        }
+
+        static Tokens of(Medicine medicine) {
+            List<String> raws = new ArrayList<>();
+            List<List<String>> kwTokens = new ArrayList<>();
+            for (String kw : medicine.getSearchKeywords()) {
+                List<String> tokens = MedicineMatcher.tokenize(kw);
+                if (tokens.isEmpty()) continue;
+                raws.add(kw);
+                kwTokens.add(tokens);
+            }
+
+            List<String> company = new ArrayList<>();
+            if (medicine.getCompany() != null && !medicine.getCompany().isEmpty()) {
+                for (String ct : MedicineMatcher.tokenize(medicine.getCompany())) {
+                    company.add(ct.toLowerCase(Locale.ROOT));
+                }
+            }
+
+            return new Tokens(
+                    MedicineMatcher.tokenize(medicine.getName()),
+                    company,
+                    medicine.getName().replaceAll("\\(.*?\\)", "").toLowerCase(Locale.ROOT).trim(),
+                    raws,
+                    kwTokens
+            );
+        }
+    }
+
+    /* =========================================================
+       ENTRY (ONE MEDICINE)
+       ========================================================= */
+
+    static final class Entry {
+
+        final Medicine medicine;
+
+        // Brand name tokens: all scripts / Latin only (fallback: all)
+        final List<String> nameTokens;
+        final List<String> latinNameTokens;
+        final float maxNameScore;
+        final float maxLatinNameScore;
+        final boolean nameHasNumber;
+        final boolean latinNameHasNumber;
+
+        // Each keyword is an alternative (synonym)
+        final List<Keyword> keywords;
+        final Set<String> allKeywordTokens;
+
+        // Lower-cased company tokens
+        final List<String> companyTokens;
+
+        // Name without "(...)" for the exact-name bonus
+        final String cleanName;
+
+        // Source of everything above (exported to the binary catalog)
+        final Tokens tokens;
+
+        Entry(Medicine medicine) {
+            this(medicine, Tokens.of(medicine));
+        }
+
+        Entry(Medicine medicine, Tokens tokens) {
+            this.medicine = medicine;
+            this.tokens = tokens;
+
+            List<String> name = tokens.name;
+            List<String> latin = new ArrayList<>();
+            for (String t : name) {
+                if (!MedicineMatcher.isDevanagari(t)) latin.add(t);
+            }
+            if (latin.isEmpty()) latin.addAll(name);
+
+            this.nameTokens = name;
+            this.latinNameTokens = Collections.unmodifiableList(latin);
+            this.maxNameScore = MedicineMatcher.maxScore(name, MedicineMatcher.BRAND_NAME_WEIGHT);
+            this.maxLatinNameScore = MedicineMatcher.maxScore(latin, MedicineMatcher.BRAND_NAME_WEIGHT);
+            this.nameHasNumber = MedicineMatcher.anyHasDigit(name);
+            this.latinNameHasNumber = MedicineMatcher.anyHasDigit(latin);
+
+            List<Keyword> kws = new ArrayList<>(tokens.keywordRaw.size());
+            Set<String> allKw = new HashSet<>();
+            for (int i = 0; i < tokens.keywordRaw.size(); i++) {
+                List<String> kwTokens = tokens.keywordTokens.get(i);
+                allKw.addAll(kwTokens);
+                kws.add(new Keyword(tokens.keywordRaw.get(i), kwTokens));
+            }
+            this.keywords = Collections.unmodifiableList(kws);
+            this.allKeywordTokens = Collections.unmodifiableSet(allKw);
+
+            this.companyTokens = tokens.company;
+            this.cleanName = tokens.cleanName;
+        }
+    }
+
+    static final class Keyword {
+
+        final String raw;
+        final List<String> tokens;
+        final float maxScore;
+
+        Keyword(String raw, List<String> tokens) {
+            this.raw = raw;
+            this.tokens = Collections.unmodifiableList(tokens);
+            this.maxScore = MedicineMatcher.maxScore(tokens, MedicineMatcher.KEYWORD_WEIGHT);
+        }
+    }
+}
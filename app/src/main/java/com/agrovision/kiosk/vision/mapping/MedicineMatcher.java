@@ -6,11 +6,9 @@ import com.agrovision.kiosk.util.LogUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -33,9 +31,9 @@ public final class MedicineMatcher {
     private static final float HIGH_CONFIDENCE_THRESHOLD = 0.82f; // Reduced from 0.85
     private static final float CLOSE_MATCH_GAP = 0.12f; // Reduced from 0.20
 
-    // Step 4 & 5: Weights
-    private static final float BRAND_NAME_WEIGHT = 3.5f; 
-    private static final float KEYWORD_WEIGHT = 2.5f; // Increased from 1.2f to make keywords high priority
+    // Step 4 & 5: Weights (package-private: MatcherIndex precomputes denominators)
+    static final float BRAND_NAME_WEIGHT = 3.5f; 
+    static final float KEYWORD_WEIGHT = 2.5f; // Increased from 1.2f to make keywords high priority
     private static final float NUMERIC_BONUS = 5.0f;
     private static final float GENERIC_PENALTY = 0.2f;  
     private static final float COMPANY_BONUS_WEIGHT = 1.8f; 
@@ -47,8 +45,8 @@ public final class MedicineMatcher {
             "insecticide", "fungicide", "herbicide", "pesticide", "liquid", "powder"
     );
 
-    // Step 14: Search Index Optimization (Cache)
-    private static final Map<String, List<String>> TOKEN_CACHE = new HashMap<>();
+    // Step 14: Search Index Optimization
+    // Catalog tokens are prebuilt once per catalog version (see MatcherIndex)
 
     private MedicineMatcher() {}
 
@@ -70,8 +68,19 @@ public final class MedicineMatcher {
         }
     }
 
+    /**
+     * Slow path: tokenizes the whole list on every call.
+     * Prefer match(text, CatalogSnapshot.getMatcherIndex()).
+     */
     public static MatchResult match(String normalizedText, List<Medicine> medicines) {
-        if (normalizedText == null || normalizedText.trim().isEmpty() || medicines == null || medicines.isEmpty()) {
+        if (medicines == null || medicines.isEmpty()) {
+            return MatchResult.none(normalizedText);
+        }
+        return match(normalizedText, MatcherIndex.build(medicines));
+    }
+
+    public static MatchResult match(String normalizedText, MatcherIndex index) {
+        if (normalizedText == null || normalizedText.trim().isEmpty() || index == null || index.isEmpty()) {
             return MatchResult.none(normalizedText);
         }
 
@@ -88,10 +97,19 @@ public final class MedicineMatcher {
 
         List<Candidate> candidates = new ArrayList<>();
 
-        for (Medicine medicine : medicines) {
-            float score = calculateScore(ocrTokens, medicine);
+        // 🚀 BRAINSTORMING: SCRIPT-AWARE NORMALIZATION (once per scan, not per medicine)
+        boolean ocrHasMarathi = false;
+        for (String t : ocrTokens) {
+            if (isDevanagari(t)) {
+                ocrHasMarathi = true;
+                break;
+            }
+        }
+
+        for (MatcherIndex.Entry entry : index.entries()) {
+            float score = calculateScore(ocrTokens, ocrHasMarathi, entry);
             if (score > 0.05f) {
-                candidates.add(new Candidate(medicine, score));
+                candidates.add(new Candidate(entry.medicine, score));
             }
         }
 
@@ -138,44 +156,34 @@ public final class MedicineMatcher {
         }
     }
 
-    private static float calculateScore(List<String> ocrTokens, Medicine medicine) {
+    /**
+     * True if the text would be accepted as an EXACT (high-confidence) match.
+     * Used by OcrConsensus to stop reading a track early.
+     */
+    public static boolean isHighConfidence(String normalizedText, MatcherIndex index) {
+        return match(normalizedText, index).getMatchType() == MatchResult.MatchType.EXACT;
+    }
+
+    private static float calculateScore(List<String> ocrTokens, boolean ocrHasMarathi, MatcherIndex.Entry entry) {
+        Medicine medicine = entry.medicine;
         Set<String> matchedTargetTokens = new HashSet<>();
         Set<String> matchedOcrTokens = new HashSet<>();
         List<String> matchedKeywordsLog = new ArrayList<>();
 
-        // 🚀 BRAINSTORMING: SCRIPT-AWARE NORMALIZATION
-        boolean ocrHasMarathi = false;
-        for (String t : ocrTokens) {
-            if (t.matches(".*[\\u0900-\\u097F].*")) {
-                ocrHasMarathi = true;
-                break;
-            }
-        }
-
         // 1. Match Brand Name
-        List<String> nameTokens = getCachedTokens(medicine.getName());
-        float nameMatchScore = matchTargetTokens(ocrTokens, nameTokens, BRAND_NAME_WEIGHT, matchedTargetTokens, matchedOcrTokens);
+        float nameMatchScore = matchTargetTokens(ocrTokens, entry.nameTokens, BRAND_NAME_WEIGHT, matchedTargetTokens, matchedOcrTokens);
 
         // 2. Match Search Keywords (Now High Priority)
         // Logic: We treat searchKeywords as a list of alternatives (synonyms).
         // We calculate the match ratio for each keyword and take the BEST one.
         // This prevents multiple synonyms in the DB from penalizing the score.
         float maxKeywordRatio = 0f;
-        List<String> rawKeywords = medicine.getSearchKeywords();
-        Set<String> allKeywordTokens = new HashSet<>(); // For coverage calculation log
 
-        for (String kw : rawKeywords) {
-            List<String> kwTokens = getCachedTokens(kw);
-            if (kwTokens.isEmpty()) continue;
-            allKeywordTokens.addAll(kwTokens);
-            
+        for (MatcherIndex.Keyword kw : entry.keywords) {
             Set<String> kwMatchedTarget = new HashSet<>();
-            float kwMatchScore = matchTargetTokens(ocrTokens, kwTokens, KEYWORD_WEIGHT, kwMatchedTarget, matchedOcrTokens);
-            
-            float kwMaxScore = 0f;
-            for (String t : kwTokens) kwMaxScore += getTokenWeight(t) * KEYWORD_WEIGHT;
-            
-            float kwRatio = kwMaxScore > 0 ? kwMatchScore / kwMaxScore : 0;
+            float kwMatchScore = matchTargetTokens(ocrTokens, kw.tokens, KEYWORD_WEIGHT, kwMatchedTarget, matchedOcrTokens);
+
+            float kwRatio = kw.maxScore > 0 ? kwMatchScore / kw.maxScore : 0;
             if (kwRatio > maxKeywordRatio) {
                 maxKeywordRatio = kwRatio;
             }
@@ -183,7 +191,7 @@ public final class MedicineMatcher {
             if (!kwMatchedTarget.isEmpty()) {
                 matchedTargetTokens.addAll(kwMatchedTarget);
                 // Log which keyword matched and how well
-                String matchLog = kw + " (" + String.format(Locale.US, "%.2f", kwRatio) + ")";
+                String matchLog = kw.raw + " (" + String.format(Locale.US, "%.2f", kwRatio) + ")";
                 if (!matchedKeywordsLog.contains(matchLog)) {
                     matchedKeywordsLog.add(matchLog);
                 }
@@ -192,44 +200,33 @@ public final class MedicineMatcher {
 
         // 3. Company Bonus
         float companyBonus = 0f;
-        if (medicine.getCompany() != null && !medicine.getCompany().isEmpty()) {
-            List<String> companyTokens = getCachedTokens(medicine.getCompany());
-            for (String ct : companyTokens) {
-                if (ocrTokens.contains(ct.toLowerCase(Locale.ROOT))) {
-                    companyBonus += 0.05f;
-                }
+        for (String ct : entry.companyTokens) {
+            if (ocrTokens.contains(ct)) {
+                companyBonus += 0.05f;
             }
         }
 
         // Exact Match Bonus
         float exactBonus = 0f;
-        String medNameClean = medicine.getName().replaceAll("\\(.*?\\)", "").toLowerCase(Locale.ROOT).trim();
         for (String ocr : ocrTokens) {
-            if (ocr.equalsIgnoreCase(medNameClean) || ocr.equalsIgnoreCase(medicine.getName())) {
+            if (ocr.equalsIgnoreCase(entry.cleanName) || ocr.equalsIgnoreCase(medicine.getName())) {
                 exactBonus = 0.25f;
                 break;
             }
         }
 
-        // Normalization denominators
-        List<String> relevantNameTokens = new ArrayList<>();
-        for (String t : nameTokens) {
-            if (ocrHasMarathi || !t.matches(".*[\\u0900-\\u097F].*")) {
-                relevantNameTokens.add(t);
-            }
-        }
-        if (relevantNameTokens.isEmpty()) relevantNameTokens.addAll(nameTokens);
+        // Normalization denominators (prebuilt for both scripts)
+        List<String> relevantNameTokens = ocrHasMarathi ? entry.nameTokens : entry.latinNameTokens;
+        float maxNameScore = ocrHasMarathi ? entry.maxNameScore : entry.maxLatinNameScore;
 
         // Calculate Ratios
-        float maxNameScore = 0f;
-        for (String t : relevantNameTokens) maxNameScore += getTokenWeight(t) * BRAND_NAME_WEIGHT;
         float nameRatio = maxNameScore > 0 ? nameMatchScore / maxNameScore : 0;
 
         float keywordRatio = maxKeywordRatio;
 
         // Coverage (how many of the medicine's defining tokens were found)
         Set<String> allDefiningTokens = new HashSet<>(relevantNameTokens);
-        allDefiningTokens.addAll(allKeywordTokens);
+        allDefiningTokens.addAll(entry.allKeywordTokens);
         int matchedDefiningCount = 0;
         for(String t : allDefiningTokens) if(matchedTargetTokens.contains(t)) matchedDefiningCount++;
         float coverage = (float) matchedDefiningCount / Math.max(1, allDefiningTokens.size());
@@ -242,10 +239,8 @@ public final class MedicineMatcher {
         float score = (nameRatio * 0.40f) + (keywordRatio * 0.40f) + (ocrRelevance * 0.20f);
         
         // Apply Variants/Numeric Strictness
-        boolean nameHasNumber = false;
-        for(String t : relevantNameTokens) if(t.matches(".*\\d.*")) { nameHasNumber = true; break; }
-        boolean matchedAnyNumber = false;
-        for(String t : matchedOcrTokens) if(t.matches(".*\\d.*")) { matchedAnyNumber = true; break; }
+        boolean nameHasNumber = ocrHasMarathi ? entry.nameHasNumber : entry.latinNameHasNumber;
+        boolean matchedAnyNumber = anyHasDigit(matchedOcrTokens);
         
         if (nameHasNumber && !matchedAnyNumber) {
             score *= 0.75f;
@@ -261,20 +256,39 @@ public final class MedicineMatcher {
         if (finalScore > 0.4f) {
             LogUtils.d(String.format(Locale.US, 
                 "Medicine: %s\nDatabase Search Keywords: %s\nMatched OCR Keywords: %s\nKeyword Score: %.2f\nName Ratio: %.2f, Keyword Ratio: %.2f, Coverage: %.2f, Final: %.2f",
-                medicine.getName(), rawKeywords, matchedKeywordsLog, keywordRatio, nameRatio, keywordRatio, coverage, finalScore));
+                medicine.getName(), medicine.getSearchKeywords(), matchedKeywordsLog, keywordRatio, nameRatio, keywordRatio, coverage, finalScore));
         }
 
         return finalScore;
     }
 
-    private static List<String> getCachedTokens(String text) {
-        if (text == null) return new ArrayList<>();
-        if (TOKEN_CACHE.containsKey(text)) {
-            return TOKEN_CACHE.get(text);
+    /* =========================================================
+       INDEX HELPERS (USED BY MatcherIndex)
+       ========================================================= */
+
+    static boolean isDevanagari(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '\u0900' && c <= '\u097F') return true;
         }
-        List<String> tokens = tokenize(text);
-        TOKEN_CACHE.put(text, tokens);
-        return tokens;
+        return false;
+    }
+
+    static boolean anyHasDigit(Iterable<String> tokens) {
+        for (String t : tokens) {
+            for (int i = 0; i < t.length(); i++) {
+                char c = t.charAt(i);
+                // ASCII only: Devanagari digits are not dosage / batch numbers
+                if (c >= '0' && c <= '9') return true;
+            }
+        }
+        return false;
+    }
+
+    static float maxScore(List<String> tokens, float baseWeight) {
+        float max = 0f;
+        for (String t : tokens) max += getTokenWeight(t) * baseWeight;
+        return max;
     }
 
     private static float matchTargetTokens(
@@ -392,7 +406,7 @@ public final class MedicineMatcher {
      * Step 2 & 4: Improve Token Matching
      * Splits text into tokens and extracts numeric parts from alphanumeric strings.
      */
-    private static List<String> tokenize(String text) {
+    static List<String> tokenize(String text) {
         if (text == null) return new ArrayList<>();
         // Normalize: lowercase and remove most special symbols but keep dots for numbers
         String cleaned = text.toLowerCase(Locale.ROOT)
@@ -0,0 +1,300 @@
+package com.agrovision.kiosk.vision.recognition;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OcrConsensus
+ *
+ * PURPOSE:
+ * - Fuse 2-3 noisy OCR passes of the SAME track into one token list
+ * - Stop reading as soon as the fused text is confidently matchable
+ *
+ * DESIGN:
+ * - Every token is assigned to a slot by relative position in its pass
+ * - Near-identical spellings (edit distance 1) vote in the same slot
+ * - Slots seen in a majority of passes survive, ordered by mean position
+ * - Each slot emits its most-voted spelling
+ *
+ * HARD RULES:
+ * - One track at a time (a new trackId discards previous passes)
+ * - Never more than maxPasses OCR passes per track
+ * - Thread-safe (called from the vision and OCR lanes)
+ */
+public final class OcrConsensus {
+
+    private static final int DEFAULT_MAX_PASSES = 3;
+
+    // A token may join a slot at most this far away (relative position)
+    private static final float MAX_POSITION_DRIFT = 0.5f;
+
+    // Spellings shorter than this must match exactly
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    /**
+     * Decides whether a candidate text is good enough to stop reading.
+     * Typically: "matcher returns a high-confidence match".
+     */
+    @FunctionalInterface
+    public interface ConfidenceCheck {
+        boolean isConfident(@NonNull String text);
+    }
+
+    private final ConfidenceCheck confidenceCheck;
+    private final int maxPasses;
+
+    private long trackId = -1;
+    private int passes = 0;
+    private boolean settled = false;
+    private final List<Slot> slots = new ArrayList<>();
+
+    public OcrConsensus(@NonNull ConfidenceCheck confidenceCheck) {
+        this(confidenceCheck, DEFAULT_MAX_PASSES);
+    }
+
+    public OcrConsensus(@NonNull ConfidenceCheck confidenceCheck, int maxPasses) {
+        if (maxPasses < 1) {
+            throw new IllegalArgumentException("maxPasses must be >= 1");
+        }
+        this.confidenceCheck = confidenceCheck;
+        this.maxPasses = maxPasses;
+    }
+
+    /* =========================================================
+       PUBLIC API
+       ========================================================= */
+
+    /**
+     * Adds one OCR pass for a track.
+     *
+     * @return the consensus text once the track is settled
+     *         (confident, or out of passes); null if another pass is needed
+     */
+    @Nullable
+    public synchronized String add(long trackId, @Nullable String normalizedText) {
+        if (trackId != this.trackId) {
+            startTrack(trackId);
+        }
+        if (settled) return null;
+
+        passes++;
+        if (normalizedText != null && !normalizedText.isEmpty()) {
+            vote(normalizedText.split(" "));
+        }
+
+        String consensus = buildConsensus();
+
+        if (!consensus.isEmpty() && confidenceCheck.isConfident(consensus)) {
+            settled = true;
+            return consensus;
+        }
+
+        if (passes >= maxPasses) {
+            settled = true;
+            return consensus;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return true if the track already produced its final text
+     *         (further OCR on it is wasted work)
+     */
+    public synchronized boolean isSettled(long trackId) {
+        return this.trackId == trackId && settled;
+    }
+
+    /**
+     * Ends the current track early unless it is still the live one
+     * (object moved away or was replaced).
+     *
+     * @param liveTrackId track currently in view (-1 = none)
+     * @return best-effort consensus if passes were collected
+     *         but never settled; null otherwise
+     */
+    @Nullable
+    public synchronized String flushUnless(long liveTrackId) {
+        if (trackId == liveTrackId) return null;
+
+        String result = null;
+        if (!settled && passes > 0) {
+            String consensus = buildConsensus();
+            if (!consensus.isEmpty()) result = consensus;
+        }
+        startTrack(-1);
+        return result;
+    }
+
+    public synchronized void reset() {
+        startTrack(-1);
+    }
+
+    /* =========================================================
+       VOTING
+       ========================================================= */
+
+    private void startTrack(long newTrackId) {
+        trackId = newTrackId;
+        passes = 0;
+        settled = false;
+        slots.clear();
+    }
+
+    private void vote(String[] tokens) {
+        int n = 0;
+        for (String t : tokens) if (!t.isEmpty()) n++;
+        if (n == 0) return;
+
+        // A slot takes at most one token per pass
+        boolean[] used = new boolean[slots.size()];
+        int index = 0;
+
+        for (String token : tokens) {
+            if (token.isEmpty()) continue;
+            float position = (index + 0.5f) / n;
+            index++;
+
+            int best = findSlot(token, position, used);
+            if (best >= 0) {
+                used[best] = true;
+                slots.get(best).vote(token, position);
+            } else {
+                Slot slot = new Slot();
+                slot.vote(token, position);
+                slots.add(slot);
+            }
+        }
+    }
+
+    /**
+     * Exact spelling wins; otherwise the nearest slot with a similar spelling.
+     */
+    private int findSlot(String token, float position, boolean[] used) {
+        int best = -1;
+        float bestDrift = Float.MAX_VALUE;
+        boolean bestExact = false;
+
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) continue;
+            Slot slot = slots.get(i);
+
+            boolean exact = slot.variants.containsKey(token);
+            if (!exact && !slot.isSimilar(token)) continue;
+
+            float drift = Math.abs(slot.position() - position);
+            if (!exact && drift > MAX_POSITION_DRIFT) continue;
+
+            if ((exact && !bestExact) || (exact == bestExact && drift < bestDrift)) {
+                best = i;
+                bestDrift = drift;
+                bestExact = exact;
+            }
+        }
+        return best;
+    }
+
+    private String buildConsensus() {
+        // Majority of passes (a single pass keeps everything)
+        int required = (passes + 1) / 2;
+
+        List<Slot> kept = new ArrayList<>();
+        for (Slot slot : slots) {
+            if (slot.votes >= required) kept.add(slot);
+        }
+        Collections.sort(kept, (a, b) -> Float.compare(a.position(), b.position()));
+
+        StringBuilder sb = new StringBuilder();
+        for (Slot slot : kept) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(slot.best());
+        }
+        return sb.toString();
+    }
+
+    /* =========================================================
+       SLOT
+       ========================================================= */
+
+    private static final class Slot {
+
+        // Spelling → votes (insertion order breaks remaining ties)
+        final Map<String, Integer> variants = new LinkedHashMap<>();
+        float positionSum = 0f;
+        int votes = 0;
+
+        void vote(String token, float position) {
+            Integer count = variants.get(token);
+            variants.put(token, count == null ? 1 : count + 1);
+            positionSum += position;
+            votes++;
+        }
+
+        float position() {
+            return votes == 0 ? 0f : positionSum / votes;
+        }
+
+        /**
+         * Most-voted spelling; ties prefer the longer one
+         * (OCR drops characters more often than it invents them).
+         */
+        String best() {
+            String best = null;
+            int bestVotes = 0;
+            for (Map.Entry<String, Integer> e : variants.entrySet()) {
+                int v = e.getValue();
+                if (v > bestVotes || (v == bestVotes && e.getKey().length() > best.length())) {
+                    best = e.getKey();
+                    bestVotes = v;
+                }
+            }
+            return best == null ? "" : best;
+        }
+
+        boolean isSimilar(String token) {
+            if (token.length() < MIN_FUZZY_LENGTH) return false;
+            for (String variant : variants.keySet()) {
+                if (variant.length() >= MIN_FUZZY_LENGTH && withinOneEdit(variant, token)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /* =========================================================
+       MATH
+       ========================================================= */
+
+    /**
+     * Edit distance <= 1 in a single linear pass.
+     */
+    private static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) return false;
+        if (la > lb) return withinOneEdit(b, a);
+
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < la && j < lb) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) return false;
+            edited = true;
+            if (la == lb) i++; // substitution
+            j++;               // insertion into a
+        }
+        return true;
+    }
+}
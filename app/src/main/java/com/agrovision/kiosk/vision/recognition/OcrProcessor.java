@@ -4,10 +4,12 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.agrovision.kiosk.threading.CancellationToken;
+import com.agrovision.kiosk.threading.Lane;
+import com.agrovision.kiosk.threading.TaskScheduler;
 import com.agrovision.kiosk.util.LogUtils;
 import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.text.Text;
@@ -15,18 +17,31 @@ import com.google.mlkit.vision.text.TextRecognition;
 import com.google.mlkit.vision.text.TextRecognizer;
 import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 public final class OcrProcessor {
 
     private final TextRecognizer recognizer;
-    private final AtomicBoolean isProcessing = new AtomicBoolean(false);
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
+    // Token of the recognition currently occupying the OCR slot (null = idle).
+    // Cancelling that token frees the slot immediately; the stale result is dropped.
+    private final AtomicReference<CancellationToken> inFlight = new AtomicReference<>();
+
+    // Cleaning, normalization and downstream matching run on the OCR lane.
+    // The lane never drops: a lost callback would stall the scan queue.
+    private final Executor resultExecutor = TaskScheduler.executor(Lane.OCR);
+
     public interface Callback {
         void onResult(@NonNull String normalizedText);
     }
 
+    public interface WarmUpCallback {
+        /** @param elapsedNanos recognition + cleanup time, or -1 on failure */
+        void onWarmedUp(long elapsedNanos);
+    }
+
     public OcrProcessor(Context appContext) {
         recognizer = TextRecognition.getClient(
                 TextRecognizerOptions.DEFAULT_OPTIONS
@@ -38,14 +53,32 @@ public final class OcrProcessor {
      * Used by CameraController to skip YOLO/Stability checks when OCR is already running.
      */
     public boolean isBusy() {
-        return isProcessing.get();
+        CancellationToken current = inFlight.get();
+        return current != null && !current.isCancelled();
+    }
+
+    public void process(@NonNull Bitmap bitmap,
+                        @NonNull Callback callback) {
+        process(bitmap, new CancellationToken(), callback);
     }
 
+    /**
+     * Runs OCR that can be abandoned through its token.
+     *
+     * CONTRACT:
+     * - If the token is cancelled before the result arrives,
+     *   the callback is NEVER invoked (result dropped)
+     * - Otherwise behaves exactly like process(bitmap, callback)
+     */
     public void process(@NonNull Bitmap bitmap,
+                        @NonNull CancellationToken token,
                         @NonNull Callback callback) {
 
-        if (isProcessing.getAndSet(true)) {
-            Log.w("PIPELINE_TRACE", "OCR Busy - skipping frame");
+        if (token.isCancelled()) return;
+
+        CancellationToken current = inFlight.get();
+        if ((current != null && !current.isCancelled())
+                || !inFlight.compareAndSet(current, token)) {
             mainHandler.post(() -> callback.onResult(""));
             return;
         }
@@ -54,29 +87,78 @@ public final class OcrProcessor {
             InputImage image = InputImage.fromBitmap(bitmap, 0);
 
             recognizer.process(image)
-                    .addOnSuccessListener(result -> {
+                    .addOnSuccessListener(resultExecutor, result -> {
+                        if (!release(token)) return;
+
                         String rawText = extractText(result);
-                        
+
                         String cleaned = TextCleaner.clean(rawText);
                         String normalized = TextNormalizer.normalize(cleaned);
 
-                        isProcessing.set(false);
-                        // 🚀 Execute callback on the ML Kit background thread to avoid UI blockage
+                        // 🚀 Execute callback on the OCR lane to avoid UI blockage
                         callback.onResult(normalized);
                     })
-                    .addOnFailureListener(e -> {
+                    .addOnFailureListener(resultExecutor, e -> {
                         LogUtils.e("OCR Process failed", e);
-                        isProcessing.set(false);
+                        if (!release(token)) return;
                         callback.onResult("");
                     });
 
         } catch (Exception e) {
             LogUtils.e("OCR Exception", e);
-            isProcessing.set(false);
-            mainHandler.post(() -> callback.onResult(""));
+            if (release(token)) {
+                mainHandler.post(() -> callback.onResult(""));
+            }
+        }
+    }
+
+    /**
+     * Recognizes a synthetic image so ML Kit model initialization and JIT
+     * are paid before a real scan.
+     *
+     * CONTRACT:
+     * - Never occupies the OCR slot (isBusy() stays false)
+     * - Never reaches a scan Callback
+     * - callback runs on the OCR lane
+     */
+    public void warmUp(@NonNull Bitmap synthetic, @NonNull WarmUpCallback callback) {
+        long start = System.nanoTime();
+        try {
+            recognizer.process(InputImage.fromBitmap(synthetic, 0))
+                    .addOnSuccessListener(resultExecutor, result -> {
+                        TextNormalizer.normalize(TextCleaner.clean(extractText(result)));
+                        callback.onWarmedUp(System.nanoTime() - start);
+                    })
+                    .addOnFailureListener(resultExecutor, e -> {
+                        LogUtils.w("OCR warm-up failed", e);
+                        callback.onWarmedUp(-1);
+                    });
+
+        } catch (Exception e) {
+            LogUtils.w("OCR warm-up failed", e);
+            resultExecutor.execute(() -> callback.onWarmedUp(-1));
         }
     }
 
+    /**
+     * Abandons the recognition owning this token and frees the OCR slot.
+     * Safe to call for tokens that already finished.
+     */
+    public void cancel(@NonNull CancellationToken token) {
+        token.cancel();
+        inFlight.compareAndSet(token, null);
+    }
+
+    /**
+     * Frees the slot held by this token.
+     *
+     * @return true if the result is still wanted
+     */
+    private boolean release(CancellationToken token) {
+        inFlight.compareAndSet(token, null);
+        return !token.isCancelled();
+    }
+
     private String extractText(Text text) {
         return text == null ? "" : text.getText();
     }
@@ -0,0 +1,126 @@
+package com.agrovision.kiosk.vision.recognition;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.Nullable;
+
+import com.agrovision.kiosk.util.BitmapUtils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ScanCropCache
+ *
+ * Keeps the OCR crops of the last few delivered texts, so an
+ * UNKNOWN result can be stored together with the bottle image.
+ *
+ * DESIGN:
+ * - Takes OWNERSHIP of the OCR input bitmap (no copy on the scan path)
+ * - At most MAX_ENTRIES crops; the oldest is recycled on overflow
+ * - take() hands ownership to the caller
+ *
+ * RULES:
+ * - Keyed by normalized OCR text (what the pipeline resolves)
+ * - Thread-safe (vision / OCR callback / resolve threads)
+ */
+public final class ScanCropCache {
+
+    private static final int MAX_ENTRIES = 3;
+
+    private static final Map<String, Bitmap> CROPS = new LinkedHashMap<>();
+
+    // take() outcomes (DebugOverlay)
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private ScanCropCache() {
+        throw new AssertionError("No instances allowed");
+    }
+
+    /**
+     * Stores the crop that produced the text; empty text → recycled now.
+     */
+    public static void put(@Nullable String normalizedText, @Nullable Bitmap crop) {
+        if (crop == null) return;
+        if (normalizedText == null || normalizedText.isEmpty() || crop.isRecycled()) {
+            BitmapUtils.safeRecycle(crop);
+            return;
+        }
+
+        synchronized (CROPS) {
+            Bitmap previous = CROPS.remove(normalizedText);
+            if (previous != null && previous != crop) BitmapUtils.safeRecycle(previous);
+            CROPS.put(normalizedText, crop);
+
+            Iterator<Bitmap> oldest = CROPS.values().iterator();
+            while (CROPS.size() > MAX_ENTRIES && oldest.hasNext()) {
+                BitmapUtils.safeRecycle(oldest.next());
+                oldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Re-keys a crop when the delivered text differs from the pass
+     * that produced it (OCR consensus).
+     */
+    public static void alias(@Nullable String fromText, @Nullable String toText) {
+        if (fromText == null || toText == null || fromText.equals(toText)) return;
+        synchronized (CROPS) {
+            Bitmap crop = CROPS.remove(fromText);
+            if (crop != null) {
+                put(toText, crop);
+            }
+        }
+    }
+
+    /**
+     * @return the crop (caller must recycle it), or null if not cached
+     */
+    @Nullable
+    public static Bitmap take(@Nullable String normalizedText) {
+        if (normalizedText == null) return null;
+        Bitmap crop;
+        synchronized (CROPS) {
+            crop = CROPS.remove(normalizedText);
+        }
+        (crop != null ? HITS : MISSES).incrementAndGet();
+        return crop;
+    }
+
+    /**
+     * Bytes held by cached crops (MemoryGovernor report).
+     */
+    public static long footprintBytes() {
+        long bytes = 0;
+        synchronized (CROPS) {
+            for (Bitmap crop : CROPS.values()) {
+                if (!crop.isRecycled()) bytes += crop.getAllocationByteCount();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Recycles every cached crop (memory pressure).
+     */
+    public static void clear() {
+        synchronized (CROPS) {
+            for (Bitmap crop : CROPS.values()) {
+                BitmapUtils.safeRecycle(crop);
+            }
+            CROPS.clear();
+        }
+    }
+
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    public static long getMisses() {
+        return MISSES.get();
+    }
+}
@@ -0,0 +1,96 @@
+package com.agrovision.kiosk.analytics.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bucket math at every boundary and the percentile / drain contract.
+ */
+public class LatencyHistogramTest {
+
+    private static final int LAST_BUCKET = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+
+    @Test
+    public void smallValues_haveOneBucketEach() {
+        for (int v = 0; v < 16; v++) {
+            assertEquals(v, LatencyHistogram.bucketOf(v));
+            assertEquals(v, LatencyHistogram.upperBoundOf(v));
+        }
+    }
+
+    @Test
+    public void firstPowersOfTwo_splitIntoSixteenBuckets() {
+        assertEquals(16, LatencyHistogram.bucketOf(16));
+        assertEquals(16, LatencyHistogram.upperBoundOf(16));
+        assertEquals(31, LatencyHistogram.bucketOf(31));
+        assertEquals(31, LatencyHistogram.upperBoundOf(31));
+
+        // From 32 on, buckets are two wide
+        assertEquals(32, LatencyHistogram.bucketOf(32));
+        assertEquals(32, LatencyHistogram.bucketOf(33));
+        assertEquals(33, LatencyHistogram.bucketOf(34));
+        assertEquals(33, LatencyHistogram.upperBoundOf(32));
+    }
+
+    @Test
+    public void upperBound_isLastValueOfItsBucket() {
+        for (int b = 0; b < LAST_BUCKET; b++) {
+            long upper = LatencyHistogram.upperBoundOf(b);
+            assertEquals("bucket " + b, b, LatencyHistogram.bucketOf(upper));
+            assertEquals("bucket " + b, b + 1, LatencyHistogram.bucketOf(upper + 1));
+        }
+    }
+
+    @Test
+    public void bucketWidth_staysWithinOneSixteenth() {
+        for (int b = 17; b < LAST_BUCKET; b++) {
+            long lower = LatencyHistogram.upperBoundOf(b - 1) + 1;
+            long upper = LatencyHistogram.upperBoundOf(b);
+            assertTrue("bucket " + b, (upper - lower + 1) * 16 <= lower);
+        }
+    }
+
+    @Test
+    public void hugeAndNegativeValues_areClamped() {
+        assertEquals(LAST_BUCKET, LatencyHistogram.bucketOf(1L << 50));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.percentileMicros(1.0));
+    }
+
+    @Test
+    public void percentiles_areWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.recordNanos(ms * 1_000_000L);
+        }
+
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        assertEquals(100, s.count);
+        assertEquals(50_500, s.meanMicros);
+        assertEquals(50_000, s.p50Micros, 50_000 / 16.0);
+        assertEquals(95_000, s.p95Micros, 95_000 / 16.0);
+        assertEquals(100_000, s.maxMicros);
+        assertTrue(s.p99Micros <= s.maxMicros);
+        assertEquals(s.p50Micros, histogram.percentileMicros(0.50));
+    }
+
+    @Test
+    public void drain_resetsForNextInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(1_000);
+        histogram.recordMicros(3_000);
+
+        LatencyHistogram.Snapshot first = histogram.drain();
+        assertEquals(2, first.count);
+        assertEquals(3_000, first.maxMicros);
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getSumMicros());
+        assertEquals(0, histogram.drain().count);
+    }
+}
@@ -0,0 +1,66 @@
+package com.agrovision.kiosk.analytics.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Windowing of RateMeter with explicit seconds (no wall clock).
+ */
+public class RateMeterTest {
+
+    @Test
+    public void currentSecond_isNotCounted() {
+        RateMeter meter = new RateMeter(5);
+        meter.mark(100);
+        meter.mark(100);
+
+        assertEquals(0, meter.count(5, 100));
+        assertEquals(2, meter.count(5, 101));
+    }
+
+    @Test
+    public void window_coversLastCompleteSeconds() {
+        RateMeter meter = new RateMeter(5);
+        mark(meter, 10, 3);
+        mark(meter, 11, 2);
+        mark(meter, 12, 1);
+
+        assertEquals(1, meter.count(1, 13));
+        assertEquals(3, meter.count(2, 13));
+        assertEquals(6, meter.count(3, 13));
+        assertEquals(3, meter.count(3, 14));
+    }
+
+    @Test
+    public void expiredSeconds_dropOutOfWindow() {
+        RateMeter meter = new RateMeter(2);
+        mark(meter, 10, 4);
+
+        assertEquals(4, meter.count(2, 12));
+        assertEquals(0, meter.count(2, 13));
+    }
+
+    @Test
+    public void reusedSlot_startsFromZero() {
+        RateMeter meter = new RateMeter(2);   // 3 slots: 10 and 13 share one
+        mark(meter, 10, 4);
+        mark(meter, 13, 1);
+
+        assertEquals(1, meter.count(2, 14));
+    }
+
+    @Test
+    public void window_isCappedAtConstructorSize() {
+        RateMeter meter = new RateMeter(2);
+        mark(meter, 10, 1);
+        mark(meter, 11, 1);
+
+        assertEquals(2, meter.count(60, 12));
+        assertEquals(meter.count(2, 12), meter.count(60, 12));
+    }
+
+    private static void mark(RateMeter meter, long second, int times) {
+        for (int i = 0; i < times; i++) meter.mark(second);
+    }
+}
@@ -0,0 +1,94 @@
+package com.agrovision.kiosk.data.repository;
+
+import com.agrovision.kiosk.data.model.Medicine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Longest-prefix lookup of BarcodePrefixTrie: exact and nested prefixes,
+ * prefixes shared by several medicines and codes shorter than a prefix.
+ */
+public class BarcodePrefixTrieTest {
+
+    private static Medicine medicine(String id, String... prefixes) {
+        return new Medicine(id, id, "FMC", null, null, null, null,
+                null, Arrays.asList(prefixes), null, null, 1L);
+    }
+
+    @Test
+    public void codeStartingWithPrefix_matchesIt() {
+        Medicine coragen = medicine("coragen", "890123");
+        BarcodePrefixTrie trie = BarcodePrefixTrie.build(Collections.singletonList(coragen));
+
+        BarcodeMatch match = trie.find("8901234567890");
+
+        assertSame(coragen, match.getMedicine());
+        assertEquals("890123", match.getMatchedPrefix());
+        assertFalse(match.isCompletion());
+    }
+
+    @Test
+    public void nestedPrefixes_longestWins() {
+        Medicine company = medicine("company", "8901");
+        Medicine product = medicine("product", "890123");
+        BarcodePrefixTrie trie = BarcodePrefixTrie.build(Arrays.asList(company, product));
+
+        assertSame(product, trie.find("8901234567890").getMedicine());
+        assertSame(company, trie.find("8901999999999").getMedicine());
+        assertEquals("8901", trie.find("8901999999999").getMatchedPrefix());
+    }
+
+    @Test
+    public void samePrefixForTwoMedicines_isAmbiguous() {
+        Medicine a = medicine("a", "890555");
+        Medicine b = medicine("b", "890555");
+        BarcodePrefixTrie trie = BarcodePrefixTrie.build(Arrays.asList(a, b));
+
+        BarcodeMatch match = trie.find("8905551234567");
+
+        assertTrue(match.isAmbiguous());
+        assertEquals(Arrays.asList(a, b), match.getCandidates());
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    public void codeShorterThanPrefixes_returnsCompletions() {
+        Medicine a = medicine("a", "890111");
+        Medicine b = medicine("b", "890222");
+        BarcodePrefixTrie trie = BarcodePrefixTrie.build(Arrays.asList(a, b));
+
+        BarcodeMatch match = trie.find("890");
+
+        assertTrue(match.isCompletion());
+        assertEquals(Arrays.asList(a, b), match.getCandidates());
+    }
+
+    @Test
+    public void unknownCode_matchesNothing() {
+        BarcodePrefixTrie trie = BarcodePrefixTrie.build(
+                Collections.singletonList(medicine("a", "890111")));
+
+        assertSame(BarcodeMatch.NONE, trie.find("7501234567890"));
+        assertSame(BarcodeMatch.NONE, trie.find("8902"));
+        assertSame(BarcodeMatch.NONE, trie.find(""));
+    }
+
+    @Test
+    public void blankPrefixes_areIgnored() {
+        BarcodePrefixTrie trie = BarcodePrefixTrie.build(
+                Collections.singletonList(medicine("a", " ", "", " 890111 ")));
+
+        assertEquals(1, trie.size());
+        assertTrue(trie.find("890111000").isFound());
+        assertSame(BarcodePrefixTrie.EMPTY,
+                BarcodePrefixTrie.build(Collections.singletonList(medicine("b", " "))));
+    }
+}
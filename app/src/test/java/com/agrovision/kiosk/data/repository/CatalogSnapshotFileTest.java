@@ -0,0 +1,186 @@
+package com.agrovision.kiosk.data.repository;
+
+import com.agrovision.kiosk.data.model.Medicine;
+import com.agrovision.kiosk.vision.mapping.MatcherIndex;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * write() → read() round-trip of the binary catalog, and rejection
+ * (null, never a half-decoded snapshot) of damaged files.
+ */
+public class CatalogSnapshotFileTest {
+
+    // magic, version, length
+    private static final int FINGERPRINT_OFFSET = 12;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("catalog", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private static CatalogSnapshot catalog() {
+        Medicine coragen = new Medicine("m1", "Coragen (Chlorantraniliprole)", "FMC", "CIB-1", "Chlorantraniliprole 18.5% SC",
+                Arrays.asList("Cotton", "Rice"), Collections.singletonList("Borer"),
+                "3 ml / litre", null,
+                Arrays.asList("coragen", "chlorantraniliprole"), Arrays.asList("890123", "890124"),
+                Collections.singletonList("https://example.com/coragen.jpg"), null,
+                1_000L, true);
+        Medicine benevia = new Medicine("m2", "Benevia", "FMC", null, null,
+                Arrays.asList("Cotton", "Chilli"), null,
+                null, "Toxic to bees",
+                Collections.singletonList("benevia"), Collections.singletonList("890555"),
+                null, null,
+                2_000L, false);
+        return CatalogSnapshot.build(3, Arrays.asList(coragen, benevia));
+    }
+
+    @Test
+    public void roundTrip_restoresMedicinesAndMatcherTokens() throws IOException {
+        CatalogSnapshot written = catalog();
+        CatalogSnapshotFile.write(file, written);
+
+        CatalogSnapshot read = CatalogSnapshotFile.read(file, 7);
+
+        assertNotNull(read);
+        assertEquals(7, read.getVersion());
+        assertEquals(2, read.size());
+        assertEquals(written.getFingerprint(), read.getFingerprint());
+
+        Medicine m1 = read.getById("m1");
+        assertNotNull(m1);
+        assertEquals("Coragen (Chlorantraniliprole)", m1.getName());
+        assertEquals("CIB-1", m1.getCibNo());
+        assertEquals(Arrays.asList("Cotton", "Rice"), m1.getSupportedCrops());
+        assertEquals(Arrays.asList("coragen", "chlorantraniliprole"), m1.getSearchKeywords());
+        assertNull(m1.getWarnings());
+        assertTrue(m1.getAudioUrls().isEmpty());
+        assertEquals(1_000L, m1.getUpdatedAt());
+        assertTrue(m1.isRemote());
+
+        Medicine m2 = read.getById("m2");
+        assertNotNull(m2);
+        assertEquals("Toxic to bees", m2.getWarnings());
+        assertFalse(m2.isRemote());
+
+        // Pooled: the shared company string is decoded once
+        assertSame(m1.getCompany(), m2.getCompany());
+
+        MatcherIndex before = written.getMatcherIndex();
+        MatcherIndex after = read.getMatcherIndex();
+        for (int i = 0; i < before.size(); i++) {
+            MatcherIndex.Tokens expected = before.tokensAt(i);
+            MatcherIndex.Tokens actual = after.tokensAt(i);
+            assertEquals(expected.name, actual.name);
+            assertEquals(expected.company, actual.company);
+            assertEquals(expected.cleanName, actual.cleanName);
+            assertEquals(expected.keywordRaw, actual.keywordRaw);
+            assertEquals(expected.keywordTokens, actual.keywordTokens);
+        }
+
+        assertEquals("m2", read.findByBarcode("8905551234567").getMedicine().getId());
+    }
+
+    @Test
+    public void emptyCatalog_roundTrips() throws IOException {
+        CatalogSnapshotFile.write(file, CatalogSnapshot.build(1, Collections.emptyList()));
+
+        CatalogSnapshot read = CatalogSnapshotFile.read(file, 1);
+
+        assertNotNull(read);
+        assertTrue(read.isEmpty());
+    }
+
+    @Test
+    public void missingFile_isNull() throws IOException {
+        assertTrue(file.delete());
+        assertNull(CatalogSnapshotFile.read(file, 1));
+    }
+
+    @Test
+    public void truncatedFile_isRejected() throws IOException {
+        CatalogSnapshotFile.write(file, catalog());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+        assertNull(CatalogSnapshotFile.read(file, 1));
+
+        // Shorter than the header
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(10);
+        }
+        assertNull(CatalogSnapshotFile.read(file, 1));
+    }
+
+    @Test
+    public void badMagic_isRejected() throws IOException {
+        CatalogSnapshotFile.write(file, catalog());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(0);
+            raf.writeInt(0xCAFEBABE);
+        }
+        assertNull(CatalogSnapshotFile.read(file, 1));
+    }
+
+    @Test
+    public void fingerprintMismatch_isRejected() throws IOException {
+        CatalogSnapshotFile.write(file, catalog());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(FINGERPRINT_OFFSET);
+            long fingerprint = raf.readLong();
+            raf.seek(FINGERPRINT_OFFSET);
+            raf.writeLong(fingerprint + 1);
+        }
+        assertNull(CatalogSnapshotFile.read(file, 1));
+    }
+
+    @Test
+    public void corruptedString_failsFingerprint() throws IOException {
+        CatalogSnapshotFile.write(file, catalog());
+
+        // Same length, different content: only the fingerprint can notice
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int at = indexOf(bytes, "Benevia".getBytes(StandardCharsets.UTF_8));
+        assertTrue(at > 0);
+        bytes[at] = 'X';
+        Files.write(file.toPath(), bytes);
+
+        assertNull(CatalogSnapshotFile.read(file, 1));
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
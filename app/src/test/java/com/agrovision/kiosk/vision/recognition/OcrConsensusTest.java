@@ -0,0 +1,105 @@
+package com.agrovision.kiosk.vision.recognition;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Voting rules of OcrConsensus: majority of passes, one-edit fuzzy
+ * slots, longer-spelling tie-break and the per-track lifecycle.
+ */
+public class OcrConsensusTest {
+
+    private static final OcrConsensus.ConfidenceCheck NEVER = text -> false;
+
+    @Test
+    public void majorityVote_keepsTokensSeenInMostPasses() {
+        OcrConsensus consensus = new OcrConsensus(NEVER, 3);
+
+        assertNull(consensus.add(1, "CORAGEN FMC 200"));
+        assertNull(consensus.add(1, "CORAGEN FMC"));
+        assertEquals("CORAGEN FMC 200", consensus.add(1, "CORAGEN FMC 200"));
+    }
+
+    @Test
+    public void tokenInOnePassOfThree_isDropped() {
+        OcrConsensus consensus = new OcrConsensus(NEVER, 3);
+
+        consensus.add(1, "CORAGEN FMC");
+        consensus.add(1, "CORAGEN FMC XYZQ");
+        assertEquals("CORAGEN FMC", consensus.add(1, "CORAGEN FMC"));
+    }
+
+    @Test
+    public void twoPasses_needOnlyOneVote() {
+        OcrConsensus consensus = new OcrConsensus(NEVER, 2);
+
+        consensus.add(1, "CORAGEN");
+        assertEquals("CORAGEN FMC", consensus.add(1, "CORAGEN FMC"));
+    }
+
+    @Test
+    public void oneEditMisread_votesInSameSlot() {
+        OcrConsensus consensus = new OcrConsensus(NEVER, 3);
+
+        consensus.add(1, "CORAGEN");
+        consensus.add(1, "CORAGFN");
+        assertEquals("CORAGEN", consensus.add(1, "CORAGEN"));
+    }
+
+    @Test
+    public void shortTokens_mustMatchExactly() {
+        OcrConsensus consensus = new OcrConsensus(NEVER, 2);
+
+        consensus.add(1, "FMC");
+        assertEquals("FMC FMG", consensus.add(1, "FMG"));
+    }
+
+    @Test
+    public void tie_prefersLongerSpelling() {
+        OcrConsensus first = new OcrConsensus(NEVER, 2);
+        first.add(1, "CORAGEN");
+        assertEquals("CORAGEN", first.add(1, "CORAGN"));
+
+        OcrConsensus second = new OcrConsensus(NEVER, 2);
+        second.add(1, "CORAGN");
+        assertEquals("CORAGEN", second.add(1, "CORAGEN"));
+    }
+
+    @Test
+    public void confidentText_settlesAfterOnePass() {
+        OcrConsensus consensus = new OcrConsensus(text -> text.contains("CORAGEN"), 3);
+
+        assertEquals("CORAGEN 200", consensus.add(7, "CORAGEN 200"));
+        assertTrue(consensus.isSettled(7));
+        assertNull(consensus.add(7, "CORAGEN 200"));
+    }
+
+    @Test
+    public void newTrack_discardsPreviousPasses() {
+        OcrConsensus consensus = new OcrConsensus(NEVER, 2);
+
+        consensus.add(1, "AAAA");
+        assertNull(consensus.add(2, "BBBB"));
+        assertEquals("BBBB", consensus.add(2, "BBBB"));
+    }
+
+    @Test
+    public void flushUnless_returnsUnsettledConsensusOfOtherTrack() {
+        OcrConsensus consensus = new OcrConsensus(NEVER, 3);
+        consensus.add(1, "CORAGEN");
+
+        assertNull(consensus.flushUnless(1));
+        assertEquals("CORAGEN", consensus.flushUnless(2));
+        assertFalse(consensus.isSettled(1));
+        assertNull(consensus.flushUnless(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroPasses_isRejected() {
+        new OcrConsensus(NEVER, 0);
+    }
+}
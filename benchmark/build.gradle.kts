@@ -0,0 +1,38 @@
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.agrovision.kiosk.benchmark"
+    compileSdk = 36
+
+    defaultConfig {
+        // Macrobenchmark needs API 23+, Baseline Profile generation 28+ (rooted) or 33+
+        minSdk = 28
+        targetSdk = 36
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+
+    targetProjectPath = ":app"
+
+    // Macrobenchmark drives the app from its own process
+    experimentalProperties["android.experimental.self-instrumenting"] = true
+}
+
+// Kiosk hardware (camera, registered shop) → connected devices only
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
@@ -0,0 +1,60 @@
+package com.agrovision.kiosk.benchmark;
+
+import android.os.SystemClock;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * BaselineProfileGenerator
+ *
+ * Records the classes / methods the kiosk runs on its hot paths so they
+ * ship AOT-compiled instead of interpreted until JIT catches up:
+ *
+ * - Startup: orchestrator, Room open, catalog load (snapshot / Room / assets)
+ * - Boot warm-up: YOLO and ML Kit OCR on the synthetic image
+ * - Live camera frames: conversion → YOLO → overlay
+ * - Scan resolution → result screen → browsing
+ *
+ * Run: ./gradlew :app:generateBaselineProfile
+ * (writes app/src/release/generated/baselineProfiles; commit the result)
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    // Camera analysis running on real frames (10 fps when cool)
+    private static final long CAMERA_FRAMES_MS = 5_000;
+
+    @Rule
+    public BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(
+                KioskJourneys.PACKAGE,
+                15,             // maxIterations
+                3,              // stableIterations
+                null,           // outputFilePrefix
+                true,           // includeInStartupProfile (dex layout)
+                false,          // strictStability
+                name -> true,   // keep library rules (CameraX, TFLite, ML Kit)
+                scope -> {
+                    KioskJourneys.grantCamera(scope);
+                    scope.pressHome();
+                    KioskJourneys.startHome(scope);
+
+                    SystemClock.sleep(CAMERA_FRAMES_MS);
+
+                    KioskJourneys.waitForScanDebounce();
+                    KioskJourneys.scanToResult(scope);
+                    KioskJourneys.browseResult(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
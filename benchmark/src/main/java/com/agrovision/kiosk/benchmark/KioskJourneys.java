@@ -0,0 +1,129 @@
+package com.agrovision.kiosk.benchmark;
+
+import android.content.Intent;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.io.IOException;
+
+/**
+ * KioskJourneys
+ *
+ * User journeys shared by the benchmarks and the Baseline Profile generator.
+ *
+ * DEVICE REQUIREMENTS:
+ * - A kiosk (or a tablet with a camera) on which the app was registered
+ *   once: SplashActivity routes unregistered installs to RegisterActivity,
+ *   and benchmarks never create a shop in Firestore
+ * - Camera permission is granted here through the shell
+ *
+ * RULES:
+ * - Only resource ids / extras that exist in :app (no compile dependency)
+ * - Every wait has a timeout and fails with a readable message
+ */
+final class KioskJourneys {
+
+    static final String PACKAGE = "com.agrovision.kiosk";
+
+    private static final String SPLASH_ACTIVITY = PACKAGE + ".ui.splash.SplashActivity";
+
+    // HomeActivity.EXTRA_BENCHMARK_SCAN_TEXT
+    private static final String EXTRA_SCAN_TEXT = "benchmark_scan_text";
+
+    // Catalog entry shipped in assets/data/medicines.json
+    private static final String SCAN_TEXT = "targa super";
+
+    // HomeActivity ignores scans closer than 2.5 s to the previous one
+    private static final long SCAN_DEBOUNCE_MS = 2_600;
+
+    private static final long HOME_TIMEOUT_MS = 10_000;
+    private static final long RESULT_TIMEOUT_MS = 10_000;
+
+    private KioskJourneys() {
+        throw new AssertionError("No instances allowed");
+    }
+
+    static void grantCamera(@NonNull MacrobenchmarkScope scope) {
+        try {
+            scope.getDevice().executeShellCommand("pm grant " + PACKAGE + " android.permission.CAMERA");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grant camera permission", e);
+        }
+    }
+
+    /**
+     * Launcher start (Splash → Home) until the camera preview is on screen.
+     */
+    static void startHome(@NonNull MacrobenchmarkScope scope) {
+        scope.startActivityAndWait(launchIntent(null));
+        await(scope.getDevice(), "cameraPreview", HOME_TIMEOUT_MS,
+                "HomeActivity not reached (is this kiosk registered?)");
+    }
+
+    /**
+     * Lets the previous scan's debounce expire (setup only, never measured).
+     */
+    static void waitForScanDebounce() {
+        SystemClock.sleep(SCAN_DEBOUNCE_MS);
+    }
+
+    /**
+     * Resolves SCAN_TEXT exactly like an OCR result and waits for the result screen.
+     */
+    static void scanToResult(@NonNull MacrobenchmarkScope scope) {
+        scope.startActivityAndWait(launchIntent(SCAN_TEXT));
+        await(scope.getDevice(), "infoList", RESULT_TIMEOUT_MS,
+                "Result screen not shown for '" + SCAN_TEXT + "'");
+    }
+
+    /**
+     * Scrolls the info list and swipes the image pager (frame timing).
+     */
+    static void browseResult(@NonNull MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+
+        UiObject2 list = device.findObject(By.res(PACKAGE, "infoList"));
+        list.setGestureMargin(device.getDisplayWidth() / 10);
+        list.fling(Direction.DOWN);
+        device.waitForIdle();
+        list.fling(Direction.UP);
+        device.waitForIdle();
+
+        UiObject2 pager = device.findObject(By.res(PACKAGE, "imagePager"));
+        if (pager != null) {
+            pager.swipe(Direction.LEFT, 0.8f);
+            device.waitForIdle();
+            pager.swipe(Direction.RIGHT, 0.8f);
+            device.waitForIdle();
+        }
+    }
+
+    /* =========================================================
+       INTERNAL HELPERS
+       ========================================================= */
+
+    private static Intent launchIntent(@Nullable String scanText) {
+        Intent intent = new Intent(Intent.ACTION_MAIN);
+        intent.addCategory(Intent.CATEGORY_LAUNCHER);
+        intent.setClassName(PACKAGE, SPLASH_ACTIVITY);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        if (scanText != null) {
+            intent.putExtra(EXTRA_SCAN_TEXT, scanText);
+        }
+        return intent;
+    }
+
+    private static void await(UiDevice device, String resourceId, long timeoutMs, String failure) {
+        if (!device.wait(Until.hasObject(By.res(PACKAGE, resourceId)), timeoutMs)) {
+            throw new AssertionError(failure);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.agrovision.kiosk.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * ResultScreenBenchmark
+ *
+ * Frame timing of scan → result screen → browsing the result.
+ *
+ * The scan enters through HomeActivity's benchmark hook and follows the
+ * camera path from resolution onwards (match, history, result launch).
+ */
+@RunWith(AndroidJUnit4.class)
+public class ResultScreenBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void resultScreenNoCompilation() {
+        measure(new CompilationMode.None());
+    }
+
+    @Test
+    public void resultScreenBaselineProfile() {
+        measure(new CompilationMode.Partial(BaselineProfileMode.Require, 0));
+    }
+
+    private void measure(CompilationMode compilationMode) {
+        rule.measureRepeated(
+                KioskJourneys.PACKAGE,
+                Collections.<Metric>singletonList(new FrameTimingMetric()),
+                compilationMode,
+                null,
+                ITERATIONS,
+                scope -> {
+                    KioskJourneys.grantCamera(scope);
+                    KioskJourneys.startHome(scope);
+                    KioskJourneys.waitForScanDebounce();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    KioskJourneys.scanToResult(scope);
+                    KioskJourneys.browseResult(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
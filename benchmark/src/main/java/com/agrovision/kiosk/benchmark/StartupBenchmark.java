@@ -0,0 +1,75 @@
+package com.agrovision.kiosk.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * StartupBenchmark
+ *
+ * Launcher → HomeActivity with the camera preview on screen.
+ *
+ * - COLD: process killed before each iteration (watchdog restart)
+ * - WARM: process alive, activity recreated
+ * - None vs Baseline Profile: the gain of the shipped profile
+ *
+ * Run: ./gradlew :benchmark:connectedBenchmarkReleaseAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStartupNoCompilation() {
+        measure(StartupMode.COLD, new CompilationMode.None());
+    }
+
+    @Test
+    public void coldStartupBaselineProfile() {
+        measure(StartupMode.COLD, new CompilationMode.Partial(BaselineProfileMode.Require, 0));
+    }
+
+    @Test
+    public void warmStartupNoCompilation() {
+        measure(StartupMode.WARM, new CompilationMode.None());
+    }
+
+    @Test
+    public void warmStartupBaselineProfile() {
+        measure(StartupMode.WARM, new CompilationMode.Partial(BaselineProfileMode.Require, 0));
+    }
+
+    private void measure(StartupMode startupMode, CompilationMode compilationMode) {
+        rule.measureRepeated(
+                KioskJourneys.PACKAGE,
+                Collections.<Metric>singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    KioskJourneys.grantCamera(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    KioskJourneys.startHome(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
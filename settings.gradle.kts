@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "Agrovision"
 include(":app")
+include(":benchmark")